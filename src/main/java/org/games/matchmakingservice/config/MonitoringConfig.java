@@ -1,37 +1,19 @@
 package org.games.matchmakingservice.config;
 
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Counter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Configuration for custom metrics and monitoring.
+ * <p>
+ * The matchmaking timers are tagged per queue and carry percentile histograms, so
+ * {@link org.games.matchmakingservice.service.MatchmakingService} registers them with each queue.
  */
 @Configuration
 public class MonitoringConfig {
 
-    /**
-     * Timer for measuring matchmaking processing time.
-     */
-    @Bean
-    public Timer matchmakingProcessingTimer(MeterRegistry meterRegistry) {
-        return Timer.builder("matchmaking.processing.time")
-                .description("Time taken to process matchmaking queue")
-                .register(meterRegistry);
-    }
-
-    /**
-     * Timer for measuring match creation time.
-     */
-    @Bean
-    public Timer matchCreationTimer(MeterRegistry meterRegistry) {
-        return Timer.builder("matchmaking.match.creation.time")
-                .description("Time taken to create a match")
-                .register(meterRegistry);
-    }
-
     /**
      * Counter for successful enqueues.
      */
@@ -92,16 +74,6 @@ public class MonitoringConfig {
                 .register(meterRegistry);
     }
 
-    /**
-     * Timer for measuring player wait time in queue.
-     */
-    @Bean
-    public Timer playerWaitTimeTimer(MeterRegistry meterRegistry) {
-        return Timer.builder("matchmaking.player.wait.time")
-                .description("Time players spend waiting in queue before being matched")
-                .register(meterRegistry);
-    }
-
     /**
      * Counter for matches by outcome.
      */
@@ -0,0 +1,221 @@
+package org.games.matchmakingservice.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Payload format per STOMP session: JSON unless the client asks for CBOR at CONNECT with an
+ * {@value #ACCEPT_HEADER} header, e.g. {@code application/cbor, application/json}; the first
+ * supported type listed wins.
+ * <p>
+ * Messages are still converted to JSON once, wherever they are sent from. On the way out, MESSAGE
+ * frames to CBOR sessions are re-encoded from those JSON bytes. The broker hands every subscriber
+ * of a broadcast the same payload array, and recent transcodes are cached by that array's
+ * identity, so a broadcast is usually transcoded once however many CBOR sessions receive it;
+ * outbound threads that reach a new payload at the same moment may each transcode it. The document
+ * keeps its JSON shape (same field names and values), so a client decodes both formats into the
+ * same objects.
+ * <p>
+ * Spring sends a STOMP body as a binary WebSocket frame only if its content type is
+ * {@code application/octet-stream}, so CBOR frames carry {@code application/octet-stream;format=cbor}.
+ * SockJS carries text only: CBOR is granted on plain WebSocket sessions (the endpoint's
+ * {@code /websocket} path), and SockJS clients that ask for it keep getting JSON. Clients tell the
+ * formats apart by each frame's content type.
+ */
+@Component
+public class StompContentNegotiator implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(StompContentNegotiator.class);
+
+    static final String ACCEPT_HEADER = "accept-content-type";
+    static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+    static final MimeType CBOR_FRAME_TYPE = new MimeType("application", "octet-stream", Map.of("format", "cbor"));
+    private static final int TRANSCODE_SLOTS = 16;
+
+    // A JSON payload and its CBOR form
+    private record Transcoded(byte[] json, byte[] cbor) {
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    // Plain WebSocket sessions, which can carry binary frames
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    // Recent transcodes by payload identity; several slots, so broadcasts that interleave on the
+    // outbound threads do not keep evicting each other
+    private final AtomicReferenceArray<Transcoded> recentTranscodes = new AtomicReferenceArray<>(TRANSCODE_SLOTS);
+
+    private final Counter cborFrameCounter;
+    private final Counter transcodedCounter;
+
+    public StompContentNegotiator(MeterRegistry meterRegistry) {
+        this.cborFrameCounter = Counter.builder("websocket.frames.cbor")
+                .description("MESSAGE frames sent to sessions as CBOR")
+                .register(meterRegistry);
+        this.transcodedCounter = Counter.builder("websocket.payload.transcoded")
+                .description("JSON payloads transcoded to CBOR; usually one per broadcast, however many sessions receive it")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.cbor", cborSessions, Set::size)
+                .description("Open STOMP sessions receiving CBOR")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                if (!(session instanceof SockJsSession)) {
+                    binarySessions.add(session.getId());
+                }
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus) throws Exception {
+                binarySessions.remove(session.getId());
+                cborSessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        MessageHeaders headers = event.getMessage().getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        // The CONNECTED message carries the client's CONNECT frame and its native headers
+        Object connect = headers.get(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        if (sessionId == null || !(connect instanceof Message<?> connectMessage)) {
+            return;
+        }
+        String accept = StompHeaderAccessor.wrap(connectMessage).getFirstNativeHeader(ACCEPT_HEADER);
+        if (accept == null || !prefersCbor(accept)) {
+            return;
+        }
+        if (binarySessions.contains(sessionId)) {
+            cborSessions.add(sessionId);
+            log.debug("Session {} receives CBOR", sessionId);
+        } else {
+            log.debug("Session {} asked for CBOR over SockJS; staying on JSON", sessionId);
+        }
+    }
+
+    /**
+     * Whether CBOR comes before JSON in a CONNECT's accepted types.
+     */
+    static boolean prefersCbor(String accept) {
+        try {
+            for (MimeType type : MimeTypeUtils.parseMimeTypes(accept)) {
+                if (type.equalsTypeAndSubtype(APPLICATION_CBOR)) {
+                    return true;
+                }
+                if (type.isCompatibleWith(MimeTypeUtils.APPLICATION_JSON)) {
+                    return false;
+                }
+            }
+        } catch (InvalidMimeTypeException e) {
+            log.debug("Ignoring {} header '{}': {}", ACCEPT_HEADER, accept, e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (cborSessions.isEmpty()) {
+            return message;
+        }
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || !cborSessions.contains(SimpMessageHeaderAccessor.getSessionId(headers))
+                || !(message.getPayload() instanceof byte[] json)
+                || !isJson(headers.get(MessageHeaders.CONTENT_TYPE))) {
+            return message;
+        }
+        byte[] cbor;
+        try {
+            cbor = transcode(json);
+        } catch (IOException e) {
+            // The client still understands JSON
+            log.warn("Could not transcode a {}-byte payload to CBOR: {}", json.length, e.toString());
+            return message;
+        }
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setContentType(CBOR_FRAME_TYPE);
+        cborFrameCounter.increment();
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    private static boolean isJson(Object contentType) {
+        if (contentType instanceof MimeType type) {
+            return type.isCompatibleWith(MimeTypeUtils.APPLICATION_JSON);
+        }
+        return contentType instanceof String type && MimeTypeUtils.parseMimeType(type).isCompatibleWith(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    // Distinct payloads can share a slot; the later one evicts the earlier
+    static int transcodeSlot(byte[] json) {
+        return System.identityHashCode(json) & (TRANSCODE_SLOTS - 1);
+    }
+
+    /**
+     * The CBOR form of a JSON document, streamed token by token without building a tree.
+     */
+    byte[] transcode(byte[] json) throws IOException {
+        int slot = transcodeSlot(json);
+        Transcoded recent = recentTranscodes.get(slot);
+        if (recent != null && recent.json() == json) {
+            return recent.cbor();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = cborFactory.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        byte[] cbor = out.toByteArray();
+        recentTranscodes.set(slot, new Transcoded(json, cbor));
+        transcodedCounter.increment();
+        return cbor;
+    }
+}
@@ -4,16 +4,33 @@ import org.games.matchmakingservice.service.WebSocketConnectionTracker;
 import org.springframework.http.HttpHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Authenticates STOMP sessions once, at CONNECT, from the frame's Bearer token.
+ * <p>
+ * The user is bound to the session, which makes the protocol handler stamp it on every later
+ * frame, and is also kept in the session attributes under {@link #USER_ATTRIBUTE}. Every other
+ * frame is only marked as activity on its session (see {@link WebSocketConnectionTracker}) and
+ * passed through as is: no header accessor, no copied message.
+ */
 @Component
 public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
 
+    // Session attribute holding the Principal authenticated at CONNECT
+    public static final String USER_ATTRIBUTE = "matchmaking.user";
+
     private final JwtService jwtService;
     private final WebSocketConnectionTracker connectionTracker;
 
@@ -24,34 +41,42 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-        
-        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-            String authHeader = accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION);
-            if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                try {
-                    String subject = jwtService.getSubject(token);
-                    accessor.setUser(() -> subject);
-                    
-                    // Track the connection
-                    String sessionId = accessor.getSessionId();
-                    if (sessionId != null) {
-                        connectionTracker.addConnection(sessionId, subject);
-                    }
-                } catch (Exception ignored) {
+        // Plain header reads: nothing is allocated for SEND, SUBSCRIBE or heartbeat frames
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId != null) {
+            connectionTracker.touch(sessionId);
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.CONNECT) {
+            return message;
+        }
+        return authenticate(message);
+    }
+
+    private Message<?> authenticate(Message<?> message) {
+        // The protocol handler leaves the CONNECT accessor mutable; setting the user on it
+        // (rather than on a copy) binds the user to the session and the user registry
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        boolean copied = accessor == null || !accessor.isMutable();
+        if (copied) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
+
+        String authHeader = accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                String subject = jwtService.getSubject(token);
+                Principal user = () -> subject;
+                accessor.setUser(user);
+                Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+                if (sessionAttributes != null) {
+                    sessionAttributes.put(USER_ATTRIBUTE, user);
                 }
-            }
-        } else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
-            // Track disconnection
-            String sessionId = accessor.getSessionId();
-            if (sessionId != null) {
-                connectionTracker.removeConnection(sessionId);
+            } catch (Exception ignored) {
             }
         }
-        
-        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+
+        return copied ? MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders()) : message;
     }
 }
-
-
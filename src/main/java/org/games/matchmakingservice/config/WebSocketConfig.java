@@ -1,13 +1,23 @@
 package org.games.matchmakingservice.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -16,10 +26,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.ws.endpoint}")
     private String wsEndpoint;
 
+    @Value("${app.ws.heartbeat-ms:10000}")
+    private long heartbeatMs; // Broker heartbeat interval in both directions; 0 disables heartbeats
+
     private final WebSocketAuthChannelInterceptor authChannelInterceptor;
+    private final WebSocketSessionReaper sessionReaper;
+    private final StompContentNegotiator contentNegotiator;
 
-    public WebSocketConfig(WebSocketAuthChannelInterceptor authChannelInterceptor) {
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(WebSocketAuthChannelInterceptor authChannelInterceptor,
+                           WebSocketSessionReaper sessionReaper,
+                           StompContentNegotiator contentNegotiator) {
         this.authChannelInterceptor = authChannelInterceptor;
+        this.sessionReaper = sessionReaper;
+        this.contentNegotiator = contentNegotiator;
+    }
+
+    // Lazy: the broker's scheduler is defined by the configuration this class configures
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
     }
 
     @Override
@@ -31,7 +58,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic", "/queue");
+        // Heartbeats let the broker close sessions whose client vanished without a DISCONNECT
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         registry.setApplicationDestinationPrefixes("/app");
         registry.setUserDestinationPrefix("/user");
     }
@@ -40,4 +70,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
         registration.interceptors(authChannelInterceptor);
     }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(contentNegotiator);
+    }
+
+    @Override
+    public boolean configureMessageConverters(@NonNull List<MessageConverter> messageConverters) {
+        messageConverters.add(cborMessageConverter());
+        return true; // Keep the default JSON, string and byte array converters
+    }
+
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionReaper);
+        registration.addDecoratorFactory(contentNegotiator);
+    }
+
+    /**
+     * Reads SEND frames with content type {@code application/cbor}, e.g. {@code /app/match.join}
+     * from a CBOR client. Strict, so frames without a content type still go to the JSON converter.
+     */
+    static MappingJackson2MessageConverter cborMessageConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(StompContentNegotiator.APPLICATION_CBOR);
+        converter.setObjectMapper(Jackson2ObjectMapperBuilder.cbor().build());
+        converter.setStrictContentTypeMatch(true);
+        return converter;
+    }
 }
\ No newline at end of file
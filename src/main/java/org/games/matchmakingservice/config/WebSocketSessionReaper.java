@@ -0,0 +1,154 @@
+package org.games.matchmakingservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.games.matchmakingservice.service.WebSocketConnectionTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closes idle WebSocket sessions and keeps {@link WebSocketConnectionTracker} in line with the
+ * broker's user registry.
+ * <p>
+ * Broker heartbeats already close sessions whose client went quiet; this is the backstop for
+ * clients that negotiated no heartbeats and for a tracker that drifted, e.g. a session whose close
+ * event was lost. Closing a session goes through the normal disconnect path, so the tracker and
+ * the user registry both drop it.
+ */
+@Component
+public class WebSocketSessionReaper implements WebSocketHandlerDecoratorFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketSessionReaper.class);
+
+    private final WebSocketConnectionTracker connectionTracker;
+    private final SimpUserRegistry userRegistry;
+    private final Counter idleReapedCounter;
+    private final Counter unregisteredReapedCounter;
+
+    // Open transport sessions by ID; the STOMP session ID is the transport session ID
+    private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${app.ws.idle-timeout-ms:60000}")
+    private long idleTimeoutMs; // Sessions silent this long, heartbeats included, are closed
+
+    @Value("${app.ws.reap-interval-ms:30000}")
+    private long reapIntervalMs; // Also the grace before a tracked session missing from the user registry is dropped
+
+    public WebSocketSessionReaper(WebSocketConnectionTracker connectionTracker,
+                                  @Lazy SimpUserRegistry userRegistry,
+                                  MeterRegistry meterRegistry) {
+        this.connectionTracker = connectionTracker;
+        this.userRegistry = userRegistry;
+        this.idleReapedCounter = Counter.builder("websocket.sessions.reaped")
+                .description("WebSocket sessions dropped by the session reaper")
+                .tag("reason", "idle")
+                .register(meterRegistry);
+        this.unregisteredReapedCounter = Counter.builder("websocket.sessions.reaped")
+                .description("WebSocket sessions dropped by the session reaper")
+                .tag("reason", "unregistered")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Close idle sessions, then reconcile the tracker with the user registry.
+     */
+    @Scheduled(fixedDelayString = "${app.ws.reap-interval-ms:30000}")
+    public void reap() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> idle = connectionTracker.getIdleSessions(now - idleTimeoutMs);
+            for (String sessionId : idle) {
+                close(sessionId);
+                connectionTracker.removeConnection(sessionId);
+                idleReapedCounter.increment();
+            }
+            reconcile(now, new HashSet<>(idle));
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic reap
+            log.error("WebSocket session reap failed", e);
+        }
+    }
+
+    /**
+     * Drop tracked sessions the registry does not know and track registered sessions the
+     * tracker missed.
+     *
+     * @param closing Sessions just closed, which may still be registered until their close completes
+     */
+    private void reconcile(long now, Set<String> closing) {
+        Map<String, String> registered = new HashMap<>();
+        for (SimpUser user : userRegistry.getUsers()) {
+            for (SimpSession session : user.getSessions()) {
+                registered.put(session.getId(), user.getName());
+            }
+        }
+
+        Map<String, String> tracked = connectionTracker.getActiveConnections();
+        // A session active within the grace may have connected after the registry was read
+        for (String sessionId : connectionTracker.getIdleSessions(now - reapIntervalMs)) {
+            if (tracked.containsKey(sessionId) && !registered.containsKey(sessionId)) {
+                log.info("Dropping WebSocket session {} unknown to the user registry", sessionId);
+                connectionTracker.removeConnection(sessionId);
+                unregisteredReapedCounter.increment();
+            }
+        }
+        registered.forEach((sessionId, username) -> {
+            if (!tracked.containsKey(sessionId) && !closing.contains(sessionId)) {
+                log.info("Tracking WebSocket session {} of {} found in the user registry", sessionId, username);
+                connectionTracker.addConnection(sessionId, username);
+            }
+        });
+    }
+
+    private void close(String sessionId) {
+        WebSocketSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            log.info("Closed idle WebSocket session {}", sessionId);
+        } catch (IOException e) {
+            log.warn("Could not close idle WebSocket session {}: {}", sessionId, e.toString());
+        }
+    }
+}
@@ -11,17 +11,29 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.games.matchmakingservice.domain.Player;
+import org.games.matchmakingservice.dto.BatchJoinRequestDto;
+import org.games.matchmakingservice.dto.BatchLeaveRequestDto;
 import org.games.matchmakingservice.dto.MatchRequestDto;
 import org.games.matchmakingservice.dto.MatchResultDto;
+import org.games.matchmakingservice.service.BatchResult;
+import org.games.matchmakingservice.service.MatchTicketService;
 import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.PresenceRegistry;
+import org.games.matchmakingservice.service.QueueKey;
+import org.games.matchmakingservice.service.QueueStatus;
 import org.games.matchmakingservice.service.WebSocketConnectionTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import jakarta.validation.Valid;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,12 +50,20 @@ public class MatchmakingController {
 
     private final MatchmakingService matchmakingService;
     private final WebSocketConnectionTracker connectionTracker;
+    private final MatchTicketService ticketService;
+    private final PresenceRegistry presenceRegistry;
+
+    // Largest page of queued players returned by /status
+    static final int MAX_STATUS_PAGE_SIZE = 200;
+
+    // Longest a ticket request may be held open
+    static final Duration MAX_TICKET_WAIT = Duration.ofSeconds(60);
 
 
     private static final Logger log = LoggerFactory.getLogger(MatchmakingController.class);
     @Operation(
         summary = "Join matchmaking queue",
-        description = "Add a player to the matchmaking queue with their current Elo rating. The system will automatically find suitable opponents based on Elo proximity."
+        description = "Add a player to the matchmaking queue with their current Elo rating. The system will automatically find suitable opponents based on Elo proximity. Optional mode and region select a queue; players are only matched within the same queue."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -58,7 +78,9 @@ public class MatchmakingController {
                         "success": true,
                         "message": "Successfully joined matchmaking queue",
                         "playerId": "player1",
-                        "elo": 1200
+                        "elo": 1200,
+                        "mode": "ranked",
+                        "region": "eu"
                     }
                     """
                 )
@@ -66,7 +88,7 @@ public class MatchmakingController {
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "Invalid request or player already in queue",
+            description = "Invalid request, unknown queue or player already in queue",
             content = @Content(
                 mediaType = "application/json",
                 examples = @ExampleObject(
@@ -87,17 +109,35 @@ public class MatchmakingController {
     @PostMapping("/join")
     public ResponseEntity<Map<String, Object>> joinMatchmaking(@Valid @RequestBody MatchRequestDto request) {
         try {
-            log.info("Player {} joining matchmaking queue with Elo {}", 
-                    request.getPlayerId(), request.getElo());
-            
-            boolean success = matchmakingService.enqueuePlayer(request);
+            QueueKey queue = matchmakingService.resolveQueue(request.getMode(), request.getRegion());
+            if (queue == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(unknownQueue(request.getPlayerId(), request.getMode(), request.getRegion()));
+            }
+
+            log.info("Player {} joining matchmaking queue {} with Elo {}", 
+                    request.getPlayerId(), queue, request.getElo());
+
+            // Issued before the join, so a match made right after it still settles the ticket
+            String ticketId = ticketService.issue(request.getPlayerId(), queue);
+            boolean success = false;
+            try {
+                success = matchmakingService.enqueuePlayer(request);
+            } finally {
+                if (!success) {
+                    ticketService.cancel(ticketId);
+                }
+            }
             
             if (success) {
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Successfully joined matchmaking queue",
                     "playerId", request.getPlayerId(),
-                    "elo", request.getElo()
+                    "elo", request.getElo(),
+                    "mode", queue.mode(),
+                    "region", queue.region(),
+                    "ticketId", ticketId
                 ));
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -118,18 +158,108 @@ public class MatchmakingController {
         }
     }
 
+    /**
+     * Wait for a matchmaking ticket to settle.
+     * <p>
+     * The request is held asynchronously, without a servlet thread, until the ticket is matched,
+     * cancelled or expires, or until {@code wait} elapses; then the ticket is still WAITING and the
+     * client asks again. {@code wait=0} answers at once.
+     *
+     * @param ticketId Ticket returned by {@code /join}
+     * @param wait How long to hold the request, e.g. {@code 30s} or {@code 500ms}; capped at 60s
+     * @return The ticket, with the match once MATCHED
+     */
+    @Operation(
+        summary = "Wait for a match by ticket",
+        description = "Long-poll a ticket returned by /join. Answers as soon as the ticket is MATCHED, CANCELLED or EXPIRED, or with WAITING once the wait elapses."
+    )
+    @GetMapping("/ticket/{ticketId}")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> awaitTicket(@PathVariable String ticketId,
+                                                                        @RequestParam(defaultValue = "30s") String wait) {
+        Duration timeout;
+        try {
+            timeout = DurationStyle.detectAndParse(wait);
+        } catch (IllegalArgumentException e) {
+            return answered(ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Invalid wait " + wait
+            )));
+        }
+        if (timeout.isNegative() || timeout.compareTo(MAX_TICKET_WAIT) > 0) {
+            timeout = timeout.isNegative() ? Duration.ZERO : MAX_TICKET_WAIT;
+        }
+
+        MatchTicketService.TicketView current = ticketService.getTicket(ticketId);
+        if (current == null) {
+            return answered(unknownTicket(ticketId));
+        }
+        if (timeout.isZero() || current.status() != MatchTicketService.Status.WAITING) {
+            return answered(ResponseEntity.ok(ticketBody(current)));
+        }
+
+        DeferredResult<ResponseEntity<Map<String, Object>>> response = new DeferredResult<>(timeout.toMillis());
+        Runnable stopWaiting = ticketService.awaitSettled(ticketId,
+            view -> response.setResult(ResponseEntity.ok(ticketBody(view))));
+        if (stopWaiting == null) {
+            return answered(unknownTicket(ticketId));
+        }
+        response.onTimeout(() -> {
+            MatchTicketService.TicketView view = ticketService.getTicket(ticketId);
+            response.setResult(view != null ? ResponseEntity.ok(ticketBody(view)) : unknownTicket(ticketId));
+        });
+        response.onCompletion(stopWaiting);
+        return response;
+    }
+
+    private static DeferredResult<ResponseEntity<Map<String, Object>>> answered(ResponseEntity<Map<String, Object>> body) {
+        DeferredResult<ResponseEntity<Map<String, Object>>> response = new DeferredResult<>();
+        response.setResult(body);
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> unknownTicket(String ticketId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+            "success", false,
+            "message", "Unknown or expired ticket",
+            "ticketId", ticketId
+        ));
+    }
+
+    private static Map<String, Object> ticketBody(MatchTicketService.TicketView ticket) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("ticketId", ticket.ticketId());
+        body.put("playerId", ticket.playerId());
+        body.put("mode", ticket.queue().mode());
+        body.put("region", ticket.queue().region());
+        body.put("status", ticket.status());
+        if (ticket.match() != null) {
+            body.put("match", ticket.match());
+        }
+        return body;
+    }
+
     /**
      * Leave the matchmaking queue.
      * 
      * @param playerId The player ID to remove from queue
+     * @param mode Game mode of the queue that was joined (default queue if omitted)
+     * @param region Region of the queue that was joined (default queue if omitted)
      * @return Response indicating success or failure
      */
     @DeleteMapping("/leave/{playerId}")
-    public ResponseEntity<Map<String, Object>> leaveMatchmaking(@PathVariable String playerId) {
+    public ResponseEntity<Map<String, Object>> leaveMatchmaking(@PathVariable String playerId,
+                                                                @RequestParam(required = false) String mode,
+                                                                @RequestParam(required = false) String region) {
         try {
-            log.info("Player {} leaving matchmaking queue", playerId);
+            QueueKey queue = matchmakingService.resolveQueue(mode, region);
+            if (queue == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(unknownQueue(playerId, mode, region));
+            }
+
+            log.info("Player {} leaving matchmaking queue {}", playerId, queue);
             
-            boolean success = matchmakingService.dequeuePlayer(playerId);
+            boolean success = matchmakingService.dequeuePlayer(playerId, queue);
             
             if (success) {
                 return ResponseEntity.ok(Map.of(
@@ -157,31 +287,145 @@ public class MatchmakingController {
     }
 
     /**
-     * Get matchmaking status and queue information.
+     * Join a batch of players in one Redis round trip, for lobby and party services that hand
+     * over many players at once. Each player names its own queue.
+     *
+     * @param request The players to enqueue
+     * @return A status per player, in request order
+     */
+    @Operation(
+        summary = "Join matchmaking queue in bulk",
+        description = "Add up to 1000 players in one call. Every player is reported as QUEUED, ALREADY_QUEUED, QUEUED_ELSEWHERE, UNKNOWN_QUEUE or FAILED; one player's outcome never fails the batch."
+    )
+    @PostMapping("/join/batch")
+    public ResponseEntity<Map<String, Object>> joinMatchmakingBatch(@Valid @RequestBody BatchJoinRequestDto request) {
+        try {
+            List<BatchResult> results = matchmakingService.enqueuePlayers(request.getPlayers());
+            return ResponseEntity.ok(batchResponse(results, BatchResult.Status.QUEUED, BatchResult.Status.ALREADY_QUEUED));
+        } catch (Exception e) {
+            log.error("Error joining matchmaking queue for a batch of {} players", request.getPlayers().size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of(
+                    "success", false,
+                    "message", "Internal server error"
+                ));
+        }
+    }
+
+    /**
+     * Remove a batch of players from one queue in one Redis round trip.
+     *
+     * @param request The players to remove and the queue they joined
+     * @return A status per player, in request order
+     */
+    @Operation(
+        summary = "Leave matchmaking queue in bulk",
+        description = "Remove up to 1000 players from one queue in one call. Every player is reported as REMOVED, NOT_QUEUED or FAILED."
+    )
+    @DeleteMapping("/leave/batch")
+    public ResponseEntity<Map<String, Object>> leaveMatchmakingBatch(@Valid @RequestBody BatchLeaveRequestDto request) {
+        try {
+            QueueKey queue = matchmakingService.resolveQueue(request.getMode(), request.getRegion());
+            if (queue == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "success", false,
+                    "message", "Unknown matchmaking queue " + request.getMode() + "/" + request.getRegion()
+                ));
+            }
+
+            List<BatchResult> results = matchmakingService.dequeuePlayers(request.getPlayerIds(), queue);
+            return ResponseEntity.ok(batchResponse(results, BatchResult.Status.REMOVED, BatchResult.Status.NOT_QUEUED));
+        } catch (Exception e) {
+            log.error("Error leaving matchmaking queue for a batch of {} players", request.getPlayerIds().size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of(
+                    "success", false,
+                    "message", "Internal server error"
+                ));
+        }
+    }
+
+    /**
+     * Batch response body; the batch succeeds when every player ended in one of the given states.
+     */
+    private static Map<String, Object> batchResponse(List<BatchResult> results, BatchResult.Status... settled) {
+        List<BatchResult.Status> ok = List.of(settled);
+        long succeeded = results.stream().filter(result -> ok.contains(result.status())).count();
+        return Map.of(
+            "success", succeeded == results.size(),
+            "count", results.size(),
+            "succeeded", succeeded,
+            "results", results
+        );
+    }
+
+    private static Map<String, Object> unknownQueue(String playerId, String mode, String region) {
+        return Map.of(
+            "success", false,
+            "message", "Unknown matchmaking queue " + mode + "/" + region,
+            "playerId", playerId
+        );
+    }
+
+    /**
+     * Get matchmaking status and one page of a queue's players.
+     * <p>
+     * Served from a snapshot shared by all callers and reloaded at most once per
+     * {@code match.status.cache-ms}, so frequent pollers do not each scan the queue.
      * 
+     * @param mode Game mode of the listed queue; the default queue when omitted
+     * @param region Region of the listed queue; the default queue when omitted
+     * @param offset Index of the first player to list
+     * @param limit Players to list, at most {@value #MAX_STATUS_PAGE_SIZE}
      * @return Current queue status and statistics
      */
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> getMatchmakingStatus() {
+    public ResponseEntity<Map<String, Object>> getMatchmakingStatus(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
-            long queueSize = matchmakingService.getQueueSize();
-            List<Player> queuePlayers = matchmakingService.getQueuePlayers();
+            QueueKey queue = matchmakingService.resolveQueue(mode, region);
+            if (queue == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Unknown matchmaking queue " + mode + "/" + region
+                ));
+            }
+            QueueStatus status = matchmakingService.getQueueStatus(queue);
+            int pageOffset = Math.max(0, offset);
+            int pageLimit = Math.max(1, Math.min(limit, MAX_STATUS_PAGE_SIZE));
+            Instant snapshotAt = Instant.ofEpochMilli(status.computedAtMillis());
             
-            Map<String, Object> status = Map.of(
-                "queueSize", queueSize,
-                "queuePlayers", queuePlayers.stream()
+            Map<String, Object> body = Map.of(
+                "queueSize", status.total(),
+                "queues", matchmakingService.getQueueSizes().entrySet().stream()
+                    .map(size -> Map.of(
+                        "mode", size.getKey().mode(),
+                        "region", size.getKey().region(),
+                        "size", size.getValue()
+                    ))
+                    .toList(),
+                "queuePlayers", status.page(pageOffset, pageLimit).stream()
                     .map(player -> Map.of(
-                        "playerId", player.getPlayerId(),
-                        "username", player.getUsername(),
-                        "elo", player.getElo(),
-                        "online", player.getOnline(),
-                        "lastActive", player.getLastActive()
+                        "playerId", player.playerId(),
+                        "username", player.playerId(),
+                        "elo", player.elo(),
+                        "online", true,
+                        "lastActive", snapshotAt,
+                        "enqueuedAt", Instant.ofEpochMilli(player.enqueuedAtMillis())
                     ))
                     .toList(),
+                "mode", queue.mode(),
+                "region", queue.region(),
+                "offset", pageOffset,
+                "limit", pageLimit,
+                "snapshotAt", status.computedAtMillis(),
                 "timestamp", System.currentTimeMillis()
             );
             
-            return ResponseEntity.ok(status);
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             log.error("Error getting matchmaking status", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -356,16 +600,35 @@ public class MatchmakingController {
     }
 
     /**
-     * Get WebSocket connection status.
+     * Get WebSocket connection status: this node's sessions, and connections per node across the
+     * cluster as of the last presence heartbeat.
      */
     @GetMapping("/websocket/status")
     public ResponseEntity<Map<String, Object>> getWebSocketStatus() {
         return ResponseEntity.ok(Map.of(
             "success", true,
+            "node", presenceRegistry.getNodeId(),
             "activeConnections", connectionTracker.getConnectionCount(),
             "hasConnections", connectionTracker.hasActiveConnections(),
             "connections", connectionTracker.getActiveConnections(),
+            "clusterConnections", presenceRegistry.getClusterConnectionCount(),
+            "clusterNodes", presenceRegistry.getClusterNodes(),
             "timestamp", System.currentTimeMillis()
         ));
     }
+
+    /**
+     * Whether a user is connected anywhere in the cluster, and to which node.
+     */
+    @GetMapping("/presence/{userId}")
+    public ResponseEntity<Map<String, Object>> getPresence(@PathVariable String userId) {
+        String node = presenceRegistry.locate(userId);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("userId", userId);
+        body.put("online", node != null);
+        body.put("node", node);
+        body.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(body);
+    }
 } 
\ No newline at end of file
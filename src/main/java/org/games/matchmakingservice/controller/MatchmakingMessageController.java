@@ -0,0 +1,159 @@
+package org.games.matchmakingservice.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.games.matchmakingservice.dto.LeaveRequestDto;
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.games.matchmakingservice.service.MatchTicketService;
+import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.QueueKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Join and leave over an authenticated STOMP session, for clients that are connected anyway.
+ * <p>
+ * Same outcomes as {@code POST /api/match/join} and {@code DELETE /api/match/leave/{playerId}},
+ * without the HTTP round trip. The player is always the session's user; a player ID in the payload
+ * is ignored, and the payload is validated with the same constraints as the HTTP join. Every
+ * command is acknowledged on {@code /user/queue/ack} to the sending session only,
+ * echoing the frame's optional {@value #REQUEST_ID_HEADER} header so clients can correlate.
+ */
+@Controller
+@RequiredArgsConstructor
+public class MatchmakingMessageController {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingMessageController.class);
+
+    static final String REQUEST_ID_HEADER = "request-id";
+
+    private final MatchmakingService matchmakingService;
+    private final MatchTicketService ticketService;
+    private final Validator validator;
+
+    /**
+     * Join a queue: SEND to {@code /app/match.join} with {@code {"elo", "mode", "region", "pings"}}.
+     */
+    @MessageMapping("match.join")
+    @SendToUser(destinations = "/queue/ack", broadcast = false)
+    public Map<String, Object> join(@Payload MatchRequestDto request, Principal user,
+                                    @Header(name = "nativeHeaders", required = false) Map<String, List<String>> nativeHeaders) {
+        Map<String, Object> ack = ack("join", nativeHeaders);
+        if (user == null) {
+            return reject(ack, "Not authenticated");
+        }
+        String playerId = user.getName();
+        ack.put("playerId", playerId);
+        if (request == null) {
+            return reject(ack, "Elo is required");
+        }
+        // Not @Valid on the payload, which carries no player ID: validate once the session's is set
+        request.setPlayerId(playerId);
+        Set<ConstraintViolation<MatchRequestDto>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return reject(ack, violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(". ")));
+        }
+        QueueKey queue = matchmakingService.resolveQueue(request.getMode(), request.getRegion());
+        if (queue == null) {
+            return reject(ack, "Unknown matchmaking queue " + request.getMode() + "/" + request.getRegion());
+        }
+        ack.put("mode", queue.mode());
+        ack.put("region", queue.region());
+
+        try {
+            log.info("Player {} joining matchmaking queue {} with Elo {} over STOMP", playerId, queue, request.getElo());
+            // Issued before the join, so a match made right after it still settles the ticket
+            String ticketId = ticketService.issue(playerId, queue);
+            boolean joined = false;
+            try {
+                joined = matchmakingService.enqueuePlayer(request);
+            } finally {
+                if (!joined) {
+                    ticketService.cancel(ticketId);
+                }
+            }
+            if (!joined) {
+                return reject(ack, "Failed to join matchmaking queue");
+            }
+            ack.put("success", true);
+            ack.put("message", "Successfully joined matchmaking queue");
+            ack.put("elo", request.getElo());
+            ack.put("ticketId", ticketId);
+            return ack;
+        } catch (Exception e) {
+            log.error("Error joining matchmaking queue for player {}", playerId, e);
+            return reject(ack, "Internal server error");
+        }
+    }
+
+    /**
+     * Leave a queue: SEND to {@code /app/match.leave} with {@code {"mode", "region"}}, or no body
+     * for the default queue.
+     */
+    @MessageMapping("match.leave")
+    @SendToUser(destinations = "/queue/ack", broadcast = false)
+    public Map<String, Object> leave(@Payload(required = false) LeaveRequestDto request, Principal user,
+                                     @Header(name = "nativeHeaders", required = false) Map<String, List<String>> nativeHeaders) {
+        Map<String, Object> ack = ack("leave", nativeHeaders);
+        if (user == null) {
+            return reject(ack, "Not authenticated");
+        }
+        String playerId = user.getName();
+        ack.put("playerId", playerId);
+        String mode = request != null ? request.getMode() : null;
+        String region = request != null ? request.getRegion() : null;
+        QueueKey queue = matchmakingService.resolveQueue(mode, region);
+        if (queue == null) {
+            return reject(ack, "Unknown matchmaking queue " + mode + "/" + region);
+        }
+        ack.put("mode", queue.mode());
+        ack.put("region", queue.region());
+
+        try {
+            log.info("Player {} leaving matchmaking queue {} over STOMP", playerId, queue);
+            if (!matchmakingService.dequeuePlayer(playerId, queue)) {
+                return reject(ack, "Player not found in queue");
+            }
+            ack.put("success", true);
+            ack.put("message", "Successfully left matchmaking queue");
+            return ack;
+        } catch (Exception e) {
+            log.error("Error leaving matchmaking queue for player {}", playerId, e);
+            return reject(ack, "Internal server error");
+        }
+    }
+
+    private static Map<String, Object> ack(String action, Map<String, List<String>> nativeHeaders) {
+        Map<String, Object> ack = new LinkedHashMap<>();
+        ack.put("action", action);
+        List<String> requestId = nativeHeaders != null ? nativeHeaders.get(REQUEST_ID_HEADER) : null;
+        if (requestId != null && !requestId.isEmpty()) {
+            ack.put("requestId", requestId.getFirst());
+        }
+        ack.put("success", false);
+        ack.put("timestamp", System.currentTimeMillis());
+        return ack;
+    }
+
+    private static Map<String, Object> reject(Map<String, Object> ack, String message) {
+        ack.put("message", message);
+        return ack;
+    }
+}
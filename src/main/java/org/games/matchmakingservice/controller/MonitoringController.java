@@ -4,8 +4,11 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import lombok.RequiredArgsConstructor;
 import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.QueueInsight;
+import org.games.matchmakingservice.service.QueueKey;
 import org.games.matchmakingservice.service.WebSocketConnectionTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +19,11 @@ import org.springframework.web.bind.annotation.*;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -116,19 +123,28 @@ public class MonitoringController {
                 }
             }
             
-            // Performance metrics
-            Timer processingTimer = meterRegistry.find("matchmaking.processing.time").timer();
-            if (processingTimer != null) {
-                stats.put("averageProcessingTime", processingTimer.mean(TimeUnit.MILLISECONDS));
-                stats.put("maxProcessingTime", processingTimer.max(TimeUnit.MILLISECONDS));
-                stats.put("totalProcessingCalls", processingTimer.count());
+            // Performance metrics; timers are tagged per queue, so averages are combined over
+            // queues and percentiles (in ms) are listed per queue
+            Collection<Timer> processingTimers = meterRegistry.find("matchmaking.processing.time").timers();
+            if (!processingTimers.isEmpty()) {
+                stats.put("averageProcessingTime", mean(processingTimers, TimeUnit.MILLISECONDS));
+                stats.put("maxProcessingTime", max(processingTimers, TimeUnit.MILLISECONDS));
+                stats.put("totalProcessingCalls", count(processingTimers));
+                stats.put("processingTimePercentiles", percentiles(processingTimers));
+            }
+
+            Collection<Timer> creationTimers = meterRegistry.find("matchmaking.match.creation.time").timers();
+            if (!creationTimers.isEmpty()) {
+                stats.put("averageMatchCreationTime", mean(creationTimers, TimeUnit.MILLISECONDS));
+                stats.put("matchCreationTimePercentiles", percentiles(creationTimers));
             }
             
-            Timer waitTimeTimer = meterRegistry.find("matchmaking.player.wait.time").timer();
-            if (waitTimeTimer != null) {
-                stats.put("averageWaitTime", waitTimeTimer.mean(TimeUnit.SECONDS));
-                stats.put("maxWaitTime", waitTimeTimer.max(TimeUnit.SECONDS));
-                stats.put("totalWaitTimeMeasurements", waitTimeTimer.count());
+            Collection<Timer> waitTimeTimers = meterRegistry.find("matchmaking.player.wait.time").timers();
+            if (!waitTimeTimers.isEmpty()) {
+                stats.put("averageWaitTime", mean(waitTimeTimers, TimeUnit.SECONDS));
+                stats.put("maxWaitTime", max(waitTimeTimers, TimeUnit.SECONDS));
+                stats.put("totalWaitTimeMeasurements", count(waitTimeTimers));
+                stats.put("waitTimePercentiles", percentiles(waitTimeTimers));
             }
             
             return ResponseEntity.ok(stats);
@@ -142,6 +158,82 @@ public class MonitoringController {
         }
     }
 
+    /**
+     * Get the matchers' latest in-memory view of each queue: Elo and wait-time histograms, the
+     * longest wait and how many players have widened their tolerance to the cap. Computed from the
+     * matching cycle's own snapshot, so serving it costs no Redis calls.
+     *
+     * @param mode Game mode of a single queue to report; all queues if mode and region are omitted
+     * @param region Region of a single queue to report
+     */
+    @GetMapping("/queue/snapshot")
+    public ResponseEntity<Map<String, Object>> getQueueSnapshot(@RequestParam(required = false) String mode,
+                                                                @RequestParam(required = false) String region) {
+        List<QueueKey> keys;
+        if (mode == null && region == null) {
+            keys = matchmakingService.getQueueKeys();
+        } else {
+            QueueKey key = matchmakingService.resolveQueue(mode, region);
+            if (key == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown matchmaking queue " + mode + "/" + region
+                ));
+            }
+            keys = List.of(key);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> queues = new ArrayList<>();
+        for (QueueKey key : keys) {
+            Map<String, Object> queue = new LinkedHashMap<>();
+            queue.put("mode", key.mode());
+            queue.put("region", key.region());
+            QueueInsight insight = matchmakingService.getQueueInsight(key);
+            if (insight == null) {
+                queue.put("available", false);
+            } else {
+                queue.put("available", true);
+                queue.putAll(describe(insight, now));
+            }
+            queues.add(queue);
+        }
+        return ResponseEntity.ok(Map.of(
+            "queues", queues,
+            "timestamp", now
+        ));
+    }
+
+    private static Map<String, Object> describe(QueueInsight insight, long now) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("computedAt", insight.computedAtMillis());
+        view.put("ageMillis", Math.max(0L, now - insight.computedAtMillis()));
+        view.put("players", insight.players());
+        view.put("oldestPlayerId", insight.oldestPlayerId());
+        view.put("oldestWaitMillis", insight.oldestWaitMillis());
+        view.put("pastTolerancePlateau", insight.pastTolerancePlateau());
+
+        List<Map<String, Object>> elo = new ArrayList<>();
+        int[] eloCounts = insight.eloHistogram();
+        for (int b = 0; b < eloCounts.length; b++) {
+            int from = insight.eloBucketStart() + b * insight.eloBucketWidth();
+            elo.add(Map.of("from", from, "to", from + insight.eloBucketWidth(), "count", eloCounts[b]));
+        }
+        view.put("eloHistogram", elo);
+
+        List<Map<String, Object>> wait = new ArrayList<>();
+        long[] bounds = insight.waitBoundsSeconds();
+        int[] waitCounts = insight.waitHistogram();
+        for (int b = 0; b < waitCounts.length; b++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("fromSeconds", b == 0 ? 0L : bounds[b - 1]);
+            bucket.put("toSeconds", b < bounds.length ? bounds[b] : null);
+            bucket.put("count", waitCounts[b]);
+            wait.add(bucket);
+        }
+        view.put("waitHistogram", wait);
+        return view;
+    }
+
     /**
      * Get system health summary.
      */
@@ -222,6 +314,38 @@ public class MonitoringController {
         }
     }
 
+    private static long count(Collection<Timer> timers) {
+        return timers.stream().mapToLong(Timer::count).sum();
+    }
+
+    private static double mean(Collection<Timer> timers, TimeUnit unit) {
+        long count = count(timers);
+        return count == 0 ? 0.0 : timers.stream().mapToDouble(timer -> timer.totalTime(unit)).sum() / count;
+    }
+
+    private static double max(Collection<Timer> timers, TimeUnit unit) {
+        return timers.stream().mapToDouble(timer -> timer.max(unit)).max().orElse(0.0);
+    }
+
+    /**
+     * p50/p95/p99 in milliseconds for every queue's timer. Percentiles cannot be combined across
+     * queues; use the published histograms for cluster-wide quantiles.
+     */
+    private static List<Map<String, Object>> percentiles(Collection<Timer> timers) {
+        List<Map<String, Object>> queues = new ArrayList<>();
+        for (Timer timer : timers) {
+            Map<String, Object> queue = new LinkedHashMap<>();
+            queue.put("mode", timer.getId().getTag("mode"));
+            queue.put("region", timer.getId().getTag("region"));
+            queue.put("count", timer.count());
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                queue.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+            }
+            queues.add(queue);
+        }
+        return queues;
+    }
+
     private double getCounterValue(String counterName) {
         Counter counter = meterRegistry.find(counterName).counter();
         return counter != null ? counter.count() : 0.0;
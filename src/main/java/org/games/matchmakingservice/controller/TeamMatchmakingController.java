@@ -0,0 +1,104 @@
+package org.games.matchmakingservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.games.matchmakingservice.dto.PartyRequestDto;
+import org.games.matchmakingservice.service.TeamMatchmakingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST API controller for team (NvN) matchmaking with parties.
+ */
+@RestController
+@RequestMapping("/api/match/party")
+@RequiredArgsConstructor
+@Tag(name = "Team Matchmaking", description = "Party queueing for team modes such as 2v2 and 5v5")
+@SecurityRequirement(name = "bearerAuth")
+public class TeamMatchmakingController {
+
+    private final TeamMatchmakingService teamMatchmakingService;
+
+    private static final Logger log = LoggerFactory.getLogger(TeamMatchmakingController.class);
+
+    @Operation(
+        summary = "Join a team queue as a party",
+        description = "Enqueue a party of up to teamSize players. Parties are never split; the assembler fills two teams of teamSize players each with balanced team Elo."
+    )
+    @PostMapping("/join")
+    public ResponseEntity<Map<String, Object>> joinParty(@Valid @RequestBody PartyRequestDto request) {
+        try {
+            String partyId = teamMatchmakingService.enqueueParty(request);
+            if (partyId != null) {
+                return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Successfully joined team queue",
+                    "partyId", partyId,
+                    "teamSize", request.getTeamSize(),
+                    "members", request.getMembers().size()
+                ));
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                    "success", false,
+                    "message", "Failed to join team queue",
+                    "teamSize", request.getTeamSize()
+                ));
+        } catch (Exception e) {
+            log.error("Error joining team queue", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "message", "Internal server error"));
+        }
+    }
+
+    /**
+     * Remove a party from its team queue.
+     */
+    @DeleteMapping("/leave/{teamSize}/{partyId}")
+    public ResponseEntity<Map<String, Object>> leaveParty(@PathVariable int teamSize, @PathVariable String partyId) {
+        try {
+            if (teamMatchmakingService.dequeueParty(teamSize, partyId)) {
+                return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Successfully left team queue",
+                    "partyId", partyId
+                ));
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of(
+                    "success", false,
+                    "message", "Party not found in queue",
+                    "partyId", partyId
+                ));
+        } catch (Exception e) {
+            log.error("Error leaving team queue for party {}", partyId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "message", "Internal server error", "partyId", partyId));
+        }
+    }
+
+    /**
+     * Number of parties waiting for a team size.
+     */
+    @GetMapping("/status/{teamSize}")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable int teamSize) {
+        if (!teamMatchmakingService.isSupportedTeamSize(teamSize)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("success", false, "message", "Unsupported team size", "teamSize", teamSize));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "teamSize", teamSize,
+            "partiesWaiting", teamMatchmakingService.getQueueSize(teamSize),
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+}
@@ -1,12 +1,20 @@
 package org.games.matchmakingservice.domain;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * A played match. For team matches playerA/playerB hold the team captains and the Elo columns
+ * hold team ratings; every individual player is recorded in {@link #getParticipants()}.
+ */
 @Entity
 @Table(name = "matches", indexes = {
     @Index(name = "idx_matches_played_at", columnList = "played_at DESC"),
@@ -43,6 +51,13 @@ public class MatchEntity {
     @Column(name = "played_at", nullable = false)
     private Instant playedAt;
 
+    /** Players per side: 1 for 1v1, N for NvN. */
+    @Column(name = "team_size")
+    private Integer teamSize = 1;
+
+    @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<MatchParticipantEntity> participants = new ArrayList<>();
+
     public String getMatchId() { return matchId; }
     public void setMatchId(String matchId) { this.matchId = matchId; }
     public String getPlayerA() { return playerA; }
@@ -61,6 +76,24 @@ public class MatchEntity {
     public void setWinner(String winner) { this.winner = winner; }
     public Instant getPlayedAt() { return playedAt; }
     public void setPlayedAt(Instant playedAt) { this.playedAt = playedAt; }
+    public Integer getTeamSize() { return teamSize; }
+    public void setTeamSize(Integer teamSize) { this.teamSize = teamSize; }
+    public List<MatchParticipantEntity> getParticipants() { return participants; }
+
+    /**
+     * Attach a participant row to this match.
+     */
+    public void addParticipant(String playerId, String team, String partyId, int oldElo, int newElo, boolean won) {
+        MatchParticipantEntity participant = new MatchParticipantEntity();
+        participant.setMatch(this);
+        participant.setPlayerId(playerId);
+        participant.setTeam(team);
+        participant.setPartyId(partyId);
+        participant.setOldElo(oldElo);
+        participant.setNewElo(newElo);
+        participant.setWon(won);
+        participants.add(participant);
+    }
 }
 
 
@@ -0,0 +1,67 @@
+package org.games.matchmakingservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * One player's side of a match. 1v1 matches have two rows, NvN matches 2N.
+ */
+@Entity
+@Table(name = "match_participants", indexes = {
+    @Index(name = "idx_participants_match", columnList = "match_id"),
+    @Index(name = "idx_participants_player", columnList = "player_id")
+})
+public class MatchParticipantEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "match_id", nullable = false)
+    private MatchEntity match;
+
+    @Column(name = "player_id", nullable = false, length = 128)
+    private String playerId;
+
+    /** "A" or "B". */
+    @Column(name = "team", nullable = false, length = 1)
+    private String team;
+
+    @Column(name = "party_id", length = 64)
+    private String partyId;
+
+    @Column(name = "old_elo", nullable = false)
+    private Integer oldElo;
+
+    @Column(name = "new_elo", nullable = false)
+    private Integer newElo;
+
+    @Column(name = "won", nullable = false)
+    private Boolean won;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public MatchEntity getMatch() { return match; }
+    public void setMatch(MatchEntity match) { this.match = match; }
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+    public String getTeam() { return team; }
+    public void setTeam(String team) { this.team = team; }
+    public String getPartyId() { return partyId; }
+    public void setPartyId(String partyId) { this.partyId = partyId; }
+    public Integer getOldElo() { return oldElo; }
+    public void setOldElo(Integer oldElo) { this.oldElo = oldElo; }
+    public Integer getNewElo() { return newElo; }
+    public void setNewElo(Integer newElo) { this.newElo = newElo; }
+    public Boolean getWon() { return won; }
+    public void setWon(Boolean won) { this.won = won; }
+}
@@ -3,6 +3,7 @@ package org.games.matchmakingservice.domain;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,4 +28,8 @@ public class MatchRequest {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
     @JsonProperty("timestamp")
     private Instant timestamp = Instant.now();
+
+    /** Client-measured ping per region in ms; null or empty if the client sent none */
+    @JsonProperty("pings")
+    private Map<String, Integer> pings;
 }
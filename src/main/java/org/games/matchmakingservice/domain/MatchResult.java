@@ -38,4 +38,7 @@ public class MatchResult {
     /** when the match was played */
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
     Instant playedAt;
+
+    /** Region the match is hosted in, chosen from both players' pings; null without latency regions */
+    String serverRegion;
     }
@@ -0,0 +1,60 @@
+package org.games.matchmakingservice.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Immutable result of an NvN team match.
+ */
+@Value
+@Builder
+public class TeamMatchResult {
+    @NonNull
+    String matchId;
+
+    @NonNull
+    Integer teamSize;
+
+    @NonNull
+    List<Participant> teamA;
+
+    @NonNull
+    List<Participant> teamB;
+
+    /** Aggregated team ratings before the match. */
+    @NonNull
+    Integer teamEloA;
+
+    @NonNull
+    Integer teamEloB;
+
+    /** "A" or "B". */
+    @NonNull
+    String winningTeam;
+
+    /** when the match was played */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
+    Instant playedAt;
+
+    /**
+     * One player on a team, with the party they queued in.
+     */
+    @Value
+    @Builder
+    public static class Participant {
+        @NonNull
+        String playerId;
+
+        String partyId;
+
+        @NonNull
+        Integer oldElo;
+
+        @NonNull
+        Integer newElo;
+    }
+}
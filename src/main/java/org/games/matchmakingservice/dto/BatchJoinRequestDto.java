@@ -0,0 +1,20 @@
+package org.games.matchmakingservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Players joining matchmaking in one call, e.g. a lobby service handing over a finished lobby.
+ * Every player names its own queue through its mode and region.
+ */
+@Data
+public class BatchJoinRequestDto {
+
+    @NotEmpty(message = "A batch needs at least one player")
+    @Size(max = 1000, message = "A batch holds at most 1000 players")
+    @Valid
+    private List<MatchRequestDto> players;
+}
@@ -0,0 +1,24 @@
+package org.games.matchmakingservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Players leaving one matchmaking queue in one call.
+ */
+@Data
+public class BatchLeaveRequestDto {
+
+    @NotEmpty(message = "A batch needs at least one player")
+    @Size(max = 1000, message = "A batch holds at most 1000 players")
+    private List<@NotBlank(message = "Player ID cannot be blank") String> playerIds;
+
+    /** Game mode of the queue; the default queue if omitted. */
+    private String mode;
+
+    /** Region of the queue; the default queue if omitted. */
+    private String region;
+}
@@ -0,0 +1,16 @@
+package org.games.matchmakingservice.dto;
+
+import lombok.Data;
+
+/**
+ * The queue a connected player leaves; the player is the session's user.
+ */
+@Data
+public class LeaveRequestDto {
+
+    /** Game mode of the queue; the default queue if omitted. */
+    private String mode;
+
+    /** Region of the queue; the default queue if omitted. */
+    private String region;
+}
@@ -2,9 +2,13 @@ package org.games.matchmakingservice.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class MatchRequestDto {
 
@@ -14,4 +18,16 @@ public class MatchRequestDto {
     @NotNull(message = "Elo is required")
     @Min(value = 0, message = "Elo must be >= 0")
     private Integer elo;
+
+    // Optional; a missing mode or region selects the default queue
+    private String mode;
+
+    private String region;
+
+    // Optional ping in ms to each region the client measured, e.g. {"eu-west": 32, "us-east": 110}
+    @Size(max = 16, message = "At most 16 region pings")
+    private Map<@NotBlank(message = "Ping regions must not be blank") String,
+                @NotNull(message = "Pings must have a value")
+                @Min(value = 0, message = "Pings must be between 0 and 10000 ms")
+                @Max(value = 10_000, message = "Pings must be between 0 and 10000 ms") Integer> pings;
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package org.games.matchmakingservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * A party of pre-grouped players entering a team queue together. A solo player joining
+ * a team queue is a party of one.
+ */
+@Data
+public class PartyRequestDto {
+
+    /** Optional client-chosen party id; generated when absent. */
+    private String partyId;
+
+    @NotNull(message = "Team size is required")
+    @Min(value = 2, message = "Team size must be >= 2")
+    private Integer teamSize;
+
+    @NotEmpty(message = "A party needs at least one member")
+    @Valid
+    private List<MatchRequestDto> members;
+}
@@ -3,12 +3,22 @@ package org.games.matchmakingservice.repository;
 import java.util.List;
 import org.games.matchmakingservice.domain.MatchEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MatchRepository extends JpaRepository<MatchEntity, String> {
     List<MatchEntity> findTop50ByOrderByPlayedAtDesc();
-    List<MatchEntity> findByPlayerAOrPlayerBOrderByPlayedAtDesc(String playerA, String playerB);
+    /**
+     * Matches the player took part in on either side, including as a non-captain team member.
+     * 1v1 matches stored before participants were recorded have no participant rows and are
+     * found by their player columns.
+     */
+    @Query("select distinct m from MatchEntity m left join m.participants p"
+            + " where p.playerId = :playerId or m.playerA = :playerId or m.playerB = :playerId"
+            + " order by m.playedAt desc")
+    List<MatchEntity> findByParticipantOrderByPlayedAtDesc(@Param("playerId") String playerId);
 }
 
 
@@ -0,0 +1,24 @@
+package org.games.matchmakingservice.service;
+
+/**
+ * Outcome of one player in a batch join or leave, reported in request order.
+ */
+public record BatchResult(String playerId, Status status) {
+
+    public enum Status {
+        /** Added to the queue. */
+        QUEUED,
+        /** Was already waiting; the original entry is kept. */
+        ALREADY_QUEUED,
+        /** Is waiting in another queue or a party; a player waits in one queue at a time. */
+        QUEUED_ELSEWHERE,
+        /** The requested mode is not offered in the requested region. */
+        UNKNOWN_QUEUE,
+        /** Removed from the queue. */
+        REMOVED,
+        /** Was not waiting in the queue. */
+        NOT_QUEUED,
+        /** The batch could not be written to Redis. */
+        FAILED
+    }
+}
@@ -0,0 +1,315 @@
+package org.games.matchmakingservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Reusable struct-of-arrays view of the players waiting in one matchmaking cycle.
+ * <p>
+ * Each player occupies a slot; all per-player data lives in parallel primitive arrays indexed
+ * by that slot, and pairs are recorded as slot numbers. Arrays grow on demand and are kept
+ * across cycles, so a steady-state cycle allocates nothing here. Not thread-safe: owned by
+ * the single matcher thread.
+ * <p>
+ * When latency regions are configured, each player also carries a ping to every region and a
+ * latency tolerance. Two players are only compatible if some region is within both players'
+ * latency tolerance for both of them. A (region, Elo) grid lists, per region, the players that
+ * region admits in Elo order, so partner searches binary-search one region bucket instead of
+ * scanning the whole Elo window.
+ */
+final class CandidateSnapshot {
+
+    // Sort key layout: [wait rank: 20 bits][elo: 22 bits][slot: 21 bits]
+    private static final int SLOT_BITS = 21;
+    private static final int ELO_BITS = 22;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final long MAX_SORT_ELO = (1L << ELO_BITS) - 1;
+    private static final long MAX_SORT_WAIT = (1L << 20) - 1;
+
+    /** Hard cap on slots so the slot fits in the packed sort key. */
+    static final int MAX_CAPACITY = 1 << SLOT_BITS;
+
+    /** Ping recorded for regions a player did not measure; never within any tolerance. */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    int size;
+    String[] ids;
+    int[] elo;
+    long[] enqueuedAtMillis;
+    long[] waitSeconds;
+    int[] tolerance;
+    /** Slots ordered by matching priority: longest wait first, then lowest Elo. */
+    int[] order;
+    /** Priority rank of each slot, i.e. the inverse of {@link #order}. */
+    int[] rank;
+    /** Slots in ascending Elo order. */
+    int[] byElo;
+    /** Elo values aligned with {@link #byElo}, for binary searching Elo windows. */
+    int[] sortedElo;
+    /** Slots paired this cycle; once the cycle is finalized, only the players of committed matches. */
+    boolean[] matched;
+    /** Matched slot pairs, two entries per pair. */
+    int[] pairs;
+    int pairCount;
+
+    /** Number of latency regions; 0 disables the latency dimension. */
+    int regionCount;
+    /** Ping of each slot to each region in ms, slot-major: {@code ping[slot * regionCount + region]}. */
+    int[] ping;
+    /** Highest acceptable ping per slot, widened with wait like the Elo tolerance. */
+    int[] latencyTolerance;
+    /** Grid bucket of region r is {@code gridSlots[gridStart[r] .. gridStart[r + 1])}, in Elo order. */
+    int[] gridStart;
+    int[] gridSlots;
+    /** Elo values aligned with {@link #gridSlots}, for binary searching within a bucket. */
+    int[] gridElo;
+
+    private long[] sortKeys;
+    private int[] gridCursor;
+
+    CandidateSnapshot(int initialCapacity) {
+        gridStart = new int[1];
+        gridCursor = new int[0];
+        allocate(Math.max(2, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        ids = new String[capacity];
+        elo = new int[capacity];
+        enqueuedAtMillis = new long[capacity];
+        waitSeconds = new long[capacity];
+        tolerance = new int[capacity];
+        order = new int[capacity];
+        rank = new int[capacity];
+        byElo = new int[capacity];
+        sortedElo = new int[capacity];
+        matched = new boolean[capacity];
+        pairs = new int[capacity];
+        sortKeys = new long[capacity];
+        latencyTolerance = new int[capacity];
+        allocateGrid(capacity);
+    }
+
+    private void allocateGrid(int capacity) {
+        ping = new int[capacity * regionCount];
+        gridSlots = new int[capacity * regionCount];
+        gridElo = new int[capacity * regionCount];
+    }
+
+    /**
+     * Set the number of latency regions for the coming cycles; 0 turns the dimension off.
+     * Call before {@link #reset}.
+     */
+    void setRegionCount(int regions) {
+        if (regions != regionCount) {
+            regionCount = Math.max(0, regions);
+            gridStart = new int[regionCount + 1];
+            gridCursor = new int[regionCount];
+            allocateGrid(ids.length);
+        }
+    }
+
+    /**
+     * Clear the snapshot for a new cycle, growing the arrays if the queue has grown.
+     *
+     * @param expectedSize Number of players about to be added
+     */
+    void reset(int expectedSize) {
+        if (expectedSize > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Snapshot cannot hold more than " + MAX_CAPACITY + " players");
+        }
+        if (expectedSize > ids.length) {
+            allocate(Math.min(MAX_CAPACITY, Math.max(expectedSize, ids.length * 2)));
+        } else {
+            // Drop references from the previous cycle so departed players can be collected
+            Arrays.fill(ids, 0, size, null);
+        }
+        size = 0;
+        pairCount = 0;
+    }
+
+    /**
+     * Append a player to the snapshot.
+     *
+     * @return The slot assigned to the player
+     */
+    int add(String playerId, int playerElo, long enqueuedAt) {
+        int slot = size++;
+        ids[slot] = playerId;
+        elo[slot] = playerElo;
+        enqueuedAtMillis[slot] = enqueuedAt;
+        matched[slot] = false;
+        if (regionCount > 0) {
+            // No measurements: the player accepts any region
+            Arrays.fill(ping, slot * regionCount, (slot + 1) * regionCount, 0);
+        }
+        return slot;
+    }
+
+    /**
+     * Mark every region unreachable for the slot before its measured pings are recorded.
+     */
+    void clearPings(int slot) {
+        Arrays.fill(ping, slot * regionCount, (slot + 1) * regionCount, UNREACHABLE);
+    }
+
+    void setPing(int slot, int region, int pingMillis) {
+        ping[slot * regionCount + region] = pingMillis;
+    }
+
+    /**
+     * Build the (region, Elo) grid from the Elo order and the filled latency tolerances.
+     * Every player is listed under each region it admits, so buckets come out Elo-sorted.
+     */
+    void buildLatencyGrid() {
+        int regions = regionCount;
+        Arrays.fill(gridStart, 0);
+        for (int p = 0; p < size; p++) {
+            int slot = byElo[p];
+            for (int r = 0; r < regions; r++) {
+                if (admits(slot, r)) {
+                    gridStart[r + 1]++;
+                }
+            }
+        }
+        for (int r = 0; r < regions; r++) {
+            gridStart[r + 1] += gridStart[r];
+            gridCursor[r] = gridStart[r];
+        }
+        for (int p = 0; p < size; p++) {
+            int slot = byElo[p];
+            for (int r = 0; r < regions; r++) {
+                if (admits(slot, r)) {
+                    int pos = gridCursor[r]++;
+                    gridSlots[pos] = slot;
+                    gridElo[pos] = elo[slot];
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the player's ping to the region is within its latency tolerance.
+     */
+    boolean admits(int slot, int region) {
+        return ping[slot * regionCount + region] <= latencyTolerance[slot];
+    }
+
+    /**
+     * First grid position in the region's bucket whose Elo is at least {@code minElo}.
+     */
+    int gridLowerBound(int region, long minElo) {
+        int lo = gridStart[region];
+        int hi = gridStart[region + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (gridElo[mid] < minElo) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Whether some region is within both players' latency tolerances for both of them.
+     * Always true when the latency dimension is off.
+     */
+    boolean latencyCompatible(int a, int b) {
+        return regionCount == 0 || bestRegion(a, b) >= 0;
+    }
+
+    /**
+     * The region where the worse of the two pings is lowest, among regions both players accept.
+     *
+     * @return The region index, or -1 if there is none (or the latency dimension is off)
+     */
+    int bestRegion(int a, int b) {
+        int limit = Math.min(latencyTolerance[a], latencyTolerance[b]);
+        int best = -1;
+        int bestPing = Integer.MAX_VALUE;
+        for (int r = 0; r < regionCount; r++) {
+            int pairPing = Math.max(ping[a * regionCount + r], ping[b * regionCount + r]);
+            if (pairPing <= limit && pairPing < bestPing) {
+                best = r;
+                bestPing = pairPing;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Derive wait times from the cycle clock and build the priority and Elo orderings.
+     * Sorting packs (wait, Elo, slot) into one long per player and uses a primitive sort;
+     * ties fall back to insertion order, i.e. queue order.
+     *
+     * @param cycleNowMillis The single clock reading for this cycle
+     */
+    void prepare(long cycleNowMillis) {
+        for (int k = 0; k < size; k++) {
+            long wait = Math.max(0L, (cycleNowMillis - enqueuedAtMillis[k]) / 1000L);
+            waitSeconds[k] = wait;
+            long waitRank = MAX_SORT_WAIT - Math.min(wait, MAX_SORT_WAIT);
+            sortKeys[k] = (waitRank << (ELO_BITS + SLOT_BITS)) | (eloKey(k) << SLOT_BITS) | k;
+        }
+        Arrays.sort(sortKeys, 0, size);
+        for (int r = 0; r < size; r++) {
+            int slot = (int) (sortKeys[r] & SLOT_MASK);
+            order[r] = slot;
+            rank[slot] = r;
+        }
+
+        for (int k = 0; k < size; k++) {
+            sortKeys[k] = (eloKey(k) << SLOT_BITS) | k;
+        }
+        Arrays.sort(sortKeys, 0, size);
+        for (int p = 0; p < size; p++) {
+            int slot = (int) (sortKeys[p] & SLOT_MASK);
+            byElo[p] = slot;
+            sortedElo[p] = elo[slot];
+        }
+    }
+
+    private long eloKey(int slot) {
+        return Math.min(Math.max(elo[slot], 0), MAX_SORT_ELO);
+    }
+
+    /**
+     * First position in {@link #byElo} whose Elo is at least {@code minElo}.
+     */
+    int lowerBound(long minElo) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedElo[mid] < minElo) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Largest tolerance of any player in the snapshot.
+     */
+    int maxTolerance() {
+        int max = 0;
+        for (int k = 0; k < size; k++) {
+            max = Math.max(max, tolerance[k]);
+        }
+        return max;
+    }
+
+    /**
+     * Record a pair and mark both slots as taken.
+     */
+    void addPair(int slotA, int slotB) {
+        matched[slotA] = true;
+        matched[slotB] = true;
+        pairs[pairCount * 2] = slotA;
+        pairs[pairCount * 2 + 1] = slotB;
+        pairCount++;
+    }
+}
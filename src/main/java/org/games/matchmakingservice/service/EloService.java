@@ -134,6 +134,61 @@ public class EloService {
         return calculateNewRatings(playerARating, playerBRating, 0.5, 0.5);
     }
 
+    /**
+     * Aggregate a team's player ratings into a single team rating.
+     * Uses the mean, so teams of equal size with equal totals are rated equally.
+     *
+     * @param playerRatings Current ratings of every player on the team
+     * @return The team rating
+     */
+    public int calculateTeamRating(int[] playerRatings) {
+        if (playerRatings == null || playerRatings.length == 0) {
+            throw new IllegalArgumentException("A team needs at least one player");
+        }
+        long total = 0;
+        for (int rating : playerRatings) {
+            if (rating < 0) {
+                throw new IllegalArgumentException("Ratings must be non-negative");
+            }
+            total += rating;
+        }
+        return (int) Math.round((double) total / playerRatings.length);
+    }
+
+    /**
+     * Calculates new ratings for every player after a team match.
+     * Each player's expected score is their team's expected score against the other team's
+     * aggregated rating; each player's change is scaled by their own K-factor.
+     *
+     * @param teamARatings Current ratings of team A's players
+     * @param teamBRatings Current ratings of team B's players
+     * @param teamAScore Team A's actual score (1.0 for win, 0.5 for draw, 0.0 for loss)
+     * @return TeamEloResult with new ratings in the same order as the inputs
+     */
+    public TeamEloResult calculateTeamRatings(int[] teamARatings, int[] teamBRatings, double teamAScore) {
+        if (teamAScore < 0.0 || teamAScore > 1.0) {
+            throw new IllegalArgumentException("Scores must be between 0.0 and 1.0");
+        }
+        int teamARating = calculateTeamRating(teamARatings);
+        int teamBRating = calculateTeamRating(teamBRatings);
+        double expectedScoreA = calculateExpectedScore(teamARating, teamBRating);
+        double expectedScoreB = calculateExpectedScore(teamBRating, teamARating);
+
+        int[] newRatingsA = new int[teamARatings.length];
+        for (int i = 0; i < teamARatings.length; i++) {
+            newRatingsA[i] = teamARatings[i]
+                    + (int) Math.round(getKFactor(teamARatings[i]) * (teamAScore - expectedScoreA));
+        }
+        int[] newRatingsB = new int[teamBRatings.length];
+        for (int i = 0; i < teamBRatings.length; i++) {
+            newRatingsB[i] = teamBRatings[i]
+                    + (int) Math.round(getKFactor(teamBRatings[i]) * ((1.0 - teamAScore) - expectedScoreB));
+        }
+
+        log.debug("Team Elo calculation: A({}) vs B({}) scoreA={}", teamARating, teamBRating, teamAScore);
+        return new TeamEloResult(newRatingsA, newRatingsB);
+    }
+
     /**
      * Get the K-factor based on player rating (higher ratings = lower K-factor).
      * 
@@ -157,4 +212,9 @@ public class EloService {
      * Simple holder for updated Elo ratings.
      */
     public record EloResult(int ratingA, int ratingB) {}
+
+    /**
+     * Updated ratings for both teams, index-aligned with the ratings passed in.
+     */
+    public record TeamEloResult(int[] ratingsA, int[] ratingsB) {}
 } 
\ No newline at end of file
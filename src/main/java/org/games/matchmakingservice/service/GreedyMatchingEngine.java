@@ -0,0 +1,301 @@
+package org.games.matchmakingservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Greedy pairing over a {@link CandidateSnapshot}.
+ * <p>
+ * Players are visited in priority order (longest wait first, then lowest Elo). Each takes the
+ * compatible, still-unmatched partner ranked after it with the longest shared wait, breaking
+ * ties by smallest Elo gap and then by priority rank. Only the player's own Elo window is
+ * scanned, since a partner can never be further away than the player's tolerance. With latency
+ * regions configured, the window is searched per region bucket of the snapshot's (region, Elo)
+ * grid, so only players reachable over an acceptable region are visited.
+ * <p>
+ * Large snapshots are split into Elo bands that build per-player candidate shortlists in
+ * parallel on a {@link ForkJoinPool}. Each band reads an overlap margin of the current maximum
+ * tolerance on both sides, so shortlists are complete regardless of band borders. A sequential
+ * pass then walks players in priority order and takes the first untaken shortlist entry,
+ * falling back to an exact window scan when a shortlist runs dry. The resulting pairs are
+ * identical to the single-threaded run on the same snapshot.
+ * <p>
+ * This is the default engine ({@code match.engine=greedy}).
+ */
+@Component
+@ConditionalOnProperty(name = "match.engine", havingValue = "greedy", matchIfMissing = true)
+public class GreedyMatchingEngine implements MatchingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GreedyMatchingEngine.class);
+
+    private final ForkJoinPool pool;
+    private final int parallelMinPlayers;
+    private final int bandSize;
+    private final int shortlistSize;
+
+    // One scratch per matcher thread, so queues matched concurrently never share arrays
+    private final ThreadLocal<Shortlists> shortlists = ThreadLocal.withInitial(Shortlists::new);
+
+    public GreedyMatchingEngine(@Value("${match.parallel.min-players:2048}") int parallelMinPlayers,
+                                @Value("${match.parallel.band-size:512}") int bandSize,
+                                @Value("${match.parallel.threads:0}") int threads,
+                                @Value("${match.parallel.shortlist-size:8}") int shortlistSize) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.parallelMinPlayers = Math.max(2, parallelMinPlayers);
+        this.bandSize = Math.max(16, bandSize);
+        this.shortlistSize = Math.max(1, shortlistSize);
+        log.info("Greedy matching engine: parallelism={}, parallel from {} players, band size {}",
+                parallelism, this.parallelMinPlayers, this.bandSize);
+    }
+
+    /**
+     * Find all greedy pairs in the snapshot and record them with {@link CandidateSnapshot#addPair}.
+     */
+    @Override
+    public void findPairs(CandidateSnapshot snapshot) {
+        int n = snapshot.size;
+        if (n < 2) {
+            return;
+        }
+        if (pool != null && n >= parallelMinPlayers) {
+            findPairsParallel(snapshot);
+            return;
+        }
+        for (int r = 0; r < n - 1; r++) {
+            int a = snapshot.order[r];
+            if (!snapshot.matched[a]) {
+                int partner = bestAvailablePartner(snapshot, a);
+                if (partner >= 0) {
+                    snapshot.addPair(a, partner);
+                }
+            }
+        }
+    }
+
+    private void findPairsParallel(CandidateSnapshot snapshot) {
+        int n = snapshot.size;
+        Shortlists lists = shortlists.get();
+        lists.ensureCapacity(n, shortlistSize);
+        pool.invoke(new BandTask(snapshot, lists, 0, n, snapshot.maxTolerance()));
+        int[] shortlist = lists.shortlist;
+        int[] shortlistLength = lists.length;
+        int[] candidateCount = lists.candidateCount;
+
+        // Reconcile in priority order: the first untaken shortlist entry is the best available partner
+        for (int r = 0; r < n - 1; r++) {
+            int a = snapshot.order[r];
+            if (snapshot.matched[a]) {
+                continue;
+            }
+            int partner = -1;
+            int base = a * shortlistSize;
+            int length = shortlistLength[a];
+            for (int t = 0; t < length; t++) {
+                int candidate = shortlist[base + t];
+                if (!snapshot.matched[candidate]) {
+                    partner = candidate;
+                    break;
+                }
+            }
+            if (partner < 0 && candidateCount[a] > length) {
+                // Every shortlisted partner was taken at a band border; scan the full window
+                partner = bestAvailablePartner(snapshot, a);
+            }
+            if (partner >= 0) {
+                snapshot.addPair(a, partner);
+            }
+        }
+    }
+
+    /**
+     * Per-slot shortlists reused across cycles; written by band tasks, read by the reconcile pass.
+     */
+    private static final class Shortlists {
+        int[] shortlist = new int[0];
+        int[] length = new int[0];
+        int[] candidateCount = new int[0];
+
+        void ensureCapacity(int n, int shortlistSize) {
+            if (length.length < n) {
+                int capacity = Math.max(n, length.length * 2);
+                shortlist = new int[capacity * shortlistSize];
+                length = new int[capacity];
+                candidateCount = new int[capacity];
+            }
+        }
+    }
+
+    /**
+     * Exact scan of the player's Elo window for the preferred unmatched partner ranked after it.
+     *
+     * @return The partner's slot, or -1 if none is compatible
+     */
+    static int bestAvailablePartner(CandidateSnapshot snapshot, int a) {
+        if (snapshot.regionCount > 0) {
+            return bestAvailablePartnerByRegion(snapshot, a);
+        }
+        int eloA = snapshot.elo[a];
+        int tolA = snapshot.tolerance[a];
+        int rankA = snapshot.rank[a];
+        long maxElo = (long) eloA + tolA;
+
+        int best = -1;
+        for (int p = snapshot.lowerBound((long) eloA - tolA); p < snapshot.size; p++) {
+            if (snapshot.sortedElo[p] > maxElo) {
+                break;
+            }
+            int b = snapshot.byElo[p];
+            if (snapshot.matched[b] || snapshot.rank[b] <= rankA || !compatible(snapshot, a, b)) {
+                continue;
+            }
+            if (best < 0 || prefers(snapshot, a, b, best)) {
+                best = b;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Same search as {@link #bestAvailablePartner} over the grid buckets of the regions the
+     * player accepts. A partner listed under several regions is simply evaluated again.
+     */
+    private static int bestAvailablePartnerByRegion(CandidateSnapshot snapshot, int a) {
+        int eloA = snapshot.elo[a];
+        int tolA = snapshot.tolerance[a];
+        int rankA = snapshot.rank[a];
+        long maxElo = (long) eloA + tolA;
+
+        int best = -1;
+        for (int r = 0; r < snapshot.regionCount; r++) {
+            if (!snapshot.admits(a, r)) {
+                continue;
+            }
+            int end = snapshot.gridStart[r + 1];
+            for (int g = snapshot.gridLowerBound(r, (long) eloA - tolA); g < end; g++) {
+                if (snapshot.gridElo[g] > maxElo) {
+                    break;
+                }
+                int b = snapshot.gridSlots[g];
+                if (b == best || snapshot.matched[b] || snapshot.rank[b] <= rankA || !compatible(snapshot, a, b)) {
+                    continue;
+                }
+                if (best < 0 || prefers(snapshot, a, b, best)) {
+                    best = b;
+                }
+            }
+        }
+        return best;
+    }
+
+    static boolean compatible(CandidateSnapshot snapshot, int a, int b) {
+        int eloDifference = Math.abs(snapshot.elo[a] - snapshot.elo[b]);
+        return eloDifference <= Math.min(snapshot.tolerance[a], snapshot.tolerance[b])
+                && snapshot.latencyCompatible(a, b);
+    }
+
+    /**
+     * Whether {@code a} prefers partner {@code b} over partner {@code c}: longer shared wait,
+     * then smaller Elo gap, then earlier priority rank.
+     */
+    static boolean prefers(CandidateSnapshot snapshot, int a, int b, int c) {
+        long waitA = snapshot.waitSeconds[a];
+        long minWaitB = Math.min(waitA, snapshot.waitSeconds[b]);
+        long minWaitC = Math.min(waitA, snapshot.waitSeconds[c]);
+        if (minWaitB != minWaitC) {
+            return minWaitB > minWaitC;
+        }
+        int diffB = Math.abs(snapshot.elo[a] - snapshot.elo[b]);
+        int diffC = Math.abs(snapshot.elo[a] - snapshot.elo[c]);
+        if (diffB != diffC) {
+            return diffB < diffC;
+        }
+        return snapshot.rank[b] < snapshot.rank[c];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds shortlists for the players in Elo positions [from, to), splitting into bands.
+     */
+    private final class BandTask extends RecursiveAction {
+        private final CandidateSnapshot snapshot;
+        private final Shortlists lists;
+        private final int from;
+        private final int to;
+        private final int maxTolerance;
+
+        BandTask(CandidateSnapshot snapshot, Shortlists lists, int from, int to, int maxTolerance) {
+            this.snapshot = snapshot;
+            this.lists = lists;
+            this.from = from;
+            this.to = to;
+            this.maxTolerance = maxTolerance;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > bandSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BandTask(snapshot, lists, from, mid, maxTolerance),
+                          new BandTask(snapshot, lists, mid, to, maxTolerance));
+                return;
+            }
+            // Overlap margins: any partner of a core player lies within maxTolerance of the core
+            int marginFrom = snapshot.lowerBound((long) snapshot.sortedElo[from] - maxTolerance);
+            int marginTo = snapshot.lowerBound((long) snapshot.sortedElo[to - 1] + maxTolerance + 1);
+            for (int p = from; p < to; p++) {
+                buildShortlist(snapshot.byElo[p], marginFrom, marginTo);
+            }
+        }
+
+        private void buildShortlist(int a, int marginFrom, int marginTo) {
+            int eloA = snapshot.elo[a];
+            int tolA = snapshot.tolerance[a];
+            int rankA = snapshot.rank[a];
+            long maxElo = (long) eloA + tolA;
+            int[] shortlist = lists.shortlist;
+            int base = a * shortlistSize;
+            int length = 0;
+            int count = 0;
+
+            int start = Math.max(marginFrom, snapshot.lowerBound((long) eloA - tolA));
+            for (int p = start; p < marginTo; p++) {
+                if (snapshot.sortedElo[p] > maxElo) {
+                    break;
+                }
+                int b = snapshot.byElo[p];
+                if (snapshot.rank[b] <= rankA || !compatible(snapshot, a, b)) {
+                    continue;
+                }
+                count++;
+                // Insertion into the bounded, preference-ordered shortlist
+                int pos = length;
+                while (pos > 0 && prefers(snapshot, a, b, shortlist[base + pos - 1])) {
+                    pos--;
+                }
+                if (pos >= shortlistSize) {
+                    continue;
+                }
+                int last = Math.min(length, shortlistSize - 1);
+                System.arraycopy(shortlist, base + pos, shortlist, base + pos + 1, last - pos);
+                shortlist[base + pos] = b;
+                length = Math.min(length + 1, shortlistSize);
+            }
+            lists.length[a] = length;
+            lists.candidateCount[a] = count;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.games.matchmakingservice.service;
+
+import org.games.matchmakingservice.domain.MatchResult;
+
+/**
+ * Published on the matcher thread once a 1v1 match has been finalized, stored and broadcast.
+ * Listeners must return quickly: they run inside the matchmaking cycle.
+ *
+ * @param match The created match
+ * @param queue The queue both players were matched from
+ */
+public record MatchCreatedEvent(MatchResult match, QueueKey queue) {
+}
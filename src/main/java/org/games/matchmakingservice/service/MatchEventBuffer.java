@@ -0,0 +1,256 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recent match events per user, so a client whose socket dropped can resume without polling.
+ * <p>
+ * Every match is sent to both players on {@code /user}{@value #USER_DESTINATION} with a per-user
+ * sequence number and kept in a small ring buffer. A client that reconnects with a
+ * {@value #RESUME_HEADER} header on CONNECT is sent, once it subscribes again, every buffered
+ * event after that sequence, followed by a {@code RESUMED} summary that says whether the buffer
+ * still covered the whole gap. Resumes are served from memory on the node that buffered the
+ * events; like the STOMP broker, buffers are not shared between nodes.
+ */
+@Service
+public class MatchEventBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchEventBuffer.class);
+
+    static final String USER_DESTINATION = "/queue/matches";
+    static final String RESUME_HEADER = "resume-from";
+
+    /**
+     * A bounded ring of one user's most recent events. Appends and reads lock the ring, so a
+     * resume never interleaves with a live append for the same user.
+     */
+    static final class Ring {
+        private final Map<String, Object>[] events;
+        private long lastSeq;
+        private long lastAppendMillis;
+
+        @SuppressWarnings("unchecked")
+        Ring(int capacity) {
+            this.events = new Map[capacity];
+        }
+
+        /**
+         * Append an event, assigning it the next sequence number; overwrites the oldest when full.
+         */
+        synchronized Map<String, Object> append(MatchResult match, long now) {
+            long seq = ++lastSeq;
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "MATCH_FOUND");
+            event.put("seq", seq);
+            event.put("match", match);
+            events[(int) ((seq - 1) % events.length)] = event;
+            lastAppendMillis = now;
+            return event;
+        }
+
+        /**
+         * Events after {@code afterSeq}, oldest first; limited to what the ring still holds.
+         */
+        synchronized List<Map<String, Object>> since(long afterSeq) {
+            long first = Math.max(afterSeq + 1, oldestSeq());
+            List<Map<String, Object>> missed = new ArrayList<>((int) Math.max(0, lastSeq - first + 1));
+            for (long seq = first; seq <= lastSeq; seq++) {
+                missed.add(events[(int) ((seq - 1) % events.length)]);
+            }
+            return missed;
+        }
+
+        synchronized long oldestSeq() {
+            return Math.max(1, lastSeq - events.length + 1);
+        }
+
+        synchronized long lastSeq() {
+            return lastSeq;
+        }
+
+        synchronized boolean idleSince(long cutoffMillis) {
+            return lastAppendMillis < cutoffMillis;
+        }
+    }
+
+    // A CONNECT that asked to resume, waiting for the session to subscribe to its match queue
+    private record PendingResume(String user, long afterSeq) {
+    }
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PendingResume> pendingResumes = new ConcurrentHashMap<>();
+    private final Counter replayedCounter;
+    private final Counter incompleteResumeCounter;
+
+    @Value("${match.resume.buffer-size:16}")
+    private int bufferSize; // Match events kept per user
+
+    @Value("${match.resume.retention-seconds:300}")
+    private long retentionSeconds; // How long a user's buffer is kept after their last event
+
+    public MatchEventBuffer(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.replayedCounter = Counter.builder("matchmaking.resume.replayed")
+                .description("Buffered match events replayed to reconnecting clients")
+                .register(meterRegistry);
+        this.incompleteResumeCounter = Counter.builder("matchmaking.resume.incomplete")
+                .description("Resumes that asked for events no longer buffered")
+                .register(meterRegistry);
+        Gauge.builder("matchmaking.resume.buffered.users", rings, ConcurrentMap::size)
+                .description("Users with buffered match events")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onMatchCreated(MatchCreatedEvent event) {
+        MatchResult match = event.match();
+        long now = System.currentTimeMillis();
+        deliver(match.getPlayerA(), match, now);
+        deliver(match.getPlayerB(), match, now);
+    }
+
+    private void deliver(String user, MatchResult match, long now) {
+        Ring ring = rings.computeIfAbsent(user, u -> new Ring(Math.max(1, bufferSize)));
+        // Sent under the ring's lock so a concurrent resume of this user sees a consistent order
+        synchronized (ring) {
+            messagingTemplate.convertAndSendToUser(user, USER_DESTINATION, ring.append(match, now));
+        }
+    }
+
+    /**
+     * Events buffered for a user after {@code afterSeq}, oldest first.
+     */
+    public List<Map<String, Object>> eventsSince(String user, long afterSeq) {
+        Ring ring = rings.get(user);
+        return ring != null ? ring.since(afterSeq) : List.of();
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        MessageHeaders headers = event.getMessage().getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        // The CONNECTED message carries the client's CONNECT frame and its native headers
+        Object connect = headers.get(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        if (user == null || sessionId == null || !(connect instanceof Message<?> connectMessage)) {
+            return;
+        }
+        String resumeFrom = StompHeaderAccessor.wrap(connectMessage).getFirstNativeHeader(RESUME_HEADER);
+        if (resumeFrom == null) {
+            return;
+        }
+        try {
+            pendingResumes.put(sessionId, new PendingResume(user.getName(), Long.parseLong(resumeFrom.trim())));
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring {} header '{}' on session {}", RESUME_HEADER, resumeFrom, sessionId);
+        }
+    }
+
+    /**
+     * Replay once the resuming session subscribes to its match queue; sent any earlier, the
+     * events would have no subscription to land on.
+     */
+    @EventListener
+    public void onSessionSubscribe(SessionSubscribeEvent event) {
+        MessageHeaders headers = event.getMessage().getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (sessionId == null || destination == null || !destination.endsWith("/user" + USER_DESTINATION)) {
+            return;
+        }
+        PendingResume pending = pendingResumes.remove(sessionId);
+        if (pending != null) {
+            resume(pending.user(), sessionId, pending.afterSeq());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        pendingResumes.remove(event.getSessionId());
+    }
+
+    /**
+     * Send one session everything buffered for its user after {@code afterSeq}, then a summary.
+     */
+    void resume(String user, String sessionId, long afterSeq) {
+        Ring ring = rings.get(user);
+        long lastSeq;
+        boolean complete;
+        int replayed = 0;
+        if (ring == null) {
+            lastSeq = 0;
+            complete = afterSeq == 0;
+        } else {
+            synchronized (ring) {
+                lastSeq = ring.lastSeq();
+                // A client ahead of the buffer has seen events from before a restart of this node
+                complete = afterSeq + 1 >= ring.oldestSeq() && afterSeq <= lastSeq;
+                for (Map<String, Object> event : ring.since(afterSeq)) {
+                    Map<String, Object> replay = new LinkedHashMap<>(event);
+                    replay.put("replayed", true);
+                    sendToSession(user, sessionId, replay);
+                    replayed++;
+                }
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "RESUMED");
+        summary.put("from", afterSeq);
+        summary.put("lastSeq", lastSeq);
+        summary.put("replayed", replayed);
+        summary.put("complete", complete);
+        sendToSession(user, sessionId, summary);
+
+        replayedCounter.increment(replayed);
+        if (!complete) {
+            incompleteResumeCounter.increment();
+        }
+        log.debug("Resumed {} on session {} after seq {}: {} events replayed, complete={}",
+                user, sessionId, afterSeq, replayed, complete);
+    }
+
+    private void sendToSession(String user, String sessionId, Map<String, Object> payload) {
+        // A session ID header narrows the user destination to that one session
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(user, USER_DESTINATION, payload, headers.getMessageHeaders());
+    }
+
+    /**
+     * Drop buffers of users with no event for the retention period.
+     */
+    @Scheduled(fixedDelayString = "${match.resume.sweep-ms:60000}")
+    public void expireBuffers() {
+        long cutoff = System.currentTimeMillis() - retentionSeconds * 1000;
+        rings.entrySet().removeIf(entry -> entry.getValue().idleSince(cutoff));
+    }
+}
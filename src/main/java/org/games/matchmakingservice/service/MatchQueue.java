@@ -0,0 +1,104 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one matchmaking queue: its Redis keys, Elo tolerance settings, the matcher's reusable
+ * candidate snapshot and the queue's tagged meters.
+ * <p>
+ * One instance exists per {@link QueueKey}. The snapshot is only touched by that queue's matcher
+ * thread, so queues are matched concurrently without sharing mutable state.
+ */
+final class MatchQueue {
+
+    private static final String QUEUE_PREFIX = "matchmaking:queue";
+    private static final String REQUESTS_PREFIX = "matchmaking:requests";
+
+    final QueueKey key;
+    final String queueKey;
+    final String requestsKey;
+
+    // Tolerance settings; null means "use the service-wide value"
+    final Integer eloTolerance;
+    final Double toleranceGrowthPerSecond;
+    final Integer maxEloTolerance;
+
+    // Latency regions in snapshot index order; empty when matching ignores latency
+    final String[] latencyRegions;
+
+    final CandidateSnapshot snapshot = new CandidateSnapshot(64);
+
+    // Presence of queued players, also matcher-thread only: who was seen online during their wait,
+    // since when held-out players have been offline, and how many sat out the last cycle
+    final Set<String> seenOnline = new HashSet<>();
+    final Map<String, Long> offlineSince = new HashMap<>();
+    int heldOut;
+
+    // Players waiting, tracked on enqueue/dequeue and re-synced from every cycle's snapshot
+    final AtomicLong depth = new AtomicLong();
+
+    // Bumped whenever this node sees the queue's membership change; the status push compares it
+    final AtomicLong version = new AtomicLong();
+
+    // Written by the matcher thread at most once per insight interval, or whenever a cycle leaves
+    // fewer than two players; read by monitoring
+    volatile QueueInsight insight;
+
+    // Null when the registry is mocked in tests
+    final Timer processingTimer;
+    final Timer creationTimer;
+    final Timer waitTimer;
+    final Counter matchesCounter;
+    final Timer latencyTimer;
+
+    MatchQueue(QueueKey key, Integer eloTolerance, Double toleranceGrowthPerSecond, Integer maxEloTolerance,
+               String[] latencyRegions, Timer processingTimer, Timer creationTimer, Timer waitTimer,
+               Counter matchesCounter, Timer latencyTimer) {
+        this.key = key;
+        this.queueKey = redisKey(QUEUE_PREFIX, key);
+        this.requestsKey = redisKey(REQUESTS_PREFIX, key);
+        this.eloTolerance = eloTolerance;
+        this.toleranceGrowthPerSecond = toleranceGrowthPerSecond;
+        this.maxEloTolerance = maxEloTolerance;
+        this.latencyRegions = latencyRegions;
+        this.processingTimer = processingTimer;
+        this.creationTimer = creationTimer;
+        this.waitTimer = waitTimer;
+        this.matchesCounter = matchesCounter;
+        this.latencyTimer = latencyTimer;
+        snapshot.setRegionCount(latencyRegions.length);
+    }
+
+    /**
+     * Snapshot index of a latency region, or -1 if it is not configured.
+     */
+    int regionIndex(String region) {
+        for (int r = 0; r < latencyRegions.length; r++) {
+            if (latencyRegions[r].equalsIgnoreCase(region)) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The default queue keeps the original key names so existing data and tooling still apply.
+     */
+    private static String redisKey(String prefix, QueueKey key) {
+        return key.isDefault() ? prefix : prefix + ":" + key.mode() + ":" + key.region();
+    }
+
+    /**
+     * Meter tags identifying this queue.
+     */
+    static String[] tags(QueueKey key) {
+        return new String[] {"mode", key.mode(), "region", key.region()};
+    }
+}
@@ -0,0 +1,268 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Matchmaking tickets: a join hands out a ticket ID, and the holder can wait on it for the match
+ * instead of keeping a WebSocket subscription.
+ * <p>
+ * Tickets settle from the match finalization path ({@link MatchCreatedEvent}) and from leaves
+ * ({@link PlayerDequeuedEvent}). Waiters are plain callbacks, so an HTTP long-poll holds no
+ * thread while it waits. A ticket is issued before its join reaches the queue, so a match made
+ * right after the join still settles it, and is cancelled if the join fails.
+ * <p>
+ * Like the STOMP broker, tickets are node-local: they live on the node that issued them and only
+ * that node's events settle them. A match finalized or a leave handled by another node never
+ * settles the ticket, which stays WAITING until it expires.
+ */
+@Service
+public class MatchTicketService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchTicketService.class);
+
+    public enum Status { WAITING, MATCHED, CANCELLED, EXPIRED }
+
+    /**
+     * What a ticket holder is told.
+     *
+     * @param match The created match; null unless {@code status} is MATCHED
+     */
+    public record TicketView(String ticketId, String playerId, QueueKey queue, Status status, MatchResult match) {
+    }
+
+    private static final class Ticket {
+        final String ticketId;
+        final String playerId;
+        final QueueKey queue;
+        final long issuedAtMillis;
+
+        private Status status = Status.WAITING;
+        private MatchResult match;
+        private long settledAtMillis;
+        private final List<Consumer<TicketView>> waiters = new ArrayList<>(1);
+
+        Ticket(String ticketId, String playerId, QueueKey queue, long issuedAtMillis) {
+            this.ticketId = ticketId;
+            this.playerId = playerId;
+            this.queue = queue;
+            this.issuedAtMillis = issuedAtMillis;
+        }
+
+        synchronized TicketView view() {
+            return new TicketView(ticketId, playerId, queue, status, match);
+        }
+
+        synchronized boolean isWaiting() {
+            return status == Status.WAITING;
+        }
+
+        synchronized boolean isExpired(long now, long ttlMillis, long retentionMillis) {
+            return status == Status.WAITING ? now - issuedAtMillis >= ttlMillis : now - settledAtMillis >= retentionMillis;
+        }
+
+        /**
+         * Register a waiter, or answer it at once if the ticket is already settled.
+         *
+         * @return Removes the waiter again, e.g. when its request times out
+         */
+        Runnable listen(Consumer<TicketView> waiter) {
+            TicketView settled;
+            synchronized (this) {
+                if (status == Status.WAITING) {
+                    waiters.add(waiter);
+                    return () -> unlisten(waiter);
+                }
+                settled = new TicketView(ticketId, playerId, queue, status, match);
+            }
+            waiter.accept(settled);
+            return () -> { };
+        }
+
+        private synchronized void unlisten(Consumer<TicketView> waiter) {
+            waiters.remove(waiter);
+        }
+
+        /**
+         * Settle a waiting ticket and answer its waiters outside the lock.
+         *
+         * @return false if the ticket was already settled
+         */
+        boolean settle(Status outcome, MatchResult result, long now) {
+            List<Consumer<TicketView>> toNotify;
+            TicketView settled;
+            synchronized (this) {
+                if (status != Status.WAITING) {
+                    return false;
+                }
+                status = outcome;
+                match = result;
+                settledAtMillis = now;
+                settled = new TicketView(ticketId, playerId, queue, status, match);
+                toNotify = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+            for (Consumer<TicketView> waiter : toNotify) {
+                try {
+                    waiter.accept(settled);
+                } catch (Exception e) {
+                    log.warn("Ticket {} waiter failed: {}", ticketId, e.toString());
+                }
+            }
+            return true;
+        }
+    }
+
+    // A player waiting in one queue
+    private record Entry(String playerId, QueueKey queue) {
+    }
+
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Entry, Ticket> waiting = new ConcurrentHashMap<>();
+    private final AtomicInteger parkedWaiters = new AtomicInteger();
+
+    @Value("${match.ticket.ttl-seconds:1800}")
+    private long ttlSeconds; // How long an unmatched ticket stays valid; matches the queue entry TTL
+
+    @Value("${match.ticket.retention-seconds:300}")
+    private long retentionSeconds; // How long a settled ticket can still be read
+
+    public MatchTicketService(MeterRegistry meterRegistry) {
+        Gauge.builder("matchmaking.tickets.open", tickets, ConcurrentMap::size)
+                .description("Matchmaking tickets issued and not yet expired")
+                .strongReference(true)
+                .register(meterRegistry);
+        Gauge.builder("matchmaking.tickets.waiters", parkedWaiters, AtomicInteger::get)
+                .description("Requests currently waiting on a matchmaking ticket")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Issue a ticket for a player about to join a queue; call it before the join, and
+     * {@link #cancel} if the join fails. Joining the same queue again while still waiting returns
+     * the same ticket.
+     *
+     * @return The ticket ID
+     */
+    public String issue(String playerId, QueueKey queue) {
+        long now = System.currentTimeMillis();
+        Ticket ticket = waiting.compute(new Entry(playerId, queue), (entry, current) ->
+                current != null && current.isWaiting() ? current : new Ticket(UUID.randomUUID().toString(), playerId, queue, now));
+        tickets.putIfAbsent(ticket.ticketId, ticket);
+        return ticket.ticketId;
+    }
+
+    /**
+     * Settle a ticket as CANCELLED because its join did not go through.
+     */
+    public void cancel(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return;
+        }
+        waiting.remove(new Entry(ticket.playerId, ticket.queue), ticket);
+        if (ticket.settle(Status.CANCELLED, null, System.currentTimeMillis())) {
+            log.debug("Ticket {} of player {} cancelled: the join failed", ticketId, ticket.playerId);
+        }
+    }
+
+    /**
+     * Current state of a ticket, or null if it is unknown or expired.
+     */
+    public TicketView getTicket(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        return ticket != null ? ticket.view() : null;
+    }
+
+    /**
+     * Have {@code waiter} called once the ticket settles; at once if it already has. The callback
+     * runs on the thread that settles the ticket, usually a matcher thread, so it must not block.
+     *
+     * @return Deregisters the waiter (call it when the wait times out), or null if the ticket is unknown
+     */
+    public Runnable awaitSettled(String ticketId, Consumer<TicketView> waiter) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return null;
+        }
+        parkedWaiters.incrementAndGet();
+        AtomicInteger released = new AtomicInteger();
+        Runnable release = () -> {
+            if (released.getAndIncrement() == 0) {
+                parkedWaiters.decrementAndGet();
+            }
+        };
+        Runnable unlisten = ticket.listen(view -> {
+            release.run();
+            waiter.accept(view);
+        });
+        return () -> {
+            unlisten.run();
+            release.run();
+        };
+    }
+
+    @EventListener
+    public void onMatchCreated(MatchCreatedEvent event) {
+        MatchResult match = event.match();
+        settle(match.getPlayerA(), event.queue(), Status.MATCHED, match);
+        settle(match.getPlayerB(), event.queue(), Status.MATCHED, match);
+    }
+
+    @EventListener
+    public void onPlayerDequeued(PlayerDequeuedEvent event) {
+        settle(event.playerId(), event.queue(), Status.CANCELLED, null);
+    }
+
+    private void settle(String playerId, QueueKey queue, Status outcome, MatchResult match) {
+        Ticket ticket = waiting.remove(new Entry(playerId, queue));
+        if (ticket == null) {
+            return;
+        }
+        if (ticket.settle(outcome, match, System.currentTimeMillis())) {
+            log.debug("Ticket {} of player {} settled as {}", ticket.ticketId, playerId, outcome);
+        }
+    }
+
+    /**
+     * Drop unmatched tickets past their TTL, answering their waiters, and settled tickets past
+     * their retention.
+     */
+    @Scheduled(fixedDelayString = "${match.ticket.sweep-ms:60000}")
+    public void expireTickets() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = ttlSeconds * 1000;
+        long retentionMillis = retentionSeconds * 1000;
+        int removed = 0;
+        for (Ticket ticket : tickets.values()) {
+            if (!ticket.isExpired(now, ttlMillis, retentionMillis)) {
+                continue;
+            }
+            waiting.remove(new Entry(ticket.playerId, ticket.queue), ticket);
+            // Answers anyone still waiting on an unmatched ticket
+            ticket.settle(Status.EXPIRED, null, now);
+            if (tickets.remove(ticket.ticketId, ticket)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Expired {} matchmaking tickets", removed);
+        }
+    }
+}
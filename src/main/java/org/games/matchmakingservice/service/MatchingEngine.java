@@ -0,0 +1,18 @@
+package org.games.matchmakingservice.service;
+
+/**
+ * Strategy for pairing the players of one matchmaking cycle.
+ * <p>
+ * The active engine is chosen with {@code match.engine} ({@code greedy} or {@code optimal}).
+ * Implementations record pairs with {@link CandidateSnapshot#addPair} in the order they should
+ * be finalized, most urgent first, since a cycle may stop early when its budget runs out.
+ */
+interface MatchingEngine {
+
+    /**
+     * Find pairs among the players in the snapshot.
+     *
+     * @param snapshot A prepared snapshot with tolerances filled in
+     */
+    void findPairs(CandidateSnapshot snapshot);
+}
@@ -0,0 +1,223 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hybrid trigger for the matchmaking loop, running one dedicated matcher thread per queue.
+ * Enqueue events wake the queue's matcher after a short debounce so compatible players are paired
+ * within milliseconds, while a slower fixed-delay tick keeps widening tolerance for players
+ * who are still waiting. The tick is skipped entirely while the queue is known to be idle.
+ * <p>
+ * Every cycle of a queue runs on that queue's single thread, so its cycles never overlap and a
+ * slow cycle cannot pile ticks up behind it, while a busy queue never delays another mode or
+ * region. Each cycle is bounded by a time budget; unfinished work resumes on the next tick.
+ * Team queues are processed on the default queue's thread after its 1v1 cycle, sharing
+ * whatever is left of the cycle budget.
+ */
+@Service
+public class MatchmakingScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingScheduler.class);
+
+    private final MatchmakingService matchmakingService;
+    private final TeamMatchmakingService teamMatchmakingService;
+    private final ConcurrentMap<QueueKey, Matcher> matchers = new ConcurrentHashMap<>();
+
+    private final Counter overrunCounter;
+    private final Counter skippedTickCounter;
+
+    // Set once shut down, so late enqueue events do not start new matcher threads
+    private volatile boolean stopped;
+
+    /**
+     * Matcher thread and trigger state of one queue.
+     */
+    private static final class Matcher {
+        final ScheduledExecutorService executor;
+        // Set while a debounced wake-up is scheduled but has not started yet
+        final AtomicBoolean wakePending = new AtomicBoolean(false);
+        // True when the last completed cycle left fewer than 2 players (or parties) waiting and
+        // no offline player to evict
+        volatile boolean idle;
+
+        Matcher(QueueKey key) {
+            String name = key.isDefault() ? "matchmaking-matcher" : "matchmaking-matcher-" + key.mode() + "-" + key.region();
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Value("${match.trigger-debounce-ms:25}")
+    private long debounceMs;
+
+    @Value("${match.widen-rate-ms:2000}")
+    private long widenRateMs;
+
+    @Value("${match.cycle-budget-ms:250}")
+    private long cycleBudgetMs;
+
+    public MatchmakingScheduler(MatchmakingService matchmakingService,
+                                TeamMatchmakingService teamMatchmakingService,
+                                MeterRegistry meterRegistry) {
+        this.matchmakingService = matchmakingService;
+        this.teamMatchmakingService = teamMatchmakingService;
+        this.overrunCounter = Counter.builder("matchmaking.cycle.overrun")
+                .description("Matchmaking cycles that ran longer than the widen tick period")
+                .register(meterRegistry);
+        this.skippedTickCounter = Counter.builder("matchmaking.cycle.skipped.ticks")
+                .description("Widen ticks that could not run on time because a cycle overran")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (QueueKey key : matchmakingService.getQueueKeys()) {
+            matcher(key).executor.scheduleWithFixedDelay(() -> onWidenTick(key),
+                    widenRateMs, widenRateMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Matchmaking scheduler started for queues {}: widen tick {}ms, debounce {}ms, cycle budget {}ms",
+                matchers.keySet(), widenRateMs, debounceMs, cycleBudgetMs);
+    }
+
+    private Matcher matcher(QueueKey key) {
+        return matchers.computeIfAbsent(key, Matcher::new);
+    }
+
+    /**
+     * Wake the queue's matcher shortly after a player joins.
+     * Bursts of joins inside the debounce window collapse into a single cycle.
+     */
+    @EventListener
+    public void onPlayerEnqueued(PlayerEnqueuedEvent event) {
+        if (stopped) {
+            log.debug("Matchmaking scheduler is shut down; ignoring enqueue of {}", event.playerId());
+            return;
+        }
+        QueueKey key = event.queue();
+        Matcher matcher = matcher(key);
+        matcher.idle = false;
+        if (!matcher.wakePending.compareAndSet(false, true)) {
+            return; // A wake-up is already scheduled and will see this player
+        }
+        try {
+            matcher.executor.schedule(() -> {
+                matcher.wakePending.set(false);
+                runCycle(key);
+            }, debounceMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            matcher.wakePending.set(false);
+            log.debug("Matchmaking scheduler is shut down; ignoring enqueue of {}", event.playerId());
+        }
+    }
+
+    /**
+     * Wake idle matchers when a session closes. A lone queued player who dropped is only held
+     * out, and evicted after the presence grace period, by cycles that run after the drop.
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        for (Matcher matcher : matchers.values()) {
+            matcher.idle = false;
+        }
+    }
+
+    /**
+     * Widen tick of the default queue.
+     */
+    void onWidenTick() {
+        onWidenTick(QueueKey.DEFAULT);
+    }
+
+    /**
+     * Periodic tick that lets dynamic tolerance widen for players who are still waiting.
+     * Skipped without touching Redis while the queue is idle.
+     */
+    void onWidenTick(QueueKey key) {
+        if (matcher(key).idle) {
+            log.debug("Matchmaking queue {} idle; skipping widen tick", key);
+            return;
+        }
+        runCycle(key);
+    }
+
+    /**
+     * Run one budgeted matchmaking cycle of a queue on the calling (matcher) thread.
+     */
+    void runCycle(QueueKey key) {
+        Matcher matcher = matcher(key);
+        long start = System.nanoTime();
+        try {
+            long budgetNanos = TimeUnit.MILLISECONDS.toNanos(cycleBudgetMs);
+            int waiting = matchmakingService.processMatchmaking(key, budgetNanos);
+            if (waiting >= 0) {
+                int partiesWaiting = 0;
+                if (key.isDefault()) {
+                    // Same pause/connection gate as 1v1: a -1 means no queue should be touched
+                    long remaining = Math.max(0L, budgetNanos - (System.nanoTime() - start));
+                    partiesWaiting = teamMatchmakingService.processTeamMatchmaking(remaining);
+                }
+                // An offline player is only evicted by a later cycle, so keep ticking until then
+                matcher.idle = waiting < 2 && partiesWaiting < 2 && !matchmakingService.isTrackingPresence(key);
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic tick
+            log.error("Matchmaking cycle for {} failed", key, e);
+        }
+        recordOverrun(key, System.nanoTime() - start);
+    }
+
+    private void recordOverrun(QueueKey key, long elapsedNanos) {
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(widenRateMs);
+        if (periodNanos <= 0 || elapsedNanos <= periodNanos) {
+            return;
+        }
+        long missedTicks = elapsedNanos / periodNanos;
+        overrunCounter.increment();
+        skippedTickCounter.increment(missedTicks);
+        log.warn("Matchmaking cycle for {} overran: {}ms against a {}ms tick ({} tick(s) skipped)",
+                key, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), widenRateMs, missedTicks);
+    }
+
+    /**
+     * Check whether the default queue's widen tick is currently being skipped.
+     */
+    public boolean isIdle() {
+        return isIdle(QueueKey.DEFAULT);
+    }
+
+    /**
+     * Check whether a queue's widen tick is currently being skipped.
+     */
+    public boolean isIdle(QueueKey key) {
+        Matcher matcher = matchers.get(key);
+        return matcher != null && matcher.idle;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        for (Matcher matcher : matchers.values()) {
+            matcher.executor.shutdownNow();
+        }
+    }
+}
@@ -10,15 +10,20 @@ import org.games.matchmakingservice.dto.MatchResultDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import org.games.matchmakingservice.domain.MatchEntity;
 import org.games.matchmakingservice.domain.PlayerStats;
 import org.games.matchmakingservice.repository.MatchRepository;
@@ -27,21 +32,33 @@ import org.games.matchmakingservice.repository.PlayerStatsRepository;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Core matchmaking service that handles player queuing, matching, and result broadcasting.
- * Uses Redis sorted sets for efficient player matching and scheduled tasks for match processing.
+ * Uses Redis sorted sets for efficient player matching; cycles are driven by {@link MatchmakingScheduler}.
+ * <p>
+ * Players queue per game mode and region ({@link QueueKey}); every queue has its own Redis keys,
+ * tolerance settings and candidate snapshot, so each can be matched on its own thread. Methods
+ * without a queue argument act on {@link QueueKey#DEFAULT}.
  */
 @Service
-public class MatchmakingService {
+public class MatchmakingService implements EnvironmentAware {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final EloService eloService;
@@ -50,15 +67,26 @@ public class MatchmakingService {
     private final MatchRepository matchRepository;
     private final PlayerStatsRepository playerStatsRepository;
     private final WebSocketConnectionTracker connectionTracker;
+    private final PresenceRegistry presenceRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MatchingEngine matchingEngine;
 
-    // Monitoring metrics
-    private final Timer matchmakingProcessingTimer;
-    private final Timer matchCreationTimer;
+    // Monitoring metrics; cycle, match creation and wait timers are per queue, see MatchQueue
     private final Counter enqueueSuccessCounter;
     private final Counter enqueueFailureCounter;
+    private final Counter enqueueDuplicateCounter;
+    private final Counter enqueueConflictCounter;
     private final Counter dequeueSuccessCounter;
     private final Counter dequeueFailureCounter;
-    private final Timer playerWaitTimeTimer;
+    private final Counter budgetExhaustedCounter;
+    private final Counter matchesMadeCounter;
+    private final Counter ghostMatchesAvoidedCounter;
+    private final Counter presenceResumedCounter;
+    private final Counter presenceEvictedCounter;
+    private final DistributionSummary batchJoinSize;
+    private final DistributionSummary batchLeaveSize;
+    private final Timer batchJoinTimer;
+    private final Timer batchLeaveTimer;
 
     public MatchmakingService(RedisTemplate<String, Object> redisTemplate,
                             EloService eloService,
@@ -66,7 +94,10 @@ public class MatchmakingService {
                             MeterRegistry meterRegistry,
                             MatchRepository matchRepository,
                             PlayerStatsRepository playerStatsRepository,
-                            WebSocketConnectionTracker connectionTracker) {
+                            WebSocketConnectionTracker connectionTracker,
+                            PresenceRegistry presenceRegistry,
+                            ApplicationEventPublisher eventPublisher,
+                            MatchingEngine matchingEngine) {
         this.redisTemplate = redisTemplate;
         this.eloService = eloService;
         this.messagingTemplate = messagingTemplate;
@@ -74,15 +105,28 @@ public class MatchmakingService {
         this.matchRepository = matchRepository;
         this.playerStatsRepository = playerStatsRepository;
         this.connectionTracker = connectionTracker;
+        this.presenceRegistry = presenceRegistry;
+        this.eventPublisher = eventPublisher;
+        this.matchingEngine = matchingEngine;
 
         // Initialize monitoring metrics with safe registration
-        this.matchmakingProcessingTimer = createTimer(meterRegistry, "matchmaking.processing.time", "Time taken to process matchmaking queue");
-        this.matchCreationTimer = createTimer(meterRegistry, "matchmaking.match.creation.time", "Time taken to create a match");
         this.enqueueSuccessCounter = createCounter(meterRegistry, "matchmaking.enqueue.success", "Number of successful player enqueues");
         this.enqueueFailureCounter = createCounter(meterRegistry, "matchmaking.enqueue.failure", "Number of failed player enqueues");
+        this.enqueueDuplicateCounter = createCounter(meterRegistry, "matchmaking.enqueue.duplicate", "Joins by players who were already queued");
+        this.enqueueConflictCounter = createCounter(meterRegistry, "matchmaking.enqueue.conflict", "Joins turned away because the player waits in another queue");
         this.dequeueSuccessCounter = createCounter(meterRegistry, "matchmaking.dequeue.success", "Number of successful player dequeues");
         this.dequeueFailureCounter = createCounter(meterRegistry, "matchmaking.dequeue.failure", "Number of failed player dequeues");
-        this.playerWaitTimeTimer = createTimer(meterRegistry, "matchmaking.player.wait.time", "Time players spend waiting in queue before being matched");
+        this.budgetExhaustedCounter = createCounter(meterRegistry, "matchmaking.cycle.budget.exhausted", "Matchmaking cycles that stopped early because their time budget ran out");
+        this.matchesMadeCounter = createCounter(meterRegistry, "matchmaking.matches.made", "Matches made across all solo queues");
+        this.ghostMatchesAvoidedCounter = createCounter(meterRegistry, "matchmaking.presence.ghost.avoided", "Queued players found offline and held out of pairing instead of being matched");
+        this.presenceResumedCounter = createCounter(meterRegistry, "matchmaking.presence.resumed", "Held-out players who came back online within the grace period");
+        this.presenceEvictedCounter = createCounter(meterRegistry, "matchmaking.presence.evicted", "Players removed from their queue after staying offline past the grace period");
+        this.batchJoinSize = createSummary(meterRegistry, "matchmaking.batch.size", "Players per batch request", "operation", "join");
+        this.batchLeaveSize = createSummary(meterRegistry, "matchmaking.batch.size", "Players per batch request", "operation", "leave");
+        this.batchJoinTimer = createHistogramTimer(meterRegistry, "matchmaking.batch.latency", "Time taken to apply a batch request", null, "operation", "join");
+        this.batchLeaveTimer = createHistogramTimer(meterRegistry, "matchmaking.batch.latency", "Time taken to apply a batch request", null, "operation", "leave");
+        // Registered once; reads the live per-queue depths on every scrape
+        registerGauge(meterRegistry, "matchmaking.queue.size", "Players waiting across all solo queues", this::totalQueueDepth);
     }
 
     private static final Logger log = LoggerFactory.getLogger(MatchmakingService.class);
@@ -93,10 +137,11 @@ public class MatchmakingService {
     /**
      * Safely create a Timer metric, handling test scenarios where MeterRegistry might be mocked.
      */
-    private static Timer createTimer(MeterRegistry meterRegistry, String name, String description) {
+    private static Timer createTimer(MeterRegistry meterRegistry, String name, String description, String... tags) {
         try {
             return Timer.builder(name)
                     .description(description)
+                    .tags(tags)
                     .register(meterRegistry);
         } catch (Exception e) {
             log.warn("Failed to register timer metric '{}': {}", name, e.getMessage());
@@ -105,13 +150,52 @@ public class MatchmakingService {
         }
     }
 
+    /**
+     * Safely create a Timer metric that publishes a percentile histogram, p50/p95/p99 and
+     * optional SLO boundaries in milliseconds.
+     */
+    private static Timer createHistogramTimer(MeterRegistry meterRegistry, String name, String description,
+                                              long[] sloMillis, String... tags) {
+        try {
+            Duration[] slos = sloMillis == null ? new Duration[0]
+                    : Arrays.stream(sloMillis).filter(ms -> ms > 0).sorted().mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+            return Timer.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(slos)
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            log.warn("Failed to register timer metric '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Safely create a DistributionSummary metric that publishes a percentile histogram.
+     */
+    private static DistributionSummary createSummary(MeterRegistry meterRegistry, String name, String description, String... tags) {
+        try {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            log.warn("Failed to register summary metric '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Safely create a Counter metric, handling test scenarios where MeterRegistry might be mocked.
      */
-    private static Counter createCounter(MeterRegistry meterRegistry, String name, String description) {
+    private static Counter createCounter(MeterRegistry meterRegistry, String name, String description, String... tags) {
         try {
             return Counter.builder(name)
                     .description(description)
+                    .tags(tags)
                     .register(meterRegistry);
         } catch (Exception e) {
             log.warn("Failed to register counter metric '{}': {}", name, e.getMessage());
@@ -120,19 +204,68 @@ public class MatchmakingService {
         }
     }
 
+    /**
+     * Safely register a gauge backed by a live value, handling test scenarios where MeterRegistry might be mocked.
+     */
+    private static void registerGauge(MeterRegistry meterRegistry, String name, String description,
+                                      AtomicLong value, String... tags) {
+        try {
+            Gauge.builder(name, value, AtomicLong::get)
+                    .description(description)
+                    .tags(tags)
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            log.warn("Failed to register gauge metric '{}': {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Safely register a gauge that samples a value on every read, handling test scenarios where MeterRegistry might be mocked.
+     */
+    private static void registerGauge(MeterRegistry meterRegistry, String name, String description,
+                                      java.util.function.Supplier<Number> value) {
+        try {
+            Gauge.builder(name, value)
+                    .description(description)
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            log.warn("Failed to register gauge metric '{}': {}", name, e.getMessage());
+        }
+    }
+
     /**
      * Safely increment a counter, handling null counters in test scenarios.
      */
     private static void safeIncrement(Counter counter) {
+        safeIncrement(counter, 1);
+    }
+
+    /**
+     * Safely increment a counter by an amount, handling null counters in test scenarios.
+     */
+    private static void safeIncrement(Counter counter, double amount) {
         try {
-            if (counter != null) {
-                counter.increment();
+            if (counter != null && amount > 0) {
+                counter.increment(amount);
             }
         } catch (Exception e) {
             log.debug("Failed to increment counter: {}", e.getMessage());
         }
     }
 
+    /**
+     * Safely record a distribution sample, handling null summaries in test scenarios.
+     */
+    private static void safeRecord(DistributionSummary summary, double amount) {
+        try {
+            if (summary != null) {
+                summary.record(amount);
+            }
+        } catch (Exception e) {
+            log.debug("Failed to record summary value: {}", e.getMessage());
+        }
+    }
+
     /**
      * Safely start a timer, handling test scenarios where MeterRegistry might be mocked.
      */
@@ -172,12 +305,112 @@ public class MatchmakingService {
         }
     }
 
-    // Redis keys
-    private static final String MATCHMAKING_QUEUE = "matchmaking:queue";
-    private static final String MATCHMAKING_REQUESTS = "matchmaking:requests"; // Hash for full MatchRequest objects
+    // Redis keys; queue and request keys are per queue, see MatchQueue
     private static final String MATCHMAKING_RESULTS = "matchmaking:results";
     private static final String MATCHMAKING_ACTIVE_MATCHES = "matchmaking:active";
 
+    private static final int DEFAULT_ELO = 1500;
+
+    // Stale queue entries expire if nobody touches the queue for this long
+    private static final long QUEUE_TTL_SECONDS = Duration.ofMinutes(30).toSeconds();
+
+    // Which queue a solo player is waiting in, see ENQUEUE_SCRIPT
+    private static final String PLAYER_KEY_PREFIX = "matchmaking:player:";
+
+    /**
+     * Idempotent enqueue in one round trip: ZADD NX keeps the original score and timestamp of a
+     * player who joins twice, and HSETNX restores a missing request entry without overwriting one.
+     * KEYS[3] is the player's membership key, holding the queue they wait in (ARGV[5]); a player
+     * already waiting in another queue is turned away, so nobody can be matched twice at once.
+     * The member and request JSON arrive through the template's JSON value serializer, so the hash
+     * field is the member decoded back to a plain string. Returns 1 if the player was added, 0 if
+     * they were already in this queue and -1 if they are in another one.
+     */
+    private static final RedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>("""
+            local owner = redis.call('GET', KEYS[3])
+            if owner and owner ~= ARGV[5] then
+                return -1
+            end
+            local added = redis.call('ZADD', KEYS[1], 'NX', ARGV[2], ARGV[1])
+            redis.call('HSETNX', KEYS[2], cjson.decode(ARGV[1]), ARGV[3])
+            redis.call('SET', KEYS[3], ARGV[5], 'EX', ARGV[4])
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            return added
+            """, Long.class);
+
+    /**
+     * {@link #ENQUEUE_SCRIPT} for a whole batch, possibly spanning queues. KEYS holds one
+     * queue/requests key pair per queue, then one membership key per player; ARGV[1] is the TTL,
+     * followed by one (pair index, member, score, request JSON, queue) group per player.
+     * Returns 1, 0 or -1 per player.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ENQUEUE_BATCH_SCRIPT = new DefaultRedisScript<>("""
+            local players = (#ARGV - 1) / 5
+            local pairKeys = #KEYS - players
+            local added = {}
+            for p = 1, players do
+                local i = 2 + (p - 1) * 5
+                local pair = tonumber(ARGV[i]) * 2
+                local membership = KEYS[pairKeys + p]
+                local owner = redis.call('GET', membership)
+                if owner and owner ~= ARGV[i + 4] then
+                    added[p] = -1
+                else
+                    added[p] = redis.call('ZADD', KEYS[pair + 1], 'NX', ARGV[i + 2], ARGV[i + 1])
+                    redis.call('HSETNX', KEYS[pair + 2], cjson.decode(ARGV[i + 1]), ARGV[i + 3])
+                    redis.call('SET', membership, ARGV[i + 4], 'EX', ARGV[1])
+                end
+            end
+            for k = 1, pairKeys do
+                redis.call('EXPIRE', KEYS[k], ARGV[1])
+            end
+            return added
+            """, List.class);
+
+    /**
+     * Remove a batch of members from one queue's ZSET and request hash, and release their
+     * membership keys (KEYS[3] onwards, one per player) if they still name this queue (ARGV[1]).
+     * Returns 1 per player that was queued and 0 otherwise.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DEQUEUE_BATCH_SCRIPT = new DefaultRedisScript<>("""
+            local removed = {}
+            for i = 2, #ARGV do
+                removed[i - 1] = redis.call('ZREM', KEYS[1], ARGV[i])
+                redis.call('HDEL', KEYS[2], cjson.decode(ARGV[i]))
+                if redis.call('GET', KEYS[i + 1]) == ARGV[1] then
+                    redis.call('DEL', KEYS[i + 1])
+                end
+            end
+            return removed
+            """, List.class);
+
+    /**
+     * Delete the membership keys in KEYS that still name the queue in ARGV[1]; a key taken over
+     * by a newer join elsewhere is left alone. Returns the number of keys deleted.
+     */
+    static final RedisScript<Long> RELEASE_MEMBERSHIP_SCRIPT = new DefaultRedisScript<>("""
+            local released = 0
+            for k = 1, #KEYS do
+                if redis.call('GET', KEYS[k]) == ARGV[1] then
+                    released = released + redis.call('DEL', KEYS[k])
+                end
+            end
+            return released
+            """, Long.class);
+
+    // Created on first use so every queue picks up the configuration in effect at that point
+    private final ConcurrentMap<QueueKey, MatchQueue> queues = new ConcurrentHashMap<>();
+
+    // Shared by all status pollers; each is reloaded at most once per status cache interval
+    private final ConcurrentMap<QueueKey, SnapshotCache<QueueStatus>> queueStatuses = new ConcurrentHashMap<>();
+    private final SnapshotCache<Map<QueueKey, Long>> queueSizes = new SnapshotCache<>(this::loadQueueSizes);
+
+    // Null outside a Spring context; per-queue overrides are then not available
+    private Environment environment;
+
     // Configuration
     @Value("${match.max-wait-seconds:15}")
     private int maxWaitTimeSeconds;
@@ -194,52 +427,186 @@ public class MatchmakingService {
     @Value("${match.elo-tolerance-max:800}")
     private int maxEloTolerance; // Cap on widened tolerance
 
+    @Value("${match.modes:default}")
+    private String[] modes; // Game modes with their own queues
+
+    @Value("${match.regions:global}")
+    private String[] regions; // Regions with their own queues; every mode is offered in every region
+
+    @Value("${match.latency.regions:}")
+    private String[] latencyRegions; // Regions clients report pings to; empty ignores latency
+
+    @Value("${match.latency.max-ping-ms:80}")
+    private int maxPingMillis; // Highest acceptable ping for a player who just joined
+
+    @Value("${match.latency.growth-per-second:2}")
+    private double pingGrowthPerSecond; // How much to widen the acceptable ping per second waited
+
+    @Value("${match.latency.max-ping-ms-cap:200}")
+    private int maxPingMillisCap; // Cap on the widened ping
+
+    @Value("${match.insight.interval-ms:1000}")
+    private long insightIntervalMillis; // Minimum time between queue insight snapshots
+
+    @Value("${match.insight.elo-bucket-width:100}")
+    private int insightEloBucketWidth; // Elo range per histogram bucket
+
+    @Value("${match.slo.processing-ms:25,50,100,250}")
+    private long[] processingSloMillis; // SLO buckets for a matchmaking cycle
+
+    @Value("${match.slo.match-creation-ms:5,10,25,50}")
+    private long[] matchCreationSloMillis; // SLO buckets for creating one match
+
+    @Value("${match.slo.wait-ms:1000,5000,10000,30000,60000}")
+    private long[] waitSloMillis; // SLO buckets for a player's time in queue
+
+    @Value("${match.presence.grace-ms:30000}")
+    private long presenceGraceMillis; // How long a disconnected player is held out of pairing before eviction; negative disables presence checks
+
+    @Value("${match.status.cache-ms:1000}")
+    private long statusCacheMillis; // How long one queue status load is shared between readers
+
+    @Value("${match.status.max-players:5000}")
+    private int statusMaxPlayers; // Players listed per queue status; the total is still reported
+
+    @Override
+    public void setEnvironment(@NonNull Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * All configured queues, the default queue first. Every configured mode is offered in every
+     * configured region.
+     */
+    public List<QueueKey> getQueueKeys() {
+        Set<QueueKey> keys = new LinkedHashSet<>();
+        keys.add(QueueKey.DEFAULT);
+        String[] configuredModes = modes != null ? modes : new String[] {QueueKey.DEFAULT_MODE};
+        String[] configuredRegions = regions != null ? regions : new String[] {QueueKey.DEFAULT_REGION};
+        for (String mode : configuredModes) {
+            for (String region : configuredRegions) {
+                keys.add(QueueKey.of(mode, region));
+            }
+        }
+        return List.copyOf(keys);
+    }
+
+    /**
+     * Resolve the queue a request asks for; a missing mode or region falls back to the default.
+     *
+     * @return The queue, or null if that mode is not offered in that region
+     */
+    public QueueKey resolveQueue(String mode, String region) {
+        QueueKey key = QueueKey.of(mode, region);
+        return key.isDefault() || getQueueKeys().contains(key) ? key : null;
+    }
+
+    MatchQueue queue(QueueKey key) {
+        return queues.computeIfAbsent(key, this::createQueue);
+    }
+
+    private MatchQueue createQueue(QueueKey key) {
+        String[] tags = MatchQueue.tags(key);
+        String prefix = "match.queue." + key.mode() + "." + key.region() + ".";
+        MatchQueue queue = new MatchQueue(key,
+                queueProperty(prefix + "elo-tolerance", Integer.class),
+                queueProperty(prefix + "elo-tolerance-growth-per-second", Double.class),
+                queueProperty(prefix + "elo-tolerance-max", Integer.class),
+                configuredLatencyRegions(),
+                createHistogramTimer(meterRegistry, "matchmaking.processing.time", "Time taken to process matchmaking queue", processingSloMillis, tags),
+                createHistogramTimer(meterRegistry, "matchmaking.match.creation.time", "Time taken to create a match", matchCreationSloMillis, tags),
+                createHistogramTimer(meterRegistry, "matchmaking.player.wait.time", "Time players spend waiting in queue before being matched", waitSloMillis, tags),
+                createCounter(meterRegistry, "matchmaking.queue.matches", "Matches made from this queue", tags),
+                createTimer(meterRegistry, "matchmaking.cycle.latency.time", "Time per cycle spent on latency tolerances and the region grid", tags));
+        registerGauge(meterRegistry, "matchmaking.queue.depth", "Players waiting in this queue", queue.depth, tags);
+        log.info("Matchmaking queue {} uses keys {} and {}", key, queue.queueKey, queue.requestsKey);
+        return queue;
+    }
+
+    /**
+     * Players waiting across all solo queues created so far, from the tracked depths.
+     */
+    long totalQueueDepth() {
+        long total = 0;
+        for (MatchQueue queue : queues.values()) {
+            total += queue.depth.get();
+        }
+        return total;
+    }
+
+    private String[] configuredLatencyRegions() {
+        if (latencyRegions == null) {
+            return new String[0];
+        }
+        return Arrays.stream(latencyRegions)
+                .filter(region -> region != null && !region.isBlank())
+                .map(region -> region.trim().toLowerCase(Locale.ROOT))
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private <T> T queueProperty(String name, Class<T> type) {
+        return environment != null ? environment.getProperty(name, type) : null;
+    }
+
     /**
-     * Enqueue a player into the matchmaking queue.
+     * Enqueue a player into the default matchmaking queue.
      * 
      * @param matchRequest The player's match request
      * @return true if successfully enqueued, false otherwise
      */
     public boolean enqueuePlayer(MatchRequest matchRequest) {
+        return enqueuePlayer(matchRequest, QueueKey.DEFAULT);
+    }
+
+    /**
+     * Enqueue a player into a matchmaking queue.
+     *
+     * @param matchRequest The player's match request
+     * @param queueKey The queue to join
+     * @return true if successfully enqueued, false otherwise
+     */
+    public boolean enqueuePlayer(MatchRequest matchRequest, QueueKey queueKey) {
         if (matchRequest == null) {
             log.warn("Cannot enqueue null match request");
             return false;
         }
         
         try {
+            MatchQueue queue = queue(queueKey);
             String playerId = matchRequest.getPlayerId();
             double score = calculateQueueScore(matchRequest);
             
-            log.debug("Attempting to enqueue player {} with score {}", playerId, score);
-            
-            // Add to sorted set with score (Elo + wait time bonus) for ordering
-            redisTemplate.opsForZSet().add(MATCHMAKING_QUEUE, playerId, score);
-            
-            log.debug("Successfully added player {} to ZSET", playerId);
+            log.debug("Attempting to enqueue player {} into {} with score {}", playerId, queueKey, score);
             
             // Store essential data in hash for metadata preservation
-            String jsonData = String.format("{\"playerId\":\"%s\",\"elo\":%d,\"timestamp\":\"%s\"}", 
-                playerId, matchRequest.getElo(), matchRequest.getTimestamp());
-            
-            log.debug("Storing JSON data for player {}: {}", playerId, jsonData);
-            
-            redisTemplate.opsForHash().put(MATCHMAKING_REQUESTS, playerId, jsonData);
-            
-            log.debug("Successfully stored MatchRequest for player {}", playerId);
-            
-            // Set TTL for stale requests (30 minutes)
-            redisTemplate.expire(MATCHMAKING_QUEUE, Duration.ofMinutes(30));
-            redisTemplate.expire(MATCHMAKING_REQUESTS, Duration.ofMinutes(30));
-            
-            // Update metrics
-            meterRegistry.gauge("matchmaking.queue.size", 
-                redisTemplate.opsForZSet().size(MATCHMAKING_QUEUE));
-            
-            log.info("Player {} enqueued with Elo {} and score {}",
-                    playerId, matchRequest.getElo(), score);
+            String jsonData = storedRequest(queue, matchRequest);
+
+            // Sorted set entry (Elo + wait time bonus for ordering), request hash and TTLs in one script
+            Long added = redisTemplate.execute(ENQUEUE_SCRIPT,
+                List.of(queue.queueKey, queue.requestsKey, membershipKey(playerId)),
+                playerId, score, jsonData, QUEUE_TTL_SECONDS, queue.queueKey);
+            if (Long.valueOf(-1L).equals(added)) {
+                log.info("Player {} is already waiting in another queue; not joining {}", playerId, queueKey);
+                safeIncrement(enqueueConflictCounter);
+                return false;
+            }
+            if (!Long.valueOf(1L).equals(added)) {
+                log.debug("Player {} is already queued in {}; keeping the original entry", playerId, queueKey);
+                safeIncrement(enqueueDuplicateCounter);
+                return true;
+            }
+            queue.depth.incrementAndGet();
+            queue.version.incrementAndGet();
+
+            log.info("Player {} enqueued into {} with Elo {} and score {}",
+                    playerId, queueKey, matchRequest.getElo(), score);
             
             // Record successful enqueue
             safeIncrement(enqueueSuccessCounter);
+
+            // Wake the queue's matcher instead of waiting for the next widen tick
+            eventPublisher.publishEvent(new PlayerEnqueuedEvent(playerId, matchRequest.getElo(), queueKey));
             
             return true;
         } catch (Exception e) {
@@ -254,10 +621,63 @@ public class MatchmakingService {
     }
 
     /**
-     * Enqueue a player into the matchmaking queue using DTO.
+     * The key naming the queue a player waits in; solo queues and team parties share it, so a
+     * player is in at most one queue or party at a time.
+     */
+    static String membershipKey(String playerId) {
+        return PLAYER_KEY_PREFIX + playerId;
+    }
+
+    /**
+     * Release the membership keys of players who left a queue. Best effort: a key that cannot be
+     * released expires with the queue TTL, and until then only blocks joins to other queues.
+     */
+    private void releaseMembership(MatchQueue queue, String... playerIds) {
+        List<String> keys = new ArrayList<>(playerIds.length);
+        for (String playerId : playerIds) {
+            keys.add(membershipKey(playerId));
+        }
+        try {
+            redisTemplate.execute(RELEASE_MEMBERSHIP_SCRIPT, keys, queue.queueKey);
+        } catch (Exception e) {
+            log.warn("Failed to release queue membership of {} in {}: {}", keys, queue.key, e.getMessage());
+        }
+    }
+
+    /**
+     * Render the request JSON kept in the queue's request hash.
+     */
+    private static String storedRequest(MatchQueue queue, MatchRequest matchRequest) {
+        return String.format("{\"playerId\":\"%s\",\"elo\":%d,\"timestamp\":\"%s\"%s}",
+            matchRequest.getPlayerId(), matchRequest.getElo(), matchRequest.getTimestamp(),
+            storedPings(queue, matchRequest.getPings()));
+    }
+
+    /**
+     * Render the pings to configured latency regions as a JSON member, or an empty string if
+     * there are none. Unknown regions are dropped, so stored names never need escaping.
+     */
+    private static String storedPings(MatchQueue queue, Map<String, Integer> pings) {
+        if (pings == null || pings.isEmpty() || queue.latencyRegions.length == 0) {
+            return "";
+        }
+        StringBuilder json = null;
+        for (Map.Entry<String, Integer> entry : pings.entrySet()) {
+            int region = entry.getValue() != null ? queue.regionIndex(entry.getKey()) : -1;
+            if (region < 0) {
+                continue;
+            }
+            json = json == null ? new StringBuilder(",\"pings\":{") : json.append(',');
+            json.append('"').append(queue.latencyRegions[region]).append("\":").append(Math.max(0, entry.getValue()));
+        }
+        return json == null ? "" : json.append('}').toString();
+    }
+
+    /**
+     * Enqueue a player using DTO, into the queue named by its mode and region.
      * 
      * @param matchRequestDto The player's match request DTO
-     * @return true if successfully enqueued, false otherwise
+     * @return true if successfully enqueued, false otherwise (including an unknown queue)
      */
     public boolean enqueuePlayer(MatchRequestDto matchRequestDto) {
         if (matchRequestDto == null) {
@@ -270,24 +690,197 @@ public class MatchmakingService {
             .playerId(matchRequestDto.getPlayerId())
             .elo(matchRequestDto.getElo())
             .timestamp(Instant.now())
+            .pings(matchRequestDto.getPings())
             .build();
-        
-        return enqueuePlayer(matchRequest);
+
+        QueueKey queueKey = resolveQueue(matchRequestDto.getMode(), matchRequestDto.getRegion());
+        if (queueKey == null) {
+            log.warn("Cannot enqueue player {} into unknown queue {}:{}",
+                matchRequestDto.getPlayerId(), matchRequestDto.getMode(), matchRequestDto.getRegion());
+            return false;
+        }
+        return enqueuePlayer(matchRequest, queueKey);
     }
 
     /**
-     * Remove a player from the matchmaking queue using Redis transaction.
+     * Enqueue a batch of players in one Redis round trip. Each player joins the queue named by its
+     * own mode and region; players asking for an unknown queue are reported and skipped, a
+     * player already waiting keeps the original entry, and a player waiting in another queue is
+     * turned away, as with a single join.
+     *
+     * @param requests The players' match requests
+     * @return One result per request, in request order
+     */
+    public List<BatchResult> enqueuePlayers(List<MatchRequestDto> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+        long startNanos = System.nanoTime();
+        BatchResult[] results = new BatchResult[requests.size()];
+        Map<QueueKey, Integer> pairIndex = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        List<String> membershipKeys = new ArrayList<>(requests.size());
+        List<Object> args = new ArrayList<>(1 + 5 * requests.size());
+        args.add(QUEUE_TTL_SECONDS);
+        // Request positions and queues of the players sent to Redis, in script order
+        List<Integer> sent = new ArrayList<>(requests.size());
+        List<MatchQueue> sentQueues = new ArrayList<>(requests.size());
+
+        Instant now = Instant.now();
+        for (int i = 0; i < requests.size(); i++) {
+            MatchRequestDto dto = requests.get(i);
+            QueueKey queueKey = resolveQueue(dto.getMode(), dto.getRegion());
+            if (queueKey == null) {
+                results[i] = new BatchResult(dto.getPlayerId(), BatchResult.Status.UNKNOWN_QUEUE);
+                continue;
+            }
+            MatchQueue queue = queue(queueKey);
+            MatchRequest matchRequest = MatchRequest.builder()
+                .playerId(dto.getPlayerId())
+                .elo(dto.getElo())
+                .timestamp(now)
+                .pings(dto.getPings())
+                .build();
+            int pair = pairIndex.computeIfAbsent(queueKey, key -> {
+                keys.add(queue.queueKey);
+                keys.add(queue.requestsKey);
+                return keys.size() / 2 - 1;
+            });
+            args.add(pair);
+            args.add(matchRequest.getPlayerId());
+            args.add(calculateQueueScore(matchRequest));
+            args.add(storedRequest(queue, matchRequest));
+            args.add(queue.queueKey);
+            membershipKeys.add(membershipKey(matchRequest.getPlayerId()));
+            sent.add(i);
+            sentQueues.add(queue);
+        }
+
+        if (!sent.isEmpty()) {
+            keys.addAll(membershipKeys);
+            List<?> added = null;
+            try {
+                added = redisTemplate.execute(ENQUEUE_BATCH_SCRIPT, keys, args.toArray());
+            } catch (Exception e) {
+                log.error("Failed to enqueue batch of {} players: {}", sent.size(), e.getMessage(), e);
+            }
+            for (int s = 0; s < sent.size(); s++) {
+                int i = sent.get(s);
+                MatchRequestDto dto = requests.get(i);
+                BatchResult.Status status;
+                if (added == null || s >= added.size()) {
+                    status = BatchResult.Status.FAILED;
+                    safeIncrement(enqueueFailureCounter);
+                } else if (Long.valueOf(1L).equals(added.get(s))) {
+                    status = BatchResult.Status.QUEUED;
+                    MatchQueue queue = sentQueues.get(s);
+                    queue.depth.incrementAndGet();
+                    queue.version.incrementAndGet();
+                    safeIncrement(enqueueSuccessCounter);
+                    eventPublisher.publishEvent(new PlayerEnqueuedEvent(dto.getPlayerId(), dto.getElo(), queue.key));
+                } else if (Long.valueOf(-1L).equals(added.get(s))) {
+                    status = BatchResult.Status.QUEUED_ELSEWHERE;
+                    safeIncrement(enqueueConflictCounter);
+                } else {
+                    status = BatchResult.Status.ALREADY_QUEUED;
+                    safeIncrement(enqueueDuplicateCounter);
+                }
+                results[i] = new BatchResult(dto.getPlayerId(), status);
+            }
+        }
+
+        safeRecord(batchJoinSize, requests.size());
+        safeRecord(batchJoinTimer, System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        log.info("Batch join of {} players: {} sent to {} queue(s)", requests.size(), sent.size(), pairIndex.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Remove a batch of players from one queue in a single script.
+     *
+     * @param playerIds The players to remove
+     * @param queueKey The queue the players joined
+     * @return One result per player, in request order
+     */
+    public List<BatchResult> dequeuePlayers(List<String> playerIds, QueueKey queueKey) {
+        if (playerIds == null || playerIds.isEmpty()) {
+            return List.of();
+        }
+        long startNanos = System.nanoTime();
+        MatchQueue queue = queue(queueKey);
+        List<?> removed = null;
+        List<String> keys = new ArrayList<>(2 + playerIds.size());
+        keys.add(queue.queueKey);
+        keys.add(queue.requestsKey);
+        Object[] args = new Object[1 + playerIds.size()];
+        args[0] = queue.queueKey;
+        for (int i = 0; i < playerIds.size(); i++) {
+            keys.add(membershipKey(playerIds.get(i)));
+            args[i + 1] = playerIds.get(i);
+        }
+        try {
+            removed = redisTemplate.execute(DEQUEUE_BATCH_SCRIPT, keys, args);
+        } catch (Exception e) {
+            log.error("Failed to dequeue batch of {} players from {}: {}", playerIds.size(), queueKey, e.getMessage(), e);
+        }
+
+        List<BatchResult> results = new ArrayList<>(playerIds.size());
+        int removedCount = 0;
+        for (int i = 0; i < playerIds.size(); i++) {
+            BatchResult.Status status;
+            if (removed == null || i >= removed.size()) {
+                status = BatchResult.Status.FAILED;
+            } else if (Long.valueOf(1L).equals(removed.get(i))) {
+                status = BatchResult.Status.REMOVED;
+                removedCount++;
+                eventPublisher.publishEvent(new PlayerDequeuedEvent(playerIds.get(i), queueKey));
+            } else {
+                status = BatchResult.Status.NOT_QUEUED;
+            }
+            results.add(new BatchResult(playerIds.get(i), status));
+        }
+
+        if (removed == null) {
+            safeIncrement(dequeueFailureCounter, playerIds.size());
+        } else {
+            long count = removedCount;
+            queue.depth.updateAndGet(depth -> Math.max(0L, depth - count));
+            if (count > 0) {
+                queue.version.incrementAndGet();
+            }
+            safeIncrement(dequeueSuccessCounter, removedCount);
+        }
+        safeRecord(batchLeaveSize, playerIds.size());
+        safeRecord(batchLeaveTimer, System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        log.info("Batch leave of {} players from {}: {} removed", playerIds.size(), queueKey, removedCount);
+        return results;
+    }
+
+    /**
+     * Remove a player from the default matchmaking queue.
      * 
      * @param playerId The player ID to remove
      * @return true if successfully removed, false otherwise
      */
     public boolean dequeuePlayer(String playerId) {
+        return dequeuePlayer(playerId, QueueKey.DEFAULT);
+    }
+
+    /**
+     * Remove a player from a matchmaking queue using Redis transaction.
+     *
+     * @param playerId The player ID to remove
+     * @param queueKey The queue the player joined
+     * @return true if successfully removed, false otherwise
+     */
+    public boolean dequeuePlayer(String playerId, QueueKey queueKey) {
         if (playerId == null) {
             log.warn("Cannot dequeue player with null playerId");
             return false;
         }
         
         try {
+            MatchQueue queue = queue(queueKey);
             // Use Redis transaction for atomic removal
             Boolean result = redisTemplate.execute(new SessionCallback<>() {
                 @Override
@@ -295,8 +888,8 @@ public class MatchmakingService {
                     operations.multi();
 
                     // Remove from both ZSET and hash atomically
-                    operations.opsForZSet().remove(MATCHMAKING_QUEUE, playerId);
-                    operations.opsForHash().delete(MATCHMAKING_REQUESTS, playerId);
+                    operations.opsForZSet().remove(queue.queueKey, playerId);
+                    operations.opsForHash().delete(queue.requestsKey, playerId);
 
                     List<Object> results = operations.exec();
 
@@ -307,14 +900,16 @@ public class MatchmakingService {
             });
             
             if (Boolean.TRUE.equals(result)) {
-                log.info("Player {} removed from matchmaking queue", playerId);
+                log.info("Player {} removed from matchmaking queue {}", playerId, queueKey);
+                releaseMembership(queue, playerId);
                 
                 // Update metrics
-                meterRegistry.gauge("matchmaking.queue.size", 
-                    redisTemplate.opsForZSet().size(MATCHMAKING_QUEUE));
+                queue.depth.updateAndGet(depth -> Math.max(0L, depth - 1));
+                queue.version.incrementAndGet();
                 
                 // Record successful dequeue
                 safeIncrement(dequeueSuccessCounter);
+                eventPublisher.publishEvent(new PlayerDequeuedEvent(playerId, queueKey));
                 
                 return true;
             }
@@ -330,102 +925,392 @@ public class MatchmakingService {
     }
 
     /**
-     * Process matchmaking automatically on a schedule.
-     * Finds the best matches and creates games.
+     * Run one matchmaking cycle on the default queue without a time budget.
+     *
+     * @return Number of players left waiting after the cycle, or -1 if the queue was not inspected
+     */
+    public int processMatchmaking() {
+        return processMatchmaking(Long.MAX_VALUE);
+    }
+
+    /**
+     * Run one matchmaking cycle on the default queue.
+     *
+     * @param budgetNanos Maximum time the cycle may keep creating matches
+     * @return Number of players left waiting after the cycle, or -1 if the queue was not inspected
      */
-    @Scheduled(fixedRateString = "${app.match.poll-rate-ms:1000}")
-    public void processMatchmaking() {
+    public int processMatchmaking(long budgetNanos) {
+        return processMatchmaking(QueueKey.DEFAULT, budgetNanos);
+    }
+
+    /**
+     * Run one matchmaking cycle on a queue. Invoked by the queue's matcher in
+     * {@link MatchmakingScheduler} on enqueue events and on the periodic widen tick. Finds the
+     * best matches and creates games until no pair is left or the budget runs out; remaining
+     * work resumes next cycle. Cycles of one queue must not overlap; different queues may run
+     * concurrently.
+     *
+     * @param queueKey The queue to match
+     * @param budgetNanos Maximum time the cycle may keep creating matches
+     * @return Number of players left waiting after the cycle, or -1 if the queue was not inspected
+     */
+    public int processMatchmaking(QueueKey queueKey, long budgetNanos) {
         Timer.Sample sample = safeStartTimer();
+        long startNanos = System.nanoTime();
+        MatchQueue queue = queue(queueKey);
         try {
             if (!matchmakingEnabled) {
                 log.debug("Matchmaking is paused; skipping this cycle");
-                return;
+                return -1;
             }
             
             // Check if there are any active WebSocket connections
             if (!connectionTracker.hasActiveConnections()) {
                 log.debug("No active WebSocket connections; skipping matchmaking to preserve queue for observation");
-                return;
+                return -1;
             }
-            // Process matches until no more pairs can be made
-            while (true) {
-                // Get all players in queue sorted by Elo (ascending)
-                Set<ZSetOperations.TypedTuple<Object>> playersWithScores = 
-                    redisTemplate.opsForZSet().rangeWithScores(MATCHMAKING_QUEUE, 0, -1);
-                
-                if (playersWithScores.size() < 2) {
-                    break; // Not enough players for a match
-                }
-                
-                // Convert to list and prioritize by wait duration, then Elo
-                List<PlayerWithRequest> players = playersWithScores.stream()
-                    .map(tuple -> {
-                        String playerId = tuple.getValue().toString();
-                        MatchRequest request = getMatchRequest(playerId);
-                        return new PlayerWithRequest(playerId, request);
-                    })
-                    .filter(player -> player.request != null) // Filter out any missing requests
-                    .sorted(Comparator
-                        .<PlayerWithRequest>comparingLong(p -> getWaitSeconds(p.request)).reversed()
-                        .thenComparingInt(p -> p.request.getElo()))
-                    .toList();
-                
-                // Find the best match
-                MatchPair bestMatch = findBestMatch(players);
-                
-                if (bestMatch == null) {
-                    break; // No compatible matches found
+            // Single clock for the whole cycle: every wait and tolerance is computed against it
+            long cycleNowMillis = System.currentTimeMillis();
+            CandidateSnapshot snapshot = loadCandidateSnapshot(queue, cycleNowMillis);
+            long depth = snapshot.size + queue.heldOut;
+            if (queue.depth.getAndSet(depth) != depth) {
+                // Joins and leaves handled by other nodes only show up here
+                queue.version.incrementAndGet();
+            }
+            int created = snapshot.size < 2 ? 0 : matchSnapshot(queue, startNanos, budgetNanos);
+            int waiting = snapshot.size + queue.heldOut - 2 * created;
+            // Below two players the matcher may go idle and stop publishing, so the final state always goes out
+            publishInsight(queue, snapshot, cycleNowMillis, waiting < 2);
+            return waiting;
+        } catch (Exception e) {
+            log.error("Match loop failed", e);
+            return -1;
+        } finally {
+            // Record processing time
+            safeStopTimer(sample, queue.processingTimer);
+        }
+    }
+
+    /**
+     * Pair everyone we can from the loaded snapshot, then finalize pairs within the budget. On
+     * return, {@link CandidateSnapshot#matched} marks only the players of committed matches.
+     *
+     * @return Number of matches created
+     */
+    private int matchSnapshot(MatchQueue queue, long startNanos, long budgetNanos) {
+        CandidateSnapshot snapshot = queue.snapshot;
+        findPairs(snapshot);
+        int created = 0;
+        int p = 0;
+        while (p < snapshot.pairCount) {
+            int slotA = snapshot.pairs[2 * p];
+            int slotB = snapshot.pairs[2 * p + 1];
+            p++;
+            if (finalizePair(queue, slotA, slotB)) {
+                created++;
+            } else {
+                snapshot.matched[slotA] = false;
+                snapshot.matched[slotB] = false;
+            }
+            if (p < snapshot.pairCount && System.nanoTime() - startNanos >= budgetNanos) {
+                log.debug("Matchmaking cycle budget exhausted after {} of {} pairs; resuming next cycle",
+                        p, snapshot.pairCount);
+                safeIncrement(budgetExhaustedCounter);
+                break;
+            }
+        }
+        // Pairs left to the next cycle are still waiting
+        for (; p < snapshot.pairCount; p++) {
+            snapshot.matched[snapshot.pairs[2 * p]] = false;
+            snapshot.matched[snapshot.pairs[2 * p + 1]] = false;
+        }
+        return created;
+    }
+
+    /**
+     * Summarize who the cycle left waiting for monitoring, at most once per insight interval
+     * unless forced.
+     */
+    private void publishInsight(MatchQueue queue, CandidateSnapshot snapshot, long cycleNowMillis, boolean force) {
+        QueueInsight previous = queue.insight;
+        if (!force && previous != null && cycleNowMillis - previous.computedAtMillis() < insightIntervalMillis) {
+            return;
+        }
+        int maxTolerance = queue.maxEloTolerance != null ? queue.maxEloTolerance : maxEloTolerance;
+        queue.insight = QueueInsight.of(queue.key, snapshot, cycleNowMillis, maxTolerance, insightEloBucketWidth);
+    }
+
+    /**
+     * Latest insight into a queue, as computed by its matcher; served from memory.
+     *
+     * @return The insight, or null if the queue has not been matched yet
+     */
+    public QueueInsight getQueueInsight(QueueKey queueKey) {
+        MatchQueue queue = queues.get(queueKey);
+        return queue != null ? queue.insight : null;
+    }
+
+    /**
+     * Whether a queue is holding out players who went offline, whose grace period only runs out
+     * in later cycles. Read on the queue's matcher thread, after a cycle.
+     */
+    public boolean isTrackingPresence(QueueKey queueKey) {
+        MatchQueue queue = queues.get(queueKey);
+        return queue != null && (queue.heldOut > 0 || !queue.offlineSince.isEmpty());
+    }
+
+    /**
+     * Load the queue into the reusable candidate snapshot: one ZRANGE for the members and one
+     * HMGET for their stored requests, parsed straight into primitive arrays. Players who went
+     * offline are left out, see {@link #holdOutOffline}.
+     */
+    private CandidateSnapshot loadCandidateSnapshot(MatchQueue queue, long cycleNowMillis) {
+        CandidateSnapshot snapshot = queue.snapshot;
+        Set<Object> queued = redisTemplate.opsForZSet().range(queue.queueKey, 0, -1);
+        queue.heldOut = 0;
+        if (queued == null || queued.isEmpty()) {
+            snapshot.reset(0);
+            // Nobody left to track
+            queue.seenOnline.clear();
+            queue.offlineSince.clear();
+            return snapshot;
+        }
+
+        // A lone player goes through the same presence check, so a lone ghost is still evicted
+        List<Object> members = new ArrayList<>(queued);
+        Set<String> heldOut = holdOutOffline(queue, members, cycleNowMillis);
+        List<Object> stored = redisTemplate.opsForHash().multiGet(queue.requestsKey, members);
+        snapshot.reset(members.size());
+        for (int k = 0; k < members.size(); k++) {
+            Object member = members.get(k);
+            Object data = stored != null && k < stored.size() ? stored.get(k) : null;
+            if (member != null && data != null && !heldOut.contains(member.toString())) {
+                addToSnapshot(queue, member.toString(), data, cycleNowMillis);
+            }
+        }
+
+        snapshot.prepare(cycleNowMillis);
+        for (int k = 0; k < snapshot.size; k++) {
+            snapshot.tolerance[k] = computeDynamicTolerance(queue, snapshot.waitSeconds[k], snapshot.size);
+        }
+        if (snapshot.regionCount > 0) {
+            long latencyStart = System.nanoTime();
+            for (int k = 0; k < snapshot.size; k++) {
+                snapshot.latencyTolerance[k] = computeLatencyTolerance(snapshot.waitSeconds[k]);
+            }
+            snapshot.buildLatencyGrid();
+            safeRecord(queue.latencyTimer, System.nanoTime() - latencyStart, TimeUnit.NANOSECONDS);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Check the presence of every queued player in one lookup and decide who sits this cycle out.
+     * <p>
+     * Only players seen online earlier in their wait are held to it; players who never had a
+     * WebSocket session, such as ticket or batch clients, are matched as before. A player who
+     * drops is held out of pairing, so nobody is matched against a ghost, and is removed from
+     * the queue once offline for the grace period. Runs on the queue's matcher thread.
+     *
+     * @return The players to leave out of this cycle's snapshot
+     */
+    private Set<String> holdOutOffline(MatchQueue queue, List<Object> members, long cycleNowMillis) {
+        if (presenceGraceMillis < 0) {
+            return Set.of();
+        }
+        List<String> playerIds = new ArrayList<>(members.size());
+        for (Object member : members) {
+            if (member != null) {
+                playerIds.add(member.toString());
+            }
+        }
+        Map<String, String> online;
+        try {
+            online = presenceRegistry.locateAll(playerIds);
+        } catch (Exception e) {
+            // Without presence, match everyone rather than evict anyone
+            log.debug("Presence lookup failed; matching {} without it: {}", queue.key, e.toString());
+            return Set.of();
+        }
+
+        // Forget players who left the queue since the last cycle
+        Set<String> queued = new HashSet<>(playerIds);
+        queue.seenOnline.retainAll(queued);
+        queue.offlineSince.keySet().retainAll(queued);
+
+        Set<String> heldOut = new HashSet<>();
+        List<String> evicted = new ArrayList<>();
+        for (String playerId : playerIds) {
+            if (online.containsKey(playerId)) {
+                queue.seenOnline.add(playerId);
+                if (queue.offlineSince.remove(playerId) != null) {
+                    safeIncrement(presenceResumedCounter);
                 }
-                
-                // Get the MatchRequest data BEFORE removing players from Redis
-                MatchRequest requestA = getMatchRequest(bestMatch.playerA);
-                MatchRequest requestB = getMatchRequest(bestMatch.playerB);
-                
-                if (requestA == null || requestB == null) {
-                    log.error("Missing match request data for players: {} or {}", bestMatch.playerA, bestMatch.playerB);
-                    break;
+                continue;
+            }
+            if (!queue.seenOnline.contains(playerId)) {
+                continue;
+            }
+            Long since = queue.offlineSince.putIfAbsent(playerId, cycleNowMillis);
+            heldOut.add(playerId);
+            if (since == null) {
+                safeIncrement(ghostMatchesAvoidedCounter);
+            } else if (cycleNowMillis - since >= presenceGraceMillis) {
+                evicted.add(playerId);
+            }
+        }
+
+        for (String playerId : evicted) {
+            queue.seenOnline.remove(playerId);
+            queue.offlineSince.remove(playerId);
+            if (dequeuePlayer(playerId, queue.key)) {
+                log.info("Player {} evicted from {} after {}ms offline", playerId, queue.key, presenceGraceMillis);
+                safeIncrement(presenceEvictedCounter);
+            }
+        }
+        queue.heldOut = heldOut.size() - evicted.size();
+        return heldOut;
+    }
+
+    /**
+     * Parse one stored request into the queue's snapshot without building a {@link MatchRequest}.
+     */
+    private static void addToSnapshot(MatchQueue queue, String playerId, Object stored, long cycleNowMillis) {
+        CandidateSnapshot snapshot = queue.snapshot;
+        if (stored instanceof String json) {
+            int elo = parseStoredElo(json);
+            if (elo < 0) {
+                // Same fallback as getMatchRequest: default Elo, treat as just enqueued
+                snapshot.add(playerId, DEFAULT_ELO, cycleNowMillis);
+            } else {
+                int slot = snapshot.add(playerId, elo, parseStoredTimestampMillis(json, cycleNowMillis));
+                if (snapshot.regionCount > 0) {
+                    parseStoredPings(json, queue, slot);
                 }
-                
-                // Use Redis transaction for atomic removal
-                Boolean matchCreated = redisTemplate.execute(new SessionCallback<>() {
-                    @Override
-                    public Boolean execute(org.springframework.data.redis.core.RedisOperations operations) throws org.springframework.data.redis.RedisSystemException {
-                        operations.multi();
-                        
-                        // Remove both players from queue and hash atomically
-                        operations.opsForZSet().remove(MATCHMAKING_QUEUE, bestMatch.playerA, bestMatch.playerB);
-                        operations.opsForHash().delete(MATCHMAKING_REQUESTS, bestMatch.playerA, bestMatch.playerB);
-                        
-                        List<Object> results = operations.exec();
-                        
-                        // Check if removal was successful
-                        Long removedFromQueue = (Long) results.getFirst();
-                        return removedFromQueue != null && removedFromQueue == 2;
+            }
+        } else if (stored instanceof MatchRequest request && request.getElo() != null) {
+            long enqueuedAt = request.getTimestamp() != null ? request.getTimestamp().toEpochMilli() : cycleNowMillis;
+            int slot = snapshot.add(playerId, request.getElo(), enqueuedAt);
+            if (snapshot.regionCount > 0 && request.getPings() != null && !request.getPings().isEmpty()) {
+                snapshot.clearPings(slot);
+                request.getPings().forEach((region, pingMillis) -> {
+                    int r = queue.regionIndex(region);
+                    if (r >= 0 && pingMillis != null) {
+                        snapshot.setPing(slot, r, pingMillis);
                     }
                 });
-                
-                if (Boolean.TRUE.equals(matchCreated)) {
-                    // Create match with the data we captured before removal
-                    createMatchWithData(bestMatch.playerA, bestMatch.playerB, requestA, requestB);
-                    log.info("Matched players: {} (Elo: {}) vs {} (Elo: {})", 
-                            bestMatch.playerA, bestMatch.eloA, bestMatch.playerB, bestMatch.eloB);
-                    
-                    // Update metrics
-                    meterRegistry.counter("matchmaking.matches.made").increment();
-                    meterRegistry.gauge("matchmaking.queue.size", 
-                        redisTemplate.opsForZSet().size(MATCHMAKING_QUEUE));
-                } else {
-                    log.warn("Failed to remove matched players from queue: {} and {}", 
-                            bestMatch.playerA, bestMatch.playerB);
+            }
+        }
+    }
+
+    /**
+     * Read the {@code "pings":{"region":ms,...}} member of a stored request into the slot.
+     * Without the member the player keeps accepting every region; with it, regions it did not
+     * measure become unreachable.
+     */
+    static void parseStoredPings(String json, MatchQueue queue, int slot) {
+        int start = json.indexOf("\"pings\":{");
+        if (start < 0) {
+            return;
+        }
+        CandidateSnapshot snapshot = queue.snapshot;
+        snapshot.clearPings(slot);
+        int pos = start + 9;
+        int length = json.length();
+        while (pos < length && json.charAt(pos) == '"') {
+            int nameEnd = json.indexOf('"', pos + 1);
+            if (nameEnd < 0) {
+                return;
+            }
+            int region = -1;
+            for (int r = 0; r < queue.latencyRegions.length; r++) {
+                String name = queue.latencyRegions[r];
+                if (name.length() == nameEnd - pos - 1 && json.regionMatches(true, pos + 1, name, 0, name.length())) {
+                    region = r;
+                    break;
                 }
             }
-            
-        } catch (Exception e) {
-            log.error("Match loop failed", e);
-        } finally {
-            // Record processing time
-            safeStopTimer(sample, matchmakingProcessingTimer);
+            pos = nameEnd + 2; // Closing quote and colon
+            int value = 0;
+            int digits = 0;
+            while (pos < length && json.charAt(pos) >= '0' && json.charAt(pos) <= '9') {
+                value = value * 10 + (json.charAt(pos) - '0');
+                digits++;
+                pos++;
+            }
+            if (region >= 0 && digits > 0 && digits < 10) {
+                snapshot.setPing(slot, region, value);
+            }
+            if (pos < length && json.charAt(pos) == ',') {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Pair players in the snapshot using the configured matching engine.
+     */
+    void findPairs(CandidateSnapshot snapshot) {
+        matchingEngine.findPairs(snapshot);
+    }
+
+    /**
+     * Atomically remove a matched pair from Redis and create the match.
+     *
+     * @return true if both players were still queued and the match was created
+     */
+    private boolean finalizePair(MatchQueue queue, int slotA, int slotB) {
+        CandidateSnapshot snapshot = queue.snapshot;
+        String playerA = snapshot.ids[slotA];
+        String playerB = snapshot.ids[slotB];
+
+        // Use Redis transaction for atomic removal
+        Boolean removed = redisTemplate.execute(new SessionCallback<>() {
+            @Override
+            public Boolean execute(org.springframework.data.redis.core.RedisOperations operations) throws org.springframework.data.redis.RedisSystemException {
+                operations.multi();
+
+                // Remove both players from queue and hash atomically
+                operations.opsForZSet().remove(queue.queueKey, playerA, playerB);
+                operations.opsForHash().delete(queue.requestsKey, playerA, playerB);
+
+                List<Object> results = operations.exec();
+
+                // Check if removal was successful
+                Long removedFromQueue = (Long) results.getFirst();
+                return removedFromQueue != null && removedFromQueue == 2;
+            }
+        });
+        // Both left the queue either way: matched, or one of them was already gone
+        releaseMembership(queue, playerA, playerB);
+
+        if (!Boolean.TRUE.equals(removed)) {
+            log.warn("Failed to remove matched players from queue: {} and {}", playerA, playerB);
+            return false;
         }
+
+        // Create match with the data captured in the snapshot before removal
+        int region = snapshot.regionCount > 0 ? snapshot.bestRegion(slotA, slotB) : -1;
+        String serverRegion = region >= 0 ? queue.latencyRegions[region] : null;
+        createMatchWithData(queue, playerA, playerB, snapshotRequest(snapshot, slotA), snapshotRequest(snapshot, slotB),
+                serverRegion);
+        log.info("Matched players in {}: {} (Elo: {}) vs {} (Elo: {})",
+                queue.key, playerA, snapshot.elo[slotA], playerB, snapshot.elo[slotB]);
+
+        // Update metrics
+        queue.depth.updateAndGet(depth -> Math.max(0L, depth - 2));
+        queue.version.incrementAndGet();
+        safeIncrement(queue.matchesCounter);
+        safeIncrement(matchesMadeCounter);
+        return true;
+    }
+
+    private static MatchRequest snapshotRequest(CandidateSnapshot snapshot, int slot) {
+        return MatchRequest.builder()
+            .playerId(snapshot.ids[slot])
+            .elo(snapshot.elo[slot])
+            .timestamp(Instant.ofEpochMilli(snapshot.enqueuedAtMillis[slot]))
+            .build();
     }
 
     /**
@@ -459,7 +1344,7 @@ public class MatchmakingService {
      */
     MatchRequest getMatchRequest(String playerId) {
         try {
-            Object stored = redisTemplate.opsForHash().get(MATCHMAKING_REQUESTS, playerId);
+            Object stored = redisTemplate.opsForHash().get(queue(QueueKey.DEFAULT).requestsKey, playerId);
             log.debug("Retrieved stored data for player {}: {}", playerId, stored);
             
             if (stored instanceof String) {
@@ -467,34 +1352,10 @@ public class MatchmakingService {
                 String jsonString = (String) stored;
                 log.debug("Parsing JSON string: {}", jsonString);
                 
-                // Extract Elo
-                Integer elo = null;
-                if (jsonString.contains("\"elo\":")) {
-                    int eloStart = jsonString.indexOf("\"elo\":") + 6;
-                    int eloEnd = jsonString.indexOf(",", eloStart);
-                    if (eloEnd == -1) {
-                        eloEnd = jsonString.indexOf("}", eloStart);
-                    }
-                    if (eloEnd > eloStart) {
-                        elo = Integer.parseInt(jsonString.substring(eloStart, eloEnd));
-                    }
-                }
-                // Extract timestamp
-                Instant ts = Instant.now();
-                try {
-                    String tsKey = "\"timestamp\":\"";
-                    int tsStart = jsonString.indexOf(tsKey);
-                    if (tsStart >= 0) {
-                        tsStart += tsKey.length();
-                        int tsEnd = jsonString.indexOf("\"", tsStart);
-                        if (tsEnd > tsStart) {
-                            String tsStr = jsonString.substring(tsStart, tsEnd);
-                            ts = Instant.parse(tsStr);
-                        }
-                    }
-                } catch (Exception ignored) {}
+                int elo = parseStoredElo(jsonString);
+                Instant ts = Instant.ofEpochMilli(parseStoredTimestampMillis(jsonString, System.currentTimeMillis()));
                 
-                if (elo != null) {
+                if (elo >= 0) {
                     log.debug("Extracted Elo {} and timestamp {} for player {}", elo, ts, playerId);
                     return MatchRequest.builder()
                         .playerId(playerId)
@@ -507,7 +1368,7 @@ public class MatchmakingService {
                 // Fallback to default Elo
                 return MatchRequest.builder()
                     .playerId(playerId)
-                    .elo(1500) // Default Elo
+                    .elo(DEFAULT_ELO)
                     .timestamp(Instant.now())
                     .build();
             }
@@ -520,118 +1381,121 @@ public class MatchmakingService {
     }
 
     /**
-     * Find the best match from a sorted list of players.
-     * 
-     * @param players List of players sorted by Elo (ascending)
-     * @return Best match pair, or null if no compatible match found
+     * Extract the Elo from a stored request JSON without allocating substrings.
+     *
+     * @return The Elo, or -1 if it is missing or malformed
      */
-    private MatchPair findBestMatch(List<PlayerWithRequest> players) {
-        if (players.size() < 2) {
-            return null;
+    static int parseStoredElo(String json) {
+        int start = json.indexOf("\"elo\":");
+        if (start < 0) {
+            return -1;
         }
-        
-        // For each player, find the partner within dynamic tolerance, prioritizing longer waits
-        for (int i = 0; i < players.size() - 1; i++) {
-            PlayerWithRequest playerA = players.get(i);
-            
-            // Find compatible partner within dynamic tolerance
-            PlayerWithRequest bestPartner = null;
-            int bestEloDifference = Integer.MAX_VALUE;
-            long bestMinWait = -1;
-            
-            for (int j = i + 1; j < players.size(); j++) {
-                PlayerWithRequest playerB = players.get(j);
-                int eloA = playerA.request.getElo();
-                int eloB = playerB.request.getElo();
-                int eloDifference = Math.abs(eloA - eloB);
-                
-                int tolA = computeDynamicTolerance(playerA.request);
-                int tolB = computeDynamicTolerance(playerB.request);
-                int allowedDifference = Math.min(tolA, tolB);
-                
-                log.debug("Checking match: {} (Elo: {}) vs {} (Elo: {}), diff: {}, allowed: {} (tolA: {}, tolB: {})", 
-                    playerA.playerId, eloA, playerB.playerId, eloB, eloDifference, allowedDifference, tolA, tolB);
-                
-                if (eloDifference <= allowedDifference) {
-                    long waitA = getWaitSeconds(playerA.request);
-                    long waitB = getWaitSeconds(playerB.request);
-                    long minWait = Math.min(waitA, waitB);
-                    if (bestPartner == null || minWait > bestMinWait || (minWait == bestMinWait && eloDifference < bestEloDifference)) {
-                        bestPartner = playerB;
-                        bestEloDifference = eloDifference;
-                        bestMinWait = minWait;
-                        log.debug("Found compatible match: {} vs {} with diff {} (minWait {}s)", 
-                            playerA.playerId, playerB.playerId, eloDifference, minWait);
-                    }
-                }
-            }
-            
-            // If we found a compatible partner, return the match
-            if (bestPartner != null) {
-                return new MatchPair(playerA.playerId, bestPartner.playerId, 
-                                   playerA.request.getElo(), bestPartner.request.getElo());
+        int pos = start + 6;
+        int value = 0;
+        int digits = 0;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
             }
+            value = value * 10 + (c - '0');
+            digits++;
+            pos++;
         }
-        
-        return null; // No compatible matches found
+        boolean terminated = pos < json.length() && (json.charAt(pos) == ',' || json.charAt(pos) == '}');
+        return digits > 0 && digits < 10 && terminated ? value : -1;
     }
 
-    private long getWaitSeconds(MatchRequest request) {
+    /**
+     * Extract the enqueue timestamp from a stored request JSON.
+     *
+     * @return Epoch millis of the timestamp, or {@code fallbackMillis} if it is missing or malformed
+     */
+    static long parseStoredTimestampMillis(String json, long fallbackMillis) {
         try {
-            return Math.max(0L, Duration.between(request.getTimestamp(), Instant.now()).getSeconds());
+            String tsKey = "\"timestamp\":\"";
+            int tsStart = json.indexOf(tsKey);
+            if (tsStart >= 0) {
+                tsStart += tsKey.length();
+                int tsEnd = json.indexOf('"', tsStart);
+                if (tsEnd > tsStart) {
+                    return Instant.parse(json.substring(tsStart, tsEnd)).toEpochMilli();
+                }
+            }
+        } catch (Exception ignored) {}
+        return fallbackMillis;
+    }
+
+    private long getWaitMillis(MatchRequest request) {
+        try {
+            return Math.max(0L, System.currentTimeMillis() - request.getTimestamp().toEpochMilli());
         } catch (Exception e) {
             return 0L;
         }
     }
 
-    private int computeDynamicTolerance(MatchRequest request) {
-        // Only allow tolerance to grow when there are 2+ players in queue
-        // This prevents weaker players from being matched against much stronger opponents too quickly
-        long queueSize = getCurrentQueueSize();
+    /**
+     * Tolerance for a player who has waited {@code waitSeconds} in a queue of {@code queueSize},
+     * using the service-wide tolerance settings.
+     */
+    int computeDynamicTolerance(long waitSeconds, long queueSize) {
+        return computeDynamicTolerance(waitSeconds, queueSize, eloTolerance, toleranceGrowthPerSecond, maxEloTolerance);
+    }
+
+    /**
+     * Tolerance in a specific queue, which may override any of the service-wide settings
+     * with {@code match.queue.<mode>.<region>.elo-tolerance[-growth-per-second|-max]}.
+     */
+    int computeDynamicTolerance(MatchQueue queue, long waitSeconds, long queueSize) {
+        return computeDynamicTolerance(waitSeconds, queueSize,
+                queue.eloTolerance != null ? queue.eloTolerance : eloTolerance,
+                queue.toleranceGrowthPerSecond != null ? queue.toleranceGrowthPerSecond : toleranceGrowthPerSecond,
+                queue.maxEloTolerance != null ? queue.maxEloTolerance : maxEloTolerance);
+    }
+
+    /**
+     * Only allow tolerance to grow when there are 2+ players in queue; this prevents weaker
+     * players from being matched against much stronger opponents too quickly.
+     */
+    private static int computeDynamicTolerance(long waitSeconds, long queueSize,
+                                               int base, double growthPerSecond, int max) {
         if (queueSize < 2) {
-            return eloTolerance; // Reset to base tolerance when queue has < 2 players
+            return base; // Reset to base tolerance when queue has < 2 players
         }
-        
-        long waitSeconds = getWaitSeconds(request);
-        long widened = Math.round(toleranceGrowthPerSecond * waitSeconds);
-        long candidate = (long) eloTolerance + widened;
-        return (int) Math.min(candidate, maxEloTolerance);
+        long widened = Math.round(growthPerSecond * waitSeconds);
+        long candidate = (long) base + widened;
+        return (int) Math.min(candidate, max);
     }
 
     /**
-     * Get the current number of players in the matchmaking queue.
-     * 
-     * @return Number of players currently in queue
+     * Highest acceptable ping for a player who has waited {@code waitSeconds}; widens on its
+     * own schedule, independently of the Elo tolerance.
      */
-    private long getCurrentQueueSize() {
-        try {
-            Long size = redisTemplate.opsForZSet().zCard(MATCHMAKING_QUEUE);
-            return size != null ? size.longValue() : 0L;
-        } catch (Exception e) {
-            log.warn("Failed to get queue size", e);
-            return 0L;
-        }
+    int computeLatencyTolerance(long waitSeconds) {
+        long widened = Math.round(pingGrowthPerSecond * waitSeconds);
+        return (int) Math.min((long) maxPingMillis + widened, Math.max(maxPingMillis, maxPingMillisCap));
     }
 
     /**
      * Create a match between two players with pre-captured data.
      * 
+     * @param queue The queue the players were matched from
      * @param playerA Player A ID
      * @param playerB Player B ID
      * @param requestA Player A's match request data
      * @param requestB Player B's match request data
+     * @param serverRegion Region chosen from the players' pings, or null
      */
-    private void createMatchWithData(String playerA, String playerB, MatchRequest requestA, MatchRequest requestB) {
+    private void createMatchWithData(MatchQueue queue, String playerA, String playerB,
+                                     MatchRequest requestA, MatchRequest requestB, String serverRegion) {
         Timer.Sample matchCreationSample = safeStartTimer();
         try {
             log.debug("Creating match between {} and {} with pre-captured data", playerA, playerB);
             String matchId = UUID.randomUUID().toString();
             
             // Record player wait times
-            long waitTimeA = getWaitSeconds(requestA);
-            long waitTimeB = getWaitSeconds(requestB);
-            safeRecord(playerWaitTimeTimer, waitTimeA, TimeUnit.SECONDS);
-            safeRecord(playerWaitTimeTimer, waitTimeB, TimeUnit.SECONDS);
+            safeRecord(queue.waitTimer, getWaitMillis(requestA), TimeUnit.MILLISECONDS);
+            safeRecord(queue.waitTimer, getWaitMillis(requestB), TimeUnit.MILLISECONDS);
             
             int oldEloA = requestA.getElo();
             int oldEloB = requestB.getElo();
@@ -657,6 +1521,7 @@ public class MatchmakingService {
                     .newEloB(eloResult.ratingB())
                     .winner(playerAWins ? playerA : playerB)
                     .playedAt(Instant.now())
+                    .serverRegion(serverRegion)
                     .build();
             
             // Store match result
@@ -664,6 +1529,7 @@ public class MatchmakingService {
             
             // Broadcast result
             broadcastMatchResult(matchResult);
+            eventPublisher.publishEvent(new MatchCreatedEvent(matchResult, queue.key));
 
             // Persist to database and update player stats
             persistMatchAndStats(matchResult);
@@ -679,7 +1545,7 @@ public class MatchmakingService {
             log.error("Failed to create match between {} and {}", playerA, playerB, e);
         } finally {
             // Record match creation time
-            safeStopTimer(matchCreationSample, matchCreationTimer);
+            safeStopTimer(matchCreationSample, queue.creationTimer);
         }
     }
 
@@ -696,10 +1562,14 @@ public class MatchmakingService {
             entity.setNewEloB(matchResult.getNewEloB());
             entity.setWinner(matchResult.getWinner());
             entity.setPlayedAt(matchResult.getPlayedAt());
+            boolean aWon = matchResult.getWinner().equals(matchResult.getPlayerA());
+            entity.addParticipant(matchResult.getPlayerA(), "A", null,
+                    matchResult.getOldEloA(), matchResult.getNewEloA(), aWon);
+            entity.addParticipant(matchResult.getPlayerB(), "B", null,
+                    matchResult.getOldEloB(), matchResult.getNewEloB(), !aWon);
             matchRepository.save(entity);
 
             // Update stats for both players
-            boolean aWon = matchResult.getWinner().equals(matchResult.getPlayerA());
             updatePlayerStatsForResult(matchResult.getPlayerA(), matchResult.getNewEloA(), aWon);
             updatePlayerStatsForResult(matchResult.getPlayerB(), matchResult.getNewEloB(), !aWon);
         } catch (Exception e) {
@@ -707,7 +1577,10 @@ public class MatchmakingService {
         }
     }
 
-    private void updatePlayerStatsForResult(String playerId, int newElo, boolean won) {
+    /**
+     * Record a finished game in the player's stats, creating the stats row on first play.
+     */
+    void updatePlayerStatsForResult(String playerId, int newElo, boolean won) {
         PlayerStats stats = playerStatsRepository.findById(playerId).orElseGet(() -> {
             PlayerStats s = new PlayerStats();
             s.setPlayerId(playerId);
@@ -800,7 +1673,7 @@ public class MatchmakingService {
      */
     public List<Player> getQueuePlayers() {
         try {
-            Set<Object> playerIds = redisTemplate.opsForZSet().range(MATCHMAKING_QUEUE, 0, -1);
+            Set<Object> playerIds = redisTemplate.opsForZSet().range(queue(QueueKey.DEFAULT).queueKey, 0, -1);
             
             return playerIds.stream()
                 .filter(Objects::nonNull)
@@ -813,6 +1686,90 @@ public class MatchmakingService {
         }
     }
 
+    /**
+     * Players waiting in a queue, shared between all callers within the status cache interval.
+     * Concurrent callers that find it stale wait for a single reload: one ZRANGE and one HMGET.
+     *
+     * @param queueKey The queue to list
+     * @return The queue's players, at most {@code match.status.max-players} of them
+     */
+    public QueueStatus getQueueStatus(QueueKey queueKey) {
+        return getQueueStatus(queueKey, statusCacheMillis);
+    }
+
+    /**
+     * A queue's players, reloaded first if the shared listing is older than {@code maxAgeMillis}.
+     * A reload still coalesces with concurrent callers.
+     */
+    QueueStatus getQueueStatus(QueueKey queueKey, long maxAgeMillis) {
+        return queueStatuses.computeIfAbsent(queueKey, key -> new SnapshotCache<>(() -> loadQueueStatus(key)))
+            .get(maxAgeMillis);
+    }
+
+    /**
+     * Change counter of a queue as seen by this node; it moves on every join, leave and match.
+     */
+    long queueVersion(QueueKey queueKey) {
+        return queue(queueKey).version.get();
+    }
+
+    /**
+     * Mean wait of the players matched from a queue so far, or -1 before the first match.
+     */
+    double meanWaitMillis(QueueKey queueKey) {
+        Timer waitTimer = queue(queueKey).waitTimer;
+        return waitTimer != null && waitTimer.count() > 0 ? waitTimer.mean(TimeUnit.MILLISECONDS) : -1;
+    }
+
+    /**
+     * Players waiting per configured queue, shared like {@link #getQueueStatus}.
+     */
+    public Map<QueueKey, Long> getQueueSizes() {
+        return queueSizes.get(statusCacheMillis);
+    }
+
+    private QueueStatus loadQueueStatus(QueueKey queueKey) {
+        MatchQueue queue = queue(queueKey);
+        long now = System.currentTimeMillis();
+        int maxPlayers = Math.max(1, statusMaxPlayers);
+        Set<Object> queued = redisTemplate.opsForZSet().range(queue.queueKey, 0, maxPlayers - 1);
+        if (queued == null || queued.isEmpty()) {
+            return new QueueStatus(queueKey, now, 0, List.of());
+        }
+
+        List<Object> members = new ArrayList<>(queued);
+        List<Object> stored = redisTemplate.opsForHash().multiGet(queue.requestsKey, members);
+        List<QueueStatus.Entry> players = new ArrayList<>(members.size());
+        for (int k = 0; k < members.size(); k++) {
+            Object member = members.get(k);
+            Object data = stored != null && k < stored.size() ? stored.get(k) : null;
+            // A player who left between the two reads has no stored request any more
+            if (member == null || data == null) {
+                continue;
+            }
+            if (data instanceof String json) {
+                int elo = parseStoredElo(json);
+                players.add(new QueueStatus.Entry(member.toString(), elo < 0 ? DEFAULT_ELO : elo,
+                    parseStoredTimestampMillis(json, now)));
+            } else if (data instanceof MatchRequest request) {
+                players.add(new QueueStatus.Entry(member.toString(),
+                    request.getElo() != null ? request.getElo() : DEFAULT_ELO,
+                    request.getTimestamp() != null ? request.getTimestamp().toEpochMilli() : now));
+            }
+        }
+
+        long total = members.size() < maxPlayers ? players.size() : getQueueSize(queueKey);
+        return new QueueStatus(queueKey, now, total, List.copyOf(players));
+    }
+
+    private Map<QueueKey, Long> loadQueueSizes() {
+        Map<QueueKey, Long> sizes = new LinkedHashMap<>();
+        for (QueueKey key : getQueueKeys()) {
+            sizes.put(key, getQueueSize(key));
+        }
+        return Collections.unmodifiableMap(sizes);
+    }
+
     /**
      * Store match result in Redis.
      * 
@@ -872,7 +1829,7 @@ public class MatchmakingService {
      * 
      * @param matchId The match ID
      */
-    private void scheduleMatchEnd(String matchId) {
+    void scheduleMatchEnd(String matchId) {
         try {
             // Store active match with expiration
             redisTemplate.opsForValue().set(
@@ -918,13 +1875,23 @@ public class MatchmakingService {
     /**
      * Get queue statistics.
      * 
-     * @return Number of players in queue
+     * @return Number of players in the default queue
      */
     public long getQueueSize() {
+        return getQueueSize(QueueKey.DEFAULT);
+    }
+
+    /**
+     * Get the number of players waiting in a queue.
+     *
+     * @param queueKey The queue to inspect
+     * @return Number of players in that queue
+     */
+    public long getQueueSize(QueueKey queueKey) {
         try {
-            return redisTemplate.opsForZSet().size(MATCHMAKING_QUEUE);
+            return redisTemplate.opsForZSet().size(queue(queueKey).queueKey);
         } catch (Exception e) {
-            log.error("Failed to get queue size", e);
+            log.error("Failed to get queue size for {}", queueKey, e);
             return 0;
         }
     }
@@ -1080,7 +2047,7 @@ public class MatchmakingService {
             if (playerId == null || playerId.isBlank()) {
                 entities = matchRepository.findTop50ByOrderByPlayedAtDesc();
             } else {
-                entities = matchRepository.findByPlayerAOrPlayerBOrderByPlayedAtDesc(playerId, playerId);
+                entities = matchRepository.findByParticipantOrderByPlayedAtDesc(playerId);
             }
             return entities.stream()
                 .limit(limit)
@@ -1132,34 +2099,4 @@ public class MatchmakingService {
             return List.of();
         }
     }
-
-    /**
-     * Helper class for players with their full MatchRequest objects.
-     */
-    private static class PlayerWithRequest {
-        String playerId;
-        MatchRequest request;
-
-        PlayerWithRequest(String playerId, MatchRequest request) {
-            this.playerId = playerId;
-            this.request = request;
-        }
-    }
-
-    /**
-     * Helper class for match pairs.
-     */
-    private static class MatchPair {
-        String playerA;
-        String playerB;
-        int eloA;
-        int eloB;
-
-        MatchPair(String playerA, String playerB, int eloA, int eloB) {
-            this.playerA = playerA;
-            this.playerB = playerB;
-            this.eloA = eloA;
-            this.eloB = eloB;
-        }
-    }
-} 
\ No newline at end of file
+}
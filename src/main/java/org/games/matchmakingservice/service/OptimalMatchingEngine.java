@@ -0,0 +1,148 @@
+package org.games.matchmakingservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Minimum-cost batch pairing over a {@link CandidateSnapshot}.
+ * <p>
+ * Unlike the greedy engine, which lets the longest-waiting player take its favourite partner even
+ * if that strands someone whose only compatible partner it was, this engine chooses all pairs of
+ * the cycle together. It runs a dynamic program over the Elo-sorted players: each player is either
+ * left waiting or paired with one of the {@code match.optimal.lookback} players just below it, and
+ * the cheapest combination wins.
+ * <p>
+ * A pair costs its Elo gap, discounted by the pair's shared wait so long-waiting players accept
+ * wider gaps more readily. Leaving a player unmatched costs its current tolerance, which already
+ * grows with wait; since a compatible pair never costs more than either tolerance, the program
+ * only leaves players waiting when doing so lets more (or closer) pairs form elsewhere.
+ * <p>
+ * Latency regions are honoured through the same compatibility check as the greedy engine, but the
+ * lookback runs over the Elo order of the whole queue, so players far apart in latency use up
+ * lookback slots; keep the lookback wider when latency regions are configured.
+ * <p>
+ * Runs in O(n * lookback) time on arrays reused across cycles. Pairs are emitted in priority
+ * order so a budget-limited cycle still finalizes the longest waiters first.
+ */
+@Component
+@ConditionalOnProperty(name = "match.engine", havingValue = "optimal")
+public class OptimalMatchingEngine implements MatchingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimalMatchingEngine.class);
+
+    private final int lookback;
+    private final double waitWeightSeconds;
+
+    // One scratch per matcher thread, so queues matched concurrently never share arrays
+    private final ThreadLocal<Tables> tables = ThreadLocal.withInitial(Tables::new);
+
+    public OptimalMatchingEngine(@Value("${match.optimal.lookback:8}") int lookback,
+                                 @Value("${match.optimal.wait-weight-seconds:30}") double waitWeightSeconds) {
+        this.lookback = Math.max(1, lookback);
+        this.waitWeightSeconds = Math.max(1.0, waitWeightSeconds);
+        log.info("Optimal matching engine: lookback={}, wait weight {}s", this.lookback, this.waitWeightSeconds);
+    }
+
+    @Override
+    public void findPairs(CandidateSnapshot snapshot) {
+        int n = snapshot.size;
+        if (n < 2) {
+            return;
+        }
+        Tables t = tables.get();
+        t.ensureCapacity(n);
+        double[] dp = t.dp;
+        double[] skipPrefix = t.skipPrefix;
+        int[] choice = t.choice;
+        int[] partner = t.partner;
+
+        // skipPrefix[i] = cost of leaving Elo positions [0, i) unmatched
+        skipPrefix[0] = 0.0;
+        for (int p = 0; p < n; p++) {
+            skipPrefix[p + 1] = skipPrefix[p] + snapshot.tolerance[snapshot.byElo[p]];
+        }
+        int maxTolerance = snapshot.maxTolerance();
+
+        // dp[i] = cheapest way to settle Elo positions [0, i); choice[i] = partner position of i-1, or -1
+        dp[0] = 0.0;
+        for (int i = 1; i <= n; i++) {
+            int high = i - 1;
+            dp[i] = dp[i - 1] + snapshot.tolerance[snapshot.byElo[high]];
+            choice[i] = -1;
+            int stop = Math.max(0, high - lookback);
+            for (int low = high - 1; low >= stop; low--) {
+                if (snapshot.sortedElo[high] - snapshot.sortedElo[low] > maxTolerance) {
+                    break;
+                }
+                int a = snapshot.byElo[low];
+                int b = snapshot.byElo[high];
+                if (!GreedyMatchingEngine.compatible(snapshot, a, b)) {
+                    continue;
+                }
+                // Players strictly between the pair stay in the queue
+                double cost = dp[low] + (skipPrefix[high] - skipPrefix[low + 1]) + pairCost(snapshot, a, b);
+                if (cost < dp[i]) {
+                    dp[i] = cost;
+                    choice[i] = low;
+                }
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            partner[k] = -1;
+        }
+        int i = n;
+        while (i > 0) {
+            int low = choice[i];
+            if (low < 0) {
+                i--;
+            } else {
+                int a = snapshot.byElo[low];
+                int b = snapshot.byElo[i - 1];
+                partner[a] = b;
+                partner[b] = a;
+                i = low;
+            }
+        }
+
+        for (int r = 0; r < n; r++) {
+            int a = snapshot.order[r];
+            int b = partner[a];
+            if (b >= 0 && !snapshot.matched[a]) {
+                snapshot.addPair(a, b);
+            }
+        }
+    }
+
+    /**
+     * Elo gap of the pair, discounted by how long the shorter-waiting of the two has waited.
+     */
+    double pairCost(CandidateSnapshot snapshot, int a, int b) {
+        int eloDifference = Math.abs(snapshot.elo[a] - snapshot.elo[b]);
+        long sharedWait = Math.min(snapshot.waitSeconds[a], snapshot.waitSeconds[b]);
+        return eloDifference * waitWeightSeconds / (waitWeightSeconds + sharedWait);
+    }
+
+    /**
+     * DP tables reused across cycles, indexed by Elo position (dp, choice, skipPrefix) or slot (partner).
+     */
+    private static final class Tables {
+        double[] dp = new double[0];
+        double[] skipPrefix = new double[0];
+        int[] choice = new int[0];
+        int[] partner = new int[0];
+
+        void ensureCapacity(int n) {
+            if (partner.length < n) {
+                int capacity = Math.max(n, partner.length * 2);
+                dp = new double[capacity + 1];
+                skipPrefix = new double[capacity + 1];
+                choice = new int[capacity + 1];
+                partner = new int[capacity];
+            }
+        }
+    }
+}
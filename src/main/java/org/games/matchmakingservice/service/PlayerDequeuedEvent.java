@@ -0,0 +1,10 @@
+package org.games.matchmakingservice.service;
+
+/**
+ * Published after a player left a matchmaking queue without being matched.
+ *
+ * @param playerId The removed player's ID
+ * @param queue The queue the player left
+ */
+public record PlayerDequeuedEvent(String playerId, QueueKey queue) {
+}
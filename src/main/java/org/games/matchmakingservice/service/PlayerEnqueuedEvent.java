@@ -0,0 +1,23 @@
+package org.games.matchmakingservice.service;
+
+/**
+ * Published after a player has been written to a matchmaking queue.
+ * Used to wake that queue's matcher instead of waiting for the next timer tick.
+ *
+ * @param playerId The enqueued player's ID
+ * @param elo The player's Elo rating at enqueue time
+ * @param queue The queue the player joined
+ */
+public record PlayerEnqueuedEvent(String playerId, int elo, QueueKey queue) {
+
+    public PlayerEnqueuedEvent {
+        queue = queue != null ? queue : QueueKey.DEFAULT;
+    }
+
+    /**
+     * Event for a player who joined the default queue.
+     */
+    public PlayerEnqueuedEvent(String playerId, int elo) {
+        this(playerId, elo, QueueKey.DEFAULT);
+    }
+}
@@ -0,0 +1,261 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide presence of WebSocket users, kept in Redis next to the node-local
+ * {@link WebSocketConnectionTracker}.
+ * <p>
+ * Each node heartbeats three things: its entry in {@value #NODES_KEY} (scored by heartbeat time),
+ * a hash of its sessions ({@code presence:node:<node>}, session ID to user) and one key per
+ * connected user ({@code presence:user:<user>}, holding the node). The hash and the user keys carry
+ * a TTL that each heartbeat renews, so a crashed node's presence disappears on its own within
+ * {@code app.presence.ttl-ms}; the stale node entry is swept by whichever node heartbeats next.
+ * <p>
+ * "Is this user online, and where" is a single GET. Connects and disconnects are written at once;
+ * the heartbeat rewrites the node's full state, which also repairs anything those writes missed.
+ */
+@Service
+public class PresenceRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceRegistry.class);
+
+    static final String NODES_KEY = "presence:nodes";
+    private static final String NODE_KEY_PREFIX = "presence:node:";
+    private static final String USER_KEY_PREFIX = "presence:user:";
+
+    /**
+     * Delete a user key only if it still points at this node; the user may have reconnected
+     * elsewhere in the meantime. Returns 1 if the key was deleted.
+     */
+    private static final RedisScript<Long> RELEASE_USER_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final WebSocketConnectionTracker connectionTracker;
+    private final String nodeId;
+
+    // Owned by the heartbeat: what the last heartbeat wrote for this node
+    private Set<String> publishedSessions = Set.of();
+    private Set<String> publishedUsers = Set.of();
+
+    // Connections per live node as of the last heartbeat
+    private volatile Map<String, Long> clusterNodes = Map.of();
+
+    @Value("${app.presence.ttl-ms:15000}")
+    private long ttlMs; // A node missing heartbeats this long is considered gone; a few heartbeat intervals
+
+    public PresenceRegistry(RedisTemplate<String, Object> redisTemplate,
+                            WebSocketConnectionTracker connectionTracker,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.presence.node-id:}") String nodeId) {
+        this.redisTemplate = redisTemplate;
+        this.connectionTracker = connectionTracker;
+        // Unique per process unless configured, so a restarted node never inherits a crashed one's keys
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString().substring(0, 8);
+        Gauge.builder("websocket.cluster.connections", this, PresenceRegistry::getClusterConnectionCount)
+                .description("Open WebSocket sessions across all live nodes, as of the last presence heartbeat")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * This node's ID in the presence registry.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * The node a user is connected to, or null if the user is offline everywhere.
+     */
+    public String locate(String userId) {
+        Object node = redisTemplate.opsForValue().get(USER_KEY_PREFIX + userId);
+        return node != null ? node.toString() : null;
+    }
+
+    /**
+     * {@link #locate} for many users in one round trip.
+     *
+     * @return The node of every user who is online; offline users are absent
+     */
+    public Map<String, String> locateAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> ids = new ArrayList<>(userIds);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (String userId : ids) {
+            keys.add(USER_KEY_PREFIX + userId);
+        }
+        List<Object> nodes = redisTemplate.opsForValue().multiGet(keys);
+        Map<String, String> located = new HashMap<>();
+        for (int i = 0; nodes != null && i < nodes.size(); i++) {
+            if (nodes.get(i) != null) {
+                located.put(ids.get(i), nodes.get(i).toString());
+            }
+        }
+        return located;
+    }
+
+    public boolean isOnline(String userId) {
+        return locate(userId) != null;
+    }
+
+    /**
+     * Open sessions per live node, as of the last heartbeat.
+     */
+    public Map<String, Long> getClusterNodes() {
+        return clusterNodes;
+    }
+
+    /**
+     * Open sessions across all live nodes, as of the last heartbeat.
+     */
+    public long getClusterConnectionCount() {
+        long total = 0;
+        for (long sessions : clusterNodes.values()) {
+            total += sessions;
+        }
+        return total;
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().put(nodeKey(nodeId), sessionId, user.getName());
+            redisTemplate.opsForValue().set(USER_KEY_PREFIX + user.getName(), nodeId, ttlMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // The next heartbeat writes it
+            log.warn("Could not record presence of {}: {}", user.getName(), e.toString());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        try {
+            redisTemplate.opsForHash().delete(nodeKey(nodeId), event.getSessionId());
+            // Runs after the tracker dropped the session; the user may have another one open here
+            if (user != null && !connectionTracker.isConnected(user.getName())) {
+                release(user.getName());
+            }
+        } catch (Exception e) {
+            // The user key runs out with its TTL
+            log.warn("Could not clear presence of session {}: {}", event.getSessionId(), e.toString());
+        }
+    }
+
+    /**
+     * Rewrite this node's presence, drop users who left since the last heartbeat, sweep nodes that
+     * stopped heartbeating and refresh the cluster view.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.heartbeat-ms:5000}")
+    public void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, String> sessions = connectionTracker.getActiveConnections();
+            Set<String> users = new HashSet<>(sessions.values());
+            Set<String> goneSessions = new HashSet<>(publishedSessions);
+            goneSessions.removeAll(sessions.keySet());
+
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public List<Object> execute(@NonNull RedisOperations operations) {
+                    operations.multi();
+                    operations.opsForZSet().add(NODES_KEY, nodeId, now);
+                    String nodeKey = nodeKey(nodeId);
+                    if (!goneSessions.isEmpty()) {
+                        operations.opsForHash().delete(nodeKey, goneSessions.toArray());
+                    }
+                    if (!sessions.isEmpty()) {
+                        operations.opsForHash().putAll(nodeKey, sessions);
+                        operations.expire(nodeKey, ttlMs, TimeUnit.MILLISECONDS);
+                    }
+                    for (String user : users) {
+                        operations.opsForValue().set(USER_KEY_PREFIX + user, nodeId, ttlMs, TimeUnit.MILLISECONDS);
+                    }
+                    return operations.exec();
+                }
+            });
+
+            for (String user : publishedUsers) {
+                if (!users.contains(user)) {
+                    release(user);
+                }
+            }
+            publishedSessions = sessions.keySet();
+            publishedUsers = users;
+
+            clusterNodes = refreshClusterNodes(now);
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic heartbeat
+            log.warn("Presence heartbeat failed: {}", e.toString());
+        }
+    }
+
+    private Map<String, Long> refreshClusterNodes(long now) {
+        long cutoff = now - ttlMs;
+        Long swept = redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, cutoff);
+        if (swept != null && swept > 0) {
+            // Their session hashes and user keys expire on their own
+            log.info("Swept {} presence nodes that stopped heartbeating", swept);
+        }
+        Set<Object> live = redisTemplate.opsForZSet().range(NODES_KEY, 0, -1);
+        Map<String, Long> nodes = new LinkedHashMap<>();
+        if (live != null) {
+            for (Object node : live) {
+                Long size = redisTemplate.opsForHash().size(nodeKey(node.toString()));
+                nodes.put(node.toString(), size != null ? size : 0L);
+            }
+        }
+        return nodes;
+    }
+
+    private void release(String userId) {
+        redisTemplate.execute(RELEASE_USER_SCRIPT, List.of(USER_KEY_PREFIX + userId), nodeId);
+    }
+
+    private static String nodeKey(String nodeId) {
+        return NODE_KEY_PREFIX + nodeId;
+    }
+}
@@ -0,0 +1,101 @@
+package org.games.matchmakingservice.service;
+
+/**
+ * Summary of one queue as its matcher last saw it: who is waiting, at which Elo, for how long,
+ * and how many players have widened their tolerance all the way without finding a partner.
+ * <p>
+ * Built by the matcher from the cycle's {@link CandidateSnapshot} once its matches are committed,
+ * leaving out the players they took, so it costs no Redis calls; readers get the last published
+ * instance from memory.
+ *
+ * @param queue The queue summarized
+ * @param computedAtMillis Cycle clock the summary was computed against
+ * @param players Players still waiting after that cycle
+ * @param oldestPlayerId Longest-waiting player, or null if the queue was empty
+ * @param oldestWaitMillis How long that player had waited, in ms
+ * @param pastTolerancePlateau Players whose Elo tolerance has reached the queue's cap
+ * @param eloBucketStart Lower Elo bound of the first Elo bucket
+ * @param eloBucketWidth Elo range covered by each bucket
+ * @param eloHistogram Players per Elo bucket
+ * @param waitBoundsSeconds Upper bounds (exclusive) of all wait buckets but the last, which is open
+ * @param waitHistogram Players per wait bucket; one longer than {@code waitBoundsSeconds}
+ */
+public record QueueInsight(QueueKey queue, long computedAtMillis, int players,
+                           String oldestPlayerId, long oldestWaitMillis, int pastTolerancePlateau,
+                           int eloBucketStart, int eloBucketWidth, int[] eloHistogram,
+                           long[] waitBoundsSeconds, int[] waitHistogram) {
+
+    /** Wait buckets: under 5s, 5-15s, 15-30s, 30s-1m, 1-2m, 2-5m and 5m or more. */
+    static final long[] WAIT_BOUNDS_SECONDS = {5, 15, 30, 60, 120, 300};
+
+    /** Widest Elo histogram served; the bucket width grows to stay within it. */
+    static final int MAX_ELO_BUCKETS = 64;
+
+    /**
+     * Summarize a prepared snapshot whose tolerances are filled in, skipping the slots marked
+     * {@link CandidateSnapshot#matched}; a lone player is summarized like any other queue.
+     *
+     * @param maxTolerance The queue's tolerance cap
+     * @param eloBucketWidth Preferred Elo bucket width
+     */
+    static QueueInsight of(QueueKey queue, CandidateSnapshot snapshot, long cycleNowMillis,
+                           int maxTolerance, int eloBucketWidth) {
+        int n = 0;
+        int oldest = -1;
+        int pastPlateau = 0;
+        int[] waitHistogram = new int[WAIT_BOUNDS_SECONDS.length + 1];
+        for (int k = 0; k < snapshot.size; k++) {
+            if (snapshot.matched[k]) {
+                continue;
+            }
+            n++;
+            if (oldest < 0 || snapshot.enqueuedAtMillis[k] < snapshot.enqueuedAtMillis[oldest]) {
+                oldest = k;
+            }
+            if (snapshot.tolerance[k] >= maxTolerance) {
+                pastPlateau++;
+            }
+            waitHistogram[waitBucket(snapshot.waitSeconds[k])]++;
+        }
+        if (n == 0) {
+            return new QueueInsight(queue, cycleNowMillis, n, null, 0L, 0, 0, Math.max(1, eloBucketWidth),
+                    new int[0], WAIT_BOUNDS_SECONDS.clone(), waitHistogram);
+        }
+
+        // sortedElo is ascending, so the range runs from the first to the last player still waiting
+        int first = 0;
+        while (snapshot.matched[snapshot.byElo[first]]) {
+            first++;
+        }
+        int last = snapshot.size - 1;
+        while (snapshot.matched[snapshot.byElo[last]]) {
+            last--;
+        }
+        int minElo = snapshot.sortedElo[first];
+        int maxElo = snapshot.sortedElo[last];
+        int width = Math.max(1, eloBucketWidth);
+        while ((long) (maxElo - minElo) / width + 1 > MAX_ELO_BUCKETS) {
+            width *= 2;
+        }
+        int start = Math.floorDiv(minElo, width) * width;
+        int[] eloHistogram = new int[(maxElo - start) / width + 1];
+        for (int p = first; p <= last; p++) {
+            if (!snapshot.matched[snapshot.byElo[p]]) {
+                eloHistogram[(snapshot.sortedElo[p] - start) / width]++;
+            }
+        }
+
+        return new QueueInsight(queue, cycleNowMillis, n, snapshot.ids[oldest],
+                Math.max(0L, cycleNowMillis - snapshot.enqueuedAtMillis[oldest]), pastPlateau,
+                start, width, eloHistogram, WAIT_BOUNDS_SECONDS.clone(), waitHistogram);
+    }
+
+    private static int waitBucket(long waitSeconds) {
+        for (int b = 0; b < WAIT_BOUNDS_SECONDS.length; b++) {
+            if (waitSeconds < WAIT_BOUNDS_SECONDS[b]) {
+                return b;
+            }
+        }
+        return WAIT_BOUNDS_SECONDS.length;
+    }
+}
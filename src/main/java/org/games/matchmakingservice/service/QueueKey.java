@@ -0,0 +1,41 @@
+package org.games.matchmakingservice.service;
+
+import java.util.Locale;
+
+/**
+ * Identifies one matchmaking queue: a game mode played in a region.
+ * Every queue has its own Redis keys and its own matcher.
+ */
+public record QueueKey(String mode, String region) {
+
+    public static final String DEFAULT_MODE = "default";
+    public static final String DEFAULT_REGION = "global";
+
+    /** The original single queue; it keeps the legacy Redis keys. */
+    public static final QueueKey DEFAULT = new QueueKey(DEFAULT_MODE, DEFAULT_REGION);
+
+    public QueueKey {
+        mode = normalize(mode, DEFAULT_MODE);
+        region = normalize(region, DEFAULT_REGION);
+    }
+
+    /**
+     * Build a key from request values; blank values fall back to the default mode or region.
+     */
+    public static QueueKey of(String mode, String region) {
+        return new QueueKey(mode, region);
+    }
+
+    public boolean isDefault() {
+        return DEFAULT.equals(this);
+    }
+
+    private static String normalize(String value, String fallback) {
+        return value == null || value.isBlank() ? fallback : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return mode + ":" + region;
+    }
+}
@@ -0,0 +1,32 @@
+package org.games.matchmakingservice.service;
+
+import java.util.List;
+
+/**
+ * Players waiting in one queue, in queue order, as of one shared load.
+ * <p>
+ * Instances are immutable and handed to every reader within the status cache interval, so
+ * callers page through them with {@link #page} instead of copying.
+ *
+ * @param queue The queue listed
+ * @param computedAtMillis When the queue was read
+ * @param total Players waiting at that time; more than {@code players.size()} when the listing was capped
+ * @param players The first players in queue order
+ */
+public record QueueStatus(QueueKey queue, long computedAtMillis, long total, List<Entry> players) {
+
+    /**
+     * One waiting player as stored in the queue's request hash.
+     */
+    public record Entry(String playerId, int elo, long enqueuedAtMillis) {
+    }
+
+    /**
+     * Players {@code offset} to {@code offset + limit}, clamped to the listing.
+     */
+    public List<Entry> page(int offset, int limit) {
+        int from = Math.min(Math.max(0, offset), players.size());
+        int to = (int) Math.min((long) from + Math.max(0, limit), players.size());
+        return players.subList(from, to);
+    }
+}
@@ -0,0 +1,248 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes queue status to WebSocket clients instead of having them poll {@code /api/match/status}.
+ * <p>
+ * Every push interval, each queue whose change version moved since its last push is reloaded once
+ * and published to {@value #TOPIC} as a delta against the previous push: players who joined, players
+ * who left and the new size. Connected users waiting in a changed queue also get their own position
+ * and estimated wait on {@code /user}{@value #USER_DESTINATION}. Unchanged queues cost nothing, and
+ * nothing is read while no client is connected.
+ * <p>
+ * Above {@code match.status.max-players} the listing is capped, and a player outside it cannot be
+ * told apart from one who left. Such a queue gets size-only deltas flagged {@code truncated}; the
+ * first full delta after them lists every waiting player as joined, so clients can rebuild.
+ * <p>
+ * All state is owned by the single publisher thread.
+ */
+@Service
+public class QueueStatusPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueStatusPublisher.class);
+
+    static final String TOPIC = "/topic/queue-status";
+    static final String USER_DESTINATION = "/queue/status";
+
+    /**
+     * What the last push of one queue told clients; no player ids after a truncated push.
+     */
+    private record Published(long version, long seq, Set<String> playerIds) {
+    }
+
+    /**
+     * What the last push to one user told them; ETA alone changing does not trigger a push.
+     */
+    private record UserPosition(QueueKey queue, int position) {
+    }
+
+    private final MatchmakingService matchmakingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketConnectionTracker connectionTracker;
+    private final Counter topicPushCounter;
+    private final Counter userPushCounter;
+
+    private final Map<QueueKey, Published> published = new HashMap<>();
+    private final Map<String, UserPosition> userPositions = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @Value("${match.status.push-interval-ms:500}")
+    private long pushIntervalMs; // Shortest time between two pushes of the same queue; 0 disables pushing
+
+    public QueueStatusPublisher(MatchmakingService matchmakingService,
+                                SimpMessagingTemplate messagingTemplate,
+                                WebSocketConnectionTracker connectionTracker,
+                                MeterRegistry meterRegistry) {
+        this.matchmakingService = matchmakingService;
+        this.messagingTemplate = messagingTemplate;
+        this.connectionTracker = connectionTracker;
+        this.topicPushCounter = Counter.builder("matchmaking.status.push")
+                .description("Queue status messages pushed to WebSocket clients")
+                .tag("destination", "topic")
+                .register(meterRegistry);
+        this.userPushCounter = Counter.builder("matchmaking.status.push")
+                .description("Queue status messages pushed to WebSocket clients")
+                .tag("destination", "user")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (pushIntervalMs <= 0) {
+            log.info("Queue status push disabled");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "matchmaking-status-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::publishChanges, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Queue status push started: at most every {}ms per queue to {}", pushIntervalMs, TOPIC);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Push every queue that changed since its last push. Runs on the publisher thread.
+     */
+    void publishChanges() {
+        try {
+            if (!connectionTracker.hasActiveConnections()) {
+                return; // Nobody to tell; the next push after a connect starts from the last one sent
+            }
+            Set<String> users = new HashSet<>(connectionTracker.getActiveConnections().values());
+            userPositions.keySet().retainAll(users);
+            for (QueueKey key : matchmakingService.getQueueKeys()) {
+                // Read the version first, so a change during the reload is pushed next time
+                long version = matchmakingService.queueVersion(key);
+                Published last = published.get(key);
+                if (last != null && last.version() == version) {
+                    continue;
+                }
+                // Force a reload; it still coalesces with REST readers of the same listing
+                QueueStatus status = matchmakingService.getQueueStatus(key, 0);
+                published.put(key, publishDelta(status, last, version));
+                publishUserPositions(status, users);
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic push
+            log.error("Queue status push failed", e);
+        }
+    }
+
+    private Published publishDelta(QueueStatus status, Published last, long version) {
+        long seq = last != null ? last.seq() + 1 : 1;
+        if (status.players().size() < status.total()) {
+            // Capped listing: players outside it would show up as having left
+            sendDelta(status, seq, true, List.of(), List.of());
+            return new Published(version, seq, null);
+        }
+
+        Set<String> previousIds = last != null && last.playerIds() != null ? last.playerIds() : Set.of();
+        Set<String> ids = new HashSet<>(status.players().size() * 2);
+        List<Map<String, Object>> joined = new ArrayList<>();
+        for (QueueStatus.Entry player : status.players()) {
+            ids.add(player.playerId());
+            if (!previousIds.contains(player.playerId())) {
+                joined.add(Map.of(
+                    "playerId", player.playerId(),
+                    "elo", player.elo(),
+                    "enqueuedAt", player.enqueuedAtMillis()
+                ));
+            }
+        }
+        List<String> left = new ArrayList<>();
+        for (String playerId : previousIds) {
+            if (!ids.contains(playerId)) {
+                left.add(playerId);
+            }
+        }
+        sendDelta(status, seq, false, joined, left);
+        return new Published(version, seq, ids);
+    }
+
+    private void sendDelta(QueueStatus status, long seq, boolean truncated,
+                           List<Map<String, Object>> joined, List<String> left) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("mode", status.queue().mode());
+        delta.put("region", status.queue().region());
+        delta.put("seq", seq);
+        delta.put("size", status.total());
+        delta.put("truncated", truncated);
+        delta.put("joined", joined);
+        delta.put("left", left);
+        delta.put("timestamp", status.computedAtMillis());
+        messagingTemplate.convertAndSend(TOPIC, delta);
+        topicPushCounter.increment();
+    }
+
+    /**
+     * Tell connected users in this queue, or who were in it at the last push, where they stand.
+     */
+    private void publishUserPositions(QueueStatus status, Set<String> users) {
+        QueueKey key = status.queue();
+        Map<String, QueueStatus.Entry> waiting = new HashMap<>();
+        for (QueueStatus.Entry player : status.players()) {
+            if (users.contains(player.playerId())) {
+                waiting.put(player.playerId(), player);
+            }
+        }
+
+        if (!waiting.isEmpty()) {
+            // Position is by time waited: the longest-waiting player is first
+            List<QueueStatus.Entry> byWait = new ArrayList<>(status.players());
+            byWait.sort(Comparator.comparingLong(QueueStatus.Entry::enqueuedAtMillis));
+            double meanWaitMillis = matchmakingService.meanWaitMillis(key);
+            for (int i = 0; i < byWait.size(); i++) {
+                QueueStatus.Entry player = byWait.get(i);
+                if (!waiting.containsKey(player.playerId())) {
+                    continue;
+                }
+                UserPosition position = new UserPosition(key, i + 1);
+                if (position.equals(userPositions.put(player.playerId(), position))) {
+                    continue;
+                }
+                long waitedMillis = Math.max(0L, status.computedAtMillis() - player.enqueuedAtMillis());
+                Map<String, Object> update = userStatus(key, true, status.computedAtMillis());
+                update.put("position", i + 1);
+                update.put("size", status.total());
+                update.put("waitedMillis", waitedMillis);
+                update.put("etaMillis", meanWaitMillis < 0 ? -1L : Math.max(0L, Math.round(meanWaitMillis) - waitedMillis));
+                sendToUser(player.playerId(), update);
+            }
+        }
+
+        if (status.players().size() < status.total()) {
+            return; // Capped listing: a user missing from it may still be waiting
+        }
+        for (String user : users) {
+            UserPosition previous = userPositions.get(user);
+            if (previous != null && previous.queue().equals(key) && !waiting.containsKey(user)) {
+                userPositions.remove(user);
+                sendToUser(user, userStatus(key, false, status.computedAtMillis()));
+            }
+        }
+    }
+
+    private static Map<String, Object> userStatus(QueueKey key, boolean inQueue, long timestamp) {
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("mode", key.mode());
+        update.put("region", key.region());
+        update.put("inQueue", inQueue);
+        update.put("timestamp", timestamp);
+        return update;
+    }
+
+    private void sendToUser(String user, Map<String, Object> update) {
+        messagingTemplate.convertAndSendToUser(user, USER_DESTINATION, update);
+        userPushCounter.increment();
+    }
+}
@@ -0,0 +1,76 @@
+package org.games.matchmakingservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * One shared, periodically reloaded value for read-heavy endpoints.
+ * <p>
+ * Refresh is single-flight: when the value is too old, one caller reloads it while concurrent
+ * callers wait for that load and reuse its result instead of issuing their own. A failed reload
+ * keeps serving the previous value until the next refresh is due; with no previous value the
+ * failure propagates.
+ */
+final class SnapshotCache<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotCache.class);
+
+    private record Entry<T>(T value, long loadedAtMillis) {
+    }
+
+    private final Supplier<T> loader;
+    private final LongSupplier clock;
+    // A lock rather than synchronized, so waiting virtual threads do not pin their carriers
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Entry<T> entry;
+
+    SnapshotCache(Supplier<T> loader) {
+        this(loader, System::currentTimeMillis);
+    }
+
+    SnapshotCache(Supplier<T> loader, LongSupplier clock) {
+        this.loader = loader;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached value, reloaded first if it is older than {@code maxAgeMillis}.
+     */
+    T get(long maxAgeMillis) {
+        Entry<T> current = entry;
+        if (isFresh(current, maxAgeMillis)) {
+            return current.value();
+        }
+        refreshLock.lock();
+        try {
+            // Another caller may have reloaded while this one waited
+            current = entry;
+            if (isFresh(current, maxAgeMillis)) {
+                return current.value();
+            }
+            try {
+                T value = loader.get();
+                entry = new Entry<>(value, clock.getAsLong());
+                return value;
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                log.warn("Snapshot reload failed, serving the previous one: {}", e.toString());
+                // Back off for one interval rather than retrying on every waiting caller
+                entry = new Entry<>(current.value(), clock.getAsLong());
+                return current.value();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Entry<T> current, long maxAgeMillis) {
+        return current != null && clock.getAsLong() - current.loadedAtMillis() < maxAgeMillis;
+    }
+}
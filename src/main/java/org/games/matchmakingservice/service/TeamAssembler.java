@@ -0,0 +1,241 @@
+package org.games.matchmakingservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Assembles two balanced teams of {@code teamSize} players each from queued parties.
+ * <p>
+ * Parties are visited in priority order (longest wait first). Each unmatched party becomes an
+ * anchor: the assembler gathers at most {@code candidateWindow} unmatched parties closest to
+ * it in Elo that are within both parties' tolerances, then bin-packs them into the two teams
+ * largest party first, always into the team with the lower average Elo that still has room.
+ * A bounded swap pass then exchanges equal-sized parties between the teams while that
+ * narrows the Elo gap. Every anchor costs O(window log window), so a cycle is
+ * O(n log n + n * window log window) regardless of how the queue is composed.
+ * <p>
+ * Parties are never split across teams. Not thread-safe: owned by the matcher thread.
+ */
+final class TeamAssembler {
+
+    /**
+     * A party waiting in a team queue. {@code elo} is the party's aggregated team rating.
+     */
+    record Party(String partyId, String[] playerIds, int[] elos, int elo, long enqueuedAtMillis) {
+        int size() {
+            return playerIds.length;
+        }
+    }
+
+    /**
+     * Two filled teams; {@code eloA} and {@code eloB} are the mean player ratings of each side.
+     */
+    record TeamMatch(List<Party> teamA, List<Party> teamB, int eloA, int eloB) {
+        int balanceGap() {
+            return Math.abs(eloA - eloB);
+        }
+    }
+
+    private final int teamSize;
+    private final int candidateWindow;
+
+    TeamAssembler(int teamSize, int candidateWindow) {
+        this.teamSize = teamSize;
+        this.candidateWindow = Math.max(2, candidateWindow);
+    }
+
+    /**
+     * Form as many matches as possible from the queued parties.
+     *
+     * @param parties   Queued parties; parties larger than the team size are ignored
+     * @param tolerance Elo tolerance of a party, typically widened by its wait
+     * @return The formed matches, most urgent anchor first
+     */
+    List<TeamMatch> assemble(List<Party> parties, ToIntFunction<Party> tolerance) {
+        int n = parties.size();
+        List<TeamMatch> matches = new ArrayList<>();
+        if (n < 2) {
+            return matches;
+        }
+
+        int[] tolerances = new int[n];
+        for (int i = 0; i < n; i++) {
+            tolerances[i] = tolerance.applyAsInt(parties.get(i));
+        }
+        Integer[] byPriority = sortedIndexes(n, Comparator
+                .comparingLong((Integer i) -> parties.get(i).enqueuedAtMillis())
+                .thenComparingInt(i -> parties.get(i).elo())
+                .thenComparingInt(i -> i));
+        Integer[] byElo = sortedIndexes(n, Comparator
+                .comparingInt((Integer i) -> parties.get(i).elo())
+                .thenComparingInt(i -> i));
+        int[] eloPosition = new int[n];
+        for (int p = 0; p < n; p++) {
+            eloPosition[byElo[p]] = p;
+        }
+
+        boolean[] used = new boolean[n];
+        List<Integer> window = new ArrayList<>(candidateWindow);
+        for (Integer anchor : byPriority) {
+            if (used[anchor] || parties.get(anchor).size() > teamSize) {
+                continue;
+            }
+            gatherWindow(parties, tolerances, byElo, eloPosition[anchor], anchor, used, window);
+            TeamMatch match = pack(parties, anchor, window, used);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    private static Integer[] sortedIndexes(int n, Comparator<Integer> comparator) {
+        Integer[] indexes = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, comparator);
+        return indexes;
+    }
+
+    /**
+     * Collect up to {@code candidateWindow} compatible, unused parties nearest the anchor in Elo,
+     * walking outward from the anchor's position in the Elo order. The walk stops once both
+     * sides are beyond the anchor's tolerance or after a fixed number of steps.
+     */
+    private void gatherWindow(List<Party> parties, int[] tolerances, Integer[] byElo, int anchorPosition,
+                              int anchor, boolean[] used, List<Integer> window) {
+        window.clear();
+        int anchorElo = parties.get(anchor).elo();
+        int below = anchorPosition - 1;
+        int above = anchorPosition + 1;
+        int maxSteps = candidateWindow * 4;
+        for (int step = 0; step < maxSteps && window.size() < candidateWindow; step++) {
+            int gapBelow = below >= 0 ? anchorElo - parties.get(byElo[below]).elo() : Integer.MAX_VALUE;
+            int gapAbove = above < byElo.length ? parties.get(byElo[above]).elo() - anchorElo : Integer.MAX_VALUE;
+            int gap = Math.min(gapBelow, gapAbove);
+            if (gap > tolerances[anchor]) {
+                break; // The nearer side is already out of range, so both are
+            }
+            int candidate = gapBelow <= gapAbove ? byElo[below--] : byElo[above++];
+            if (!used[candidate] && gap <= tolerances[candidate] && parties.get(candidate).size() <= teamSize) {
+                window.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Bin-pack the anchor and its window into two full teams and mark their parties used,
+     * or return null if they cannot fill both teams.
+     */
+    private TeamMatch pack(List<Party> parties, int anchor, List<Integer> window, boolean[] used) {
+        // First-fit decreasing: large parties are the hard ones to place
+        window.sort(Comparator.comparingInt((Integer i) -> parties.get(i).size()).reversed());
+
+        List<Party> teamA = new ArrayList<>();
+        List<Party> teamB = new ArrayList<>();
+        List<Integer> taken = new ArrayList<>();
+        Party anchorParty = parties.get(anchor);
+        teamA.add(anchorParty);
+        taken.add(anchor);
+        int filledA = anchorParty.size();
+        int filledB = 0;
+        long sumA = eloTotal(anchorParty);
+        long sumB = 0;
+
+        for (Integer index : window) {
+            if (filledA == teamSize && filledB == teamSize) {
+                break;
+            }
+            Party party = parties.get(index);
+            boolean fitsA = filledA + party.size() <= teamSize;
+            boolean fitsB = filledB + party.size() <= teamSize;
+            if (!fitsA && !fitsB) {
+                continue;
+            }
+            // Compare per-player averages so a half-empty team is not mistaken for a weak one
+            boolean toA = fitsA && (!fitsB || mean(sumA, filledA) <= mean(sumB, filledB));
+            if (toA) {
+                teamA.add(party);
+                filledA += party.size();
+                sumA += eloTotal(party);
+            } else {
+                teamB.add(party);
+                filledB += party.size();
+                sumB += eloTotal(party);
+            }
+            taken.add(index);
+        }
+        if (filledA != teamSize || filledB != teamSize) {
+            return null;
+        }
+
+        for (Integer index : taken) {
+            used[index] = true;
+        }
+        rebalance(teamA, teamB, sumA, sumB);
+        return new TeamMatch(teamA, teamB, meanElo(teamA), meanElo(teamB));
+    }
+
+    /**
+     * Swap equal-sized parties between the teams while it narrows the gap; at most teamSize rounds.
+     */
+    private void rebalance(List<Party> teamA, List<Party> teamB, long sumA, long sumB) {
+        for (int round = 0; round < teamSize; round++) {
+            int bestI = -1;
+            int bestJ = -1;
+            long bestGap = Math.abs(sumA - sumB);
+            for (int i = 0; i < teamA.size(); i++) {
+                for (int j = 0; j < teamB.size(); j++) {
+                    Party a = teamA.get(i);
+                    Party b = teamB.get(j);
+                    if (a.size() != b.size()) {
+                        continue;
+                    }
+                    long delta = eloTotal(b) - eloTotal(a);
+                    long swappedGap = Math.abs((sumA + delta) - (sumB - delta));
+                    if (swappedGap < bestGap) {
+                        bestGap = swappedGap;
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            if (bestI < 0) {
+                return;
+            }
+            Party a = teamA.get(bestI);
+            Party b = teamB.get(bestJ);
+            long delta = eloTotal(b) - eloTotal(a);
+            teamA.set(bestI, b);
+            teamB.set(bestJ, a);
+            sumA += delta;
+            sumB -= delta;
+        }
+    }
+
+    private static long eloTotal(Party party) {
+        long total = 0;
+        for (int elo : party.elos()) {
+            total += elo;
+        }
+        return total;
+    }
+
+    private static double mean(long sum, int count) {
+        return count == 0 ? Double.NEGATIVE_INFINITY : (double) sum / count;
+    }
+
+    private static int meanElo(List<Party> team) {
+        long total = 0;
+        int players = 0;
+        for (Party party : team) {
+            total += eloTotal(party);
+            players += party.size();
+        }
+        return players == 0 ? 0 : (int) Math.round((double) total / players);
+    }
+}
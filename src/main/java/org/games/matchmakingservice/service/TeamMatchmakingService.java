@@ -0,0 +1,596 @@
+package org.games.matchmakingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.games.matchmakingservice.domain.MatchEntity;
+import org.games.matchmakingservice.domain.TeamMatchResult;
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.games.matchmakingservice.dto.PartyRequestDto;
+import org.games.matchmakingservice.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Team (NvN) matchmaking for parties of pre-grouped players.
+ * <p>
+ * Each supported team size has its own Redis queue: a sorted set of party ids scored by team
+ * rating and a hash of the stored parties. Cycles run on the matcher thread right after the
+ * 1v1 cycle (see {@link MatchmakingScheduler}); {@link TeamAssembler} forms balanced teams,
+ * and each match is finalized by atomically removing all of its parties before ratings are
+ * updated for every participant.
+ */
+@Service
+public class TeamMatchmakingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TeamMatchmakingService.class);
+
+    // Redis keys: matchmaking:team:<size>:queue (ZSET) and matchmaking:team:<size>:parties (hash)
+    private static final String TEAM_KEY_PREFIX = "matchmaking:team:";
+
+    // Stale parties expire if nobody touches the queue for this long
+    private static final long QUEUE_TTL_SECONDS = Duration.ofMinutes(30).toSeconds();
+
+    /**
+     * Store a party in one round trip. KEYS[3] onwards are the members' membership keys, shared
+     * with the solo queues (see {@link MatchmakingService#membershipKey}); each is set to the
+     * party's owner tag (ARGV[5]). A party id that is already queued, or a member who waits in a
+     * solo queue or another party, turns the whole party away. Restoring a party that still holds
+     * its members' keys passes, so the same script puts a party back after an aborted match.
+     * Returns 1 if the party was stored, 0 if its id is taken and -1 if a member is queued elsewhere.
+     */
+    private static final RedisScript<Long> ENQUEUE_PARTY_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HEXISTS', KEYS[2], cjson.decode(ARGV[1])) == 1 then
+                return 0
+            end
+            for k = 3, #KEYS do
+                local owner = redis.call('GET', KEYS[k])
+                if owner and owner ~= ARGV[5] then
+                    return -1
+                end
+            end
+            redis.call('ZADD', KEYS[1], 'NX', ARGV[2], ARGV[1])
+            redis.call('HSETNX', KEYS[2], cjson.decode(ARGV[1]), ARGV[3])
+            for k = 3, #KEYS do
+                redis.call('SET', KEYS[k], ARGV[5], 'EX', ARGV[4])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final EloService eloService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MatchRepository matchRepository;
+    private final MatchmakingService matchmakingService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Integer, TeamQueue> queues = new ConcurrentHashMap<>();
+
+    @Value("${match.team.sizes:2,5}")
+    private int[] teamSizes = {2, 5};
+
+    @Value("${match.team.candidate-window:16}")
+    private int candidateWindow = 16;
+
+    /** Stored form of a queued party. */
+    record StoredParty(String partyId, List<StoredMember> members, long enqueuedAt) {}
+
+    record StoredMember(String playerId, int elo) {}
+
+    public TeamMatchmakingService(RedisTemplate<String, Object> redisTemplate,
+                                  EloService eloService,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  MeterRegistry meterRegistry,
+                                  MatchRepository matchRepository,
+                                  MatchmakingService matchmakingService,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.redisTemplate = redisTemplate;
+        this.eloService = eloService;
+        this.messagingTemplate = messagingTemplate;
+        this.meterRegistry = meterRegistry;
+        this.matchRepository = matchRepository;
+        this.matchmakingService = matchmakingService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Enqueue a party into the queue for its team size.
+     *
+     * @param request The party and the team size it wants to play
+     * @return The party id, or null if the party was rejected or could not be stored; a party
+     *         is rejected if its id is already queued or any member already waits in a queue
+     */
+    public String enqueueParty(PartyRequestDto request) {
+        if (request == null || request.getMembers() == null || request.getMembers().isEmpty()
+                || request.getTeamSize() == null) {
+            log.warn("Cannot enqueue empty party request");
+            return null;
+        }
+        int teamSize = request.getTeamSize();
+        if (!isSupportedTeamSize(teamSize)) {
+            log.warn("Rejecting party for unsupported team size {}", teamSize);
+            return null;
+        }
+        List<MatchRequestDto> members = request.getMembers();
+        if (members.size() > teamSize) {
+            log.warn("Rejecting party of {} for team size {}", members.size(), teamSize);
+            return null;
+        }
+        Set<String> distinct = new HashSet<>();
+        List<StoredMember> stored = new ArrayList<>(members.size());
+        int[] elos = new int[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            MatchRequestDto member = members.get(i);
+            if (member.getPlayerId() == null || member.getElo() == null || !distinct.add(member.getPlayerId())) {
+                log.warn("Rejecting party with missing or duplicate member {}", member.getPlayerId());
+                return null;
+            }
+            stored.add(new StoredMember(member.getPlayerId(), member.getElo()));
+            elos[i] = member.getElo();
+        }
+
+        String partyId = request.getPartyId() != null && !request.getPartyId().isBlank()
+                ? request.getPartyId() : UUID.randomUUID().toString();
+        TeamQueue queue = queue(teamSize);
+        try {
+            int teamElo = eloService.calculateTeamRating(elos);
+            Long added = storeParty(queue, new StoredParty(partyId, stored, System.currentTimeMillis()), teamElo);
+            if (!Long.valueOf(1L).equals(added)) {
+                log.warn("Rejecting party {}: {}", partyId,
+                        Long.valueOf(-1L).equals(added) ? "a member is already queued" : "the party is already queued");
+                return null;
+            }
+
+            queue.partiesEnqueued.increment();
+            log.info("Party {} of {} enqueued for {}v{} with team Elo {}",
+                    partyId, members.size(), teamSize, teamSize, teamElo);
+
+            // Wake the matcher; the event carries the party captain
+            eventPublisher.publishEvent(new PlayerEnqueuedEvent(members.getFirst().getPlayerId(), teamElo));
+            return partyId;
+        } catch (Exception e) {
+            log.error("Failed to enqueue party {} for team size {}", partyId, teamSize, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store a party with its members' membership keys, see {@link #ENQUEUE_PARTY_SCRIPT}.
+     *
+     * @return 1 if stored, 0 if the party id is taken, -1 if a member is queued elsewhere
+     */
+    private Long storeParty(TeamQueue queue, StoredParty party, int teamElo) throws Exception {
+        List<String> keys = new ArrayList<>(2 + party.members().size());
+        keys.add(queue.queueKey);
+        keys.add(queue.partiesKey);
+        for (StoredMember member : party.members()) {
+            keys.add(MatchmakingService.membershipKey(member.playerId()));
+        }
+        return redisTemplate.execute(ENQUEUE_PARTY_SCRIPT, keys, party.partyId(), teamElo,
+                objectMapper.writeValueAsString(party), QUEUE_TTL_SECONDS, owner(queue, party.partyId()));
+    }
+
+    /**
+     * The value a party's members hold in their membership keys while it waits.
+     */
+    private static String owner(TeamQueue queue, String partyId) {
+        return queue.queueKey + ":" + partyId;
+    }
+
+    /**
+     * Release the membership keys of a party that left the queue. Best effort: a key that cannot
+     * be released expires with the queue TTL.
+     */
+    private void releaseMembers(TeamQueue queue, TeamAssembler.Party party) {
+        List<String> keys = new ArrayList<>(party.size());
+        for (String playerId : party.playerIds()) {
+            keys.add(MatchmakingService.membershipKey(playerId));
+        }
+        try {
+            redisTemplate.execute(MatchmakingService.RELEASE_MEMBERSHIP_SCRIPT, keys, owner(queue, party.partyId()));
+        } catch (Exception e) {
+            log.warn("Failed to release queue membership of party {}: {}", party.partyId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Remove a party from its team queue.
+     *
+     * @return true if the party was queued and has been removed
+     */
+    public boolean dequeueParty(int teamSize, String partyId) {
+        if (partyId == null || !isSupportedTeamSize(teamSize)) {
+            return false;
+        }
+        TeamQueue queue = queue(teamSize);
+        try {
+            // Read first: the stored party names the members whose membership keys to release
+            TeamAssembler.Party party = parseParty(redisTemplate.opsForHash().get(queue.partiesKey, partyId), 0L);
+            if (removeParties(queue, List.of(partyId))[0]) {
+                log.info("Party {} removed from {}v{} queue", partyId, teamSize, teamSize);
+                if (party != null) {
+                    releaseMembers(queue, party);
+                }
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to dequeue party {}", partyId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Run one team matchmaking cycle over every supported team size.
+     *
+     * @param budgetNanos Maximum time the cycle may keep creating matches
+     * @return The largest number of parties left waiting in any one team queue
+     */
+    public int processTeamMatchmaking(long budgetNanos) {
+        long startNanos = System.nanoTime();
+        int maxWaiting = 0;
+        for (int teamSize : teamSizes) {
+            long remaining = budgetNanos - (System.nanoTime() - startNanos);
+            maxWaiting = Math.max(maxWaiting, processQueue(queue(teamSize), remaining));
+        }
+        return maxWaiting;
+    }
+
+    private int processQueue(TeamQueue queue, long budgetNanos) {
+        long startNanos = System.nanoTime();
+        try {
+            long cycleNowMillis = System.currentTimeMillis();
+            List<TeamAssembler.Party> parties = loadParties(queue, cycleNowMillis);
+            if (parties.size() < 2) {
+                return parties.size();
+            }
+
+            long assemblyStart = System.nanoTime();
+            int queueSize = parties.size();
+            List<TeamAssembler.TeamMatch> matches = queue.assembler.assemble(parties, party ->
+                    matchmakingService.computeDynamicTolerance(
+                            Math.max(0L, (cycleNowMillis - party.enqueuedAtMillis()) / 1000L), queueSize));
+            queue.assemblyTimer.record(System.nanoTime() - assemblyStart, TimeUnit.NANOSECONDS);
+
+            int matchedParties = 0;
+            for (int m = 0; m < matches.size(); m++) {
+                TeamAssembler.TeamMatch match = matches.get(m);
+                if (finalizeTeamMatch(queue, match, cycleNowMillis)) {
+                    matchedParties += match.teamA().size() + match.teamB().size();
+                }
+                if (m + 1 < matches.size() && System.nanoTime() - startNanos >= budgetNanos) {
+                    log.debug("Team cycle budget exhausted after {} of {} matches", m + 1, matches.size());
+                    break;
+                }
+            }
+            return parties.size() - matchedParties;
+        } catch (Exception e) {
+            log.error("Team matchmaking cycle failed for {}v{}", queue.teamSize, queue.teamSize, e);
+            return 0;
+        }
+    }
+
+    private List<TeamAssembler.Party> loadParties(TeamQueue queue, long cycleNowMillis) {
+        Set<Object> queued = redisTemplate.opsForZSet().range(queue.queueKey, 0, -1);
+        if (queued == null || queued.isEmpty()) {
+            return List.of();
+        }
+        List<Object> ids = new ArrayList<>(queued);
+        List<Object> stored = redisTemplate.opsForHash().multiGet(queue.partiesKey, ids);
+        List<TeamAssembler.Party> parties = new ArrayList<>(ids.size());
+        for (int k = 0; k < ids.size(); k++) {
+            Object data = stored != null && k < stored.size() ? stored.get(k) : null;
+            TeamAssembler.Party party = parseParty(data, cycleNowMillis);
+            if (party != null) {
+                parties.add(party);
+            }
+        }
+        return parties;
+    }
+
+    TeamAssembler.Party parseParty(Object data, long fallbackMillis) {
+        if (!(data instanceof String json)) {
+            return null;
+        }
+        try {
+            StoredParty stored = objectMapper.readValue(json, StoredParty.class);
+            int size = stored.members().size();
+            String[] playerIds = new String[size];
+            int[] elos = new int[size];
+            for (int i = 0; i < size; i++) {
+                playerIds[i] = stored.members().get(i).playerId();
+                elos[i] = stored.members().get(i).elo();
+            }
+            long enqueuedAt = stored.enqueuedAt() > 0 ? stored.enqueuedAt() : fallbackMillis;
+            return new TeamAssembler.Party(stored.partyId(), playerIds, elos,
+                    eloService.calculateTeamRating(elos), enqueuedAt);
+        } catch (Exception e) {
+            log.warn("Skipping unreadable stored party: {}", json);
+            return null;
+        }
+    }
+
+    /**
+     * Atomically remove every party of the match from the queue, then play the match.
+     */
+    private boolean finalizeTeamMatch(TeamQueue queue, TeamAssembler.TeamMatch match, long cycleNowMillis) {
+        List<TeamAssembler.Party> parties = new ArrayList<>(match.teamA());
+        parties.addAll(match.teamB());
+        List<String> partyIds = new ArrayList<>(parties.size());
+        parties.forEach(party -> partyIds.add(party.partyId()));
+
+        boolean[] removed = removeParties(queue, partyIds);
+        int removedCount = 0;
+        for (boolean r : removed) {
+            removedCount += r ? 1 : 0;
+        }
+        if (removedCount != parties.size()) {
+            // A party left between snapshot and finalization; put the others back with their original wait
+            log.warn("Team match aborted: only {} of {} parties still queued", removedCount, parties.size());
+            for (int i = 0; i < parties.size(); i++) {
+                if (removed[i]) {
+                    restoreParty(queue, parties.get(i));
+                }
+            }
+            return false;
+        }
+
+        for (TeamAssembler.Party party : parties) {
+            queue.formationLatency.record(Math.max(0L, cycleNowMillis - party.enqueuedAtMillis()), TimeUnit.MILLISECONDS);
+        }
+        queue.balanceGap.record(match.balanceGap());
+        queue.matchesMade.increment();
+        parties.forEach(party -> releaseMembers(queue, party));
+
+        createTeamMatch(queue.teamSize, match);
+        return true;
+    }
+
+    /**
+     * Put a party back with its original wait; its members still hold their membership keys, and
+     * the queue, party and membership TTLs are renewed as on enqueue.
+     */
+    private void restoreParty(TeamQueue queue, TeamAssembler.Party party) {
+        try {
+            List<StoredMember> members = new ArrayList<>(party.size());
+            for (int i = 0; i < party.size(); i++) {
+                members.add(new StoredMember(party.playerIds()[i], party.elos()[i]));
+            }
+            Long restored = storeParty(queue, new StoredParty(party.partyId(), members, party.enqueuedAtMillis()), party.elo());
+            if (!Long.valueOf(1L).equals(restored)) {
+                log.warn("Could not restore party {} after aborted team match ({})", party.partyId(), restored);
+            }
+        } catch (Exception e) {
+            log.error("Failed to restore party {} after aborted team match", party.partyId(), e);
+        }
+    }
+
+    /**
+     * Remove the parties in one transaction.
+     *
+     * @return For each party id, whether it was still queued and is now removed
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean[] removeParties(TeamQueue queue, List<String> partyIds) {
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public List<Object> execute(RedisOperations operations) {
+                operations.multi();
+                // One ZREM per party so the reply says exactly which parties were still there
+                for (String partyId : partyIds) {
+                    operations.opsForZSet().remove(queue.queueKey, partyId);
+                }
+                operations.opsForHash().delete(queue.partiesKey, partyIds.toArray());
+                return operations.exec();
+            }
+        });
+        boolean[] removed = new boolean[partyIds.size()];
+        for (int i = 0; results != null && i < partyIds.size() && i < results.size(); i++) {
+            removed[i] = results.get(i) instanceof Long count && count > 0;
+        }
+        return removed;
+    }
+
+    /**
+     * Play out a formed team match: decide the winner, update every participant's rating,
+     * persist the match with its participants and broadcast the result.
+     */
+    void createTeamMatch(int teamSize, TeamAssembler.TeamMatch match) {
+        String matchId = UUID.randomUUID().toString();
+        try {
+            List<String> playersA = new ArrayList<>();
+            List<String> partiesA = new ArrayList<>();
+            int[] ratingsA = flatten(match.teamA(), playersA, partiesA);
+            List<String> playersB = new ArrayList<>();
+            List<String> partiesB = new ArrayList<>();
+            int[] ratingsB = flatten(match.teamB(), playersB, partiesB);
+
+            int teamEloA = eloService.calculateTeamRating(ratingsA);
+            int teamEloB = eloService.calculateTeamRating(ratingsB);
+            boolean teamAWins = Math.random() < eloService.calculateExpectedScore(teamEloA, teamEloB);
+            EloService.TeamEloResult eloResult = eloService.calculateTeamRatings(ratingsA, ratingsB, teamAWins ? 1.0 : 0.0);
+
+            TeamMatchResult result = TeamMatchResult.builder()
+                    .matchId(matchId)
+                    .teamSize(teamSize)
+                    .teamA(participants(playersA, partiesA, ratingsA, eloResult.ratingsA()))
+                    .teamB(participants(playersB, partiesB, ratingsB, eloResult.ratingsB()))
+                    .teamEloA(teamEloA)
+                    .teamEloB(teamEloB)
+                    .winningTeam(teamAWins ? "A" : "B")
+                    .playedAt(Instant.now())
+                    .build();
+
+            persistTeamMatch(result, eloResult);
+            messagingTemplate.convertAndSend("/topic/team-matches", result);
+            matchmakingService.scheduleMatchEnd(matchId);
+
+            log.info("Team match {} ({}v{}): team A {} (Elo {}) vs team B {} (Elo {}). Winner: team {}",
+                    matchId, teamSize, teamSize, playersA, teamEloA, playersB, teamEloB, result.getWinningTeam());
+        } catch (Exception e) {
+            log.error("Failed to create team match {}", matchId, e);
+        }
+    }
+
+    private static int[] flatten(List<TeamAssembler.Party> team, List<String> players, List<String> parties) {
+        List<Integer> ratings = new ArrayList<>();
+        for (TeamAssembler.Party party : team) {
+            for (int i = 0; i < party.size(); i++) {
+                players.add(party.playerIds()[i]);
+                parties.add(party.partyId());
+                ratings.add(party.elos()[i]);
+            }
+        }
+        return ratings.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<TeamMatchResult.Participant> participants(List<String> players, List<String> parties,
+                                                                  int[] oldRatings, int[] newRatings) {
+        List<TeamMatchResult.Participant> participants = new ArrayList<>(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            participants.add(TeamMatchResult.Participant.builder()
+                    .playerId(players.get(i))
+                    .partyId(parties.get(i))
+                    .oldElo(oldRatings[i])
+                    .newElo(newRatings[i])
+                    .build());
+        }
+        return participants;
+    }
+
+    private void persistTeamMatch(TeamMatchResult result, EloService.TeamEloResult eloResult) {
+        try {
+            boolean teamAWon = "A".equals(result.getWinningTeam());
+            MatchEntity entity = new MatchEntity();
+            entity.setMatchId(result.getMatchId());
+            entity.setTeamSize(result.getTeamSize());
+            // Captains and team ratings fill the 1v1 columns so existing views keep working
+            entity.setPlayerA(result.getTeamA().getFirst().getPlayerId());
+            entity.setPlayerB(result.getTeamB().getFirst().getPlayerId());
+            entity.setOldEloA(result.getTeamEloA());
+            entity.setOldEloB(result.getTeamEloB());
+            entity.setNewEloA(eloService.calculateTeamRating(eloResult.ratingsA()));
+            entity.setNewEloB(eloService.calculateTeamRating(eloResult.ratingsB()));
+            entity.setWinner(teamAWon ? entity.getPlayerA() : entity.getPlayerB());
+            entity.setPlayedAt(result.getPlayedAt());
+            for (TeamMatchResult.Participant participant : result.getTeamA()) {
+                entity.addParticipant(participant.getPlayerId(), "A", participant.getPartyId(),
+                        participant.getOldElo(), participant.getNewElo(), teamAWon);
+            }
+            for (TeamMatchResult.Participant participant : result.getTeamB()) {
+                entity.addParticipant(participant.getPlayerId(), "B", participant.getPartyId(),
+                        participant.getOldElo(), participant.getNewElo(), !teamAWon);
+            }
+            matchRepository.save(entity);
+
+            for (TeamMatchResult.Participant participant : result.getTeamA()) {
+                matchmakingService.updatePlayerStatsForResult(participant.getPlayerId(), participant.getNewElo(), teamAWon);
+            }
+            for (TeamMatchResult.Participant participant : result.getTeamB()) {
+                matchmakingService.updatePlayerStatsForResult(participant.getPlayerId(), participant.getNewElo(), !teamAWon);
+            }
+        } catch (Exception e) {
+            log.error("Failed to persist team match {}", result.getMatchId(), e);
+        }
+    }
+
+    /**
+     * Number of parties waiting for the given team size.
+     */
+    public long getQueueSize(int teamSize) {
+        if (!isSupportedTeamSize(teamSize)) {
+            return 0;
+        }
+        try {
+            Long size = redisTemplate.opsForZSet().size(queue(teamSize).queueKey);
+            return size != null ? size : 0;
+        } catch (Exception e) {
+            log.error("Failed to get {}v{} queue size", teamSize, teamSize, e);
+            return 0;
+        }
+    }
+
+    public boolean isSupportedTeamSize(int teamSize) {
+        for (int size : teamSizes) {
+            if (size == teamSize) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TeamQueue queue(int teamSize) {
+        return queues.computeIfAbsent(teamSize, size -> new TeamQueue(size, candidateWindow, meterRegistry));
+    }
+
+    /**
+     * Redis keys, assembler and metrics of one team size, tagged {@code teamSize=N}.
+     */
+    private static final class TeamQueue {
+        final int teamSize;
+        final String queueKey;
+        final String partiesKey;
+        final TeamAssembler assembler;
+        final Counter partiesEnqueued;
+        final Counter matchesMade;
+        final Timer formationLatency;
+        final Timer assemblyTimer;
+        final DistributionSummary balanceGap;
+
+        TeamQueue(int teamSize, int candidateWindow, MeterRegistry meterRegistry) {
+            this.teamSize = teamSize;
+            this.queueKey = TEAM_KEY_PREFIX + teamSize + ":queue";
+            this.partiesKey = TEAM_KEY_PREFIX + teamSize + ":parties";
+            this.assembler = new TeamAssembler(teamSize, candidateWindow);
+            String tag = Integer.toString(teamSize);
+            this.partiesEnqueued = Counter.builder("matchmaking.team.parties.enqueued")
+                    .description("Parties enqueued for team matchmaking")
+                    .tag("teamSize", tag)
+                    .register(meterRegistry);
+            this.matchesMade = Counter.builder("matchmaking.team.matches.made")
+                    .description("Team matches formed")
+                    .tag("teamSize", tag)
+                    .register(meterRegistry);
+            this.formationLatency = Timer.builder("matchmaking.team.formation.latency")
+                    .description("Time from party enqueue until its team match was formed")
+                    .tag("teamSize", tag)
+                    .register(meterRegistry);
+            this.assemblyTimer = Timer.builder("matchmaking.team.assembly.time")
+                    .description("Time the team assembler spent forming teams in one cycle")
+                    .tag("teamSize", tag)
+                    .register(meterRegistry);
+            this.balanceGap = DistributionSummary.builder("matchmaking.team.balance.elo.gap")
+                    .description("Elo difference between the two team ratings of a formed match")
+                    .tag("teamSize", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package org.games.matchmakingservice.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to track active WebSocket connections.
  * Used to determine if matchmaking should proceed based on connected observers.
+ * <p>
+ * Sessions are added when the broker accepts an authenticated CONNECT and removed when the
+ * session closes for any reason, not only on a DISCONNECT frame. Each inbound frame, heartbeats
+ * included, refreshes the session's last activity so idle sessions can be reaped.
  */
 @Service
 public class WebSocketConnectionTracker {
@@ -20,19 +35,23 @@ public class WebSocketConnectionTracker {
     
     private final ConcurrentHashMap<String, String> activeConnections = new ConcurrentHashMap<>();
     private final AtomicInteger connectionCount = new AtomicInteger(0);
+    // Last inbound frame per session; a mutable holder so touching a session allocates nothing
+    private final ConcurrentHashMap<String, AtomicLong> lastActivity = new ConcurrentHashMap<>();
     
     private final Counter websocketConnectionCounter;
     private final Counter websocketDisconnectionCounter;
-    private final MeterRegistry meterRegistry;
 
     public WebSocketConnectionTracker(MeterRegistry meterRegistry) {
-        this.meterRegistry = meterRegistry;
         this.websocketConnectionCounter = Counter.builder("websocket.connections")
                 .description("Number of WebSocket connections established")
                 .register(meterRegistry);
         this.websocketDisconnectionCounter = Counter.builder("websocket.disconnections")
                 .description("Number of WebSocket disconnections")
                 .register(meterRegistry);
+        Gauge.builder("websocket.active.connections", connectionCount, AtomicInteger::get)
+                .description("Number of open WebSocket sessions")
+                .strongReference(true)
+                .register(meterRegistry);
     }
 
     /**
@@ -42,12 +61,14 @@ public class WebSocketConnectionTracker {
      * @param username The username of the connected user
      */
     public void addConnection(String sessionId, String username) {
-        activeConnections.put(sessionId, username);
-        int count = connectionCount.incrementAndGet();
+        lastActivity.computeIfAbsent(sessionId, id -> new AtomicLong()).set(System.currentTimeMillis());
+        // A session that reconnects under the same id is not counted twice
+        int count = activeConnections.put(sessionId, username) == null
+                ? connectionCount.incrementAndGet()
+                : connectionCount.get();
         
         // Update metrics
         websocketConnectionCounter.increment();
-        meterRegistry.gauge("websocket.active.connections", count);
         
         log.info("WebSocket connection added: sessionId={}, username={}, total connections={}", 
                 sessionId, username, count);
@@ -60,16 +81,66 @@ public class WebSocketConnectionTracker {
      */
     public void removeConnection(String sessionId) {
         String username = activeConnections.remove(sessionId);
+        lastActivity.remove(sessionId);
+        if (username == null) {
+            // Already removed, e.g. a DISCONNECT frame followed by the socket closing
+            return;
+        }
         int count = connectionCount.decrementAndGet();
         
         // Update metrics
         websocketDisconnectionCounter.increment();
-        meterRegistry.gauge("websocket.active.connections", count);
         
         log.info("WebSocket connection removed: sessionId={}, username={}, total connections={}", 
                 sessionId, username, count);
     }
 
+    /**
+     * Record inbound traffic on a session. Unknown sessions are ignored.
+     *
+     * @param sessionId The session ID of the connection
+     */
+    public void touch(String sessionId) {
+        AtomicLong last = lastActivity.get(sessionId);
+        if (last != null) {
+            last.set(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Sessions that have sent nothing, not even a heartbeat, since {@code cutoffMillis}.
+     *
+     * @param cutoffMillis Epoch millis; sessions last active before this are returned
+     * @return the idle session IDs
+     */
+    public List<String> getIdleSessions(long cutoffMillis) {
+        List<String> idle = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> entry : lastActivity.entrySet()) {
+            if (entry.getValue().get() < cutoffMillis) {
+                idle.add(entry.getKey());
+            }
+        }
+        return idle;
+    }
+
+    // Listeners that read the tracker, such as PresenceRegistry, run after it has been updated
+    @Order(0)
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        // Only authenticated sessions are tracked, matching the user registry
+        if (user != null && sessionId != null) {
+            addConnection(sessionId, user.getName());
+        }
+    }
+
+    @Order(0)
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        removeConnection(event.getSessionId());
+    }
+
     /**
      * Check if there are any active WebSocket connections.
      * 
@@ -79,6 +150,16 @@ public class WebSocketConnectionTracker {
         return connectionCount.get() > 0;
     }
 
+    /**
+     * Check if a user has at least one session open on this node.
+     *
+     * @param username The username to look for
+     * @return true if any tracked session belongs to the user
+     */
+    public boolean isConnected(String username) {
+        return activeConnections.containsValue(username);
+    }
+
     /**
      * Get the number of active WebSocket connections.
      * 
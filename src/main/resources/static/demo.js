@@ -1,9 +1,15 @@
 (function () {
   let stompClient = null;
-  let subscription = null;
-  let queueTimer = null;
+  let subscriptions = [];
+  // Default queue as last rendered: playerId -> player, plus the last applied push sequence
+  let queuePlayers = new Map();
+  let queueSeq = null;
   let authToken = null;
   let currentUsername = null;
+  // Sequence of the last match event on /user/queue/matches, sent as resume-from on reconnect
+  let lastMatchSeq = null;
+  // Numbers STOMP queue commands so their acks can be told apart
+  let commandSeq = 0;
 
   const $ = (id) => document.getElementById(id);
   const log = (msg) => {
@@ -198,6 +204,7 @@
     stompClient.debug = null; // silence console spam
     
     const headers = { Authorization: `Bearer ${authToken}` };
+    if (lastMatchSeq !== null) headers['resume-from'] = String(lastMatchSeq);
     log(`Attempting WebSocket connection with auth token: ${authToken ? 'present' : 'missing'}`);
     stompClient.connect(headers, async function (frame) {
       setConnected(true);
@@ -217,10 +224,10 @@
   }
 
   function disconnect() {
-    if (subscription) {
-      try { subscription.unsubscribe(); } catch (_) {}
-      subscription = null;
-    }
+    subscriptions.forEach((s) => { try { s.unsubscribe(); } catch (_) {} });
+    subscriptions = [];
+    queueSeq = null;
+    $("queuePosition").textContent = '-';
     if (stompClient) {
       try { stompClient.disconnect(() => log("Disconnected")); } catch (_) {}
     }
@@ -238,7 +245,7 @@
       log('Cannot subscribe: WebSocket not connected');
       return;
     }
-    subscription = stompClient.subscribe('/topic/matches', function (message) {
+    subscriptions.push(stompClient.subscribe('/topic/matches', function (message) {
       try {
         log(`Received WebSocket message: ${message.body}`);
         const data = JSON.parse(message.body);
@@ -248,8 +255,69 @@
       } catch (e) {
         log(`Failed to parse message: ${e}`);
       }
-    });
+    }));
     log('Subscribed to /topic/matches');
+
+    // Our own matches, numbered; after a reconnect the server replays what we missed
+    subscriptions.push(stompClient.subscribe('/user/queue/matches', function (message) {
+      try { applyMatchEvent(JSON.parse(message.body)); } catch (e) { log(`Failed to parse match event: ${e}`); }
+    }));
+
+    subscriptions.push(stompClient.subscribe('/user/queue/ack', function (message) {
+      try { applyAck(JSON.parse(message.body)); } catch (e) { log(`Failed to parse ack: ${e}`); }
+    }));
+
+    // Queue changes are pushed; seed the table once, then apply deltas
+    subscriptions.push(stompClient.subscribe('/topic/queue-status', function (message) {
+      try { applyQueueDelta(JSON.parse(message.body)); } catch (e) { log(`Failed to apply queue update: ${e}`); }
+    }));
+    subscriptions.push(stompClient.subscribe('/user/queue/status', function (message) {
+      try { renderPosition(JSON.parse(message.body)); } catch (e) { log(`Failed to parse position: ${e}`); }
+    }));
+    refreshQueue();
+  }
+
+  function applyMatchEvent(event) {
+    if (event.type === 'RESUMED') {
+      log(`Resumed after #${event.from}: ${event.replayed} missed match(es)${event.complete ? '' : ', older ones in Recent Results'}`);
+      return;
+    }
+    // Live and replayed events can overlap around a reconnect
+    if (lastMatchSeq !== null && event.seq <= lastMatchSeq) return;
+    lastMatchSeq = event.seq;
+    if (event.replayed) {
+      log(`Missed match recovered: ${event.match.matchId}`);
+      renderMatch(event.match);
+    }
+  }
+
+  function applyQueueDelta(delta) {
+    if (delta.mode !== 'default' || delta.region !== 'global') return;
+    if (queueSeq !== null && delta.seq !== queueSeq + 1) {
+      // Missed a push: reload the listing; re-applying later deltas on top of it is harmless
+      queueSeq = delta.seq;
+      refreshQueue();
+      return;
+    }
+    queueSeq = delta.seq;
+    if (delta.truncated) {
+      // Too many players to track who left; the next full delta lists everyone again
+      queuePlayers.clear();
+      renderQueue(delta.size);
+      return;
+    }
+    (delta.left || []).forEach((id) => queuePlayers.delete(id));
+    (delta.joined || []).forEach((p) => queuePlayers.set(p.playerId, { ...p, username: p.playerId, online: true }));
+    renderQueue(delta.size);
+  }
+
+  function renderPosition(status) {
+    if (!status.inQueue) {
+      $("queuePosition").textContent = '-';
+      return;
+    }
+    const eta = status.etaMillis >= 0 ? `, ~${Math.ceil(status.etaMillis / 1000)}s` : '';
+    $("queuePosition").textContent = `${status.position} of ${status.size}${eta}`;
   }
 
   function formatDate(value) {
@@ -264,49 +332,46 @@
   async function refreshQueue() {
     try {
       const token = await ensureToken();
-      const res = await fetch(`/api/match/status?_t=${Date.now()}`, { headers: { Authorization: `Bearer ${token}` } });
+      const res = await fetch(`/api/match/status?limit=100&_t=${Date.now()}`, { headers: { Authorization: `Bearer ${token}` } });
       if (!res.ok) throw new Error(res.statusText);
       const json = await res.json();
       const players = Array.isArray(json.queuePlayers) ? json.queuePlayers : [];
-      $("queueCount").textContent = json.queueSize ?? players.length;
-      const body = $("queueBody");
-      // Clear existing content safely
-      body.textContent = '';
-      players.forEach((p, idx) => {
-        const tr = document.createElement('tr');
-        
-        // Create table cells safely
-        const cells = [
-          String(idx + 1),
-          String(p.playerId ?? ''),
-          String(p.username ?? ''),
-          String(p.elo ?? ''),
-          p.online ? 'Yes' : 'No',
-          formatDate(p.lastActive)
-        ];
-        
-        cells.forEach(cellText => {
-          const td = document.createElement('td');
-          td.textContent = cellText;
-          tr.appendChild(td);
-        });
-        
-        body.appendChild(tr);
-      });
+      queuePlayers = new Map(players.map((p) => [p.playerId, p]));
+      renderQueue(json.queueSize);
       log(`Queue refreshed: ${players.length} players`);
     } catch (e) {
       log(`Queue refresh failed: ${e}`);
     }
   }
 
-  function startAutoRefresh() {
-    stopAutoRefresh();
-    const ms = parseInt($("autoRefreshMs").value, 10) || 3000;
-    queueTimer = setInterval(refreshQueue, ms);
-  }
-
-  function stopAutoRefresh() {
-    if (queueTimer) { clearInterval(queueTimer); queueTimer = null; }
+  function renderQueue(size) {
+    const players = [...queuePlayers.values()]
+      .sort((a, b) => new Date(a.enqueuedAt) - new Date(b.enqueuedAt));
+    $("queueCount").textContent = size ?? players.length;
+    const body = $("queueBody");
+    // Clear existing content safely
+    body.textContent = '';
+    players.forEach((p, idx) => {
+      const tr = document.createElement('tr');
+      
+      // Create table cells safely
+      const cells = [
+        String(idx + 1),
+        String(p.playerId ?? ''),
+        String(p.username ?? ''),
+        String(p.elo ?? ''),
+        p.online ? 'Yes' : 'No',
+        formatDate(p.enqueuedAt)
+      ];
+      
+      cells.forEach(cellText => {
+        const td = document.createElement('td');
+        td.textContent = cellText;
+        tr.appendChild(td);
+      });
+      
+      body.appendChild(tr);
+    });
   }
 
   function renderMatch(m) {
@@ -336,6 +401,19 @@
     body.insertBefore(tr, body.firstChild);
   }
 
+  // Send a queue command over STOMP if connected and acting for the logged-in user; false means use HTTP
+  function sendCommand(destination, playerId, body) {
+    if (!stompClient || !stompClient.connected || playerId !== currentUsername) return false;
+    stompClient.send(destination, { 'request-id': String(++commandSeq) }, JSON.stringify(body));
+    return true;
+  }
+
+  function applyAck(ack) {
+    const target = ack.action === 'leave' ? "leaveResult" : "enqueueResult";
+    $(target).textContent = ack.message || (ack.success ? 'Done' : 'Failed');
+    log(`${ack.action} ${ack.success ? 'ok' : 'fail'} over STOMP: ${JSON.stringify(ack)}`);
+  }
+
   async function joinQueue() {
     ensurePlayerId();
     const playerId = $("playerId").value.trim();
@@ -348,6 +426,12 @@
       return;
     }
     
+    // Joining as ourselves while connected goes over the STOMP session; the ack arrives on /user/queue/ack
+    if (sendCommand('/app/match.join', playerId, { elo })) {
+      $("enqueueResult").textContent = 'Joining...';
+      return;
+    }
+
     try {
       const res = await fetch('/api/match/join', {
         method: 'POST',
@@ -374,6 +458,11 @@
       return;
     }
     
+    if (sendCommand('/app/match.leave', playerId, {})) {
+      $("leaveResult").textContent = 'Leaving...';
+      return;
+    }
+
     try {
       const res = await fetch(`/api/match/leave/${encodeURIComponent(playerId)}`, { method: 'DELETE', headers: { Authorization: `Bearer ${authToken}` } });
       const json = await res.json();
@@ -391,8 +480,6 @@
   $("joinBtn").addEventListener('click', joinQueue);
   $("leaveBtn").addEventListener('click', leaveQueue);
   $("refreshQueueBtn").addEventListener('click', refreshQueue);
-  $("autoRefreshChk").addEventListener('change', (e) => e.target.checked ? startAutoRefresh() : stopAutoRefresh());
-  $("autoRefreshMs").addEventListener('change', () => { if ($("autoRefreshChk").checked) startAutoRefresh(); });
 
   // Initialize authentication status first
   checkAuthStatus();
@@ -0,0 +1,101 @@
+package org.games.matchmakingservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes on the wire and encoding CPU of a {@code /topic/matches} payload: JSON as every client
+ * gets it today, against the CBOR a negotiated session gets (the same JSON, transcoded). A CBOR
+ * frame costs the JSON encoding plus one transcode per broadcast; "cbor-direct" serializes the
+ * match straight to CBOR for reference. Single-threaded, so times are per core.
+ * Excluded from the default build; run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class StompContentNegotiatorBenchmarkTest {
+
+    private static final int MATCHES = 1_000;
+    private static final int WARMUP_FRAMES = 500_000;
+    private static final int MEASURED_FRAMES = 1_000_000;
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode(MatchResult match) throws Exception;
+    }
+
+    private record Report(String format, double payloadBytes, double nanosPerFrame, double allocatedPerFrame) {
+        @Override
+        public String toString() {
+            return String.format("%-12s %7.1f bytes/frame %8.0f ns/frame %8.1f bytes allocated/frame",
+                    format, payloadBytes, nanosPerFrame, allocatedPerFrame);
+        }
+    }
+
+    private static MatchResult[] matches() {
+        MatchResult[] matches = new MatchResult[MATCHES];
+        Instant start = Instant.parse("2026-10-19T12:00:00Z");
+        for (int i = 0; i < MATCHES; i++) {
+            matches[i] = MatchResult.builder()
+                    .matchId("match-" + (1_000_000 + i))
+                    .playerA("player-" + i)
+                    .playerB("player-" + (i + MATCHES))
+                    .oldEloA(1400 + i % 200).oldEloB(1410 + i % 200)
+                    .newEloA(1416 + i % 200).newEloB(1394 + i % 200)
+                    .winner("player-" + i)
+                    .playedAt(start.plusSeconds(i))
+                    .serverRegion(i % 2 == 0 ? "eu-west" : "us-east")
+                    .build();
+        }
+        return matches;
+    }
+
+    private static Report run(String name, Encoder encoder, MatchResult[] matches) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            sink += encoder.encode(matches[i % matches.length]).length;
+        }
+        long bytes = 0;
+        for (MatchResult match : matches) {
+            bytes += encoder.encode(match).length;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            sink += encoder.encode(matches[i % matches.length]).length;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        assertNotEquals(42, sink); // Keeps the loop from being optimized away
+        return new Report(name, (double) bytes / matches.length, (double) elapsedNanos / MEASURED_FRAMES,
+                (double) allocated / MEASURED_FRAMES);
+    }
+
+    @Test
+    void compareJsonAndCborFrames() throws Exception {
+        // Configured like the broker's JSON converter and the CBOR converter
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        StompContentNegotiator negotiator = new StompContentNegotiator(new SimpleMeterRegistry());
+        MatchResult[] matches = matches();
+
+        Report jsonFrames = run("json", json::writeValueAsBytes, matches);
+        Report cborFrames = run("cbor", match -> negotiator.transcode(json.writeValueAsBytes(match)), matches);
+        Report cborDirect = run("cbor-direct", cbor::writeValueAsBytes, matches);
+        System.out.println(jsonFrames);
+        System.out.println(cborFrames);
+        System.out.println(cborDirect);
+
+        assertTrue(cborFrames.payloadBytes() < jsonFrames.payloadBytes(),
+                () -> "CBOR frames should be smaller: " + jsonFrames + " vs " + cborFrames);
+    }
+}
@@ -0,0 +1,174 @@
+package org.games.matchmakingservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StompContentNegotiatorTest {
+
+    private static final byte[] MATCH_JSON =
+        "{\"matchId\":\"m-1\",\"playerA\":\"alice\",\"newEloA\":1516,\"playedAt\":\"2026-10-19T12:00:00Z\",\"serverRegion\":null}".getBytes();
+
+    private SimpleMeterRegistry registry;
+    private StompContentNegotiator negotiator;
+    private WebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        negotiator = new StompContentNegotiator(registry);
+        handler = negotiator.decorate(mock(WebSocketHandler.class));
+    }
+
+    private WebSocketSession open(Class<? extends WebSocketSession> type, String sessionId) throws Exception {
+        WebSocketSession session = mock(type);
+        when(session.getId()).thenReturn(sessionId);
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    private void connect(String sessionId, String accept) {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (accept != null) {
+            connect.addNativeHeader(StompContentNegotiator.ACCEPT_HEADER, accept);
+        }
+        Message<byte[]> connectMessage = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+        SimpMessageHeaderAccessor connected = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        connected.setSessionId(sessionId);
+        connected.setHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER, connectMessage);
+        negotiator.onSessionConnected(new SessionConnectedEvent(this,
+            MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders()), () -> "player"));
+    }
+
+    // A broadcast frame as the simple broker hands it to the outbound channel
+    private static Message<?> frame(String sessionId, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/matches");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    @Test
+    void transcodesEachBroadcastOnceForCborSessions() throws Exception {
+        open(WebSocketSession.class, "s1");
+        open(WebSocketSession.class, "s2");
+        connect("s1", "application/cbor, application/json");
+        connect("s2", "application/cbor");
+
+        Message<?> first = negotiator.preSend(frame("s1", MATCH_JSON), null);
+        Message<?> second = negotiator.preSend(frame("s2", MATCH_JSON), null);
+
+        assertEquals(StompContentNegotiator.CBOR_FRAME_TYPE, first.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertSame(first.getPayload(), second.getPayload());
+        byte[] cbor = (byte[]) first.getPayload();
+        assertTrue(cbor.length < MATCH_JSON.length, () -> cbor.length + " bytes vs " + MATCH_JSON.length);
+        assertEquals(new ObjectMapper().readTree(MATCH_JSON), new CBORMapper().readTree(cbor));
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(first.getHeaders()));
+        assertEquals(1.0, registry.get("websocket.payload.transcoded").counter().count());
+        assertEquals(2.0, registry.get("websocket.frames.cbor").counter().count());
+        assertEquals(2.0, registry.get("websocket.sessions.cbor").gauge().value());
+    }
+
+    @Test
+    void interleavedBroadcastsKeepTheirTranscodes() throws Exception {
+        open(WebSocketSession.class, "s1");
+        open(WebSocketSession.class, "s2");
+        connect("s1", "application/cbor");
+        connect("s2", "application/cbor");
+        byte[] other;
+        do {
+            other = "{\"matchId\":\"m-2\"}".getBytes();
+        } while (StompContentNegotiator.transcodeSlot(other) == StompContentNegotiator.transcodeSlot(MATCH_JSON));
+
+        // The outbound threads deliver two broadcasts to their subscribers in turn
+        Object first = negotiator.preSend(frame("s1", MATCH_JSON), null).getPayload();
+        Object second = negotiator.preSend(frame("s1", other), null).getPayload();
+        assertSame(first, negotiator.preSend(frame("s2", MATCH_JSON), null).getPayload());
+        assertSame(second, negotiator.preSend(frame("s2", other), null).getPayload());
+        assertEquals(2.0, registry.get("websocket.payload.transcoded").counter().count());
+    }
+
+    @Test
+    void passesJsonSessionsAndOtherFramesThrough() throws Exception {
+        open(WebSocketSession.class, "cbor");
+        open(WebSocketSession.class, "json");
+        connect("cbor", "application/cbor");
+        connect("json", null);
+
+        Message<?> toJsonSession = frame("json", MATCH_JSON);
+        assertSame(toJsonSession, negotiator.preSend(toJsonSession, null));
+
+        SimpMessageHeaderAccessor heartbeat = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
+        heartbeat.setSessionId("cbor");
+        Message<?> heartbeatFrame = MessageBuilder.createMessage(new byte[0], heartbeat.getMessageHeaders());
+        assertSame(heartbeatFrame, negotiator.preSend(heartbeatFrame, null));
+    }
+
+    @Test
+    void keepsSockJsSessionsOnJson() throws Exception {
+        open(SockJsSession.class, "sockjs");
+        connect("sockjs", "application/cbor");
+
+        Message<?> message = frame("sockjs", MATCH_JSON);
+        assertSame(message, negotiator.preSend(message, null));
+        assertEquals(0.0, registry.get("websocket.sessions.cbor").gauge().value());
+    }
+
+    @Test
+    void forgetsClosedSessions() throws Exception {
+        WebSocketSession session = open(WebSocketSession.class, "s1");
+        connect("s1", "application/cbor");
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertEquals(0.0, registry.get("websocket.sessions.cbor").gauge().value());
+    }
+
+    @Test
+    void honorsTheClientsOrderOfPreference() {
+        assertTrue(StompContentNegotiator.prefersCbor("application/cbor, application/json"));
+        assertTrue(StompContentNegotiator.prefersCbor("text/plain, application/cbor"));
+        assertFalse(StompContentNegotiator.prefersCbor("application/json, application/cbor"));
+        assertFalse(StompContentNegotiator.prefersCbor("*/*, application/cbor"));
+        assertFalse(StompContentNegotiator.prefersCbor("cbor"));
+    }
+
+    @Test
+    void readsCborSendFramesOnlyWhenTypedAsCbor() throws Exception {
+        byte[] join = new CBORMapper().writeValueAsBytes(Map.of("elo", 1500, "mode", "ranked", "region", "eu"));
+        StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+        send.setContentType(StompContentNegotiator.APPLICATION_CBOR);
+        MappingJackson2MessageConverter converter = WebSocketConfig.cborMessageConverter();
+
+        MatchRequestDto request = (MatchRequestDto) converter.fromMessage(
+            MessageBuilder.createMessage(join, send.getMessageHeaders()), MatchRequestDto.class);
+
+        assertEquals(1500, request.getElo());
+        assertEquals("ranked", request.getMode());
+        assertNull(converter.fromMessage(MessageBuilder.withPayload(join).build(), MatchRequestDto.class));
+    }
+}
@@ -0,0 +1,106 @@
+package org.games.matchmakingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.service.WebSocketConnectionTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Inbound STOMP throughput of the auth interceptor on frames that need no auth work, against the
+ * previous implementation that rewrapped every frame. Single-threaded, so the rate is per core.
+ * Excluded from the default build; run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class WebSocketAuthChannelInterceptorBenchmarkTest {
+
+    private static final int SESSIONS = 1_000;
+    private static final int WARMUP_FRAMES = 2_000_000;
+    private static final int MEASURED_FRAMES = 5_000_000;
+
+    /**
+     * The interceptor as it was: a header accessor and a new message for every inbound frame.
+     */
+    private static final class RewrappingInterceptor implements ChannelInterceptor {
+        @Override
+        public Message<?> preSend(Message<?> message, org.springframework.messaging.MessageChannel channel) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                throw new IllegalStateException("Only SEND and SUBSCRIBE frames are measured");
+            }
+            return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+        }
+    }
+
+    private record Report(String interceptor, double framesPerSecond, double bytesPerFrame) {
+        @Override
+        public String toString() {
+            return String.format("%-12s %,14.0f frames/s per core %8.1f bytes allocated/frame",
+                    interceptor, framesPerSecond, bytesPerFrame);
+        }
+    }
+
+    // SEND and SUBSCRIBE frames as the protocol handler hands them to the inbound channel
+    private static Message<?>[] frames() {
+        Message<?>[] frames = new Message<?>[SESSIONS * 2];
+        for (int s = 0; s < SESSIONS; s++) {
+            for (StompCommand command : new StompCommand[] {StompCommand.SEND, StompCommand.SUBSCRIBE}) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+                accessor.setSessionId("s" + s);
+                accessor.setSessionAttributes(new HashMap<>());
+                accessor.setUser(() -> "player");
+                accessor.setDestination(command == StompCommand.SEND ? "/app/match.join" : "/user/queue/matches");
+                accessor.setLeaveMutable(true);
+                frames[2 * s + (command == StompCommand.SEND ? 0 : 1)] =
+                        MessageBuilder.createMessage("{\"elo\":1500}".getBytes(), accessor.getMessageHeaders());
+            }
+        }
+        return frames;
+    }
+
+    private static Report run(String name, ChannelInterceptor interceptor, Message<?>[] frames) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            sink += System.identityHashCode(interceptor.preSend(frames[i % frames.length], null));
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            sink += System.identityHashCode(interceptor.preSend(frames[i % frames.length], null));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        assertNotEquals(42, sink); // Keeps the loop from being optimized away
+        return new Report(name, MEASURED_FRAMES * 1e9 / elapsedNanos, (double) allocated / MEASURED_FRAMES);
+    }
+
+    @Test
+    void compareRewrappingAndSessionScopedAuth() {
+        WebSocketConnectionTracker tracker = new WebSocketConnectionTracker(new SimpleMeterRegistry());
+        Message<?>[] frames = frames();
+        for (int s = 0; s < SESSIONS; s++) {
+            tracker.addConnection("s" + s, "player" + s);
+        }
+
+        Report before = run("rewrap", new RewrappingInterceptor(), frames);
+        Report after = run("session", new WebSocketAuthChannelInterceptor(mock(JwtService.class), tracker), frames);
+        System.out.println(before);
+        System.out.println(after);
+
+        assertTrue(after.framesPerSecond() > before.framesPerSecond(),
+                () -> "Session-scoped auth should be faster: " + before + " vs " + after);
+        assertTrue(after.bytesPerFrame() < 1.0, () -> "Frames should pass through without allocating: " + after);
+    }
+}
@@ -12,7 +12,13 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.MessageBuilder;
 
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class WebSocketAuthChannelInterceptorTest {
@@ -50,6 +56,41 @@ class WebSocketAuthChannelInterceptorTest {
         assertNotNull(outAcc.getUser());
         assertEquals("alice", outAcc.getUser().getName());
     }
-}
 
+    @Test
+    void preSend_BindsUserToTheProtocolHandlersAccessor() {
+        // As the STOMP protocol handler hands it over: mutable, with a session
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId("s1");
+        Map<String, Object> sessionAttributes = new HashMap<>();
+        accessor.setSessionAttributes(sessionAttributes);
+        accessor.addNativeHeader(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi");
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        when(jwtService.getSubject("abc.def.ghi")).thenReturn("alice");
+
+        Message<?> out = interceptor.preSend(message, null);
 
+        assertSame(message, out);
+        assertEquals("alice", accessor.getUser().getName());
+        assertEquals("alice", ((Principal) sessionAttributes.get(WebSocketAuthChannelInterceptor.USER_ATTRIBUTE)).getName());
+        verify(connectionTracker).touch("s1");
+    }
+
+    @Test
+    void preSend_PassesOtherFramesThroughUntouched() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId("s1");
+        accessor.setDestination("/app/match.join");
+        // Even a token on a later frame is not looked at
+        accessor.addNativeHeader(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        Message<?> out = interceptor.preSend(message, null);
+
+        assertSame(message, out);
+        verifyNoInteractions(jwtService);
+        verify(connectionTracker).touch("s1");
+    }
+}
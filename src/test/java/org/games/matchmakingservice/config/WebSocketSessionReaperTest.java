@@ -0,0 +1,115 @@
+package org.games.matchmakingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.service.WebSocketConnectionTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketSessionReaperTest {
+
+    @Mock
+    private SimpUserRegistry userRegistry;
+
+    @Mock
+    private WebSocketHandler handler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WebSocketConnectionTracker tracker;
+    private WebSocketSessionReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new WebSocketConnectionTracker(meterRegistry);
+        reaper = new WebSocketSessionReaper(tracker, userRegistry, meterRegistry);
+        ReflectionTestUtils.setField(reaper, "idleTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(reaper, "reapIntervalMs", 60_000L);
+    }
+
+    private void registered(String username, String... sessionIds) {
+        SimpUser user = mock(SimpUser.class);
+        lenient().when(user.getName()).thenReturn(username);
+        Set<SimpSession> sessions = new HashSet<>();
+        for (String sessionId : sessionIds) {
+            SimpSession session = mock(SimpSession.class);
+            when(session.getId()).thenReturn(sessionId);
+            sessions.add(session);
+        }
+        when(user.getSessions()).thenReturn(sessions);
+        when(userRegistry.getUsers()).thenReturn(Set.of(user));
+    }
+
+    private double reaped(String reason) {
+        return meterRegistry.get("websocket.sessions.reaped").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void closesIdleSessionsAndStopsTrackingThem() throws Exception {
+        ReflectionTestUtils.setField(reaper, "idleTimeoutMs", 0L);
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn("s1");
+        reaper.decorate(handler).afterConnectionEstablished(socket);
+        tracker.addConnection("s1", "alice");
+        // Closing is asynchronous: the registry still lists the session
+        registered("alice", "s1");
+        Thread.sleep(5);
+
+        reaper.reap();
+
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, tracker.getConnectionCount());
+        assertEquals(1.0, reaped("idle"));
+    }
+
+    @Test
+    void dropsTrackedSessionsTheRegistryNoLongerKnows() throws Exception {
+        ReflectionTestUtils.setField(reaper, "reapIntervalMs", 0L);
+        tracker.addConnection("lost", "alice");
+        tracker.addConnection("live", "bob");
+        registered("bob", "live");
+        Thread.sleep(5);
+
+        reaper.reap();
+
+        assertEquals(Map.of("live", "bob"), tracker.getActiveConnections());
+        assertEquals(1.0, reaped("unregistered"));
+    }
+
+    @Test
+    void recentlyActiveSessionsGetAGraceBeforeBeingDropped() {
+        tracker.addConnection("new", "alice");
+        when(userRegistry.getUsers()).thenReturn(Set.of());
+
+        reaper.reap();
+
+        assertEquals(1, tracker.getConnectionCount());
+    }
+
+    @Test
+    void tracksRegisteredSessionsTheTrackerMissed() {
+        registered("alice", "s1", "s2");
+
+        reaper.reap();
+
+        assertEquals(Map.of("s1", "alice", "s2", "alice"), tracker.getActiveConnections());
+        assertEquals(0.0, reaped("unregistered"));
+    }
+}
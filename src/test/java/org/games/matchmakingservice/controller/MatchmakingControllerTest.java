@@ -1,9 +1,20 @@
 package org.games.matchmakingservice.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
 import org.games.matchmakingservice.domain.Player;
+import org.games.matchmakingservice.dto.BatchJoinRequestDto;
+import org.games.matchmakingservice.dto.BatchLeaveRequestDto;
 import org.games.matchmakingservice.dto.MatchRequestDto;
 import org.games.matchmakingservice.dto.MatchResultDto;
+import org.games.matchmakingservice.service.BatchResult;
+import org.games.matchmakingservice.service.MatchCreatedEvent;
+import org.games.matchmakingservice.service.MatchTicketService;
 import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.PlayerDequeuedEvent;
+import org.games.matchmakingservice.service.PresenceRegistry;
+import org.games.matchmakingservice.service.QueueKey;
+import org.games.matchmakingservice.service.QueueStatus;
 import org.games.matchmakingservice.service.WebSocketConnectionTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +23,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,11 +43,19 @@ class MatchmakingControllerTest {
     @Mock
     private WebSocketConnectionTracker connectionTracker;
 
+    @Mock
+    private PresenceRegistry presenceRegistry;
+
+    private MatchTicketService ticketService;
+
     private MatchmakingController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new MatchmakingController(matchmakingService, connectionTracker);
+        ticketService = new MatchTicketService(new SimpleMeterRegistry());
+        controller = new MatchmakingController(matchmakingService, connectionTracker, ticketService, presenceRegistry);
+        lenient().when(matchmakingService.resolveQueue(any(), any()))
+            .thenAnswer(invocation -> QueueKey.of(invocation.getArgument(0), invocation.getArgument(1)));
     }
 
     @Test
@@ -57,6 +78,106 @@ class MatchmakingControllerTest {
         assertEquals("Successfully joined matchmaking queue", body.get("message"));
         assertEquals("testPlayer", body.get("playerId"));
         assertEquals(1500, body.get("elo"));
+        assertEquals(ticketService.issue("testPlayer", QueueKey.DEFAULT), body.get("ticketId"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<Map<String, Object>> resultOf(DeferredResult<ResponseEntity<Map<String, Object>>> response) {
+        assertTrue(response.hasResult());
+        return (ResponseEntity<Map<String, Object>>) response.getResult();
+    }
+
+    private static MatchResult match(String playerA, String playerB) {
+        return MatchResult.builder().matchId("m1").playerA(playerA).playerB(playerB)
+            .oldEloA(1500).oldEloB(1510).newEloA(1516).newEloB(1494).winner(playerA).playedAt(Instant.now()).build();
+    }
+
+    @Test
+    void testAwaitTicket_HeldUntilMatched() {
+        // Given
+        String ticketId = ticketService.issue("alice", QueueKey.DEFAULT);
+
+        // When
+        DeferredResult<ResponseEntity<Map<String, Object>>> response = controller.awaitTicket(ticketId, "30s");
+
+        // Then: nothing yet, and the request holds no thread
+        assertFalse(response.hasResult());
+        ticketService.onMatchCreated(new MatchCreatedEvent(match("alice", "bob"), QueueKey.DEFAULT));
+        Map<String, Object> body = resultOf(response).getBody();
+        assertEquals(MatchTicketService.Status.MATCHED, body.get("status"));
+        assertEquals("m1", ((MatchResult) body.get("match")).getMatchId());
+    }
+
+    @Test
+    void testAwaitTicket_SettledTicketAnswersAtOnce() {
+        // Given
+        String ticketId = ticketService.issue("alice", QueueKey.DEFAULT);
+        ticketService.onPlayerDequeued(new PlayerDequeuedEvent("alice", QueueKey.DEFAULT));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = resultOf(controller.awaitTicket(ticketId, "30s"));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MatchTicketService.Status.CANCELLED, response.getBody().get("status"));
+        assertFalse(response.getBody().containsKey("match"));
+    }
+
+    @Test
+    void testAwaitTicket_ZeroWaitReportsWaiting() {
+        String ticketId = ticketService.issue("alice", QueueKey.of("ranked", "eu"));
+
+        ResponseEntity<Map<String, Object>> response = resultOf(controller.awaitTicket(ticketId, "0s"));
+
+        assertEquals(MatchTicketService.Status.WAITING, response.getBody().get("status"));
+        assertEquals("ranked", response.getBody().get("mode"));
+    }
+
+    @Test
+    void testAwaitTicket_UnknownTicketAndBadWait() {
+        assertEquals(HttpStatus.NOT_FOUND, resultOf(controller.awaitTicket("nope", "30s")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, resultOf(controller.awaitTicket("nope", "soon")).getStatusCode());
+    }
+
+    @Test
+    void testJoinMatchmaking_TicketSettlesWhenMatchedDuringJoin() {
+        MatchRequestDto request = new MatchRequestDto();
+        request.setPlayerId("alice");
+        request.setElo(1500);
+        // A matcher pairs the player before the join call returns
+        when(matchmakingService.enqueuePlayer(any(MatchRequestDto.class))).thenAnswer(invocation -> {
+            ticketService.onMatchCreated(new MatchCreatedEvent(match("alice", "bob"), QueueKey.DEFAULT));
+            return true;
+        });
+
+        ResponseEntity<Map<String, Object>> response = controller.joinMatchmaking(request);
+
+        MatchTicketService.TicketView ticket = ticketService.getTicket((String) response.getBody().get("ticketId"));
+        assertEquals(MatchTicketService.Status.MATCHED, ticket.status());
+    }
+
+    @Test
+    void testJoinMatchmaking_FailedJoinCancelsTicket() {
+        MatchRequestDto request = new MatchRequestDto();
+        request.setPlayerId("alice");
+        request.setElo(1500);
+        List<String> issued = new java.util.ArrayList<>();
+        // Still waiting during the join, so issue() hands back the ticket the join holds
+        when(matchmakingService.enqueuePlayer(any(MatchRequestDto.class))).thenAnswer(invocation -> {
+            issued.add(ticketService.issue("alice", QueueKey.DEFAULT));
+            return false;
+        }).thenAnswer(invocation -> {
+            issued.add(ticketService.issue("alice", QueueKey.DEFAULT));
+            throw new RuntimeException("Test exception");
+        });
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.joinMatchmaking(request).getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, controller.joinMatchmaking(request).getStatusCode());
+
+        assertEquals(2, issued.size());
+        for (String ticketId : issued) {
+            assertEquals(MatchTicketService.Status.CANCELLED, ticketService.getTicket(ticketId).status());
+        }
     }
 
     @Test
@@ -99,14 +220,109 @@ class MatchmakingControllerTest {
         assertEquals("Internal server error", body.get("message"));
     }
 
+    @Test
+    void testJoinMatchmaking_ReportsQueue() {
+        MatchRequestDto request = new MatchRequestDto();
+        request.setPlayerId("testPlayer");
+        request.setElo(1500);
+        request.setMode("Ranked");
+        request.setRegion("eu");
+
+        when(matchmakingService.enqueuePlayer(request)).thenReturn(true);
+
+        ResponseEntity<Map<String, Object>> response = controller.joinMatchmaking(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("ranked", response.getBody().get("mode"));
+        assertEquals("eu", response.getBody().get("region"));
+    }
+
+    @Test
+    void testJoinMatchmaking_UnknownQueue() {
+        MatchRequestDto request = new MatchRequestDto();
+        request.setPlayerId("testPlayer");
+        request.setElo(1500);
+        request.setMode("arcade");
+        when(matchmakingService.resolveQueue("arcade", null)).thenReturn(null);
+
+        ResponseEntity<Map<String, Object>> response = controller.joinMatchmaking(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().get("success"));
+        verify(matchmakingService, never()).enqueuePlayer(any(MatchRequestDto.class));
+    }
+
+    @Test
+    void testJoinMatchmakingBatch_ReportsEachPlayer() {
+        MatchRequestDto first = new MatchRequestDto();
+        first.setPlayerId("A");
+        first.setElo(1500);
+        MatchRequestDto second = new MatchRequestDto();
+        second.setPlayerId("B");
+        second.setElo(1500);
+        BatchJoinRequestDto request = new BatchJoinRequestDto();
+        request.setPlayers(List.of(first, second));
+        when(matchmakingService.enqueuePlayers(request.getPlayers())).thenReturn(List.of(
+            new BatchResult("A", BatchResult.Status.QUEUED),
+            new BatchResult("B", BatchResult.Status.ALREADY_QUEUED)));
+
+        ResponseEntity<Map<String, Object>> response = controller.joinMatchmakingBatch(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue((Boolean) response.getBody().get("success"));
+        assertEquals(2L, response.getBody().get("succeeded"));
+        assertEquals(2, ((List<?>) response.getBody().get("results")).size());
+    }
+
+    @Test
+    void testLeaveMatchmakingBatch_PartialSuccess() {
+        BatchLeaveRequestDto request = new BatchLeaveRequestDto();
+        request.setPlayerIds(List.of("A", "B"));
+        request.setMode("ranked");
+        request.setRegion("eu");
+        when(matchmakingService.dequeuePlayers(List.of("A", "B"), QueueKey.of("ranked", "eu"))).thenReturn(List.of(
+            new BatchResult("A", BatchResult.Status.REMOVED),
+            new BatchResult("B", BatchResult.Status.FAILED)));
+
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmakingBatch(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().get("success"));
+        assertEquals(1L, response.getBody().get("succeeded"));
+    }
+
+    @Test
+    void testLeaveMatchmakingBatch_UnknownQueue() {
+        BatchLeaveRequestDto request = new BatchLeaveRequestDto();
+        request.setPlayerIds(List.of("A"));
+        request.setMode("arcade");
+        when(matchmakingService.resolveQueue("arcade", null)).thenReturn(null);
+
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmakingBatch(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(matchmakingService, never()).dequeuePlayers(anyList(), any());
+    }
+
+    @Test
+    void testLeaveMatchmaking_FromNamedQueue() {
+        QueueKey queue = QueueKey.of("ranked", "eu");
+        when(matchmakingService.dequeuePlayer("testPlayer", queue)).thenReturn(true);
+
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking("testPlayer", "ranked", "eu");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(matchmakingService, never()).dequeuePlayer("testPlayer", QueueKey.DEFAULT);
+    }
+
     @Test
     void testLeaveMatchmaking_Success() {
         // Given
         String playerId = "testPlayer";
-        when(matchmakingService.dequeuePlayer(playerId)).thenReturn(true);
+        when(matchmakingService.dequeuePlayer(playerId, QueueKey.DEFAULT)).thenReturn(true);
 
         // When
-        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId);
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -121,10 +337,10 @@ class MatchmakingControllerTest {
     void testLeaveMatchmaking_PlayerNotFound() {
         // Given
         String playerId = "testPlayer";
-        when(matchmakingService.dequeuePlayer(playerId)).thenReturn(false);
+        when(matchmakingService.dequeuePlayer(playerId, QueueKey.DEFAULT)).thenReturn(false);
 
         // When
-        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId);
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId, null, null);
 
         // Then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -138,10 +354,10 @@ class MatchmakingControllerTest {
     void testLeaveMatchmaking_Exception() {
         // Given
         String playerId = "testPlayer";
-        when(matchmakingService.dequeuePlayer(playerId)).thenThrow(new RuntimeException("Test exception"));
+        when(matchmakingService.dequeuePlayer(playerId, QueueKey.DEFAULT)).thenThrow(new RuntimeException("Test exception"));
 
         // When
-        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId);
+        ResponseEntity<Map<String, Object>> response = controller.leaveMatchmaking(playerId, null, null);
 
         // Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -154,32 +370,20 @@ class MatchmakingControllerTest {
     @Test
     void testGetMatchmakingStatus_Success() {
         // Given
-        when(matchmakingService.getQueueSize()).thenReturn(2L);
-        
-        Player player1 = new Player();
-        player1.setPlayerId("player1");
-        player1.setUsername("player1");
-        player1.setElo(1500);
-        player1.setOnline(true);
-        player1.setLastActive(Instant.now());
-
-        Player player2 = new Player();
-        player2.setPlayerId("player2");
-        player2.setUsername("player2");
-        player2.setElo(1600);
-        player2.setOnline(true);
-        player2.setLastActive(Instant.now());
-
-        when(matchmakingService.getQueuePlayers()).thenReturn(List.of(player1, player2));
+        long now = System.currentTimeMillis();
+        when(matchmakingService.getQueueStatus(QueueKey.DEFAULT)).thenReturn(new QueueStatus(QueueKey.DEFAULT, now, 2,
+            List.of(new QueueStatus.Entry("player1", 1500, now - 1000), new QueueStatus.Entry("player2", 1600, now))));
+        when(matchmakingService.getQueueSizes()).thenReturn(Map.of(QueueKey.DEFAULT, 2L));
 
         // When
-        ResponseEntity<Map<String, Object>> response = controller.getMatchmakingStatus();
+        ResponseEntity<Map<String, Object>> response = controller.getMatchmakingStatus(null, null, 0, 50);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         Map<String, Object> body = response.getBody();
         assertNotNull(body);
         assertEquals(2L, body.get("queueSize"));
+        assertEquals(now, body.get("snapshotAt"));
         
         @SuppressWarnings("unchecked")
         List<Map<String, Object>> queuePlayers = (List<Map<String, Object>>) body.get("queuePlayers");
@@ -187,15 +391,63 @@ class MatchmakingControllerTest {
         assertEquals(2, queuePlayers.size());
         assertEquals("player1", queuePlayers.get(0).get("playerId"));
         assertEquals("player2", queuePlayers.get(1).get("playerId"));
+        assertEquals(1600, queuePlayers.get(1).get("elo"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> queues = (List<Map<String, Object>>) body.get("queues");
+        assertEquals(1, queues.size());
+        assertEquals(2L, queues.get(0).get("size"));
+        verify(matchmakingService, never()).getQueuePlayers();
+    }
+
+    @Test
+    void testGetMatchmakingStatus_PagesAndCapsLimit() {
+        // Given
+        long now = System.currentTimeMillis();
+        List<QueueStatus.Entry> players = java.util.stream.IntStream.range(0, 500)
+            .mapToObj(i -> new QueueStatus.Entry("p" + i, 1500, now))
+            .toList();
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+        when(matchmakingService.getQueueStatus(ranked)).thenReturn(new QueueStatus(ranked, now, 500, players));
+        when(matchmakingService.getQueueSizes()).thenReturn(Map.of(ranked, 500L));
+
+        // When
+        Map<String, Object> page = controller.getMatchmakingStatus("ranked", "eu", 10, 5).getBody();
+        Map<String, Object> capped = controller.getMatchmakingStatus("ranked", "eu", 0, 10_000).getBody();
+        Map<String, Object> pastEnd = controller.getMatchmakingStatus("ranked", "eu", 900, 5).getBody();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> pagePlayers = (List<Map<String, Object>>) page.get("queuePlayers");
+        assertEquals(5, pagePlayers.size());
+        assertEquals("p10", pagePlayers.get(0).get("playerId"));
+        assertEquals("ranked", page.get("mode"));
+        assertEquals(500L, page.get("queueSize"));
+        assertEquals(MatchmakingController.MAX_STATUS_PAGE_SIZE, capped.get("limit"));
+        assertEquals(MatchmakingController.MAX_STATUS_PAGE_SIZE, ((List<?>) capped.get("queuePlayers")).size());
+        assertEquals(0, ((List<?>) pastEnd.get("queuePlayers")).size());
+    }
+
+    @Test
+    void testGetMatchmakingStatus_UnknownQueue() {
+        // Given
+        when(matchmakingService.resolveQueue("nope", "eu")).thenReturn(null);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.getMatchmakingStatus("nope", "eu", 0, 50);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(matchmakingService, never()).getQueueStatus(any());
     }
 
     @Test
     void testGetMatchmakingStatus_Exception() {
         // Given
-        when(matchmakingService.getQueueSize()).thenThrow(new RuntimeException("Test exception"));
+        when(matchmakingService.getQueueStatus(QueueKey.DEFAULT)).thenThrow(new RuntimeException("Test exception"));
 
         // When
-        ResponseEntity<Map<String, Object>> response = controller.getMatchmakingStatus();
+        ResponseEntity<Map<String, Object>> response = controller.getMatchmakingStatus(null, null, 0, 50);
 
         // Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -460,4 +712,35 @@ class MatchmakingControllerTest {
         assertEquals(2, body.get("wsConnections"));
         assertEquals(true, body.get("wsActive"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testWebSocketStatusIncludesClusterPresence() {
+        when(presenceRegistry.getNodeId()).thenReturn("node-a");
+        when(presenceRegistry.getClusterConnectionCount()).thenReturn(5L);
+        when(presenceRegistry.getClusterNodes()).thenReturn(Map.of("node-a", 2L, "node-b", 3L));
+        when(connectionTracker.getConnectionCount()).thenReturn(2);
+        when(connectionTracker.getActiveConnections()).thenReturn(new ConcurrentHashMap<>());
+
+        Map<String, Object> body = controller.getWebSocketStatus().getBody();
+
+        assertNotNull(body);
+        assertEquals("node-a", body.get("node"));
+        assertEquals(2, body.get("activeConnections"));
+        assertEquals(5L, body.get("clusterConnections"));
+    }
+
+    @Test
+    void testPresenceLookup() {
+        when(presenceRegistry.locate("alice")).thenReturn("node-b");
+
+        Map<String, Object> online = controller.getPresence("alice").getBody();
+        Map<String, Object> offline = controller.getPresence("bob").getBody();
+
+        assertNotNull(online);
+        assertEquals(true, online.get("online"));
+        assertEquals("node-b", online.get("node"));
+        assertNotNull(offline);
+        assertEquals(false, offline.get("online"));
+        assertNull(offline.get("node"));
+    }
+}
@@ -0,0 +1,126 @@
+package org.games.matchmakingservice.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.games.matchmakingservice.dto.LeaveRequestDto;
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.games.matchmakingservice.service.MatchTicketService;
+import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.QueueKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchmakingMessageControllerTest {
+
+    @Mock
+    private MatchmakingService matchmakingService;
+
+    private MatchTicketService ticketService;
+
+    private MatchmakingMessageController controller;
+
+    @BeforeEach
+    void setUp() {
+        ticketService = new MatchTicketService(new SimpleMeterRegistry());
+        controller = new MatchmakingMessageController(matchmakingService, ticketService,
+            Validation.buildDefaultValidatorFactory().getValidator());
+        lenient().when(matchmakingService.resolveQueue(any(), any()))
+            .thenAnswer(invocation -> invocation.getArgument(0) == null || "ranked".equals(invocation.getArgument(0))
+                ? QueueKey.of(invocation.getArgument(0), invocation.getArgument(1)) : null);
+    }
+
+    private static MatchRequestDto join(String playerId, Integer elo, String mode) {
+        MatchRequestDto request = new MatchRequestDto();
+        request.setPlayerId(playerId);
+        request.setElo(elo);
+        request.setMode(mode);
+        return request;
+    }
+
+    @Test
+    void joinQueuesTheSessionUserAndAcknowledgesWithATicket() {
+        when(matchmakingService.enqueuePlayer(any(MatchRequestDto.class))).thenReturn(true);
+
+        Map<String, Object> ack = controller.join(join("mallory", 1500, "ranked"), () -> "alice",
+            Map.of(MatchmakingMessageController.REQUEST_ID_HEADER, List.of("r-1")));
+
+        // The payload's player ID is ignored in favour of the session user
+        verify(matchmakingService).enqueuePlayer(argThat((MatchRequestDto request) -> "alice".equals(request.getPlayerId())));
+        assertEquals("join", ack.get("action"));
+        assertEquals("r-1", ack.get("requestId"));
+        assertEquals(true, ack.get("success"));
+        assertEquals("alice", ack.get("playerId"));
+        assertEquals("ranked", ack.get("mode"));
+        assertNotNull(ticketService.getTicket((String) ack.get("ticketId")));
+    }
+
+    @Test
+    void failedJoinCancelsItsTicket() {
+        List<String> issued = new java.util.ArrayList<>();
+        when(matchmakingService.enqueuePlayer(any(MatchRequestDto.class))).thenAnswer(invocation -> {
+            issued.add(ticketService.issue("alice", QueueKey.DEFAULT));
+            return false;
+        });
+
+        Map<String, Object> ack = controller.join(join(null, 1500, null), () -> "alice", null);
+
+        assertEquals(false, ack.get("success"));
+        assertFalse(ack.containsKey("ticketId"));
+        assertEquals(MatchTicketService.Status.CANCELLED, ticketService.getTicket(issued.getFirst()).status());
+    }
+
+    @Test
+    void joinRejectsUnauthenticatedSessionsAndBadRequests() {
+        assertEquals("Not authenticated", controller.join(join(null, 1500, null), null, null).get("message"));
+        assertEquals(false, controller.join(join(null, null, null), () -> "alice", null).get("success"));
+        assertEquals(false, controller.join(join(null, 1500, "arcade"), () -> "alice", null).get("success"));
+        verify(matchmakingService, never()).enqueuePlayer(any(MatchRequestDto.class));
+    }
+
+    @Test
+    void joinRejectsPingsOutsideTheHttpConstraints() {
+        MatchRequestDto tooSlow = join(null, 1500, null);
+        tooSlow.setPings(Map.of("eu-west", 10_001));
+        MatchRequestDto blankRegion = join(null, 1500, null);
+        blankRegion.setPings(Map.of(" ", 30));
+        MatchRequestDto tooMany = join(null, 1500, null);
+        Map<String, Integer> pings = new java.util.HashMap<>();
+        for (int i = 0; i < 17; i++) {
+            pings.put("region-" + i, 30);
+        }
+        tooMany.setPings(pings);
+
+        Map<String, Object> slowAck = controller.join(tooSlow, () -> "alice", null);
+        assertEquals(false, slowAck.get("success"));
+        assertEquals("Pings must be between 0 and 10000 ms", slowAck.get("message"));
+        assertEquals("Ping regions must not be blank", controller.join(blankRegion, () -> "alice", null).get("message"));
+        assertEquals("At most 16 region pings", controller.join(tooMany, () -> "alice", null).get("message"));
+        verify(matchmakingService, never()).enqueuePlayer(any(MatchRequestDto.class));
+    }
+
+    @Test
+    void leaveDequeuesTheSessionUser() {
+        when(matchmakingService.dequeuePlayer("alice", QueueKey.DEFAULT)).thenReturn(true, false);
+
+        Map<String, Object> left = controller.leave(null, () -> "alice", null);
+        LeaveRequestDto request = new LeaveRequestDto();
+        Map<String, Object> notQueued = controller.leave(request, () -> "alice", null);
+
+        assertEquals(true, left.get("success"));
+        assertEquals("leave", left.get("action"));
+        assertFalse(left.containsKey("requestId"));
+        assertEquals(false, notQueued.get("success"));
+        assertEquals("Player not found in queue", notQueued.get("message"));
+    }
+}
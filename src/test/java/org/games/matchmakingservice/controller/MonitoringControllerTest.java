@@ -5,6 +5,8 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.QueueInsight;
+import org.games.matchmakingservice.service.QueueKey;
 import org.games.matchmakingservice.service.WebSocketConnectionTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.http.ResponseEntity;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -206,6 +209,70 @@ class MonitoringControllerTest {
         assertTrue(body.containsKey("averageWaitTime"));
     }
 
+    @Test
+    void getQueueStats_ReportsPercentilesPerQueue() {
+        when(zSetOperations.zCard("matchmaking:queue")).thenReturn(0L);
+        when(hashOperations.size("matchmaking:requests")).thenReturn(0L);
+
+        for (String region : List.of("eu", "na")) {
+            Timer waitTimer = Timer.builder("matchmaking.player.wait.time")
+                .tags("mode", "ranked", "region", region)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+            for (int ms = 1; ms <= 100; ms++) {
+                waitTimer.record(ms * 10L, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        ResponseEntity<Map<String, Object>> response = monitoringController.getQueueStats();
+
+        Map<String, Object> body = response.getBody();
+        assertNotNull(body);
+        assertEquals(200L, body.get("totalWaitTimeMeasurements"));
+        assertEquals(0.505, (Double) body.get("averageWaitTime"), 0.001);
+        List<?> perQueue = (List<?>) body.get("waitTimePercentiles");
+        assertEquals(2, perQueue.size());
+        Map<?, ?> queue = (Map<?, ?>) perQueue.getFirst();
+        assertEquals("ranked", queue.get("mode"));
+        double p50 = (Double) queue.get("p50");
+        double p99 = (Double) queue.get("p99");
+        assertTrue(p50 > 400 && p50 < 600, "p50 was " + p50);
+        assertTrue(p99 > 900 && p99 <= 1100, "p99 was " + p99);
+    }
+
+    @Test
+    void getQueueSnapshot_DescribesEachQueueFromMemory() {
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+        when(matchmakingService.getQueueKeys()).thenReturn(List.of(QueueKey.DEFAULT, ranked));
+        when(matchmakingService.getQueueInsight(QueueKey.DEFAULT)).thenReturn(new QueueInsight(
+            QueueKey.DEFAULT, System.currentTimeMillis(), 3, "A", 42_000L, 1,
+            1400, 100, new int[] {2, 1}, new long[] {5, 15}, new int[] {1, 1, 1}));
+
+        ResponseEntity<Map<String, Object>> response = monitoringController.getQueueSnapshot(null, null);
+
+        assertEquals(200, response.getStatusCode().value());
+        List<?> queues = (List<?>) response.getBody().get("queues");
+        assertEquals(2, queues.size());
+        Map<?, ?> global = (Map<?, ?>) queues.get(0);
+        assertEquals(true, global.get("available"));
+        assertEquals(42_000L, global.get("oldestWaitMillis"));
+        assertEquals(Map.of("from", 1500, "to", 1600, "count", 1), ((List<?>) global.get("eloHistogram")).get(1));
+        Map<?, ?> openBucket = (Map<?, ?>) ((List<?>) global.get("waitHistogram")).get(2);
+        assertEquals(15L, openBucket.get("fromSeconds"));
+        assertNull(openBucket.get("toSeconds"));
+        assertEquals(false, ((Map<?, ?>) queues.get(1)).get("available"));
+        verifyNoInteractions(zSetOperations, hashOperations);
+    }
+
+    @Test
+    void getQueueSnapshot_UnknownQueue_ReturnsBadRequest() {
+        when(matchmakingService.resolveQueue("arcade", null)).thenReturn(null);
+
+        ResponseEntity<Map<String, Object>> response = monitoringController.getQueueSnapshot("arcade", null);
+
+        assertEquals(400, response.getStatusCode().value());
+    }
+
     @Test
     void getQueueStats_InconsistentQueue_ReportsInconsistency() {
         // Arrange
@@ -0,0 +1,76 @@
+package org.games.matchmakingservice.controller;
+
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.games.matchmakingservice.dto.PartyRequestDto;
+import org.games.matchmakingservice.service.TeamMatchmakingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TeamMatchmakingControllerTest {
+
+    @Mock
+    private TeamMatchmakingService teamMatchmakingService;
+
+    private TeamMatchmakingController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new TeamMatchmakingController(teamMatchmakingService);
+    }
+
+    private static PartyRequestDto duo() {
+        MatchRequestDto alice = new MatchRequestDto();
+        alice.setPlayerId("alice");
+        alice.setElo(1400);
+        MatchRequestDto bob = new MatchRequestDto();
+        bob.setPlayerId("bob");
+        bob.setElo(1600);
+        PartyRequestDto request = new PartyRequestDto();
+        request.setTeamSize(2);
+        request.setMembers(List.of(alice, bob));
+        return request;
+    }
+
+    @Test
+    void testJoinParty_Success() {
+        when(teamMatchmakingService.enqueueParty(any(PartyRequestDto.class))).thenReturn("party-1");
+
+        ResponseEntity<Map<String, Object>> response = controller.joinParty(duo());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("party-1", response.getBody().get("partyId"));
+        assertEquals(2, response.getBody().get("members"));
+    }
+
+    @Test
+    void testJoinParty_Rejected() {
+        when(teamMatchmakingService.enqueueParty(any(PartyRequestDto.class))).thenReturn(null);
+
+        ResponseEntity<Map<String, Object>> response = controller.joinParty(duo());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().get("success"));
+    }
+
+    @Test
+    void testLeaveParty_NotFound() {
+        when(teamMatchmakingService.dequeueParty(2, "party-1")).thenReturn(false);
+
+        ResponseEntity<Map<String, Object>> response = controller.leaveParty(2, "party-1");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -0,0 +1,60 @@
+package org.games.matchmakingservice.repository;
+
+import org.games.matchmakingservice.domain.MatchEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class MatchRepositoryTest {
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    private static MatchEntity match(String matchId, String playerA, String playerB, Instant playedAt) {
+        MatchEntity entity = new MatchEntity();
+        entity.setMatchId(matchId);
+        entity.setPlayerA(playerA);
+        entity.setPlayerB(playerB);
+        entity.setOldEloA(1500);
+        entity.setOldEloB(1500);
+        entity.setNewEloA(1516);
+        entity.setNewEloB(1484);
+        entity.setWinner(playerA);
+        entity.setPlayedAt(playedAt);
+        return entity;
+    }
+
+    @Test
+    void findByParticipant_IncludesLegacyMatchesWithoutParticipantRows() {
+        Instant start = Instant.parse("2026-10-19T12:00:00Z");
+        // Stored before participants were recorded
+        matchRepository.save(match("legacy", "alice", "bob", start));
+        MatchEntity solo = match("solo", "carol", "alice", start.plusSeconds(60));
+        solo.addParticipant("carol", "A", null, 1500, 1516, true);
+        solo.addParticipant("alice", "B", null, 1500, 1484, false);
+        matchRepository.save(solo);
+        MatchEntity team = match("team", "dave", "erin", start.plusSeconds(120));
+        team.setTeamSize(2);
+        team.addParticipant("dave", "A", "p1", 1500, 1516, true);
+        team.addParticipant("alice", "A", "p1", 1500, 1516, true);
+        team.addParticipant("erin", "B", "p2", 1500, 1484, false);
+        team.addParticipant("frank", "B", "p2", 1500, 1484, false);
+        matchRepository.save(team);
+        matchRepository.save(match("other", "dave", "erin", start.plusSeconds(180)));
+
+        List<String> history = matchRepository.findByParticipantOrderByPlayedAtDesc("alice").stream()
+            .map(MatchEntity::getMatchId)
+            .toList();
+
+        assertEquals(List.of("team", "solo", "legacy"), history);
+        assertEquals(List.of("legacy"), matchRepository.findByParticipantOrderByPlayedAtDesc("bob").stream()
+            .map(MatchEntity::getMatchId)
+            .toList());
+    }
+}
@@ -0,0 +1,123 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateSnapshotTest {
+
+    @Test
+    void prepare_OrdersByWaitDescendingThenElo() {
+        long now = 1_000_000L;
+        CandidateSnapshot snapshot = new CandidateSnapshot(4);
+        snapshot.reset(4);
+        snapshot.add("fresh-high", 1800, now);
+        snapshot.add("old", 1600, now - 30_000);
+        snapshot.add("fresh-low", 1200, now - 500);
+        snapshot.add("older", 1900, now - 45_000);
+
+        snapshot.prepare(now);
+
+        assertEquals("older", snapshot.ids[snapshot.order[0]]);
+        assertEquals("old", snapshot.ids[snapshot.order[1]]);
+        // Sub-second waits count as 0s, so Elo decides
+        assertEquals("fresh-low", snapshot.ids[snapshot.order[2]]);
+        assertEquals("fresh-high", snapshot.ids[snapshot.order[3]]);
+        assertEquals(45L, snapshot.waitSeconds[snapshot.order[0]]);
+    }
+
+    @Test
+    void prepare_KeepsQueueOrderOnTies() {
+        long now = 1_000_000L;
+        CandidateSnapshot snapshot = new CandidateSnapshot(2);
+        snapshot.reset(3);
+        snapshot.add("first", 1500, now);
+        snapshot.add("second", 1500, now);
+        snapshot.add("third", 1500, now);
+
+        snapshot.prepare(now);
+
+        assertArrayEquals(new int[] {0, 1, 2}, java.util.Arrays.copyOf(snapshot.order, 3));
+    }
+
+    @Test
+    void reset_ReusesArraysAndClearsPreviousCycle() {
+        CandidateSnapshot snapshot = new CandidateSnapshot(4);
+        int[] eloArray = snapshot.elo;
+
+        snapshot.reset(3);
+        snapshot.add("a", 1000, 0L);
+        snapshot.add("b", 1000, 0L);
+        snapshot.add("c", 1000, 0L);
+        snapshot.addPair(0, 1);
+
+        snapshot.reset(2);
+        snapshot.add("d", 1000, 0L);
+
+        assertSame(eloArray, snapshot.elo, "Arrays should be reused when capacity suffices");
+        assertEquals(1, snapshot.size);
+        assertEquals(0, snapshot.pairCount);
+        assertFalse(snapshot.matched[0]);
+        assertNull(snapshot.ids[1]);
+    }
+
+    @Test
+    void reset_GrowsWhenQueueOutgrowsCapacity() {
+        CandidateSnapshot snapshot = new CandidateSnapshot(2);
+
+        snapshot.reset(100);
+        for (int i = 0; i < 100; i++) {
+            snapshot.add("p" + i, 1000 + i, 0L);
+        }
+        snapshot.prepare(0L);
+
+        assertEquals(100, snapshot.size);
+        assertEquals("p0", snapshot.ids[snapshot.order[0]]);
+        assertEquals("p99", snapshot.ids[snapshot.order[99]]);
+    }
+
+    @Test
+    void buildLatencyGrid_ListsPlayersPerAcceptedRegionInEloOrder() {
+        long now = 1_000_000L;
+        CandidateSnapshot snapshot = new CandidateSnapshot(2);
+        snapshot.setRegionCount(2);
+        snapshot.reset(4);
+        int both = snapshot.add("both", 1600, now);
+        int west = snapshot.add("west", 1400, now);
+        int east = snapshot.add("east", 1500, now);
+        int unmeasured = snapshot.add("unmeasured", 1300, now);
+        snapshot.clearPings(both);
+        snapshot.setPing(both, 0, 30);
+        snapshot.setPing(both, 1, 50);
+        snapshot.clearPings(west);
+        snapshot.setPing(west, 0, 20);
+        snapshot.setPing(west, 1, 180);
+        snapshot.clearPings(east);
+        snapshot.setPing(east, 1, 40);
+        snapshot.prepare(now);
+        java.util.Arrays.fill(snapshot.latencyTolerance, 0, 4, 100);
+
+        snapshot.buildLatencyGrid();
+
+        // Region 0: unmeasured, west, both; region 1: unmeasured, east, both
+        assertArrayEquals(new int[] {0, 3, 6}, snapshot.gridStart);
+        assertArrayEquals(new int[] {unmeasured, west, both, unmeasured, east, both},
+            java.util.Arrays.copyOf(snapshot.gridSlots, 6));
+        assertEquals(4, snapshot.gridLowerBound(1, 1450));
+        assertFalse(snapshot.latencyCompatible(west, east));
+        assertEquals(1, snapshot.bestRegion(east, both));
+        assertEquals(0, snapshot.bestRegion(west, both));
+        assertTrue(snapshot.latencyCompatible(unmeasured, east));
+    }
+
+    @Test
+    void latencyCompatible_AlwaysTrueWithoutRegions() {
+        CandidateSnapshot snapshot = new CandidateSnapshot(2);
+        snapshot.reset(2);
+        snapshot.add("a", 1500, 0L);
+        snapshot.add("b", 1500, 0L);
+
+        assertTrue(snapshot.latencyCompatible(0, 1));
+        assertEquals(-1, snapshot.bestRegion(0, 1));
+    }
+}
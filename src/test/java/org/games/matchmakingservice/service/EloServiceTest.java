@@ -142,4 +142,33 @@ class EloServiceTest {
         assertThrows(IllegalArgumentException.class, () -> 
             eloService.getKFactor(-500));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should aggregate team rating as the mean")
+    void shouldAggregateTeamRating() {
+        assertEquals(1500, eloService.calculateTeamRating(new int[] {1400, 1600}));
+        assertEquals(1467, eloService.calculateTeamRating(new int[] {1400, 1500, 1500}));
+        assertThrows(IllegalArgumentException.class, () -> eloService.calculateTeamRating(new int[0]));
+    }
+
+    @Test
+    @DisplayName("Should update every player of a team match")
+    void shouldCalculateTeamRatings() {
+        EloService.TeamEloResult result = eloService.calculateTeamRatings(
+            new int[] {1400, 1600}, new int[] {1500, 1500}, 1.0);
+
+        // Equal team ratings: every winner gains and every loser drops by K/2
+        assertArrayEquals(new int[] {1416, 1616}, result.ratingsA());
+        assertArrayEquals(new int[] {1484, 1484}, result.ratingsB());
+    }
+
+    @Test
+    @DisplayName("Should scale team rating changes by each player's K-factor")
+    void shouldUseIndividualKFactorsInTeamMatches() {
+        EloService.TeamEloResult result = eloService.calculateTeamRatings(
+            new int[] {2500, 1300}, new int[] {1900, 1900}, 0.0);
+
+        assertEquals(2500 - 8, result.ratingsA()[0]);
+        assertEquals(1300 - 16, result.ratingsA()[1]);
+    }
+}
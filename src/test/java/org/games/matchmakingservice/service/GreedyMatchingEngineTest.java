@@ -0,0 +1,187 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreedyMatchingEngineTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final GreedyMatchingEngine sequential = new GreedyMatchingEngine(2048, 512, 1, 8);
+    // Tiny bands and shortlists force border conflicts and shortlist fallbacks
+    private final GreedyMatchingEngine parallel = new GreedyMatchingEngine(2, 16, 4, 2);
+
+    @AfterEach
+    void tearDown() {
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    // Random queue with tolerances widened the way the matcher does it (200 + 10/s, capped at 800)
+    private static CandidateSnapshot randomSnapshot(long seed, int players) {
+        return TestSnapshots.random(seed, players, NOW, random -> 800 + random.nextInt(1600),
+                random -> random.nextInt(4) == 0 ? random.nextInt(90_000) : random.nextInt(3_000));
+    }
+
+    // Same queue with pings to three regions: each player is near one or two of them
+    private static CandidateSnapshot randomLatencySnapshot(long seed, int players) {
+        Random random = new Random(seed);
+        CandidateSnapshot snapshot = new CandidateSnapshot(players);
+        snapshot.setRegionCount(3);
+        snapshot.reset(players);
+        for (int i = 0; i < players; i++) {
+            int elo = 800 + random.nextInt(1600);
+            long waitMillis = random.nextInt(4) == 0 ? random.nextInt(90_000) : random.nextInt(3_000);
+            int slot = snapshot.add("p" + i, elo, NOW - waitMillis);
+            if (random.nextInt(10) > 0) {
+                snapshot.clearPings(slot);
+                int home = random.nextInt(3);
+                snapshot.setPing(slot, home, 10 + random.nextInt(60));
+                snapshot.setPing(slot, (home + 1) % 3, 60 + random.nextInt(140));
+            }
+        }
+        snapshot.prepare(NOW);
+        TestSnapshots.widenTolerances(snapshot);
+        for (int k = 0; k < snapshot.size; k++) {
+            snapshot.latencyTolerance[k] = (int) Math.min(200, 80 + 2 * snapshot.waitSeconds[k]);
+        }
+        snapshot.buildLatencyGrid();
+        return snapshot;
+    }
+
+    // The original quadratic matcher, kept as the reference for pair selection
+    private static void referencePairs(CandidateSnapshot s) {
+        for (int r = 0; r < s.size - 1; r++) {
+            int a = s.order[r];
+            if (s.matched[a]) {
+                continue;
+            }
+            int best = -1;
+            int bestDiff = Integer.MAX_VALUE;
+            long bestMinWait = -1;
+            for (int q = r + 1; q < s.size; q++) {
+                int b = s.order[q];
+                if (s.matched[b]) {
+                    continue;
+                }
+                int diff = Math.abs(s.elo[a] - s.elo[b]);
+                if (diff > Math.min(s.tolerance[a], s.tolerance[b]) || !s.latencyCompatible(a, b)) {
+                    continue;
+                }
+                long minWait = Math.min(s.waitSeconds[a], s.waitSeconds[b]);
+                if (minWait > bestMinWait || (minWait == bestMinWait && diff < bestDiff)) {
+                    best = b;
+                    bestDiff = diff;
+                    bestMinWait = minWait;
+                }
+            }
+            if (best >= 0) {
+                s.addPair(a, best);
+            }
+        }
+    }
+
+    private static int[] pairsOf(CandidateSnapshot s) {
+        return Arrays.copyOf(s.pairs, s.pairCount * 2);
+    }
+
+    @Test
+    void sequentialEngineMatchesReferenceMatcher() {
+        for (long seed = 1; seed <= 20; seed++) {
+            CandidateSnapshot expected = randomSnapshot(seed, 300);
+            referencePairs(expected);
+            CandidateSnapshot actual = randomSnapshot(seed, 300);
+            sequential.findPairs(actual);
+
+            assertArrayEquals(pairsOf(expected), pairsOf(actual), "seed " + seed);
+        }
+    }
+
+    @Test
+    void parallelBandsProduceIdenticalPairs() {
+        for (long seed = 1; seed <= 20; seed++) {
+            CandidateSnapshot single = randomSnapshot(seed, 3000);
+            sequential.findPairs(single);
+            CandidateSnapshot banded = randomSnapshot(seed, 3000);
+            parallel.findPairs(banded);
+
+            assertTrue(single.pairCount > 0);
+            assertArrayEquals(pairsOf(single), pairsOf(banded), "seed " + seed);
+        }
+    }
+
+    @Test
+    void regionGridSearchMatchesReferenceMatcher() {
+        for (long seed = 1; seed <= 20; seed++) {
+            CandidateSnapshot expected = randomLatencySnapshot(seed, 300);
+            referencePairs(expected);
+            CandidateSnapshot actual = randomLatencySnapshot(seed, 300);
+            sequential.findPairs(actual);
+
+            assertTrue(actual.pairCount > 0);
+            assertArrayEquals(pairsOf(expected), pairsOf(actual), "seed " + seed);
+        }
+    }
+
+    @Test
+    void parallelBandsHonourLatency() {
+        for (long seed = 1; seed <= 5; seed++) {
+            CandidateSnapshot single = randomLatencySnapshot(seed, 3000);
+            sequential.findPairs(single);
+            CandidateSnapshot banded = randomLatencySnapshot(seed, 3000);
+            parallel.findPairs(banded);
+
+            assertArrayEquals(pairsOf(single), pairsOf(banded), "seed " + seed);
+        }
+    }
+
+    @Test
+    void playersWithoutSharedRegionAreNotPaired() {
+        CandidateSnapshot snapshot = new CandidateSnapshot(4);
+        snapshot.setRegionCount(2);
+        snapshot.reset(3);
+        int eu = snapshot.add("eu", 1500, NOW - 30_000);
+        int na = snapshot.add("na", 1500, NOW - 20_000);
+        int euToo = snapshot.add("eu-too", 1700, NOW);
+        snapshot.clearPings(eu);
+        snapshot.setPing(eu, 0, 20);
+        snapshot.clearPings(na);
+        snapshot.setPing(na, 1, 25);
+        snapshot.clearPings(euToo);
+        snapshot.setPing(euToo, 0, 40);
+        snapshot.prepare(NOW);
+        Arrays.fill(snapshot.tolerance, 0, 3, 300);
+        Arrays.fill(snapshot.latencyTolerance, 0, 3, 80);
+        snapshot.buildLatencyGrid();
+
+        sequential.findPairs(snapshot);
+
+        // The closer Elo partner is on another continent, so eu waits for eu-too
+        assertEquals(1, snapshot.pairCount);
+        assertEquals("eu", snapshot.ids[snapshot.pairs[0]]);
+        assertEquals("eu-too", snapshot.ids[snapshot.pairs[1]]);
+        assertEquals(0, snapshot.bestRegion(eu, euToo));
+    }
+
+    @Test
+    void parallelEngineHandlesNarrowQueue() {
+        CandidateSnapshot snapshot = new CandidateSnapshot(4);
+        snapshot.reset(3);
+        snapshot.add("a", 1500, NOW);
+        snapshot.add("b", 1500, NOW);
+        snapshot.add("c", 2500, NOW);
+        snapshot.prepare(NOW);
+        Arrays.fill(snapshot.tolerance, 0, 3, 200);
+
+        parallel.findPairs(snapshot);
+
+        assertEquals(1, snapshot.pairCount);
+        assertEquals("a", snapshot.ids[snapshot.pairs[0]]);
+        assertEquals("b", snapshot.ids[snapshot.pairs[1]]);
+    }
+}
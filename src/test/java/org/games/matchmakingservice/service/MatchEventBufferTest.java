@@ -0,0 +1,155 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchEventBufferTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private SimpleMeterRegistry registry;
+    private MatchEventBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        buffer = new MatchEventBuffer(messagingTemplate, registry);
+        ReflectionTestUtils.setField(buffer, "bufferSize", 3);
+        ReflectionTestUtils.setField(buffer, "retentionSeconds", 300L);
+    }
+
+    private void matched(String matchId, String playerA, String playerB) {
+        MatchResult match = MatchResult.builder().matchId(matchId).playerA(playerA).playerB(playerB)
+            .oldEloA(1500).oldEloB(1510).newEloA(1516).newEloB(1494).winner(playerA).playedAt(Instant.now()).build();
+        buffer.onMatchCreated(new MatchCreatedEvent(match, QueueKey.DEFAULT));
+    }
+
+    private static long seq(Map<String, Object> event) {
+        return (Long) event.get("seq");
+    }
+
+    private void reconnect(String user, String sessionId, String resumeFrom) {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.addNativeHeader(MatchEventBuffer.RESUME_HEADER, resumeFrom);
+        Message<byte[]> connectMessage = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+        SimpMessageHeaderAccessor connected = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        connected.setSessionId(sessionId);
+        connected.setHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER, connectMessage);
+        buffer.onSessionConnected(new SessionConnectedEvent(this,
+            MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders()), () -> user));
+
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId(sessionId);
+        subscribe.setDestination("/user/queue/matches");
+        buffer.onSessionSubscribe(new SessionSubscribeEvent(this,
+            MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), () -> user));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> sentToSession(String user, String sessionId) {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSendToUser(eq(user), eq(MatchEventBuffer.USER_DESTINATION),
+            payloads.capture(), headers.capture());
+        for (Map<String, Object> sent : headers.getAllValues()) {
+            assertEquals(sessionId, SimpMessageHeaderAccessor.getSessionId(new MessageHeaders(sent)));
+        }
+        return payloads.getAllValues().stream().map(payload -> (Map<String, Object>) payload).toList();
+    }
+
+    @Test
+    void deliversEachMatchToBothPlayersWithTheirOwnSequence() {
+        matched("m1", "alice", "bob");
+        matched("m2", "alice", "carol");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> events = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("alice"), eq(MatchEventBuffer.USER_DESTINATION), events.capture());
+        assertEquals(List.of(1L, 2L), events.getAllValues().stream().map(MatchEventBufferTest::seq).toList());
+        assertEquals(List.of(1L), buffer.eventsSince("carol", 0).stream().map(MatchEventBufferTest::seq).toList());
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentEvents() {
+        for (int i = 1; i <= 5; i++) {
+            matched("m" + i, "alice", "bob" + i);
+        }
+
+        assertEquals(List.of(3L, 4L, 5L), buffer.eventsSince("alice", 0).stream().map(MatchEventBufferTest::seq).toList());
+        assertEquals(List.of(5L), buffer.eventsSince("alice", 4).stream().map(MatchEventBufferTest::seq).toList());
+        assertEquals(List.of(), buffer.eventsSince("alice", 5));
+    }
+
+    @Test
+    void resumeReplaysOnlyMissedEventsToTheReconnectingSession() {
+        matched("m1", "alice", "bob");
+        matched("m2", "alice", "bob");
+        matched("m3", "alice", "bob");
+
+        reconnect("alice", "s2", "1");
+
+        List<Map<String, Object>> sent = sentToSession("alice", "s2");
+        assertEquals(3, sent.size());
+        assertEquals(2L, sent.get(0).get("seq"));
+        assertEquals(true, sent.get(0).get("replayed"));
+        assertEquals(3L, sent.get(1).get("seq"));
+        assertEquals("RESUMED", sent.get(2).get("type"));
+        assertEquals(true, sent.get(2).get("complete"));
+        assertEquals(2.0, registry.get("matchmaking.resume.replayed").counter().count());
+    }
+
+    @Test
+    void resumePastTheBufferIsReportedIncomplete() {
+        for (int i = 1; i <= 5; i++) {
+            matched("m" + i, "alice", "bob");
+        }
+
+        reconnect("alice", "s2", "0");
+
+        List<Map<String, Object>> sent = sentToSession("alice", "s2");
+        assertEquals(4, sent.size());
+        assertEquals(3L, sent.get(0).get("seq"));
+        assertEquals(false, sent.get(3).get("complete"));
+        assertEquals(1.0, registry.get("matchmaking.resume.incomplete").counter().count());
+    }
+
+    @Test
+    void connectWithoutResumeHeaderReplaysNothing() {
+        matched("m1", "alice", "bob");
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId("s2");
+        subscribe.setDestination("/user/queue/matches");
+
+        buffer.onSessionSubscribe(new SessionSubscribeEvent(this,
+            MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), () -> "alice"));
+
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(), anyMap());
+    }
+}
@@ -0,0 +1,121 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchTicketServiceTest {
+
+    private static final QueueKey RANKED_EU = QueueKey.of("ranked", "eu");
+
+    private SimpleMeterRegistry registry;
+    private MatchTicketService tickets;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        tickets = new MatchTicketService(registry);
+        ReflectionTestUtils.setField(tickets, "ttlSeconds", 1800L);
+        ReflectionTestUtils.setField(tickets, "retentionSeconds", 300L);
+    }
+
+    private static MatchResult match(String playerA, String playerB) {
+        return MatchResult.builder().matchId("m1").playerA(playerA).playerB(playerB)
+            .oldEloA(1500).oldEloB(1510).newEloA(1516).newEloB(1494).winner(playerA).playedAt(Instant.now()).build();
+    }
+
+    private double waiters() {
+        return registry.get("matchmaking.tickets.waiters").gauge().value();
+    }
+
+    @Test
+    void rejoiningTheSameQueueKeepsTheTicket() {
+        String first = tickets.issue("alice", QueueKey.DEFAULT);
+
+        assertEquals(first, tickets.issue("alice", QueueKey.DEFAULT));
+        assertNotEquals(first, tickets.issue("alice", RANKED_EU));
+        assertEquals(2.0, registry.get("matchmaking.tickets.open").gauge().value());
+    }
+
+    @Test
+    void matchSettlesBothPlayersAndAnswersWaiters() {
+        String alice = tickets.issue("alice", QueueKey.DEFAULT);
+        String bob = tickets.issue("bob", QueueKey.DEFAULT);
+        List<MatchTicketService.TicketView> answers = new ArrayList<>();
+        assertNotNull(tickets.awaitSettled(alice, answers::add));
+        assertEquals(1.0, waiters());
+
+        tickets.onMatchCreated(new MatchCreatedEvent(match("alice", "bob"), QueueKey.DEFAULT));
+
+        assertEquals(1, answers.size());
+        assertEquals(MatchTicketService.Status.MATCHED, answers.getFirst().status());
+        assertEquals("m1", answers.getFirst().match().getMatchId());
+        assertEquals(MatchTicketService.Status.MATCHED, tickets.getTicket(bob).status());
+        assertEquals(0.0, waiters());
+        // A new join after the match gets a new ticket
+        assertNotEquals(alice, tickets.issue("alice", QueueKey.DEFAULT));
+    }
+
+    @Test
+    void leavingCancelsOnlyThatQueuesTicket() {
+        String defaultTicket = tickets.issue("alice", QueueKey.DEFAULT);
+        String rankedTicket = tickets.issue("alice", RANKED_EU);
+
+        tickets.onPlayerDequeued(new PlayerDequeuedEvent("alice", RANKED_EU));
+
+        assertEquals(MatchTicketService.Status.WAITING, tickets.getTicket(defaultTicket).status());
+        assertEquals(MatchTicketService.Status.CANCELLED, tickets.getTicket(rankedTicket).status());
+    }
+
+    @Test
+    void timedOutWaiterIsDeregistered() {
+        String ticket = tickets.issue("alice", QueueKey.DEFAULT);
+        List<MatchTicketService.TicketView> answers = new ArrayList<>();
+
+        Runnable stopWaiting = tickets.awaitSettled(ticket, answers::add);
+        stopWaiting.run();
+        stopWaiting.run();
+        tickets.onMatchCreated(new MatchCreatedEvent(match("alice", "bob"), QueueKey.DEFAULT));
+
+        assertTrue(answers.isEmpty());
+        assertEquals(0.0, waiters());
+    }
+
+    @Test
+    void settledTicketAnswersNewWaitersAtOnce() {
+        String ticket = tickets.issue("alice", QueueKey.DEFAULT);
+        tickets.onPlayerDequeued(new PlayerDequeuedEvent("alice", QueueKey.DEFAULT));
+        List<MatchTicketService.TicketView> answers = new ArrayList<>();
+
+        tickets.awaitSettled(ticket, answers::add);
+
+        assertEquals(MatchTicketService.Status.CANCELLED, answers.getFirst().status());
+        assertNull(tickets.awaitSettled("unknown", answers::add));
+    }
+
+    @Test
+    void expiryAnswersWaitersAndForgetsTickets() {
+        ReflectionTestUtils.setField(tickets, "ttlSeconds", 0L);
+        ReflectionTestUtils.setField(tickets, "retentionSeconds", 0L);
+        String waiting = tickets.issue("alice", QueueKey.DEFAULT);
+        String settled = tickets.issue("bob", QueueKey.DEFAULT);
+        tickets.onPlayerDequeued(new PlayerDequeuedEvent("bob", QueueKey.DEFAULT));
+        List<MatchTicketService.TicketView> answers = new ArrayList<>();
+        tickets.awaitSettled(waiting, answers::add);
+
+        tickets.expireTickets();
+
+        assertEquals(MatchTicketService.Status.EXPIRED, answers.getFirst().status());
+        assertNull(tickets.getTicket(waiting));
+        assertNull(tickets.getTicket(settled));
+        assertEquals(0.0, registry.get("matchmaking.tickets.open").gauge().value());
+    }
+}
@@ -0,0 +1,90 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Quality and throughput comparison of the matching engines on random queues.
+ * Excluded from the default build; run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class MatchingEngineBenchmarkTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    // Elo 1500±300 with the service's default widening
+    private static CandidateSnapshot randomSnapshot(long seed, int players) {
+        return TestSnapshots.random(seed, players, NOW,
+                random -> Math.max(100, (int) Math.round(1500 + 300 * random.nextGaussian())),
+                random -> random.nextInt(4) == 0 ? random.nextInt(60_000) : random.nextInt(5_000));
+    }
+
+    private record Report(String engine, int players, double pairs, double stranded, double meanGap,
+                          double strandedWaitSeconds, double microsPerCycle) {
+        @Override
+        public String toString() {
+            return String.format("%-18s n=%-6d pairs=%-8.1f stranded=%-7.1f meanGap=%-7.1f strandedWait=%5.1fs %10.1f us/cycle",
+                    engine, players, pairs, stranded, meanGap, strandedWaitSeconds, microsPerCycle);
+        }
+    }
+
+    private static Report run(String name, MatchingEngine engine, int players) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            engine.findPairs(randomSnapshot(round, players));
+        }
+        long pairs = 0;
+        long gap = 0;
+        long strandedWait = 0;
+        long elapsedNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            CandidateSnapshot snapshot = randomSnapshot(1000 + round, players);
+            long start = System.nanoTime();
+            engine.findPairs(snapshot);
+            elapsedNanos += System.nanoTime() - start;
+
+            pairs += snapshot.pairCount;
+            for (int k = 0; k < snapshot.pairCount * 2; k += 2) {
+                gap += Math.abs(snapshot.elo[snapshot.pairs[k]] - snapshot.elo[snapshot.pairs[k + 1]]);
+            }
+            for (int slot = 0; slot < snapshot.size; slot++) {
+                if (!snapshot.matched[slot]) {
+                    strandedWait += snapshot.waitSeconds[slot];
+                }
+            }
+        }
+        double meanPairs = (double) pairs / MEASURED_ROUNDS;
+        double meanStranded = players - 2 * meanPairs;
+        return new Report(name, players, meanPairs, meanStranded,
+                pairs == 0 ? 0.0 : (double) gap / pairs,
+                meanStranded == 0 ? 0.0 : strandedWait / (meanStranded * MEASURED_ROUNDS),
+                elapsedNanos / 1000.0 / MEASURED_ROUNDS);
+    }
+
+    @Test
+    void compareGreedyAndOptimalEngines() {
+        GreedyMatchingEngine greedy = new GreedyMatchingEngine(Integer.MAX_VALUE, 512, 1, 8);
+        GreedyMatchingEngine greedyParallel = new GreedyMatchingEngine(2, 512, 0, 8);
+        OptimalMatchingEngine optimal = new OptimalMatchingEngine(8, 30);
+        try {
+            for (int players : new int[] {200, 2_000, 20_000}) {
+                Report greedyReport = run("greedy", greedy, players);
+                Report parallelReport = run("greedy-parallel", greedyParallel, players);
+                Report optimalReport = run("optimal", optimal, players);
+                System.out.println(greedyReport);
+                System.out.println(parallelReport);
+                System.out.println(optimalReport);
+
+                // The optimal engine minimizes cost within its lookback, not pair count, so its
+                // pairs are reported rather than asserted against greedy
+                assertEquals(greedyReport.pairs(), parallelReport.pairs());
+            }
+        } finally {
+            greedy.shutdown();
+            greedyParallel.shutdown();
+        }
+    }
+}
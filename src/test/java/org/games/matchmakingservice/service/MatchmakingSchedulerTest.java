@@ -0,0 +1,274 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.repository.MatchRepository;
+import org.games.matchmakingservice.repository.PlayerStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchmakingSchedulerTest {
+
+    @Mock
+    private MatchmakingService matchmakingService;
+
+    @Mock
+    private TeamMatchmakingService teamMatchmakingService;
+
+    // Backing a real MatchmakingService where a cycle's effects matter
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private WebSocketConnectionTracker connectionTracker;
+
+    @Mock
+    private PresenceRegistry presenceRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+
+    private MatchmakingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new MatchmakingScheduler(matchmakingService, teamMatchmakingService, meterRegistry);
+        setPrivateField(scheduler, "debounceMs", 20L);
+        setPrivateField(scheduler, "widenRateMs", 2000L);
+        setPrivateField(scheduler, "cycleBudgetMs", 250L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private static void setPrivateField(Object target, String fieldName, Object value) {
+        try {
+            java.lang.reflect.Field f = target.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (Exception ignored) { }
+    }
+
+    @Test
+    void testEnqueueBurstCollapsesIntoSingleCycle() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(0);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.onPlayerEnqueued(new PlayerEnqueuedEvent("p" + i, 1500));
+        }
+
+        verify(matchmakingService, timeout(1000).times(1)).processMatchmaking(eq(QueueKey.DEFAULT), anyLong());
+    }
+
+    @Test
+    void testWidenTickSkippedWhileIdle() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(1);
+
+        scheduler.onWidenTick();
+        assertTrue(scheduler.isIdle());
+
+        scheduler.onWidenTick();
+        verify(matchmakingService, times(1)).processMatchmaking(eq(QueueKey.DEFAULT), anyLong());
+    }
+
+    @Test
+    void testEnqueueWakesIdleMatcher() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(1, 2);
+
+        scheduler.onWidenTick();
+        assertTrue(scheduler.isIdle());
+
+        scheduler.onPlayerEnqueued(new PlayerEnqueuedEvent("B", 1500));
+        verify(matchmakingService, timeout(1000).times(2)).processMatchmaking(eq(QueueKey.DEFAULT), anyLong());
+
+        assertFalse(scheduler.isIdle());
+        scheduler.onWidenTick();
+        verify(matchmakingService, times(3)).processMatchmaking(eq(QueueKey.DEFAULT), anyLong());
+    }
+
+    @Test
+    void testSkippedCycleDoesNotChangeIdleState() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(-1);
+
+        scheduler.onWidenTick();
+        scheduler.onWidenTick();
+
+        assertFalse(scheduler.isIdle());
+        verify(matchmakingService, times(2)).processMatchmaking(eq(QueueKey.DEFAULT), anyLong());
+    }
+
+    @Test
+    void testCyclesRunWithConfiguredBudget() {
+        scheduler.onWidenTick();
+
+        verify(matchmakingService).processMatchmaking(QueueKey.DEFAULT, 250_000_000L);
+    }
+
+    @Test
+    void testOverrunningCycleRecordsSkippedTicks() {
+        setPrivateField(scheduler, "widenRateMs", 10L);
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(35);
+            return 4;
+        });
+
+        scheduler.onWidenTick();
+
+        assertEquals(1.0, meterRegistry.counter("matchmaking.cycle.overrun").count());
+        assertTrue(meterRegistry.counter("matchmaking.cycle.skipped.ticks").count() >= 3.0);
+    }
+
+    @Test
+    void testFailingCycleDoesNotPropagate() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenThrow(new IllegalStateException("boom"));
+
+        assertDoesNotThrow(() -> scheduler.onWidenTick());
+        assertFalse(scheduler.isIdle());
+    }
+
+    @Test
+    void testTeamQueuesRunAfterSoloQueueAndKeepMatcherAwake() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(0);
+        when(teamMatchmakingService.processTeamMatchmaking(anyLong())).thenReturn(3);
+
+        scheduler.onWidenTick();
+
+        verify(teamMatchmakingService).processTeamMatchmaking(longThat(budget -> budget <= 250_000_000L));
+        assertFalse(scheduler.isIdle());
+    }
+
+    @Test
+    void testTeamQueuesSkippedWhenSoloCycleIsGated() {
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenReturn(-1);
+
+        scheduler.onWidenTick();
+
+        verify(teamMatchmakingService, never()).processTeamMatchmaking(anyLong());
+    }
+
+    @Test
+    void testQueuesAreMatchedOnSeparateThreads() throws Exception {
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch defaultStarted = new CountDownLatch(1);
+        when(matchmakingService.processMatchmaking(eq(QueueKey.DEFAULT), anyLong())).thenAnswer(invocation -> {
+            defaultStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        when(matchmakingService.processMatchmaking(eq(ranked), anyLong())).thenReturn(0);
+
+        scheduler.onPlayerEnqueued(new PlayerEnqueuedEvent("A", 1500));
+        assertTrue(defaultStarted.await(1, TimeUnit.SECONDS));
+        scheduler.onPlayerEnqueued(new PlayerEnqueuedEvent("B", 1500, ranked));
+
+        // The ranked cycle completes while the default matcher is still blocked
+        verify(matchmakingService, timeout(1000)).processMatchmaking(eq(ranked), anyLong());
+        release.countDown();
+    }
+
+    @Test
+    void testTeamQueuesOnlyRunOnDefaultMatcher() {
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+        when(matchmakingService.processMatchmaking(eq(ranked), anyLong())).thenReturn(1);
+
+        scheduler.onWidenTick(ranked);
+
+        verify(teamMatchmakingService, never()).processTeamMatchmaking(anyLong());
+        assertTrue(scheduler.isIdle(ranked));
+        assertFalse(scheduler.isIdle());
+    }
+
+    @Test
+    void testLoneGhostIsEvictedByWidenTicks() throws Exception {
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, mock(EloService.class), mock(SimpMessagingTemplate.class), new SimpleMeterRegistry(),
+            mock(MatchRepository.class), mock(PlayerStatsRepository.class), connectionTracker, presenceRegistry,
+            eventPublisher, new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        setPrivateField(service, "presenceGraceMillis", 50L);
+        MatchmakingScheduler ghostScheduler = new MatchmakingScheduler(service, teamMatchmakingService, meterRegistry);
+        setPrivateField(ghostScheduler, "widenRateMs", 2000L);
+        setPrivateField(ghostScheduler, "cycleBudgetMs", 250L);
+
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        AtomicBoolean queued = new AtomicBoolean(true);
+        when(zSetOperations.range("matchmaking:queue", 0, -1))
+            .thenAnswer(invocation -> new LinkedHashSet<Object>(queued.get() ? List.of("A") : List.of()));
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList()))
+            .thenReturn(List.of("{\"playerId\":\"A\",\"elo\":1500,\"timestamp\":\"2025-08-05T05:00:00Z\"}"));
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation -> {
+            queued.set(false);
+            return true;
+        });
+        when(presenceRegistry.locateAll(anyCollection())).thenReturn(Map.of("A", "node-a"), Map.of());
+
+        try {
+            // Alone and online: nothing to do until someone joins
+            ghostScheduler.onWidenTick();
+            assertTrue(ghostScheduler.isIdle());
+
+            // The player's socket drops; widen ticks keep running until the grace period is over
+            SimpMessageHeaderAccessor disconnect = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+            disconnect.setSessionId("s1");
+            ghostScheduler.onSessionDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), "s1", CloseStatus.SESSION_NOT_RELIABLE));
+            ghostScheduler.onWidenTick();
+            assertFalse(ghostScheduler.isIdle());
+            Thread.sleep(60);
+            ghostScheduler.onWidenTick();
+
+            verify(eventPublisher).publishEvent(new PlayerDequeuedEvent("A", QueueKey.DEFAULT));
+            assertTrue(ghostScheduler.isIdle());
+            ghostScheduler.onWidenTick();
+            verify(zSetOperations, times(3)).range("matchmaking:queue", 0, -1);
+        } finally {
+            ghostScheduler.shutdown();
+        }
+    }
+}
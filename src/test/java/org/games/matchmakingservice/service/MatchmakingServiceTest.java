@@ -14,9 +14,13 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.games.matchmakingservice.repository.MatchRepository;
 import org.games.matchmakingservice.repository.PlayerStatsRepository;
 
@@ -63,6 +67,12 @@ class MatchmakingServiceTest {
     @Mock
     private WebSocketConnectionTracker connectionTracker;
 
+    @Mock
+    private PresenceRegistry presenceRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MatchmakingService matchmakingService;
 
     @BeforeEach
@@ -77,7 +87,8 @@ class MatchmakingServiceTest {
 
         matchmakingService = new MatchmakingService(
             redisTemplate, eloService, messagingTemplate, meterRegistry,
-            matchRepository, playerStatsRepository, connectionTracker
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
         );
 
         // Inject configuration fields that are normally set via @Value
@@ -87,6 +98,20 @@ class MatchmakingServiceTest {
         setPrivateField(matchmakingService, "maxWaitTimeSeconds", 15);
     }
 
+    // Stub the enqueue script: 1 = newly queued, 0 = already queued, -1 = queued elsewhere
+    private void stubEnqueueScript(long... results) {
+        Long[] boxed = Arrays.stream(results).boxed().toArray(Long[]::new);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(boxed[0], (Object[]) Arrays.copyOfRange(boxed, 1, boxed.length));
+    }
+
+    // Arguments of the single enqueue script call: keys, then member, score, request JSON, TTL, queue
+    private Object[] capturedEnqueueArgs(List<String> expectedKeys) {
+        org.mockito.ArgumentCaptor<Object[]> args = org.mockito.ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(expectedKeys), args.capture());
+        return args.getValue();
+    }
+
     // Helper to set private fields on service constructed without Spring
     private static void setPrivateField(Object target, String fieldName, Object value) {
         try {
@@ -112,64 +137,73 @@ class MatchmakingServiceTest {
         assertTrue(b.getTimestamp().isAfter(a.getTimestamp()) || b.getTimestamp().equals(a.getTimestamp()));
     }
 
-    @Test
-    void testFindBestMatch_UsesDynamicToleranceAndWait() throws Exception {
-        // Mock queue size to simulate having 2+ players (needed for tolerance to grow)
-        when(zSetOperations.zCard("matchmaking:queue")).thenReturn(2L);
-        
-        // Prepare two players 400 Elo apart, but with long wait to widen tolerance
-        Instant now = Instant.now();
-        MatchRequest a = MatchRequest.builder().playerId("A").elo(1000).timestamp(now.minusSeconds(60)).build();
-        MatchRequest b = MatchRequest.builder().playerId("B").elo(1400).timestamp(now.minusSeconds(60)).build();
+    // Build a prepared snapshot the way the matcher does: one clock, tolerance per slot
+    private CandidateSnapshot snapshotOf(long now, Object[][] players) {
+        CandidateSnapshot snapshot = TestSnapshots.of(now, players);
+        for (int k = 0; k < snapshot.size; k++) {
+            snapshot.tolerance[k] = matchmakingService.computeDynamicTolerance(snapshot.waitSeconds[k], snapshot.size);
+        }
+        return snapshot;
+    }
 
-        // Build PlayerWithRequest instances via reflection
-        Class<?> pwrClass = Class.forName("org.games.matchmakingservice.service.MatchmakingService$PlayerWithRequest");
-        java.lang.reflect.Constructor<?> ctor = pwrClass.getDeclaredConstructor(String.class, MatchRequest.class);
-        ctor.setAccessible(true);
-        Object pwrA = ctor.newInstance("A", a);
-        Object pwrB = ctor.newInstance("B", b);
+    @Test
+    void testFindPairs_UsesDynamicToleranceAndWait() {
+        // Two players 400 Elo apart, but with long wait to widen tolerance
+        CandidateSnapshot snapshot = snapshotOf(System.currentTimeMillis(), new Object[][] {
+            {"A", 1000, 60}, {"B", 1400, 60}});
+        assertEquals(800, snapshot.tolerance[0]);
 
-        // Invoke private findBestMatch via reflection
-        java.lang.reflect.Method fbm = MatchmakingService.class.getDeclaredMethod("findBestMatch", java.util.List.class);
-        fbm.setAccessible(true);
-        @SuppressWarnings("unchecked")
-        Object matchPair = fbm.invoke(matchmakingService, java.util.Arrays.asList(pwrA, pwrB));
+        matchmakingService.findPairs(snapshot);
 
-        assertNotNull(matchPair, "Players with sufficient wait should be matched by widened tolerance");
+        assertEquals(1, snapshot.pairCount, "Players with sufficient wait should be matched by widened tolerance");
+        // Tolerance now comes from the snapshot, not from a ZCARD per comparison
+        verify(zSetOperations, never()).zCard(anyString());
     }
 
     @Test
-    void testToleranceOnlyGrowsWithMultiplePlayers() throws Exception {
-        // Test that tolerance only grows when there are 2+ players in queue
-        Instant now = Instant.now();
-        MatchRequest playerWithLongWait = MatchRequest.builder()
-            .playerId("A")
-            .elo(1000)
-            .timestamp(now.minusSeconds(120)) // 2 minutes wait
-            .build();
+    void testFindPairs_RejectsGapBeyondTolerance() {
+        CandidateSnapshot snapshot = snapshotOf(System.currentTimeMillis(), new Object[][] {
+            {"A", 1000, 0}, {"B", 1400, 0}});
 
-        // Mock queue size for different scenarios
-        when(zSetOperations.zCard("matchmaking:queue")).thenReturn(1L); // Only 1 player in queue
+        matchmakingService.findPairs(snapshot);
 
-        // Invoke computeDynamicTolerance via reflection
-        java.lang.reflect.Method cdt = MatchmakingService.class.getDeclaredMethod("computeDynamicTolerance", MatchRequest.class);
-        cdt.setAccessible(true);
-        int toleranceWithOnePlayer = (int) cdt.invoke(matchmakingService, playerWithLongWait);
+        assertEquals(0, snapshot.pairCount);
+    }
+
+    @Test
+    void testFindPairs_LongestWaitingPlayerPicksFirst() {
+        // C has waited longest; both A and B are compatible, B has waited longer than A
+        CandidateSnapshot snapshot = snapshotOf(System.currentTimeMillis(), new Object[][] {
+            {"A", 1500, 0}, {"B", 1590, 5}, {"C", 1550, 20}, {"D", 1700, 0}});
+
+        matchmakingService.findPairs(snapshot);
+
+        assertEquals(2, snapshot.pairCount);
+        assertEquals("C", snapshot.ids[snapshot.pairs[0]]);
+        assertEquals("B", snapshot.ids[snapshot.pairs[1]]);
+        assertEquals("A", snapshot.ids[snapshot.pairs[2]]);
+        assertEquals("D", snapshot.ids[snapshot.pairs[3]]);
+    }
+
+    @Test
+    void testToleranceOnlyGrowsWithMultiplePlayers() {
+        // Test that tolerance only grows when there are 2+ players in queue
+        long waitSeconds = 120; // 2 minutes wait
 
         // With only 1 player, tolerance should remain at base level (200) regardless of wait time
+        int toleranceWithOnePlayer = matchmakingService.computeDynamicTolerance(waitSeconds, 1L);
         assertEquals(200, toleranceWithOnePlayer, "Tolerance should not grow with only 1 player in queue");
 
-        // Now test with 2+ players in queue
-        when(zSetOperations.zCard("matchmaking:queue")).thenReturn(2L); // 2 players in queue
-        int toleranceWithTwoPlayers = (int) cdt.invoke(matchmakingService, playerWithLongWait);
-
         // With 2+ players, tolerance should grow based on wait time
         // 120 seconds * 10 growth per second = 1200 + 200 base = 1400, but capped at maxEloTolerance (800)
+        int toleranceWithTwoPlayers = matchmakingService.computeDynamicTolerance(waitSeconds, 2L);
         assertEquals(800, toleranceWithTwoPlayers, "Tolerance should grow with 2+ players in queue");
 
+        // Below the cap tolerance grows linearly: 200 + 30 * 10
+        assertEquals(500, matchmakingService.computeDynamicTolerance(30L, 2L));
+
         // Test with empty queue (0 players)
-        when(zSetOperations.zCard("matchmaking:queue")).thenReturn(0L);
-        int toleranceWithEmptyQueue = (int) cdt.invoke(matchmakingService, playerWithLongWait);
+        int toleranceWithEmptyQueue = matchmakingService.computeDynamicTolerance(waitSeconds, 0L);
         assertEquals(200, toleranceWithEmptyQueue, "Tolerance should reset to base with empty queue");
     }
 
@@ -180,16 +214,150 @@ class MatchmakingServiceTest {
         dto.setPlayerId("testPlayer");
         dto.setElo(1500);
 
-        lenient().when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        lenient().when(zSetOperations.size(anyString())).thenReturn(1L);
+        stubEnqueueScript(1L);
 
         // When
         boolean result = matchmakingService.enqueuePlayer(dto);
 
         // Then
         assertTrue(result);
-        verify(zSetOperations).add(eq("matchmaking:queue"), eq("testPlayer"), anyDouble());
-        verify(hashOperations).put(eq("matchmaking:requests"), eq("testPlayer"), anyString());
+        Object[] args = capturedEnqueueArgs(List.of("matchmaking:queue", "matchmaking:requests", "matchmaking:player:testPlayer"));
+        assertEquals("testPlayer", args[0]);
+        assertEquals(1500.0, (Double) args[1], 0.001);
+        assertTrue(((String) args[2]).startsWith("{\"playerId\":\"testPlayer\",\"elo\":1500,"));
+        assertEquals(1800L, args[3]);
+        assertEquals("matchmaking:queue", args[4]);
+        // One round trip: no separate ZADD, HSET, EXPIRE or ZCARD
+        verifyNoInteractions(zSetOperations, hashOperations);
+        verify(redisTemplate, never()).expire(anyString(), any(java.time.Duration.class));
+        verify(eventPublisher).publishEvent(new PlayerEnqueuedEvent("testPlayer", 1500));
+    }
+
+    @Test
+    void testEnqueuePlayer_DuplicateJoinIsIdempotent() {
+        stubEnqueueScript(1L, 0L);
+        MatchRequest request = MatchRequest.builder().playerId("A").elo(1500).timestamp(Instant.now()).build();
+
+        assertTrue(matchmakingService.enqueuePlayer(request));
+        assertTrue(matchmakingService.enqueuePlayer(request));
+
+        verify(eventPublisher, times(1)).publishEvent(any(PlayerEnqueuedEvent.class));
+        assertEquals(1L, matchmakingService.queue(QueueKey.DEFAULT).depth.get());
+        // Only the real join counts as a change for the status push
+        assertEquals(1L, matchmakingService.queueVersion(QueueKey.DEFAULT));
+    }
+
+    @Test
+    void testEnqueuePlayer_RejectsPlayerWaitingInAnotherQueue() {
+        setPrivateField(matchmakingService, "modes", new String[] {"ranked"});
+        setPrivateField(matchmakingService, "regions", new String[] {"eu"});
+        stubEnqueueScript(1L, -1L);
+        MatchRequest request = MatchRequest.builder().playerId("A").elo(1500).timestamp(Instant.now()).build();
+
+        assertTrue(matchmakingService.enqueuePlayer(request));
+        assertFalse(matchmakingService.enqueuePlayer(request, QueueKey.of("ranked", "eu")));
+
+        // Both joins name the same membership key, each with its own queue
+        org.mockito.ArgumentCaptor<Object[]> args = org.mockito.ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+            argThat(keys -> keys.getLast().equals("matchmaking:player:A")), args.capture());
+        assertEquals("matchmaking:queue", args.getAllValues().get(0)[4]);
+        assertEquals("matchmaking:queue:ranked:eu", args.getAllValues().get(1)[4]);
+        verify(eventPublisher, times(1)).publishEvent(any(PlayerEnqueuedEvent.class));
+        assertEquals(0L, matchmakingService.queue(QueueKey.of("ranked", "eu")).depth.get());
+    }
+
+    @Test
+    void testDequeuePlayer_ReleasesMembershipOfItsQueue() {
+        matchmakingService.queue(QueueKey.DEFAULT).depth.set(1);
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+
+        assertTrue(matchmakingService.dequeuePlayer("A"));
+
+        verify(redisTemplate).execute(MatchmakingService.RELEASE_MEMBERSHIP_SCRIPT,
+            List.of("matchmaking:player:A"), "matchmaking:queue");
+    }
+
+    private static MatchRequestDto requestDto(String playerId, int elo, String mode, String region) {
+        MatchRequestDto dto = new MatchRequestDto();
+        dto.setPlayerId(playerId);
+        dto.setElo(elo);
+        dto.setMode(mode);
+        dto.setRegion(region);
+        return dto;
+    }
+
+    @Test
+    void testEnqueuePlayers_OneScriptAcrossQueues() {
+        setPrivateField(matchmakingService, "modes", new String[] {"ranked"});
+        setPrivateField(matchmakingService, "regions", new String[] {"eu"});
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of(1L, 0L, -1L));
+
+        List<BatchResult> results = matchmakingService.enqueuePlayers(List.of(
+            requestDto("A", 1500, null, null),
+            requestDto("B", 1600, "ranked", "eu"),
+            requestDto("X", 1500, "arcade", null),
+            requestDto("C", 1700, "ranked", "eu")));
+
+        assertEquals(List.of(
+            new BatchResult("A", BatchResult.Status.QUEUED),
+            new BatchResult("B", BatchResult.Status.ALREADY_QUEUED),
+            new BatchResult("X", BatchResult.Status.UNKNOWN_QUEUE),
+            new BatchResult("C", BatchResult.Status.QUEUED_ELSEWHERE)), results);
+
+        // Keys per queue in first-use order, then one membership key per player; ARGV is the TTL,
+        // then (pair, member, score, JSON, queue) per player
+        Object[] args = capturedEnqueueArgs(List.of("matchmaking:queue", "matchmaking:requests",
+            "matchmaking:queue:ranked:eu", "matchmaking:requests:ranked:eu",
+            "matchmaking:player:A", "matchmaking:player:B", "matchmaking:player:C"));
+        assertEquals(16, args.length);
+        assertEquals(0, args[1]);
+        assertEquals("A", args[2]);
+        assertEquals("matchmaking:queue", args[5]);
+        assertEquals(1, args[6]);
+        assertEquals("B", args[7]);
+        assertEquals(1, args[11]);
+        assertEquals("C", args[12]);
+        assertTrue(((String) args[14]).startsWith("{\"playerId\":\"C\",\"elo\":1700,"));
+        assertEquals("matchmaking:queue:ranked:eu", args[15]);
+
+        verify(eventPublisher).publishEvent(new PlayerEnqueuedEvent("A", 1500));
+        verify(eventPublisher, times(1)).publishEvent(any(PlayerEnqueuedEvent.class));
+        assertEquals(0L, matchmakingService.queue(QueueKey.of("ranked", "eu")).depth.get());
+    }
+
+    @Test
+    void testEnqueuePlayers_ScriptFailureFailsSentPlayers() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("Redis down"));
+
+        List<BatchResult> results = matchmakingService.enqueuePlayers(List.of(
+            requestDto("A", 1500, null, null), requestDto("B", 1500, null, null)));
+
+        assertTrue(results.stream().allMatch(result -> result.status() == BatchResult.Status.FAILED));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testDequeuePlayers_ReportsEachPlayer() {
+        MatchQueue queue = matchmakingService.queue(QueueKey.DEFAULT);
+        queue.depth.set(3);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of(1L, 0L, 1L));
+
+        List<BatchResult> results = matchmakingService.dequeuePlayers(List.of("A", "B", "C"), QueueKey.DEFAULT);
+
+        assertEquals(List.of(BatchResult.Status.REMOVED, BatchResult.Status.NOT_QUEUED, BatchResult.Status.REMOVED),
+            results.stream().map(BatchResult::status).toList());
+        Object[] args = capturedEnqueueArgs(List.of("matchmaking:queue", "matchmaking:requests",
+            "matchmaking:player:A", "matchmaking:player:B", "matchmaking:player:C"));
+        assertArrayEquals(new Object[] {"matchmaking:queue", "A", "B", "C"}, args);
+        assertEquals(1L, queue.depth.get());
+        // Tickets of removed players are cancelled
+        verify(eventPublisher).publishEvent(new PlayerDequeuedEvent("A", QueueKey.DEFAULT));
+        verify(eventPublisher).publishEvent(new PlayerDequeuedEvent("C", QueueKey.DEFAULT));
+        verify(eventPublisher, times(2)).publishEvent(any(PlayerDequeuedEvent.class));
     }
 
     @Test
@@ -199,7 +367,7 @@ class MatchmakingServiceTest {
 
         // Then
         assertFalse(result);
-        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
     }
 
     @Test
@@ -246,6 +414,51 @@ class MatchmakingServiceTest {
         assertEquals("player2", players.get(1).getPlayerId());
     }
 
+    @Test
+    void testGetQueueStatusIsSharedWithinCacheInterval() {
+        // Given
+        setPrivateField(matchmakingService, "statusCacheMillis", 60_000L);
+        setPrivateField(matchmakingService, "statusMaxPlayers", 100);
+        Set<Object> playerIds = new LinkedHashSet<>(List.of("player1", "player2", "gone"));
+        when(zSetOperations.range("matchmaking:queue", 0, 99)).thenReturn(playerIds);
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyCollection())).thenReturn(Arrays.asList(
+            "{\"playerId\":\"player1\",\"elo\":1500,\"timestamp\":\"2025-08-05T05:00:00Z\"}",
+            "{\"playerId\":\"player2\",\"elo\":1600,\"timestamp\":\"2025-08-05T05:00:30Z\"}",
+            null
+        ));
+
+        // When
+        QueueStatus first = matchmakingService.getQueueStatus(QueueKey.DEFAULT);
+        QueueStatus second = matchmakingService.getQueueStatus(QueueKey.DEFAULT);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(2, first.total());
+        assertEquals(List.of("player1", "player2"), first.players().stream().map(QueueStatus.Entry::playerId).toList());
+        assertEquals(1600, first.players().get(1).elo());
+        assertEquals(Instant.parse("2025-08-05T05:00:30Z").toEpochMilli(), first.players().get(1).enqueuedAtMillis());
+        verify(zSetOperations, times(1)).range(anyString(), anyLong(), anyLong());
+        verify(hashOperations, never()).get(anyString(), any());
+    }
+
+    @Test
+    void testGetQueueStatusCapsListingButReportsTotal() {
+        // Given
+        setPrivateField(matchmakingService, "statusMaxPlayers", 2);
+        when(zSetOperations.range("matchmaking:queue", 0, 1)).thenReturn(new LinkedHashSet<>(List.of("a", "b")));
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyCollection())).thenReturn(Arrays.asList(
+            "{\"playerId\":\"a\",\"elo\":1500}", "{\"playerId\":\"b\",\"elo\":1510}"));
+        when(zSetOperations.size("matchmaking:queue")).thenReturn(750L);
+
+        // When
+        QueueStatus status = matchmakingService.getQueueStatus(QueueKey.DEFAULT);
+
+        // Then
+        assertEquals(750L, status.total());
+        assertEquals(2, status.players().size());
+        assertEquals(List.of(status.players().get(1)), status.page(1, 50));
+    }
+
     @Test
     void testGetPlayer_Success() {
         // Given
@@ -467,9 +680,431 @@ class MatchmakingServiceTest {
     @Test
     void testProcessMatchmaking_NoWebSocketConnectionsSkips() {
         when(connectionTracker.hasActiveConnections()).thenReturn(false);
-        matchmakingService.processMatchmaking();
+        assertEquals(-1, matchmakingService.processMatchmaking());
         // When no WebSocket connections, the loop should return before touching Redis
         verify(redisTemplate, never()).opsForZSet();
         verify(redisTemplate, never()).opsForHash();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testProcessMatchmaking_ReportsWaitingPlayers() {
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A")));
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList()))
+            .thenReturn(List.of("{\"playerId\":\"A\",\"elo\":1500,\"timestamp\":\"2025-08-05T05:00:00Z\"}"));
+
+        assertEquals(1, matchmakingService.processMatchmaking());
+    }
+
+    @Test
+    void testProcessMatchmaking_StopsWhenBudgetExhausted() {
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        List<Object> ids = List.of("A", "B", "C", "D");
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(ids));
+        List<Object> stored = new ArrayList<>();
+        for (Object id : ids) {
+            stored.add("{\"playerId\":\"" + id + "\",\"elo\":1000,\"timestamp\":\"2025-08-05T05:00:00Z\"}");
+        }
+        when(hashOperations.multiGet("matchmaking:requests", ids)).thenReturn(stored);
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+
+        // A zero budget still completes one match, then hands the rest to the next cycle
+        assertEquals(2, matchmakingService.processMatchmaking(0L));
+        verify(redisTemplate, times(1)).execute(any(org.springframework.data.redis.core.SessionCallback.class));
+        verify(zSetOperations, times(1)).range("matchmaking:queue", 0, -1);
+        verify(hashOperations, never()).get(anyString(), any());
+    }
+
+    @Test
+    void testProcessMatchmaking_PublishesInsightFromCycleSnapshot() {
+        setPrivateField(matchmakingService, "insightIntervalMillis", 60_000L);
+        setPrivateField(matchmakingService, "insightEloBucketWidth", 100);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        List<Object> ids = List.of("A", "B");
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(ids));
+        // Far apart and waiting long: both tolerances sit at the cap, so nobody is matched
+        when(hashOperations.multiGet("matchmaking:requests", ids)).thenReturn(List.of(
+            "{\"playerId\":\"A\",\"elo\":500,\"timestamp\":\"2025-08-05T05:00:00Z\"}",
+            "{\"playerId\":\"B\",\"elo\":2500,\"timestamp\":\"2025-08-05T05:00:10Z\"}"));
+        assertNull(matchmakingService.getQueueInsight(QueueKey.DEFAULT));
+
+        assertEquals(2, matchmakingService.processMatchmaking());
+        QueueInsight insight = matchmakingService.getQueueInsight(QueueKey.DEFAULT);
+        assertNotNull(insight);
+        assertEquals(2, insight.players());
+        assertEquals("A", insight.oldestPlayerId());
+        assertEquals(2, insight.pastTolerancePlateau());
+        assertEquals(2, insight.waitHistogram()[insight.waitHistogram().length - 1]);
+
+        // Within the interval the published insight is kept and no extra Redis reads happen
+        matchmakingService.processMatchmaking();
+        assertSame(insight, matchmakingService.getQueueInsight(QueueKey.DEFAULT));
+        verify(zSetOperations, times(2)).range("matchmaking:queue", 0, -1);
+    }
+
+    @Test
+    void testProcessMatchmaking_InsightUsesLonePlayersStoredRequest() {
+        setPrivateField(matchmakingService, "insightEloBucketWidth", 100);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A")));
+        Instant joined = Instant.now().minusSeconds(90);
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList())).thenReturn(List.of(
+            "{\"playerId\":\"A\",\"elo\":1720,\"timestamp\":\"" + joined + "\"}"));
+
+        assertEquals(1, matchmakingService.processMatchmaking());
+
+        QueueInsight insight = matchmakingService.getQueueInsight(QueueKey.DEFAULT);
+        assertEquals("A", insight.oldestPlayerId());
+        assertTrue(insight.oldestWaitMillis() >= 90_000L, () -> insight.oldestWaitMillis() + "ms");
+        assertEquals(1700, insight.eloBucketStart());
+        assertArrayEquals(new int[] {1}, insight.eloHistogram());
+    }
+
+    @Test
+    void testProcessMatchmaking_InsightLeavesOutPlayersMatchedThatCycle() {
+        setPrivateField(matchmakingService, "insightIntervalMillis", 60_000L);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        Instant joined = Instant.now().minusSeconds(90);
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList())).thenAnswer(invocation -> {
+            List<Object> stored = new ArrayList<>();
+            for (Object id : (List<?>) invocation.getArgument(1)) {
+                stored.add("{\"playerId\":\"" + id + "\",\"elo\":1500,\"timestamp\":\"" + joined + "\"}");
+            }
+            return stored;
+        });
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+        lenient().when(eloService.calculateWinForPlayerA(anyInt(), anyInt())).thenReturn(new EloService.EloResult(1516, 1484));
+        lenient().when(eloService.calculateWinForPlayerB(anyInt(), anyInt())).thenReturn(new EloService.EloResult(1484, 1516));
+
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A")));
+        assertEquals(1, matchmakingService.processMatchmaking());
+        assertEquals(1, matchmakingService.getQueueInsight(QueueKey.DEFAULT).players());
+
+        // B joins and both are matched: the last two players leave, within the insight interval
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A", "B")));
+        assertEquals(0, matchmakingService.processMatchmaking());
+
+        QueueInsight insight = matchmakingService.getQueueInsight(QueueKey.DEFAULT);
+        assertEquals(0, insight.players());
+        assertNull(insight.oldestPlayerId());
+        assertEquals(0L, insight.oldestWaitMillis());
+        assertEquals(0, insight.eloHistogram().length);
+    }
+
+    @Test
+    void testProcessMatchmaking_HoldsOutPlayersWhoWentOfflineThenEvictsThem() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, eloService, messagingTemplate, registry,
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        setPrivateField(service, "eloTolerance", 200);
+        setPrivateField(service, "toleranceGrowthPerSecond", 0.0d);
+        setPrivateField(service, "maxEloTolerance", 200);
+        setPrivateField(service, "presenceGraceMillis", 60_000L);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        Map<String, Integer> elos = Map.of("A", 1000, "B", 2500, "C", 1010);
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList())).thenAnswer(invocation -> {
+            List<Object> stored = new ArrayList<>();
+            for (Object id : (List<?>) invocation.getArgument(1)) {
+                stored.add("{\"playerId\":\"" + id + "\",\"elo\":" + elos.get(id) + ",\"timestamp\":\"2025-08-05T05:00:00Z\"}");
+            }
+            return stored;
+        });
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+
+        // A and B are seen online; too far apart to match
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A", "B")));
+        when(presenceRegistry.locateAll(anyCollection())).thenReturn(Map.of("A", "node-a", "B", "node-a"));
+        assertEquals(2, service.processMatchmaking(Long.MAX_VALUE));
+
+        // A dropped; C never had a session and is matched as before, but not against A
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A", "B", "C")));
+        when(presenceRegistry.locateAll(anyCollection())).thenReturn(Map.of("B", "node-a"));
+        assertEquals(3, service.processMatchmaking(Long.MAX_VALUE));
+        verify(redisTemplate, never()).execute(any(org.springframework.data.redis.core.SessionCallback.class));
+        assertEquals(1.0, registry.get("matchmaking.presence.ghost.avoided").counter().count());
+
+        // Still offline once the grace is over: evicted
+        setPrivateField(service, "presenceGraceMillis", 0L);
+        assertEquals(2, service.processMatchmaking(Long.MAX_VALUE));
+        verify(redisTemplate, times(1)).execute(any(org.springframework.data.redis.core.SessionCallback.class));
+        verify(eventPublisher).publishEvent(new PlayerDequeuedEvent("A", QueueKey.DEFAULT));
+        assertEquals(1.0, registry.get("matchmaking.presence.evicted").counter().count());
+    }
+
+    @Test
+    void testProcessMatchmaking_EvictsALoneGhost() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, eloService, messagingTemplate, registry,
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        setPrivateField(service, "presenceGraceMillis", 60_000L);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        when(hashOperations.multiGet(eq("matchmaking:requests"), anyList()))
+            .thenReturn(List.of("{\"playerId\":\"A\",\"elo\":1500,\"timestamp\":\"2025-08-05T05:00:00Z\"}"));
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(List.of("A")));
+        MatchQueue queue = service.queue(QueueKey.DEFAULT);
+
+        // Seen online while alone in the queue, then dropped
+        when(presenceRegistry.locateAll(anyCollection())).thenReturn(Map.of("A", "node-a"));
+        assertEquals(1, service.processMatchmaking(Long.MAX_VALUE));
+        when(presenceRegistry.locateAll(anyCollection())).thenReturn(Map.of());
+        assertEquals(1, service.processMatchmaking(Long.MAX_VALUE));
+        assertEquals(1, queue.heldOut);
+        assertEquals(1.0, registry.get("matchmaking.presence.ghost.avoided").counter().count());
+
+        setPrivateField(service, "presenceGraceMillis", 0L);
+        assertEquals(0, service.processMatchmaking(Long.MAX_VALUE));
+        verify(eventPublisher).publishEvent(new PlayerDequeuedEvent("A", QueueKey.DEFAULT));
+        assertEquals(1.0, registry.get("matchmaking.presence.evicted").counter().count());
+
+        // An emptied queue forgets whoever it was tracking
+        queue.seenOnline.add("B");
+        queue.offlineSince.put("B", 0L);
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>());
+        assertEquals(0, service.processMatchmaking(Long.MAX_VALUE));
+        assertTrue(queue.seenOnline.isEmpty());
+        assertTrue(queue.offlineSince.isEmpty());
+    }
+
+    @Test
+    void testResolveQueue_OnlyConfiguredModesAndRegions() {
+        setPrivateField(matchmakingService, "modes", new String[] {"ranked", "casual"});
+        setPrivateField(matchmakingService, "regions", new String[] {"eu", "na"});
+
+        assertEquals(QueueKey.DEFAULT, matchmakingService.resolveQueue(null, " "));
+        assertEquals(QueueKey.of("ranked", "eu"), matchmakingService.resolveQueue("Ranked", "EU"));
+        assertNull(matchmakingService.resolveQueue("arcade", "eu"));
+        assertNull(matchmakingService.resolveQueue("ranked", "apac"));
+        assertEquals(5, matchmakingService.getQueueKeys().size());
+        assertEquals(QueueKey.DEFAULT, matchmakingService.getQueueKeys().getFirst());
+    }
+
+    @Test
+    void testEnqueuePlayerWithDto_UsesQueueKeys() {
+        setPrivateField(matchmakingService, "modes", new String[] {"ranked"});
+        setPrivateField(matchmakingService, "regions", new String[] {"eu"});
+        MatchRequestDto dto = new MatchRequestDto();
+        dto.setPlayerId("testPlayer");
+        dto.setElo(1500);
+        dto.setMode("ranked");
+        dto.setRegion("eu");
+        stubEnqueueScript(1L);
+
+        assertTrue(matchmakingService.enqueuePlayer(dto));
+
+        capturedEnqueueArgs(List.of("matchmaking:queue:ranked:eu", "matchmaking:requests:ranked:eu", "matchmaking:player:testPlayer"));
+        verify(eventPublisher).publishEvent(new PlayerEnqueuedEvent("testPlayer", 1500, QueueKey.of("ranked", "eu")));
+    }
+
+    @Test
+    void testEnqueuePlayerWithDto_UnknownQueueRejected() {
+        MatchRequestDto dto = new MatchRequestDto();
+        dto.setPlayerId("testPlayer");
+        dto.setElo(1500);
+        dto.setMode("arcade");
+
+        assertFalse(matchmakingService.enqueuePlayer(dto));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testProcessMatchmaking_OnlyReadsItsOwnQueue() {
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        List<Object> ids = List.of("A", "B");
+        when(zSetOperations.range("matchmaking:queue:ranked:eu", 0, -1)).thenReturn(new LinkedHashSet<>(ids));
+        when(hashOperations.multiGet("matchmaking:requests:ranked:eu", ids)).thenReturn(List.of(
+            "{\"playerId\":\"A\",\"elo\":1000,\"timestamp\":\"2025-08-05T05:00:00Z\"}",
+            "{\"playerId\":\"B\",\"elo\":1050,\"timestamp\":\"2025-08-05T05:00:00Z\"}"));
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+        lenient().when(eloService.calculateWinForPlayerA(anyInt(), anyInt())).thenReturn(new EloService.EloResult(1016, 1034));
+        lenient().when(eloService.calculateWinForPlayerB(anyInt(), anyInt())).thenReturn(new EloService.EloResult(984, 1066));
+
+        assertEquals(0, matchmakingService.processMatchmaking(ranked, Long.MAX_VALUE));
+
+        verify(zSetOperations, never()).range("matchmaking:queue", 0, -1);
+        verify(messagingTemplate).convertAndSend(eq("/topic/matches"), any(MatchResult.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof MatchCreatedEvent created
+            && created.queue().equals(ranked) && created.match().getPlayerA().equals("A")));
+    }
+
+    @Test
+    void testComputeDynamicTolerance_QueueOverrides() {
+        MatchQueue strict = new MatchQueue(QueueKey.of("ranked", "eu"), 50, 1.0d, 100, new String[0], null, null, null, null, null);
+        MatchQueue inherited = new MatchQueue(QueueKey.of("casual", "eu"), null, null, null, new String[0], null, null, null, null, null);
+
+        assertEquals(50, matchmakingService.computeDynamicTolerance(strict, 30L, 1L));
+        assertEquals(80, matchmakingService.computeDynamicTolerance(strict, 30L, 2L));
+        assertEquals(100, matchmakingService.computeDynamicTolerance(strict, 600L, 2L));
+        assertEquals(matchmakingService.computeDynamicTolerance(30L, 2L),
+            matchmakingService.computeDynamicTolerance(inherited, 30L, 2L));
+    }
+
+    @Test
+    void testQueueMetricsAreTaggedByModeAndRegion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, eloService, messagingTemplate, registry,
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        stubEnqueueScript(1L);
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+
+        service.enqueuePlayer(MatchRequest.builder().playerId("A").elo(1500).timestamp(Instant.now()).build(), ranked);
+        service.enqueuePlayer(MatchRequest.builder().playerId("B").elo(1500).timestamp(Instant.now()).build(), ranked);
+        service.enqueuePlayer(MatchRequest.builder().playerId("C").elo(1500).timestamp(Instant.now()).build(), QueueKey.DEFAULT);
+
+        assertEquals(2.0, registry.get("matchmaking.queue.depth").tags("mode", "ranked", "region", "eu").gauge().value());
+        assertEquals(1.0, registry.get("matchmaking.queue.depth").tags("mode", "default", "region", "global").gauge().value());
+        assertNotNull(registry.get("matchmaking.player.wait.time").tags("mode", "ranked", "region", "eu").timer());
+        assertNotNull(registry.get("matchmaking.processing.time").tags("mode", "ranked", "region", "eu").timer());
+        assertNotNull(registry.get("matchmaking.match.creation.time").tags("mode", "ranked", "region", "eu").timer());
+        assertNotNull(registry.get("matchmaking.queue.matches").tags("mode", "ranked", "region", "eu").counter());
+    }
+
+    @Test
+    void testQueueTimersPublishPercentilesAndSloBuckets() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, eloService, messagingTemplate, registry,
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        setPrivateField(service, "waitSloMillis", new long[] {5000, 1000});
+
+        Timer waitTimer = service.queue(QueueKey.DEFAULT).waitTimer;
+        waitTimer.record(250, java.util.concurrent.TimeUnit.MILLISECONDS);
+        waitTimer.record(3, java.util.concurrent.TimeUnit.SECONDS);
+
+        io.micrometer.core.instrument.distribution.HistogramSnapshot snapshot = waitTimer.takeSnapshot();
+        assertEquals(3, snapshot.percentileValues().length);
+        assertEquals(250.0, snapshot.percentileValues()[0].value(java.util.concurrent.TimeUnit.MILLISECONDS), 10.0);
+        // Sub-second waits land in the first SLO bucket instead of rounding to zero seconds
+        Map<Double, Double> buckets = new HashMap<>();
+        for (io.micrometer.core.instrument.distribution.CountAtBucket bucket : snapshot.histogramCounts()) {
+            buckets.put(bucket.bucket(java.util.concurrent.TimeUnit.MILLISECONDS), bucket.count());
+        }
+        assertEquals(1.0, buckets.get(1000.0));
+        assertEquals(2.0, buckets.get(5000.0));
+    }
+
+    @Test
+    void testQueueSizeGaugeTracksConcurrentJoinsAndLeaves() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchmakingService service = new MatchmakingService(
+            redisTemplate, eloService, messagingTemplate, registry,
+            matchRepository, playerStatsRepository, connectionTracker, presenceRegistry, eventPublisher,
+            new GreedyMatchingEngine(2048, 512, 1, 8)
+        );
+        setPrivateField(service, "modes", new String[] {"ranked"});
+        setPrivateField(service, "regions", new String[] {"eu"});
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+        QueueKey ranked = QueueKey.of("ranked", "eu");
+
+        int threads = 8;
+        int joinsPerThread = 250;
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(threads);
+        List<java.util.concurrent.Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < joinsPerThread; i++) {
+                    QueueKey key = i % 2 == 0 ? ranked : QueueKey.DEFAULT;
+                    String playerId = "p" + thread + "-" + i;
+                    service.enqueuePlayer(MatchRequest.builder().playerId(playerId).elo(1500).timestamp(Instant.now()).build(), key);
+                    if (i % 5 == 0) {
+                        service.dequeuePlayer(playerId, key);
+                    }
+                }
+            }));
+        }
+        for (java.util.concurrent.Future<?> future : futures) {
+            future.get(10, java.util.concurrent.TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        System.gc();
+
+        int left = threads * (joinsPerThread - joinsPerThread / 5);
+        assertEquals(1, registry.find("matchmaking.queue.size").gauges().size());
+        assertEquals(left, registry.get("matchmaking.queue.size").gauge().value());
+        assertEquals(left, registry.get("matchmaking.queue.depth").tags("mode", "ranked", "region", "eu").gauge().value()
+            + registry.get("matchmaking.queue.depth").tags("mode", "default", "region", "global").gauge().value());
+    }
+
+    @Test
+    void testEnqueuePlayer_StoresPingsToConfiguredRegions() {
+        setPrivateField(matchmakingService, "latencyRegions", new String[] {"eu-west", "us-east"});
+        MatchRequest request = MatchRequest.builder()
+            .playerId("A").elo(1500).timestamp(Instant.parse("2025-08-05T05:00:00Z"))
+            .pings(new LinkedHashMap<>(Map.of("EU-West", 32, "mars", 900)))
+            .build();
+
+        stubEnqueueScript(1L);
+
+        assertTrue(matchmakingService.enqueuePlayer(request));
+
+        assertEquals("{\"playerId\":\"A\",\"elo\":1500,\"timestamp\":\"2025-08-05T05:00:00Z\",\"pings\":{\"eu-west\":32}}",
+            capturedEnqueueArgs(List.of("matchmaking:queue", "matchmaking:requests", "matchmaking:player:A"))[2]);
+    }
+
+    @Test
+    void testParseStoredPings_UnmeasuredRegionsBecomeUnreachable() {
+        MatchQueue queue = new MatchQueue(QueueKey.DEFAULT, null, null, null,
+            new String[] {"eu-west", "us-east", "ap-south"}, null, null, null, null, null);
+        queue.snapshot.reset(2);
+        int measured = queue.snapshot.add("A", 1500, 0L);
+        int legacy = queue.snapshot.add("B", 1500, 0L);
+
+        MatchmakingService.parseStoredPings(
+            "{\"playerId\":\"A\",\"elo\":1500,\"pings\":{\"us-east\":110,\"eu-west\":35}}", queue, measured);
+        MatchmakingService.parseStoredPings("{\"playerId\":\"B\",\"elo\":1500}", queue, legacy);
+
+        assertEquals(35, queue.snapshot.ping[measured * 3]);
+        assertEquals(110, queue.snapshot.ping[measured * 3 + 1]);
+        assertEquals(CandidateSnapshot.UNREACHABLE, queue.snapshot.ping[measured * 3 + 2]);
+        assertEquals(0, queue.snapshot.ping[legacy * 3 + 2]);
+    }
+
+    @Test
+    void testComputeLatencyTolerance_WidensToCap() {
+        setPrivateField(matchmakingService, "maxPingMillis", 80);
+        setPrivateField(matchmakingService, "pingGrowthPerSecond", 2.0d);
+        setPrivateField(matchmakingService, "maxPingMillisCap", 200);
+
+        assertEquals(80, matchmakingService.computeLatencyTolerance(0L));
+        assertEquals(140, matchmakingService.computeLatencyTolerance(30L));
+        assertEquals(200, matchmakingService.computeLatencyTolerance(600L));
+    }
+
+    @Test
+    void testProcessMatchmaking_PairsWithinSharedRegion() {
+        setPrivateField(matchmakingService, "latencyRegions", new String[] {"eu-west", "us-east"});
+        setPrivateField(matchmakingService, "maxPingMillis", 80);
+        setPrivateField(matchmakingService, "maxPingMillisCap", 200);
+        when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        String ts = Instant.now().toString();
+        List<Object> ids = List.of("EU", "US", "EU2");
+        when(zSetOperations.range("matchmaking:queue", 0, -1)).thenReturn(new LinkedHashSet<>(ids));
+        when(hashOperations.multiGet("matchmaking:requests", ids)).thenReturn(List.of(
+            "{\"playerId\":\"EU\",\"elo\":1500,\"timestamp\":\"" + ts + "\",\"pings\":{\"eu-west\":20}}",
+            "{\"playerId\":\"US\",\"elo\":1500,\"timestamp\":\"" + ts + "\",\"pings\":{\"us-east\":25}}",
+            "{\"playerId\":\"EU2\",\"elo\":1600,\"timestamp\":\"" + ts + "\",\"pings\":{\"eu-west\":45,\"us-east\":150}}"));
+        when(redisTemplate.execute(any(org.springframework.data.redis.core.SessionCallback.class))).thenReturn(true);
+        lenient().when(eloService.calculateWinForPlayerA(anyInt(), anyInt())).thenReturn(new EloService.EloResult(1510, 1590));
+        lenient().when(eloService.calculateWinForPlayerB(anyInt(), anyInt())).thenReturn(new EloService.EloResult(1490, 1610));
+
+        assertEquals(1, matchmakingService.processMatchmaking());
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/matches"), argThat((MatchResult result) ->
+            result.getPlayerA().startsWith("EU") && result.getPlayerB().startsWith("EU")
+                && "eu-west".equals(result.getServerRegion())));
+    }
+}
@@ -0,0 +1,109 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalMatchingEngineTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final OptimalMatchingEngine engine = new OptimalMatchingEngine(8, 30);
+
+    // {id, elo, waitSeconds} rows with a flat tolerance for every player
+    private static CandidateSnapshot snapshotOf(int tolerance, Object[]... players) {
+        return TestSnapshots.of(NOW, tolerance, players);
+    }
+
+    private static String pairAt(CandidateSnapshot snapshot, int index) {
+        return snapshot.ids[snapshot.pairs[index * 2]] + "-" + snapshot.ids[snapshot.pairs[index * 2 + 1]];
+    }
+
+    @Test
+    void findPairs_AvoidsStrandingPlayersGreedyWouldLeaveBehind() {
+        Object[][] players = {
+                {"P1", 1400, 0},
+                {"P2", 1550, 20},
+                {"P3", 1700, 10},
+                {"P4", 1850, 0}
+        };
+        CandidateSnapshot greedy = snapshotOf(200, players);
+        new GreedyMatchingEngine(2048, 512, 1, 8).findPairs(greedy);
+        CandidateSnapshot optimal = snapshotOf(200, players);
+        engine.findPairs(optimal);
+
+        // Greedy lets P2 take P3, leaving P1 and P4 with no compatible partner
+        assertEquals(1, greedy.pairCount);
+        assertEquals(2, optimal.pairCount);
+        // Pairs come out in priority order, so P2 (longest wait) is finalized first
+        assertEquals("P2-P1", pairAt(optimal, 0));
+        assertEquals("P3-P4", pairAt(optimal, 1));
+    }
+
+    @Test
+    void findPairs_PrefersCloserPairsWhenCountIsEqual() {
+        CandidateSnapshot snapshot = snapshotOf(300,
+                new Object[] {"A", 1000, 0},
+                new Object[] {"B", 1010, 0},
+                new Object[] {"C", 1200, 0},
+                new Object[] {"D", 1210, 0});
+
+        engine.findPairs(snapshot);
+
+        assertEquals(2, snapshot.pairCount);
+        assertEquals("A-B", pairAt(snapshot, 0));
+        assertEquals("C-D", pairAt(snapshot, 1));
+    }
+
+    @Test
+    void findPairs_RespectsBothTolerances() {
+        CandidateSnapshot snapshot = snapshotOf(200,
+                new Object[] {"A", 1500, 0},
+                new Object[] {"B", 1650, 0});
+        snapshot.tolerance[1] = 100;
+
+        engine.findPairs(snapshot);
+
+        assertEquals(0, snapshot.pairCount);
+    }
+
+    @Test
+    void pairCost_DiscountsGapByWait() {
+        CandidateSnapshot snapshot = snapshotOf(200,
+                new Object[] {"A", 1500, 30},
+                new Object[] {"B", 1600, 60},
+                new Object[] {"C", 1600, 0});
+
+        assertEquals(50.0, engine.pairCost(snapshot, 0, 1), 1e-9);
+        assertEquals(100.0, engine.pairCost(snapshot, 0, 2), 1e-9);
+    }
+
+    @Test
+    void findPairs_NeverMatchesFewerPlayersThanGreedyOnRandomQueues() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Object[][] players = new Object[400][];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = new Object[] {"p" + i, 800 + random.nextInt(1600), random.nextInt(60)};
+            }
+            CandidateSnapshot greedy = snapshotOf(60, players);
+            new GreedyMatchingEngine(2048, 512, 1, 8).findPairs(greedy);
+            CandidateSnapshot optimal = snapshotOf(60, players);
+            engine.findPairs(optimal);
+
+            assertTrue(optimal.pairCount >= greedy.pairCount,
+                    "round " + round + ": optimal " + optimal.pairCount + " < greedy " + greedy.pairCount);
+            boolean[] seen = new boolean[optimal.size];
+            for (int k = 0; k < optimal.pairCount * 2; k += 2) {
+                int a = optimal.pairs[k];
+                int b = optimal.pairs[k + 1];
+                assertTrue(GreedyMatchingEngine.compatible(optimal, a, b));
+                assertFalse(seen[a] || seen[b]);
+                seen[a] = true;
+                seen[b] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceRegistryTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOps;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOps;
+
+    @Mock
+    private RedisOperations<String, Object> tx;
+
+    @Mock
+    private ValueOperations<String, Object> txValueOps;
+
+    @Mock
+    private HashOperations<String, Object, Object> txHashOps;
+
+    @Mock
+    private ZSetOperations<String, Object> txZSetOps;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WebSocketConnectionTracker tracker;
+    private PresenceRegistry presence;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new WebSocketConnectionTracker(meterRegistry);
+        presence = new PresenceRegistry(redisTemplate, tracker, meterRegistry, "node-a");
+        ReflectionTestUtils.setField(presence, "ttlMs", 15_000L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOps);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        lenient().when(tx.opsForValue()).thenReturn(txValueOps);
+        lenient().when(tx.opsForHash()).thenReturn(txHashOps);
+        lenient().when(tx.opsForZSet()).thenReturn(txZSetOps);
+        lenient().when(redisTemplate.execute(any(SessionCallback.class)))
+            .thenAnswer(inv -> ((SessionCallback<?>) inv.getArgument(0)).execute(tx));
+    }
+
+    private static SessionDisconnectEvent disconnect(String sessionId, String user) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setUser(() -> user);
+        return new SessionDisconnectEvent(new Object(), MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()),
+            sessionId, CloseStatus.NORMAL, () -> user);
+    }
+
+    @Test
+    void locatesManyUsersInOneRoundTrip() {
+        when(valueOps.multiGet(List.of("presence:user:alice", "presence:user:bob", "presence:user:carol")))
+            .thenReturn(Arrays.asList("node-a", null, "node-b"));
+
+        Map<String, String> located = presence.locateAll(List.of("alice", "bob", "carol"));
+
+        assertEquals(Map.of("alice", "node-a", "carol", "node-b"), located);
+        verify(valueOps, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    void disconnectKeepsUserOnlineWhileAnotherLocalSessionIsOpen() {
+        tracker.addConnection("s1", "alice");
+        tracker.addConnection("s2", "alice");
+
+        tracker.removeConnection("s1");
+        presence.onSessionDisconnect(disconnect("s1", "alice"));
+
+        verify(hashOps).delete("presence:node:node-a", "s1");
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+
+        tracker.removeConnection("s2");
+        presence.onSessionDisconnect(disconnect("s2", "alice"));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("presence:user:alice")), eq("node-a"));
+    }
+
+    @Test
+    void heartbeatPublishesSessionsReleasesLeaversAndSweepsDeadNodes() {
+        tracker.addConnection("s1", "alice");
+        tracker.addConnection("s2", "bob");
+        when(zSetOps.removeRangeByScore(eq(PresenceRegistry.NODES_KEY), anyDouble(), anyDouble())).thenReturn(1L);
+        when(zSetOps.range(PresenceRegistry.NODES_KEY, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("node-a", "node-b")));
+        when(hashOps.size("presence:node:node-a")).thenReturn(2L);
+        when(hashOps.size("presence:node:node-b")).thenReturn(3L);
+
+        presence.heartbeat();
+
+        verify(txZSetOps).add(eq(PresenceRegistry.NODES_KEY), eq("node-a"), anyDouble());
+        verify(txHashOps).putAll("presence:node:node-a", Map.of("s1", "alice", "s2", "bob"));
+        verify(tx).expire("presence:node:node-a", 15_000L, TimeUnit.MILLISECONDS);
+        verify(txValueOps).set("presence:user:alice", "node-a", 15_000L, TimeUnit.MILLISECONDS);
+        verify(txValueOps).set("presence:user:bob", "node-a", 15_000L, TimeUnit.MILLISECONDS);
+        assertEquals(5L, presence.getClusterConnectionCount());
+        assertEquals(5.0, meterRegistry.get("websocket.cluster.connections").gauge().value());
+
+        // bob's socket dropped; the next heartbeat removes what the disconnect missed
+        tracker.removeConnection("s2");
+        presence.heartbeat();
+
+        verify(txHashOps).delete("presence:node:node-a", new Object[]{"s2"});
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("presence:user:bob")), eq("node-a"));
+    }
+
+    @Test
+    void redisFailureDoesNotStopTheHeartbeat() {
+        tracker.addConnection("s1", "alice");
+        when(redisTemplate.execute(any(SessionCallback.class))).thenThrow(new IllegalStateException("Redis down"));
+
+        assertDoesNotThrow(presence::heartbeat);
+        assertEquals(0L, presence.getClusterConnectionCount());
+    }
+}
@@ -0,0 +1,96 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueueInsightTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    // Players as {id, elo, wait seconds, tolerance}
+    private static CandidateSnapshot snapshotOf(Object[]... players) {
+        CandidateSnapshot snapshot = TestSnapshots.of(NOW, players);
+        for (int k = 0; k < players.length; k++) {
+            snapshot.tolerance[k] = (Integer) players[k][3];
+        }
+        return snapshot;
+    }
+
+    @Test
+    void testHistogramsOldestAndPlateau() {
+        CandidateSnapshot snapshot = snapshotOf(
+            new Object[] {"A", 1510, 2, 200},
+            new Object[] {"B", 1590, 20, 400},
+            new Object[] {"C", 1720, 400, 800},
+            new Object[] {"D", 1300, 70, 800});
+
+        QueueInsight insight = QueueInsight.of(QueueKey.DEFAULT, snapshot, NOW, 800, 100);
+
+        assertEquals(4, insight.players());
+        assertEquals("C", insight.oldestPlayerId());
+        assertEquals(400_000L, insight.oldestWaitMillis());
+        assertEquals(2, insight.pastTolerancePlateau());
+        assertEquals(1300, insight.eloBucketStart());
+        assertArrayEquals(new int[] {1, 0, 2, 0, 1}, insight.eloHistogram());
+        assertArrayEquals(new int[] {1, 0, 1, 0, 1, 0, 1}, insight.waitHistogram());
+    }
+
+    @Test
+    void testWideEloSpreadWidensBuckets() {
+        CandidateSnapshot snapshot = snapshotOf(
+            new Object[] {"A", 0, 0, 200},
+            new Object[] {"B", 100_000, 0, 200});
+
+        QueueInsight insight = QueueInsight.of(QueueKey.DEFAULT, snapshot, NOW, 800, 100);
+
+        assertTrue(insight.eloHistogram().length <= QueueInsight.MAX_ELO_BUCKETS);
+        assertEquals(2, java.util.Arrays.stream(insight.eloHistogram()).sum());
+    }
+
+    @Test
+    void testEmptyQueueReportsOnlyCount() {
+        CandidateSnapshot snapshot = snapshotOf();
+
+        QueueInsight insight = QueueInsight.of(QueueKey.DEFAULT, snapshot, NOW, 800, 100);
+
+        assertEquals(0, insight.players());
+        assertNull(insight.oldestPlayerId());
+        assertEquals(0, insight.eloHistogram().length);
+    }
+
+    @Test
+    void testLonePlayerIsSummarized() {
+        CandidateSnapshot snapshot = snapshotOf(new Object[] {"A", 1720, 90, 800});
+
+        QueueInsight insight = QueueInsight.of(QueueKey.DEFAULT, snapshot, NOW, 800, 100);
+
+        assertEquals(1, insight.players());
+        assertEquals("A", insight.oldestPlayerId());
+        assertEquals(90_000L, insight.oldestWaitMillis());
+        assertEquals(1, insight.pastTolerancePlateau());
+        assertEquals(1700, insight.eloBucketStart());
+        assertArrayEquals(new int[] {1}, insight.eloHistogram());
+        assertArrayEquals(new int[] {0, 0, 0, 0, 1, 0, 0}, insight.waitHistogram());
+    }
+
+    @Test
+    void testMatchedPlayersAreLeftOut() {
+        CandidateSnapshot snapshot = snapshotOf(
+            new Object[] {"A", 1510, 2, 200},
+            new Object[] {"B", 1590, 20, 400},
+            new Object[] {"C", 1720, 400, 800},
+            new Object[] {"D", 1300, 70, 800});
+        // C and D left in a committed match
+        snapshot.addPair(2, 3);
+
+        QueueInsight insight = QueueInsight.of(QueueKey.DEFAULT, snapshot, NOW, 800, 100);
+
+        assertEquals(2, insight.players());
+        assertEquals("B", insight.oldestPlayerId());
+        assertEquals(0, insight.pastTolerancePlateau());
+        assertEquals(1500, insight.eloBucketStart());
+        assertArrayEquals(new int[] {2}, insight.eloHistogram());
+        assertArrayEquals(new int[] {1, 0, 1, 0, 0, 0, 0}, insight.waitHistogram());
+    }
+}
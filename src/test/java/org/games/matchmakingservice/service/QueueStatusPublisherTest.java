@@ -0,0 +1,173 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueueStatusPublisherTest {
+
+    @Mock
+    private MatchmakingService matchmakingService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private WebSocketConnectionTracker connectionTracker;
+
+    private SimpleMeterRegistry registry;
+    private QueueStatusPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        publisher = new QueueStatusPublisher(matchmakingService, messagingTemplate, connectionTracker, registry);
+        lenient().when(matchmakingService.getQueueKeys()).thenReturn(List.of(QueueKey.DEFAULT));
+        lenient().when(connectionTracker.hasActiveConnections()).thenReturn(true);
+        lenient().when(matchmakingService.meanWaitMillis(QueueKey.DEFAULT)).thenReturn(-1.0);
+    }
+
+    private void connected(String... users) {
+        ConcurrentHashMap<String, String> sessions = new ConcurrentHashMap<>();
+        for (String user : users) {
+            sessions.put("session-" + user, user);
+        }
+        when(connectionTracker.getActiveConnections()).thenReturn(sessions);
+    }
+
+    private void queueAt(long version, long now, QueueStatus.Entry... players) {
+        when(matchmakingService.queueVersion(QueueKey.DEFAULT)).thenReturn(version);
+        lenient().when(matchmakingService.getQueueStatus(QueueKey.DEFAULT, 0))
+            .thenReturn(new QueueStatus(QueueKey.DEFAULT, now, players.length, List.of(players)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> topicPushes() {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq(QueueStatusPublisher.TOPIC), payloads.capture());
+        return payloads.getAllValues().stream().map(payload -> (Map<String, Object>) payload).toList();
+    }
+
+    @Test
+    void publishesDeltasOnlyWhenTheQueueChanged() {
+        connected("watcher");
+        queueAt(1, 1_000, new QueueStatus.Entry("a", 1500, 900), new QueueStatus.Entry("b", 1600, 950));
+        publisher.publishChanges();
+        publisher.publishChanges(); // Same version: no reload, no push
+
+        queueAt(2, 2_000, new QueueStatus.Entry("b", 1600, 950), new QueueStatus.Entry("c", 1400, 1_900));
+        publisher.publishChanges();
+
+        List<Map<String, Object>> pushes = topicPushes();
+        assertEquals(2, pushes.size());
+        assertEquals(1L, pushes.get(0).get("seq"));
+        assertEquals(2, ((List<?>) pushes.get(0).get("joined")).size());
+
+        Map<String, Object> delta = pushes.get(1);
+        assertEquals(2L, delta.get("seq"));
+        assertEquals(2L, delta.get("size"));
+        assertEquals(List.of(Map.of("playerId", "c", "elo", 1400, "enqueuedAt", 1_900L)), delta.get("joined"));
+        assertEquals(List.of("a"), delta.get("left"));
+        verify(matchmakingService, times(2)).getQueueStatus(QueueKey.DEFAULT, 0);
+        assertEquals(2.0, registry.get("matchmaking.status.push").tag("destination", "topic").counter().count());
+    }
+
+    @Test
+    void cappedListingSendsSizeOnlyDeltas() {
+        connected("watcher");
+        queueAt(1, 1_000, new QueueStatus.Entry("a", 1500, 900), new QueueStatus.Entry("b", 1600, 950));
+        publisher.publishChanges();
+
+        // Four players wait but only the first two are listed; b was pushed out by an earlier joiner
+        when(matchmakingService.queueVersion(QueueKey.DEFAULT)).thenReturn(2L);
+        when(matchmakingService.getQueueStatus(QueueKey.DEFAULT, 0)).thenReturn(new QueueStatus(QueueKey.DEFAULT, 2_000, 4,
+            List.of(new QueueStatus.Entry("c", 1400, 800), new QueueStatus.Entry("a", 1500, 900))));
+        publisher.publishChanges();
+
+        // Back under the cap: everyone waiting is listed again
+        queueAt(3, 3_000, new QueueStatus.Entry("a", 1500, 900), new QueueStatus.Entry("b", 1600, 950));
+        publisher.publishChanges();
+
+        List<Map<String, Object>> pushes = topicPushes();
+        assertEquals(3, pushes.size());
+        assertEquals(false, pushes.get(0).get("truncated"));
+
+        Map<String, Object> capped = pushes.get(1);
+        assertEquals(true, capped.get("truncated"));
+        assertEquals(4L, capped.get("size"));
+        assertEquals(List.of(), capped.get("joined"));
+        assertEquals(List.of(), capped.get("left"));
+
+        Map<String, Object> full = pushes.get(2);
+        assertEquals(false, full.get("truncated"));
+        assertEquals(3L, full.get("seq"));
+        assertEquals(2, ((List<?>) full.get("joined")).size());
+        assertEquals(List.of(), full.get("left"));
+    }
+
+    @Test
+    void skipsEverythingWithoutConnections() {
+        when(connectionTracker.hasActiveConnections()).thenReturn(false);
+
+        publisher.publishChanges();
+
+        verifyNoInteractions(messagingTemplate);
+        verify(matchmakingService, never()).getQueueStatus(any(), anyLong());
+    }
+
+    @Test
+    void tellsConnectedPlayersTheirPositionByTimeWaited() {
+        connected("b");
+        when(matchmakingService.meanWaitMillis(QueueKey.DEFAULT)).thenReturn(10_000.0);
+        // Queue order is by score; "a" has waited longest
+        queueAt(1, 5_000, new QueueStatus.Entry("b", 1200, 3_000), new QueueStatus.Entry("a", 1800, 1_000));
+
+        publisher.publishChanges();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> update = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("b"), eq(QueueStatusPublisher.USER_DESTINATION), update.capture());
+        assertEquals(true, update.getValue().get("inQueue"));
+        assertEquals(2, update.getValue().get("position"));
+        assertEquals(2_000L, update.getValue().get("waitedMillis"));
+        assertEquals(8_000L, update.getValue().get("etaMillis"));
+    }
+
+    @Test
+    void pushesUserUpdatesOnlyWhenPositionChangesAndOnceWhenLeaving() {
+        connected("b");
+        queueAt(1, 5_000, new QueueStatus.Entry("a", 1500, 1_000), new QueueStatus.Entry("b", 1500, 2_000),
+            new QueueStatus.Entry("c", 1500, 3_000));
+        publisher.publishChanges();
+
+        // "c" left: b is still second, so b hears nothing
+        queueAt(2, 6_000, new QueueStatus.Entry("a", 1500, 1_000), new QueueStatus.Entry("b", 1500, 2_000));
+        publisher.publishChanges();
+
+        // b was matched
+        queueAt(3, 7_000, new QueueStatus.Entry("a", 1500, 1_000));
+        publisher.publishChanges();
+        publisher.publishChanges();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> updates = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("b"), eq(QueueStatusPublisher.USER_DESTINATION), updates.capture());
+        assertEquals(true, updates.getAllValues().get(0).get("inQueue"));
+        assertEquals(-1L, updates.getAllValues().get(0).get("etaMillis"));
+        assertEquals(false, updates.getAllValues().get(1).get("inQueue"));
+    }
+}
@@ -0,0 +1,95 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    @Test
+    void reloadsOnlyOncePerInterval() {
+        AtomicLong clock = new AtomicLong(1_000);
+        AtomicInteger loads = new AtomicInteger();
+        SnapshotCache<Integer> cache = new SnapshotCache<>(loads::incrementAndGet, clock::get);
+
+        assertEquals(1, cache.get(500));
+        clock.addAndGet(499);
+        assertEquals(1, cache.get(500));
+        clock.addAndGet(1);
+        assertEquals(2, cache.get(500));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentCallersShareOneReload() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SnapshotCache<Integer> cache = new SnapshotCache<>(() -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loads.incrementAndGet();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get(60_000)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> cache.get(60_000)));
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedReloadServesPreviousValueUntilNextInterval() {
+        AtomicLong clock = new AtomicLong(0);
+        AtomicInteger attempts = new AtomicInteger();
+        SnapshotCache<String> cache = new SnapshotCache<>(() -> {
+            if (attempts.incrementAndGet() == 2) {
+                throw new IllegalStateException("Redis down");
+            }
+            return "load-" + attempts.get();
+        }, clock::get);
+
+        assertEquals("load-1", cache.get(100));
+        clock.addAndGet(100);
+        assertEquals("load-1", cache.get(100));
+        assertEquals("load-1", cache.get(100));
+        assertEquals(2, attempts.get());
+        clock.addAndGet(100);
+        assertEquals("load-3", cache.get(100));
+    }
+
+    @Test
+    void failedFirstLoadPropagates() {
+        SnapshotCache<String> cache = new SnapshotCache<>(() -> {
+            throw new IllegalStateException("Redis down");
+        });
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1_000));
+    }
+}
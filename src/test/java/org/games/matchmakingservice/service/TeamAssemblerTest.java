@@ -0,0 +1,124 @@
+package org.games.matchmakingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamAssemblerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static TeamAssembler.Party solo(String id, int elo, long waitMillis) {
+        return new TeamAssembler.Party(id, new String[] {id}, new int[] {elo}, elo, NOW - waitMillis);
+    }
+
+    private static TeamAssembler.Party party(String id, long waitMillis, int... elos) {
+        String[] players = new String[elos.length];
+        long total = 0;
+        for (int i = 0; i < elos.length; i++) {
+            players[i] = id + "-" + i;
+            total += elos[i];
+        }
+        return new TeamAssembler.Party(id, players, elos, (int) Math.round((double) total / elos.length), NOW - waitMillis);
+    }
+
+    private static Set<String> ids(List<TeamAssembler.Party> team) {
+        Set<String> ids = new HashSet<>();
+        team.forEach(p -> ids.add(p.partyId()));
+        return ids;
+    }
+
+    @Test
+    void assemble_BalancesTeamsBySwappingPlayers() {
+        List<TeamAssembler.Party> parties = List.of(
+                solo("a", 1000, 40_000),
+                solo("b", 1100, 1_000),
+                solo("c", 1200, 1_000),
+                solo("d", 1300, 1_000));
+
+        List<TeamAssembler.TeamMatch> matches = new TeamAssembler(2, 16).assemble(parties, p -> 400);
+
+        assertEquals(1, matches.size());
+        TeamAssembler.TeamMatch match = matches.getFirst();
+        assertEquals(0, match.balanceGap());
+        assertEquals(1150, match.eloA());
+        assertEquals(1150, match.eloB());
+    }
+
+    @Test
+    void assemble_NeverSplitsParties() {
+        List<TeamAssembler.Party> parties = List.of(
+                party("duo", 30_000, 1500, 1520),
+                solo("x", 1490, 0),
+                solo("y", 1530, 0));
+
+        List<TeamAssembler.TeamMatch> matches = new TeamAssembler(2, 16).assemble(parties, p -> 200);
+
+        assertEquals(1, matches.size());
+        TeamAssembler.TeamMatch match = matches.getFirst();
+        assertEquals(Set.of("duo"), ids(match.teamA()));
+        assertEquals(Set.of("x", "y"), ids(match.teamB()));
+    }
+
+    @Test
+    void assemble_LeavesPartiesOutsideToleranceWaiting() {
+        List<TeamAssembler.Party> parties = List.of(
+                solo("a", 1000, 0),
+                solo("b", 1050, 0),
+                solo("c", 1100, 0),
+                solo("far", 1900, 0));
+
+        List<TeamAssembler.TeamMatch> matches = new TeamAssembler(2, 16).assemble(parties, p -> 200);
+
+        assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    void assemble_IgnoresPartiesLargerThanTeam() {
+        List<TeamAssembler.Party> parties = List.of(
+                party("trio", 0, 1500, 1500, 1500),
+                solo("a", 1500, 0));
+
+        assertTrue(new TeamAssembler(2, 16).assemble(parties, p -> 800).isEmpty());
+    }
+
+    @Test
+    void assemble_FillsLargeMixedQueueWithoutReusingParties() {
+        Random random = new Random(7);
+        List<TeamAssembler.Party> parties = new ArrayList<>();
+        int players = 0;
+        while (players < 5000) {
+            int size = 1 + random.nextInt(3);
+            int[] elos = new int[size];
+            for (int i = 0; i < size; i++) {
+                elos[i] = 1200 + random.nextInt(600);
+            }
+            parties.add(party("p" + parties.size(), random.nextInt(60_000), elos));
+            players += size;
+        }
+
+        long start = System.nanoTime();
+        List<TeamAssembler.TeamMatch> matches = new TeamAssembler(5, 16).assemble(parties, p -> 300);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(matches.isEmpty());
+        Set<String> seen = new HashSet<>();
+        for (TeamAssembler.TeamMatch match : matches) {
+            assertEquals(5, match.teamA().stream().mapToInt(TeamAssembler.Party::size).sum());
+            assertEquals(5, match.teamB().stream().mapToInt(TeamAssembler.Party::size).sum());
+            for (TeamAssembler.Party p : match.teamA()) {
+                assertTrue(seen.add(p.partyId()));
+            }
+            for (TeamAssembler.Party p : match.teamB()) {
+                assertTrue(seen.add(p.partyId()));
+            }
+        }
+        assertTrue(elapsedMillis < 2_000, "assembly took " + elapsedMillis + "ms");
+    }
+}
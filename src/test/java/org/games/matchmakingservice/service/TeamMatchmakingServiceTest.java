@@ -0,0 +1,260 @@
+package org.games.matchmakingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchEntity;
+import org.games.matchmakingservice.dto.MatchRequestDto;
+import org.games.matchmakingservice.dto.PartyRequestDto;
+import org.games.matchmakingservice.repository.MatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TeamMatchmakingServiceTest {
+
+    private static final String QUEUE_2 = "matchmaking:team:2:queue";
+    private static final String PARTIES_2 = "matchmaking:team:2:parties";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private MatchmakingService matchmakingService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MeterRegistry meterRegistry;
+    private TeamMatchmakingService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        lenient().when(matchmakingService.computeDynamicTolerance(anyLong(), anyLong())).thenReturn(400);
+
+        EloService eloService = new EloService();
+        setPrivateField(eloService, "defaultKFactor", 32);
+        setPrivateField(eloService, "ratingDifferenceScale", 400.0);
+        setPrivateField(eloService, "expertThreshold", 2100);
+        setPrivateField(eloService, "masterThreshold", 2400);
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TeamMatchmakingService(redisTemplate, eloService, messagingTemplate, meterRegistry,
+                matchRepository, matchmakingService, objectMapper, eventPublisher);
+    }
+
+    private static void setPrivateField(Object target, String fieldName, Object value) {
+        try {
+            java.lang.reflect.Field f = target.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (Exception ignored) { }
+    }
+
+    private static PartyRequestDto partyRequest(int teamSize, Object... idEloPairs) {
+        PartyRequestDto request = new PartyRequestDto();
+        request.setTeamSize(teamSize);
+        List<MatchRequestDto> members = new ArrayList<>();
+        for (int i = 0; i < idEloPairs.length; i += 2) {
+            MatchRequestDto member = new MatchRequestDto();
+            member.setPlayerId((String) idEloPairs[i]);
+            member.setElo((Integer) idEloPairs[i + 1]);
+            members.add(member);
+        }
+        request.setMembers(members);
+        return request;
+    }
+
+    private String storedSolo(String id, int elo, long enqueuedAt) throws Exception {
+        return objectMapper.writeValueAsString(new TeamMatchmakingService.StoredParty(
+                id, List.of(new TeamMatchmakingService.StoredMember(id, elo)), enqueuedAt));
+    }
+
+    // Stub the party enqueue script: 1 = stored, 0 = party id taken, -1 = a member is queued elsewhere
+    private void stubPartyScript(long result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(result);
+    }
+
+    // Arguments of the single party enqueue script call: party id, team Elo, JSON, TTL, owner
+    private Object[] capturedPartyArgs(List<String> expectedKeys) {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(expectedKeys), args.capture());
+        return args.getValue();
+    }
+
+    @Test
+    void enqueueParty_StoresPartyScoredByTeamElo() {
+        PartyRequestDto request = partyRequest(2, "alice", 1400, "bob", 1600);
+        request.setPartyId("duo");
+        stubPartyScript(1L);
+
+        String partyId = service.enqueueParty(request);
+
+        assertEquals("duo", partyId);
+        // Party, stored JSON, TTLs and both members' membership keys in one script
+        Object[] args = capturedPartyArgs(
+                List.of(QUEUE_2, PARTIES_2, "matchmaking:player:alice", "matchmaking:player:bob"));
+        assertEquals("duo", args[0]);
+        assertEquals(1500, args[1]);
+        assertTrue(args[2].toString().contains("\"playerId\":\"alice\"") && args[2].toString().contains("\"elo\":1600"));
+        assertEquals(1800L, args[3]);
+        assertEquals(QUEUE_2 + ":duo", args[4]);
+        verifyNoInteractions(zSetOperations, hashOperations);
+        verify(eventPublisher).publishEvent(new PlayerEnqueuedEvent("alice", 1500));
+        assertEquals(1.0, meterRegistry.counter("matchmaking.team.parties.enqueued", "teamSize", "2").count());
+    }
+
+    @Test
+    void enqueueParty_RejectsPartyWithQueuedMember() {
+        stubPartyScript(-1L);
+
+        assertNull(service.enqueueParty(partyRequest(2, "alice", 1400, "bob", 1600)));
+
+        verify(eventPublisher, never()).publishEvent(any());
+        assertEquals(0.0, meterRegistry.counter("matchmaking.team.parties.enqueued", "teamSize", "2").count());
+    }
+
+    @Test
+    void enqueueParty_RejectsPartyIdAlreadyQueued() {
+        PartyRequestDto request = partyRequest(2, "carol", 1400);
+        request.setPartyId("duo");
+        stubPartyScript(0L);
+
+        assertNull(service.enqueueParty(request));
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void enqueueParty_RejectsInvalidParties() {
+        assertNull(service.enqueueParty(partyRequest(3, "alice", 1400)), "unsupported team size");
+        assertNull(service.enqueueParty(partyRequest(2, "a", 1400, "b", 1400, "c", 1400)), "party larger than team");
+        assertNull(service.enqueueParty(partyRequest(2, "a", 1400, "a", 1500)), "duplicate member");
+
+        verifyNoInteractions(zSetOperations, hashOperations, eventPublisher);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void processTeamMatchmaking_FormsBalancedMatchAndUpdatesEveryParticipant() throws Exception {
+        long now = System.currentTimeMillis();
+        Set<Object> ids = new LinkedHashSet<>(List.of("a", "b", "c", "d"));
+        when(zSetOperations.range(QUEUE_2, 0, -1)).thenReturn(ids);
+        when(zSetOperations.range("matchmaking:team:5:queue", 0, -1)).thenReturn(Set.of());
+        when(hashOperations.multiGet(eq(PARTIES_2), anyCollection())).thenReturn(List.of(
+                storedSolo("a", 1000, now - 30_000),
+                storedSolo("b", 1100, now - 1_000),
+                storedSolo("c", 1200, now - 1_000),
+                storedSolo("d", 1300, now - 1_000)));
+        when(redisTemplate.execute(any(SessionCallback.class))).thenReturn(List.of(1L, 1L, 1L, 1L, 4L));
+
+        int waiting = service.processTeamMatchmaking(Long.MAX_VALUE);
+
+        assertEquals(0, waiting);
+        ArgumentCaptor<MatchEntity> saved = ArgumentCaptor.forClass(MatchEntity.class);
+        verify(matchRepository).save(saved.capture());
+        MatchEntity entity = saved.getValue();
+        assertEquals(2, entity.getTeamSize());
+        assertEquals(4, entity.getParticipants().size());
+        assertEquals(1150, entity.getOldEloA());
+        assertEquals(1150, entity.getOldEloB());
+        verify(matchmakingService, times(4)).updatePlayerStatsForResult(anyString(), anyInt(), anyBoolean());
+        verify(messagingTemplate).convertAndSend(eq("/topic/team-matches"), any(Object.class));
+        verify(redisTemplate).execute(MatchmakingService.RELEASE_MEMBERSHIP_SCRIPT,
+                List.of("matchmaking:player:a"), QUEUE_2 + ":a");
+
+        assertEquals(1.0, meterRegistry.counter("matchmaking.team.matches.made", "teamSize", "2").count());
+        assertEquals(4, meterRegistry.timer("matchmaking.team.formation.latency", "teamSize", "2").count());
+        assertEquals(0.0, meterRegistry.summary("matchmaking.team.balance.elo.gap", "teamSize", "2").max());
+    }
+
+    @Test
+    void processTeamMatchmaking_RestoresPartiesWhenOneLeftBeforeFinalization() throws Exception {
+        long now = System.currentTimeMillis();
+        when(zSetOperations.range(QUEUE_2, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("a", "b", "c", "d")));
+        when(zSetOperations.range("matchmaking:team:5:queue", 0, -1)).thenReturn(Set.of());
+        when(hashOperations.multiGet(eq(PARTIES_2), anyCollection())).thenReturn(List.of(
+                storedSolo("a", 1500, now - 10_000),
+                storedSolo("b", 1500, now),
+                storedSolo("c", 1500, now),
+                storedSolo("d", 1500, now)));
+        // Second party in the match had already left
+        when(redisTemplate.execute(any(SessionCallback.class))).thenReturn(List.of(1L, 0L, 1L, 1L, 3L));
+        stubPartyScript(1L);
+
+        service.processTeamMatchmaking(Long.MAX_VALUE);
+
+        // The other three go back with their members' keys, original wait and renewed TTLs
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), keys.capture(), args.capture());
+        for (int i = 0; i < 3; i++) {
+            String partyId = (String) args.getAllValues().get(i)[0];
+            assertEquals(List.of(QUEUE_2, PARTIES_2, "matchmaking:player:" + partyId), keys.getAllValues().get(i));
+            assertEquals(1800L, args.getAllValues().get(i)[3]);
+            assertEquals(QUEUE_2 + ":" + partyId, args.getAllValues().get(i)[4]);
+            long enqueuedAt = partyId.equals("a") ? now - 10_000 : now;
+            assertTrue(args.getAllValues().get(i)[2].toString().contains("\"enqueuedAt\":" + enqueuedAt));
+        }
+        verify(redisTemplate, never()).execute(eq(MatchmakingService.RELEASE_MEMBERSHIP_SCRIPT), anyList(), any(Object[].class));
+        verify(matchRepository, never()).save(any());
+    }
+
+    @Test
+    void dequeueParty_ReportsWhetherPartyWasQueued() {
+        when(redisTemplate.execute(any(SessionCallback.class))).thenReturn(List.of(1L, 1L), List.of(0L, 0L));
+
+        assertTrue(service.dequeueParty(2, "duo"));
+        assertFalse(service.dequeueParty(2, "duo"));
+        assertFalse(service.dequeueParty(4, "duo"));
+    }
+
+    @Test
+    void dequeueParty_ReleasesMembersOfThatParty() throws Exception {
+        when(hashOperations.get(PARTIES_2, "duo")).thenReturn(objectMapper.writeValueAsString(
+                new TeamMatchmakingService.StoredParty("duo", List.of(
+                        new TeamMatchmakingService.StoredMember("alice", 1400),
+                        new TeamMatchmakingService.StoredMember("bob", 1600)), 1L)));
+        when(redisTemplate.execute(any(SessionCallback.class))).thenReturn(List.of(1L, 1L));
+
+        assertTrue(service.dequeueParty(2, "duo"));
+
+        verify(redisTemplate).execute(MatchmakingService.RELEASE_MEMBERSHIP_SCRIPT,
+                List.of("matchmaking:player:alice", "matchmaking:player:bob"), QUEUE_2 + ":duo");
+    }
+}
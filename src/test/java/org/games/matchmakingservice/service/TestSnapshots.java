@@ -0,0 +1,66 @@
+package org.games.matchmakingservice.service;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Candidate snapshots for the matching engine, insight and benchmark tests.
+ */
+final class TestSnapshots {
+
+    private TestSnapshots() {
+    }
+
+    /**
+     * Players as {@code {id, elo, wait seconds}} rows, prepared at {@code now}. Tolerances are
+     * left to the caller; extra columns in a row are ignored.
+     */
+    static CandidateSnapshot of(long now, Object[]... players) {
+        CandidateSnapshot snapshot = new CandidateSnapshot(Math.max(2, players.length));
+        snapshot.reset(players.length);
+        for (Object[] player : players) {
+            snapshot.add((String) player[0], (Integer) player[1], now - ((Integer) player[2]) * 1000L);
+        }
+        snapshot.prepare(now);
+        return snapshot;
+    }
+
+    /**
+     * {@link #of} with the same tolerance for every player.
+     */
+    static CandidateSnapshot of(long now, int tolerance, Object[]... players) {
+        CandidateSnapshot snapshot = of(now, players);
+        Arrays.fill(snapshot.tolerance, 0, snapshot.size, tolerance);
+        return snapshot;
+    }
+
+    /**
+     * A random queue: each player draws an Elo, then a wait, from one seeded generator. Tolerances
+     * are widened as by {@link #widenTolerances}.
+     */
+    static CandidateSnapshot random(long seed, int players, long now,
+                                    ToIntFunction<Random> elo, ToLongFunction<Random> waitMillis) {
+        Random random = new Random(seed);
+        CandidateSnapshot snapshot = new CandidateSnapshot(players);
+        snapshot.reset(players);
+        for (int i = 0; i < players; i++) {
+            int playerElo = elo.applyAsInt(random);
+            snapshot.add("p" + i, playerElo, now - waitMillis.applyAsLong(random));
+        }
+        snapshot.prepare(now);
+        widenTolerances(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Widen every tolerance the way the matcher does with the default settings: 200 + 10 per
+     * second waited, capped at 800.
+     */
+    static void widenTolerances(CandidateSnapshot snapshot) {
+        for (int k = 0; k < snapshot.size; k++) {
+            snapshot.tolerance[k] = (int) Math.min(800, 200 + 10 * snapshot.waitSeconds[k]);
+        }
+    }
+}
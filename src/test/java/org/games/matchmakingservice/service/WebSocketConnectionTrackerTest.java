@@ -0,0 +1,128 @@
+package org.games.matchmakingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketConnectionTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WebSocketConnectionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new WebSocketConnectionTracker(meterRegistry);
+    }
+
+    private double activeConnectionsGauge() {
+        return meterRegistry.get("websocket.active.connections").gauge().value();
+    }
+
+    @Test
+    void testGaugeFollowsConnectionsUnderLoad() throws Exception {
+        int threads = 8;
+        int sessionsPerThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < sessionsPerThread; i++) {
+                    String sessionId = "s" + thread + "-" + i;
+                    tracker.addConnection(sessionId, "user" + thread);
+                    if (i % 2 == 0) {
+                        // A DISCONNECT frame followed by the socket closing
+                        tracker.removeConnection(sessionId);
+                        tracker.removeConnection(sessionId);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        System.gc();
+
+        int open = threads * sessionsPerThread / 2;
+        assertEquals(open, tracker.getConnectionCount());
+        assertEquals(open, activeConnectionsGauge());
+        assertEquals(1, meterRegistry.find("websocket.active.connections").gauges().size());
+    }
+
+    @Test
+    void testUnknownSessionRemovalIsIgnored() {
+        tracker.removeConnection("never-connected");
+
+        assertEquals(0, tracker.getConnectionCount());
+        assertFalse(tracker.hasActiveConnections());
+        assertEquals(0.0, activeConnectionsGauge());
+        assertEquals(0.0, meterRegistry.counter("websocket.disconnections").count());
+    }
+
+    @Test
+    void testReconnectWithSameSessionIsCountedOnce() {
+        tracker.addConnection("s1", "alice");
+        tracker.addConnection("s1", "alice");
+
+        assertEquals(1, tracker.getConnectionCount());
+        assertEquals(1.0, activeConnectionsGauge());
+    }
+
+    private static Message<byte[]> sessionMessage(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void testSessionEventsDriveTracking() {
+        tracker.onSessionConnected(new SessionConnectedEvent(this, sessionMessage(SimpMessageType.CONNECT_ACK, "s1"), () -> "alice"));
+        // Unauthenticated sessions are not tracked
+        tracker.onSessionConnected(new SessionConnectedEvent(this, sessionMessage(SimpMessageType.CONNECT_ACK, "s2"), null));
+
+        assertEquals(Map.of("s1", "alice"), tracker.getActiveConnections());
+
+        // The socket dropped without a DISCONNECT frame
+        tracker.onSessionDisconnect(new SessionDisconnectEvent(this, sessionMessage(SimpMessageType.DISCONNECT, "s1"),
+            "s1", CloseStatus.SESSION_NOT_RELIABLE));
+
+        assertEquals(0, tracker.getConnectionCount());
+        assertEquals(0.0, activeConnectionsGauge());
+    }
+
+    @Test
+    void testIdleSessionsAreThoseNotTouchedSinceCutoff() throws Exception {
+        tracker.addConnection("quiet", "alice");
+        tracker.addConnection("busy", "bob");
+        Thread.sleep(5);
+        long cutoff = System.currentTimeMillis();
+        Thread.sleep(5);
+        tracker.touch("busy");
+        tracker.touch("never-connected");
+
+        assertEquals(List.of("quiet"), tracker.getIdleSessions(cutoff));
+
+        tracker.removeConnection("quiet");
+        assertEquals(List.of(), tracker.getIdleSessions(cutoff));
+    }
+}
@@ -0,0 +1,199 @@
+package org.games.matchmakingservice.simulation;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory stand-in for the Redis calls on the matchmaking hot path: the enqueue, batch and
+ * membership scripts, queue ZSET reads, request hash reads and the MULTI/EXEC removals. Other writes (match
+ * results, active-match keys, TTLs) are accepted and dropped.
+ * <p>
+ * Members are kept as plain Java objects, i.e. as the template's serializers would hand them back.
+ * Not a Redis emulator: only the commands {@code MatchmakingService} issues are modelled.
+ */
+final class InMemoryRedis {
+
+    private final Map<String, Map<Object, Double>> zsets = new HashMap<>();
+    private final Map<String, Map<Object, Object>> hashes = new HashMap<>();
+    // Plain string keys: the players' queue membership
+    private final Map<String, Object> strings = new HashMap<>();
+    private final RedisTemplate<String, Object> template;
+
+    @SuppressWarnings("unchecked")
+    InMemoryRedis() {
+        template = mock(RedisTemplate.class);
+        ZSetOperations<String, Object> zSet = mock(ZSetOperations.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(template.opsForZSet()).thenReturn(zSet);
+        when(template.opsForHash()).thenReturn(hash);
+        when(template.opsForValue()).thenReturn(mock(ValueOperations.class));
+
+        when(zSet.range(anyString(), anyLong(), anyLong())).thenAnswer(inv -> range(inv.getArgument(0)));
+        when(zSet.size(anyString())).thenAnswer(inv -> size(inv.getArgument(0)));
+        when(zSet.zCard(anyString())).thenAnswer(inv -> size(inv.getArgument(0)));
+        when(hash.multiGet(anyString(), anyCollection()))
+                .thenAnswer(inv -> multiGet(inv.getArgument(0), inv.getArgument(1)));
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            Object[] arguments = inv.getArguments();
+            return script(inv.getArgument(0), inv.getArgument(1), Arrays.copyOfRange(arguments, 2, arguments.length));
+        });
+
+        // MULTI/EXEC: commands apply immediately and EXEC returns their replies in order
+        RedisOperations<String, Object> tx = mock(RedisOperations.class);
+        ZSetOperations<String, Object> txZSet = mock(ZSetOperations.class);
+        HashOperations<String, Object, Object> txHash = mock(HashOperations.class);
+        List<Object> replies = new ArrayList<>();
+        when(tx.opsForZSet()).thenReturn(txZSet);
+        when(tx.opsForHash()).thenReturn(txHash);
+        when(txZSet.remove(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            Object[] arguments = inv.getArguments();
+            replies.add(zrem((String) arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length)));
+            return null;
+        });
+        when(txHash.delete(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            Object[] arguments = inv.getArguments();
+            replies.add(hdel((String) arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length)));
+            return null;
+        });
+        when(tx.exec()).thenAnswer(inv -> {
+            List<Object> result = new ArrayList<>(replies);
+            replies.clear();
+            return result;
+        });
+        when(template.execute(any(SessionCallback.class)))
+                .thenAnswer(inv -> ((SessionCallback<?>) inv.getArgument(0)).execute(tx));
+    }
+
+    RedisTemplate<String, Object> template() {
+        return template;
+    }
+
+    private synchronized Set<Object> range(String key) {
+        Map<Object, Double> zset = zsets.getOrDefault(key, Map.of());
+        List<Map.Entry<Object, Double>> entries = new ArrayList<>(zset.entrySet());
+        entries.sort(Map.Entry.<Object, Double>comparingByValue().thenComparing(entry -> entry.getKey().toString()));
+        Set<Object> members = new LinkedHashSet<>();
+        entries.forEach(entry -> members.add(entry.getKey()));
+        return members;
+    }
+
+    private synchronized Long size(String key) {
+        return (long) zsets.getOrDefault(key, Map.of()).size();
+    }
+
+    private synchronized List<Object> multiGet(String key, Collection<?> fields) {
+        Map<Object, Object> hash = hashes.getOrDefault(key, Map.of());
+        List<Object> values = new ArrayList<>(fields.size());
+        for (Object field : fields) {
+            values.add(hash.get(field));
+        }
+        return values;
+    }
+
+    private synchronized long zadd(String key, Object member, double score) {
+        return zsets.computeIfAbsent(key, k -> new HashMap<>()).putIfAbsent(member, score) == null ? 1L : 0L;
+    }
+
+    private synchronized long zrem(String key, Object... members) {
+        Map<Object, Double> zset = zsets.getOrDefault(key, new HashMap<>());
+        long removed = 0;
+        for (Object member : members) {
+            if (zset.remove(member) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private synchronized void hsetnx(String key, Object field, Object value) {
+        hashes.computeIfAbsent(key, k -> new HashMap<>()).putIfAbsent(field, value);
+    }
+
+    private synchronized long hdel(String key, Object... fields) {
+        Map<Object, Object> hash = hashes.getOrDefault(key, new HashMap<>());
+        long deleted = 0;
+        for (Object field : fields) {
+            if (hash.remove(field) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // SET unless another owner holds the key: 1 if set, -1 if held elsewhere
+    private synchronized long claim(String key, Object owner) {
+        Object held = strings.putIfAbsent(key, owner);
+        return held == null || held.equals(owner) ? 1L : -1L;
+    }
+
+    private synchronized long release(String key, Object owner) {
+        return strings.remove(key, owner) ? 1L : 0L;
+    }
+
+    /**
+     * Run one of the service's Lua scripts, recognised by its body.
+     */
+    private Object script(RedisScript<?> script, List<String> keys, Object[] args) {
+        String body = script.getScriptAsString();
+        if (body.contains("released")) {
+            long released = 0;
+            for (String key : keys) {
+                released += release(key, args[0]);
+            }
+            return released;
+        }
+        if (body.contains("ZREM")) {
+            List<Long> removed = new ArrayList<>(args.length - 1);
+            for (int i = 1; i < args.length; i++) {
+                removed.add(zrem(keys.get(0), args[i]));
+                hdel(keys.get(1), args[i]);
+                release(keys.get(i + 1), args[0]);
+            }
+            return removed;
+        }
+        if (body.contains("pairKeys")) {
+            int players = (args.length - 1) / 5;
+            int pairKeys = keys.size() - players;
+            List<Long> added = new ArrayList<>(players);
+            for (int p = 0; p < players; p++) {
+                int i = 1 + p * 5;
+                if (claim(keys.get(pairKeys + p), args[i + 4]) < 0) {
+                    added.add(-1L);
+                    continue;
+                }
+                int pair = ((Number) args[i]).intValue() * 2;
+                added.add(zadd(keys.get(pair), args[i + 1], ((Number) args[i + 2]).doubleValue()));
+                hsetnx(keys.get(pair + 1), args[i + 1], args[i + 3]);
+            }
+            return added;
+        }
+        if (claim(keys.get(2), args[4]) < 0) {
+            return -1L;
+        }
+        long added = zadd(keys.get(0), args[0], ((Number) args[1]).doubleValue());
+        hsetnx(keys.get(1), args[0], args[2]);
+        return added;
+    }
+}
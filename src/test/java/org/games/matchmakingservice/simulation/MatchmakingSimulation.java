@@ -0,0 +1,256 @@
+package org.games.matchmakingservice.simulation;
+
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.games.matchmakingservice.domain.MatchRequest;
+import org.games.matchmakingservice.domain.MatchResult;
+import org.games.matchmakingservice.repository.MatchRepository;
+import org.games.matchmakingservice.repository.PlayerStatsRepository;
+import org.games.matchmakingservice.service.EloService;
+import org.games.matchmakingservice.service.GreedyMatchingEngine;
+import org.games.matchmakingservice.service.MatchmakingService;
+import org.games.matchmakingservice.service.OptimalMatchingEngine;
+import org.games.matchmakingservice.service.PresenceRegistry;
+import org.games.matchmakingservice.service.WebSocketConnectionTracker;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives a real {@link MatchmakingService} with a synthetic population against
+ * {@link InMemoryRedis}, in real time on the calling thread.
+ * <p>
+ * Players arrive as a Poisson process with normally distributed Elo, and each waiting player
+ * abandons the queue at a constant rate. Cycles run on a fixed cadence, standing in for the
+ * scheduler's widen tick; arrivals do not trigger extra cycles. The report covers throughput,
+ * wait-time percentiles, the Elo gap of created matches and matcher CPU per cycle. Cycle CPU is
+ * the calling thread's only, so it includes the in-memory backend and excludes parallel band
+ * matching on the engine's pool.
+ */
+final class MatchmakingSimulation {
+
+    /**
+     * Simulation parameters; {@link #fromSystemProperties()} reads them as {@code -Dsim.*}.
+     */
+    record Config(int durationSeconds, double arrivalsPerSecond, int eloMean, int eloStdDev,
+                  double abandonPerMinute, long cycleMillis, long cycleBudgetMillis, String engine, long seed) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("sim.duration-seconds", 30),
+                    Double.parseDouble(System.getProperty("sim.arrivals-per-second", "200")),
+                    Integer.getInteger("sim.elo-mean", 1500),
+                    Integer.getInteger("sim.elo-stddev", 300),
+                    Double.parseDouble(System.getProperty("sim.abandon-per-minute", "0.5")),
+                    Long.getLong("sim.cycle-ms", 250L),
+                    Long.getLong("sim.cycle-budget-ms", 250L),
+                    System.getProperty("sim.engine", "greedy"),
+                    Long.getLong("sim.seed", 42L));
+        }
+    }
+
+    /**
+     * Outcome of one run. Every arrival ends up matched, abandoned or still waiting.
+     */
+    record Report(Config config, long arrivals, long matches, long abandoned, long stillWaiting,
+                  long[] waitMillis, int[] eloGaps, long[] cycleCpuNanos) {
+
+        long matchedPlayers() {
+            return 2 * matches;
+        }
+
+        String format() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Simulation: %ds, %.0f arrivals/s, Elo %d+-%d, abandon %.2f/min, %s engine, cycle %dms%n",
+                    config.durationSeconds(), config.arrivalsPerSecond(), config.eloMean(), config.eloStdDev(),
+                    config.abandonPerMinute(), config.engine(), config.cycleMillis()));
+            out.append(String.format("  players    arrived=%d matched=%d abandoned=%d waiting=%d%n",
+                    arrivals, matchedPlayers(), abandoned, stillWaiting));
+            out.append(String.format("  throughput %.1f matches/s%n", (double) matches / config.durationSeconds()));
+            out.append(String.format("  wait ms    p50=%d p95=%d p99=%d max=%d%n",
+                    percentile(waitMillis, 0.50), percentile(waitMillis, 0.95), percentile(waitMillis, 0.99),
+                    percentile(waitMillis, 1.0)));
+            long[] gaps = Arrays.stream(eloGaps).asLongStream().toArray();
+            out.append(String.format("  elo gap    mean=%.1f p50=%d p95=%d p99=%d max=%d%n",
+                    Arrays.stream(eloGaps).average().orElse(0.0), percentile(gaps, 0.50), percentile(gaps, 0.95),
+                    percentile(gaps, 0.99), percentile(gaps, 1.0)));
+            out.append("  elo gap histogram (50-point buckets):");
+            int[] buckets = new int[17];
+            for (int gap : eloGaps) {
+                buckets[Math.min(gap / 50, buckets.length - 1)]++;
+            }
+            for (int b = 0; b < buckets.length; b++) {
+                if (buckets[b] > 0) {
+                    out.append(String.format(" %s%d=%d", b == buckets.length - 1 ? ">=" : "<", b == buckets.length - 1 ? b * 50 : (b + 1) * 50, buckets[b]));
+                }
+            }
+            out.append(String.format("%n  cycle cpu  cycles=%d mean=%.0fus p95=%dus max=%dus%n",
+                    cycleCpuNanos.length, Arrays.stream(cycleCpuNanos).average().orElse(0.0) / 1000.0,
+                    percentile(cycleCpuNanos, 0.95) / 1000, percentile(cycleCpuNanos, 1.0) / 1000));
+            return out.toString();
+        }
+
+        /** Nearest-rank percentile of unsorted values; 0 when empty. */
+        static long percentile(long[] values, double quantile) {
+            if (values.length == 0) {
+                return 0L;
+            }
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+    }
+
+    private final Config config;
+    private final Random random;
+
+    // Waiting players and when they joined (ms); insertion order is arrival order
+    private final Map<String, Long> waiting = new LinkedHashMap<>();
+    private final List<Long> waits = new ArrayList<>();
+    private final List<Integer> gaps = new ArrayList<>();
+
+    MatchmakingSimulation(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    Report run() {
+        ch.qos.logback.classic.Logger serviceLog =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.games.matchmakingservice");
+        Level previousLevel = serviceLog.getLevel();
+        // Per-player INFO logging would dominate the measured cycle time
+        serviceLog.setLevel(Level.WARN);
+        try {
+            return simulate(createService());
+        } finally {
+            serviceLog.setLevel(previousLevel);
+        }
+    }
+
+    private MatchmakingService createService() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WebSocketConnectionTracker connections = new WebSocketConnectionTracker(registry);
+        // The service only matches while someone is watching
+        connections.addConnection("simulation", "simulation");
+
+        SimpMessagingTemplate messaging = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            onMatch(invocation.getArgument(1));
+            return null;
+        }).when(messaging).convertAndSend(eq("/topic/matches"), any(Object.class));
+
+        EloService eloService = new EloService();
+        ReflectionTestUtils.setField(eloService, "defaultKFactor", 32);
+        ReflectionTestUtils.setField(eloService, "ratingDifferenceScale", 400.0);
+        ReflectionTestUtils.setField(eloService, "expertThreshold", 2100);
+        ReflectionTestUtils.setField(eloService, "masterThreshold", 2400);
+
+        InMemoryRedis redis = new InMemoryRedis();
+        MatchRepository matches = mock(MatchRepository.class);
+        PlayerStatsRepository stats = mock(PlayerStatsRepository.class);
+        // Simulated players have no WebSocket session, so presence never holds them out
+        PresenceRegistry presence = mock(PresenceRegistry.class);
+        MatchmakingService service = "optimal".equalsIgnoreCase(config.engine())
+                ? new MatchmakingService(redis.template(), eloService, messaging, registry, matches, stats,
+                        connections, presence, event -> { }, new OptimalMatchingEngine(8, 30))
+                : new MatchmakingService(redis.template(), eloService, messaging, registry, matches, stats,
+                        connections, presence, event -> { }, new GreedyMatchingEngine(2048, 512, 0, 8));
+        // Same defaults as application.properties
+        ReflectionTestUtils.setField(service, "maxWaitTimeSeconds", 5);
+        ReflectionTestUtils.setField(service, "matchDurationSeconds", 10);
+        ReflectionTestUtils.setField(service, "eloTolerance", 200);
+        ReflectionTestUtils.setField(service, "toleranceGrowthPerSecond", 10.0);
+        ReflectionTestUtils.setField(service, "maxEloTolerance", 800);
+        ReflectionTestUtils.setField(service, "insightIntervalMillis", 1000L);
+        ReflectionTestUtils.setField(service, "insightEloBucketWidth", 100);
+        return service;
+    }
+
+    private Report simulate(MatchmakingService service) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<Long> cycleCpu = new ArrayList<>();
+        long arrivals = 0;
+        long abandoned = 0;
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        long cycleNanos = TimeUnit.MILLISECONDS.toNanos(config.cycleMillis());
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(config.cycleBudgetMillis());
+        double abandonPerNano = config.abandonPerMinute() / TimeUnit.MINUTES.toNanos(1);
+        long nextArrival = start + nextInterArrivalNanos();
+        long nextCycle = start + cycleNanos;
+        long lastTick = start;
+
+        for (long now = start; now < end; now = System.nanoTime()) {
+            while (nextArrival <= now) {
+                String playerId = "sim-" + arrivals++;
+                int elo = Math.max(100, (int) Math.round(config.eloMean() + config.eloStdDev() * random.nextGaussian()));
+                waiting.put(playerId, System.currentTimeMillis());
+                service.enqueuePlayer(MatchRequest.builder().playerId(playerId).elo(elo).timestamp(Instant.now()).build());
+                nextArrival += nextInterArrivalNanos();
+            }
+
+            double abandonChance = abandonPerNano * (now - lastTick);
+            lastTick = now;
+            if (abandonChance > 0) {
+                for (Iterator<Map.Entry<String, Long>> it = waiting.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Long> player = it.next();
+                    if (random.nextDouble() < abandonChance) {
+                        it.remove();
+                        service.dequeuePlayer(player.getKey());
+                        abandoned++;
+                    }
+                }
+            }
+
+            if (now >= nextCycle) {
+                long cpuBefore = threads.getCurrentThreadCpuTime();
+                service.processMatchmaking(budgetNanos);
+                cycleCpu.add(threads.getCurrentThreadCpuTime() - cpuBefore);
+                nextCycle += cycleNanos;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        return new Report(config, arrivals, gaps.size(), abandoned, waiting.size(),
+                waits.stream().mapToLong(Long::longValue).toArray(),
+                gaps.stream().mapToInt(Integer::intValue).toArray(),
+                cycleCpu.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private long nextInterArrivalNanos() {
+        // Exponential gaps give a Poisson arrival process
+        double seconds = -Math.log(1.0 - random.nextDouble()) / config.arrivalsPerSecond();
+        return Math.max(1L, (long) (seconds * 1e9));
+    }
+
+    private void onMatch(MatchResult match) {
+        long now = System.currentTimeMillis();
+        for (String playerId : List.of(match.getPlayerA(), match.getPlayerB())) {
+            Long joinedAt = waiting.remove(playerId);
+            if (joinedAt != null) {
+                waits.add(now - joinedAt);
+            }
+        }
+        gaps.add(Math.abs(match.getOldEloA() - match.getOldEloB()));
+    }
+}
@@ -0,0 +1,48 @@
+package org.games.matchmakingservice.simulation;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Peak-hour simulation of the matchmaking service on an in-memory queue backend.
+ * The configured run is excluded from the default build; run it headless with
+ * {@code ./mvnw test -Psimulation [-Dsim.arrivals-per-second=500 -Dsim.duration-seconds=60 ...]}.
+ */
+class MatchmakingSimulationTest {
+
+    @Test
+    @Tag("simulation")
+    void runConfiguredSimulation() {
+        MatchmakingSimulation.Report report = new MatchmakingSimulation(MatchmakingSimulation.Config.fromSystemProperties()).run();
+        System.out.println(report.format());
+
+        assertEquals(report.arrivals(), report.matchedPlayers() + report.abandoned() + report.stillWaiting());
+        assertTrue(report.matches() > 0, "No matches were made");
+    }
+
+    @Test
+    void shortRunAccountsForEveryPlayer() {
+        MatchmakingSimulation.Config config = new MatchmakingSimulation.Config(
+                1, 300, 1500, 150, 6.0, 100, 250, "greedy", 7L);
+
+        MatchmakingSimulation.Report report = new MatchmakingSimulation(config).run();
+
+        assertTrue(report.arrivals() > 100, "Only " + report.arrivals() + " players arrived");
+        assertTrue(report.matches() > 0);
+        assertEquals(report.arrivals(), report.matchedPlayers() + report.abandoned() + report.stillWaiting());
+        assertEquals(report.matches(), report.eloGaps().length);
+        assertEquals(report.matchedPlayers(), report.waitMillis().length);
+        assertTrue(report.cycleCpuNanos().length >= 5);
+    }
+
+    @Test
+    void percentileUsesNearestRank() {
+        long[] values = {50, 10, 40, 20, 30};
+
+        assertEquals(30L, MatchmakingSimulation.Report.percentile(values, 0.5));
+        assertEquals(50L, MatchmakingSimulation.Report.percentile(values, 0.99));
+        assertEquals(0L, MatchmakingSimulation.Report.percentile(new long[0], 0.5));
+    }
+}